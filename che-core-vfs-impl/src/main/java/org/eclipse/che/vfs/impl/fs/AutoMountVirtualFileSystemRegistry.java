@@ -20,14 +20,26 @@ import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.commons.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of VirtualFileSystemRegistry that is able to create VirtualFileSystemProvider automatically (even if it doesn't
  * registered) if required path on local filesystem exists.
+ * <p/>
+ * Automatically created providers that are not accessed during {@code vfs.local.idle_timeout} seconds (30 minutes by default) are
+ * evicted, so dormant workspaces don't hold caches and search indexes. Value 0 disables eviction. Evicted workspace is mounted again
+ * when it is accessed next time.
  *
  * @author andrew00x
  */
@@ -35,11 +47,22 @@ import java.io.File;
 public class AutoMountVirtualFileSystemRegistry extends VirtualFileSystemRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(AutoMountVirtualFileSystemRegistry.class);
 
+    /** Default idle timeout in seconds. */
+    private static final long DEFAULT_IDLE_TIMEOUT = 1800;
+    /** Max period in seconds of checking for idle providers. */
+    private static final long MAX_EVICTION_PERIOD  = 60;
+
     private final LocalFSMountStrategy mountStrategy;
     private final EventService         eventService;
     private final SearcherProvider     searcherProvider;
     private final SystemPathsFilter    systemFilter;
 
+    @com.google.inject.Inject(optional = true)
+    @Named("vfs.local.idle_timeout")
+    private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    private ScheduledExecutorService evictor;
+
     @Inject
     public AutoMountVirtualFileSystemRegistry(LocalFSMountStrategy mountStrategy,
                                               EventService eventService,
@@ -60,4 +83,39 @@ public class AutoMountVirtualFileSystemRegistry extends VirtualFileSystemRegistr
         LOG.debug("Using {} as mount point for workspace {} ", wsPath.getAbsolutePath(), vfsId);
         return new LocalFileSystemProvider(vfsId, mountStrategy, eventService, searcherProvider, systemFilter, this);
     }
+
+    @PostConstruct
+    public void start() {
+        if (idleTimeout <= 0) {
+            return;
+        }
+        final long period = Math.min(idleTimeout, MAX_EVICTION_PERIOD);
+        evictor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("AutoMountVirtualFileSystemRegistry-Evictor-%d").setDaemon(true).build());
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final int evicted = evictIdleProviders(TimeUnit.SECONDS.toMillis(idleTimeout));
+                    if (evicted > 0) {
+                        LOG.info("Evicted {} idle virtual file systems, {} mounted", evicted, getMountedCount());
+                    }
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+
+    /** Gets number of automatically mounted virtual file systems that aren't accessed during idle timeout and are about to be evicted. */
+    public int getIdleCount() {
+        return idleTimeout > 0 ? getIdleCount(TimeUnit.SECONDS.toMillis(idleTimeout)) : 0;
+    }
 }
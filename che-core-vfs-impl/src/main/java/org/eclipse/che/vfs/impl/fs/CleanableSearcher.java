@@ -13,6 +13,7 @@ package org.eclipse.che.vfs.impl.fs;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.MountPoint;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+import org.eclipse.che.api.vfs.server.search.ParallelTreeIndexer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,10 @@ public class CleanableSearcher extends FSIndexSearcher {
     private final AtomicBoolean              initFlag;
     private final AtomicReference<Exception> initError;
 
+    private volatile ParallelTreeIndexer treeIndexer;
+    /** Time in milliseconds since start of initialization until all files are visible for search. */
+    private volatile long                timeToSearchable = -1;
+
     CleanableSearcher(CleanableSearcherProvider searcherService, java.io.File indexDir, VirtualFileFilter filter) {
         super(indexDir, filter);
         this.searcherService = searcherService;
@@ -44,14 +49,20 @@ public class CleanableSearcher extends FSIndexSearcher {
 
     @Override
     public void init(final MountPoint mountPoint) throws ServerException {
+        final long start = System.currentTimeMillis();
         doInit();
         final ExecutorService executor = searcherService.getExecutor();
         if (!executor.isShutdown()) {
+            treeIndexer = new ParallelTreeIndexer(this, executor, searcherService.getIndexingParallelism());
             executor.execute(new Runnable() {
                 @Override
                 public void run() {
                     try {
-                        CleanableSearcher.this.addTree(mountPoint.getRoot());
+                        treeIndexer.index(mountPoint.getRoot());
+                        CleanableSearcher.this.refresh();
+                        timeToSearchable = System.currentTimeMillis() - start;
+                        LOG.info("Index of {} is ready: {} files, {} bytes, time to searchable: {} ms", indexDir,
+                                 treeIndexer.getIndexedFiles(), treeIndexer.getIndexedBytes(), timeToSearchable);
                         initFlag.set(true);
                     } catch (ServerException e) {
                         initError.set(e);
@@ -62,6 +73,26 @@ public class CleanableSearcher extends FSIndexSearcher {
         }
     }
 
+    /** Gets number of files added to the index during initialization. */
+    public long getInitiallyIndexedFiles() {
+        final ParallelTreeIndexer indexer = treeIndexer;
+        return indexer == null ? 0 : indexer.getIndexedFiles();
+    }
+
+    /** Gets number of files read by initialization but not added to the index yet. */
+    public long getInitiallyQueuedFiles() {
+        final ParallelTreeIndexer indexer = treeIndexer;
+        return indexer == null ? 0 : indexer.getQueuedFiles();
+    }
+
+    /**
+     * Gets time in milliseconds that was spent for initialization until all files become visible for search or {@code -1} if
+     * initialization is not completed yet.
+     */
+    public long getTimeToSearchable() {
+        return timeToSearchable;
+    }
+
     // for test
     Exception initializationError() {
         return initError.get();
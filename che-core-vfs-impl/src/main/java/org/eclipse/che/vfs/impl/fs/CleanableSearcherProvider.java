@@ -110,5 +110,10 @@ public class CleanableSearcherProvider extends LuceneSearcherProvider {
     ExecutorService getExecutor() {
         return executor;
     }
+
+    /** Gets max number of tasks of executor that one searcher may use for initial indexing. */
+    int getIndexingParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
 }
 
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.SERVICE_DIR;
+
+/**
+ * Keeps md5 sums of files of mount point. Sum of file is reused while size and modification time of file are the same as when sum
+ * was counted, so whole tree is hashed once and after that only changed files are hashed again. Entries are also dropped when mount
+ * point gets to know about changes of files, see {@link #invalidate(String)}.
+ * <p/>
+ * Index is saved in service directory of root of mount point and is loaded when sums are requested first time after mount, so it
+ * survives restart of server and unmount of idle mount point.
+ * <p/>
+ * Sum of file that is modified less than {@link #RACY_INTERVAL} ms before it is hashed is not kept. Resolution of modification time
+ * is low on some filesystems and next update of such file might not change its modification time.
+ *
+ * @author agent
+ */
+class ContentHashIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(ContentHashIndex.class);
+
+    static final String INDEX_FILE = "md5sums";
+
+    private static final int  VERSION       = 1;
+    private static final long RACY_INTERVAL = 2000;
+
+    /** Hashes files that are not in index yet. Shared by all mount points. */
+    private static final ExecutorService executor =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                         new ThreadFactoryBuilder().setNameFormat("ContentHashIndex-%d").setDaemon(true).build());
+
+    private final java.io.File                indexFile;
+    private final NavigableMap<String, Entry> index;
+
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    /**
+     * @param ioRoot
+     *         root directory of mount point, index is placed in service directory of root
+     */
+    ContentHashIndex(java.io.File ioRoot) {
+        indexFile = new java.io.File(new java.io.File(ioRoot, SERVICE_DIR), INDEX_FILE);
+        index = new ConcurrentSkipListMap<>();
+    }
+
+    static ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets md5 sum of file.
+     *
+     * @return md5 sum or {@code null} if sum isn't known for specified size and modification time of file
+     */
+    String get(String path, long size, long lastModified) {
+        ensureLoaded();
+        final Entry entry = index.get(path);
+        return entry != null && entry.size == size && entry.lastModified == lastModified ? entry.md5 : null;
+    }
+
+    /** Saves md5 sum of file that is counted for specified size and modification time of file. */
+    void put(String path, long size, long lastModified, String md5) {
+        if (System.currentTimeMillis() - lastModified < RACY_INTERVAL) {
+            return;
+        }
+        ensureLoaded();
+        index.put(path, new Entry(size, lastModified, md5));
+        dirty = true;
+    }
+
+    /** Drops sums of item and all its descendants. */
+    void invalidate(String path) {
+        if (!loaded) {
+            // Sums that are saved in index file are checked with size and modification time when index is loaded.
+            return;
+        }
+        if ("/".equals(path)) {
+            index.clear();
+        } else {
+            index.remove(path);
+            // '0' is next character after '/'.
+            index.subMap(path + '/', true, path + '0', false).clear();
+        }
+        dirty = true;
+    }
+
+    /** Writes index to file if it is changed since it was loaded or saved last time. */
+    synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        final java.io.File dir = indexFile.getParentFile();
+        if (!(dir.exists() || dir.mkdirs())) {
+            throw new IOException(String.format("Unable create directory %s", dir));
+        }
+        final java.io.File tmpFile = new java.io.File(dir, INDEX_FILE + ".tmp");
+        final List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue().size);
+                out.writeLong(e.getValue().lastModified);
+                out.writeUTF(e.getValue().md5);
+            }
+        } catch (IOException e) {
+            dirty = true;
+            throw e;
+        }
+        Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Saves index and frees memory. Index is loaded again at next access. */
+    synchronized void reset() {
+        try {
+            save();
+        } catch (IOException e) {
+            LOG.warn("Unable save md5 sums to {}. {}", indexFile, e.getMessage());
+        }
+        loaded = false;
+        index.clear();
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    /* guarded by this */
+    private void load() {
+        index.clear();
+        dirty = false;
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != VERSION) {
+                LOG.warn("Unsupported version of md5 sums index {}, sums will be counted again", indexFile);
+                return;
+            }
+            for (int i = 0, size = in.readInt(); i < size; i++) {
+                final String path = in.readUTF();
+                index.put(path, new Entry(in.readLong(), in.readLong(), in.readUTF()));
+            }
+        } catch (IOException e) {
+            // Index is just cache, it is safe to start from scratch.
+            LOG.warn("Unable read md5 sums from {}, sums will be counted again. {}", indexFile, e.getMessage());
+            index.clear();
+        }
+    }
+
+    private static final class Entry {
+        final long   size;
+        final long   lastModified;
+        final String md5;
+
+        Entry(long size, long lastModified, String md5) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.md5 = md5;
+        }
+    }
+}
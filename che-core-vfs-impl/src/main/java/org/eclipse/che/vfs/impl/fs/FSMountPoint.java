@@ -15,7 +15,7 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
-import org.eclipse.che.api.core.util.ValueHolder;
+import org.eclipse.che.api.vfs.server.ChildrenCursor;
 import org.eclipse.che.api.vfs.server.ContentStream;
 import org.eclipse.che.api.vfs.server.LazyIterator;
 import org.eclipse.che.api.vfs.server.MountPoint;
@@ -27,6 +27,7 @@ import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUserContext;
 import org.eclipse.che.api.vfs.server.VirtualFileVisitor;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
 import org.eclipse.che.api.vfs.server.observation.CreateEvent;
 import org.eclipse.che.api.vfs.server.observation.DeleteEvent;
 import org.eclipse.che.api.vfs.server.observation.MoveEvent;
@@ -34,6 +35,8 @@ import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateACLEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdatePropertiesEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.api.vfs.server.search.Searcher;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.DeleteOnCloseFileInputStream;
 import org.eclipse.che.api.vfs.server.util.NotClosableInputStream;
@@ -46,45 +49,43 @@ import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo;
 import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
+import org.eclipse.che.commons.lang.cache.ConcurrentLoadingCache;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.Sets;
-import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
-import com.google.common.io.ByteSource;
-import com.google.common.io.ByteStreams;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -104,22 +105,31 @@ public class FSMountPoint implements MountPoint {
 
     /*
      * Configuration parameters for caches.
-     * Caches are split to the few partitions to reduce lock contention.
-     * Use SLRU cache algorithm here.
-     * This is required some additional parameters, e.g. protected and probationary size.
-     * See details about SLRU algorithm: http://en.wikipedia.org/wiki/Cache_algorithms#Segmented_LRU
+     * Caches of ACLs, lock tokens and metadata do not lock on read, see ConcurrentLoadingCache.
+     * Max number of entries in each cache may be changed with system property "org.eclipse.che.vfs.cache-size".
      */
-    private static final int CACHE_PARTITIONS_NUM        = 1 << 3;
-    private static final int CACHE_PROTECTED_SIZE        = 100;
-    private static final int CACHE_PROBATIONARY_SIZE     = 200;
-    private static final int MASK                        = CACHE_PARTITIONS_NUM - 1;
-    private static final int PARTITION_PROTECTED_SIZE    = CACHE_PROTECTED_SIZE / CACHE_PARTITIONS_NUM;
-    private static final int PARTITION_PROBATIONARY_SIZE = CACHE_PROBATIONARY_SIZE / CACHE_PARTITIONS_NUM;
+    private static final int CACHE_SIZE = Integer.getInteger("org.eclipse.che.vfs.cache-size", 300);
+    /*
+     * Sorted listings of folders. Max total number of names in all cached listings may be changed with system property
+     * "org.eclipse.che.vfs.children-cache-size", 0 disables cache of listings.
+     */
+    private static final int CHILDREN_CACHE_SIZE = Integer.getInteger("org.eclipse.che.vfs.children-cache-size", 100000);
     // end cache parameters
 
+    /*
+     * Storage of ACLs, lock tokens and metadata. By default each item has own files in service directory of its parent, see
+     * ServiceDirMetadataStore. Set system property "org.eclipse.che.vfs.metadata-store" to "log" to keep metadata of whole mount point
+     * in single log file, see LogMetadataStore.
+     */
+    private static final String METADATA_STORE     = System.getProperty("org.eclipse.che.vfs.metadata-store", "service-dir");
+    private static final String LOG_METADATA_STORE = "log";
+
     private static final int MAX_BUFFER_SIZE  = 200 * 1024; // 200k
     private static final int COPY_BUFFER_SIZE = 8 * 1024; // 8k
 
+    /* Files that are not in md5 sums index are hashed in parallel if there are at least two tasks with this number of files. */
+    private static final int MIN_FILES_PER_HASH_TASK = 16;
+
     private static final long LOCK_FILE_TIMEOUT     = 60000; // 60 seconds
     private static final int  FILE_LOCK_MAX_THREADS = 1024;
 
@@ -167,92 +177,54 @@ public class FSMountPoint implements MountPoint {
 
     private static final FileLock NO_LOCK = new FileLock("no_lock", 0);
 
-    private class FileLockCache extends LoadingValueSLRUCache<Path, FileLock> {
+    private class FileLockCache extends ConcurrentLoadingCache<Path, FileLock> {
         FileLockCache() {
-            super(PARTITION_PROTECTED_SIZE, PARTITION_PROBATIONARY_SIZE);
+            super(CACHE_SIZE);
         }
 
         @Override
         protected FileLock loadValue(Path key) {
-            DataInputStream dis = null;
-
             try {
-                final Path lockFilePath = getLockFilePath(key);
-                final java.io.File lockIoFile = new java.io.File(ioRoot, toIoPath(lockFilePath));
-                if (lockIoFile.exists()) {
-                    final PathLockFactory.PathLock lockFilePathLock =
-                            pathLockFactory.getLock(lockFilePath, false).acquire(LOCK_FILE_TIMEOUT);
-                    try {
-                        dis = new DataInputStream(new BufferedInputStream(new FileInputStream(lockIoFile)));
-                        return locksSerializer.read(dis);
-                    } finally {
-                        lockFilePathLock.release();
-                    }
-                }
-                return NO_LOCK;
+                final FileLock lock = metadataStore.getLock(key);
+                return lock == null ? NO_LOCK : lock;
             } catch (IOException e) {
                 String msg = String.format("Unable read lock for '%s'. ", key);
                 LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
                 throw new RuntimeException(msg);
-            } finally {
-                closeQuietly(dis);
             }
         }
     }
 
 
-    private class FileMetadataCache extends LoadingValueSLRUCache<Path, Map<String, String[]>> {
+    private class FileMetadataCache extends ConcurrentLoadingCache<Path, Map<String, String[]>> {
         FileMetadataCache() {
-            super(PARTITION_PROTECTED_SIZE, PARTITION_PROBATIONARY_SIZE);
+            super(CACHE_SIZE);
         }
 
         @Override
         protected Map<String, String[]> loadValue(Path key) {
-            DataInputStream dis = null;
             try {
-                final Path metadataFilePath = getMetadataFilePath(key);
-                java.io.File metadataIoFile = new java.io.File(ioRoot, toIoPath(metadataFilePath));
-                if (metadataIoFile.exists()) {
-                    final PathLockFactory.PathLock metadataFilePathLock =
-                            pathLockFactory.getLock(metadataFilePath, false).acquire(LOCK_FILE_TIMEOUT);
-                    try {
-                        dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataIoFile)));
-                        return metadataSerializer.read(dis);
-                    } finally {
-                        metadataFilePathLock.release();
-                    }
-                }
-                return Collections.emptyMap();
+                return metadataStore.getProperties(key);
             } catch (IOException e) {
                 String msg = String.format("Unable read properties for '%s'. ", key);
                 LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
                 throw new RuntimeException(msg);
-            } finally {
-                closeQuietly(dis);
             }
         }
     }
 
 
-    private class AccessControlListCache extends LoadingValueSLRUCache<Path, AccessControlList> {
+    private class AccessControlListCache extends ConcurrentLoadingCache<Path, AccessControlList> {
         private AccessControlListCache() {
-            super(PARTITION_PROTECTED_SIZE, PARTITION_PROBATIONARY_SIZE);
+            super(CACHE_SIZE);
         }
 
         @Override
         protected AccessControlList loadValue(Path key) {
-            DataInputStream dis = null;
             try {
-                final Path aclFilePath = getAclFilePath(key);
-                final java.io.File aclIoFile = new java.io.File(ioRoot, toIoPath(aclFilePath));
-                if (aclIoFile.exists()) {
-                    final PathLockFactory.PathLock aclFilePathLock = pathLockFactory.getLock(aclFilePath, false).acquire(LOCK_FILE_TIMEOUT);
-                    try {
-                        dis = new DataInputStream(new BufferedInputStream(new FileInputStream(aclIoFile)));
-                        return aclSerializer.read(dis);
-                    } finally {
-                        aclFilePathLock.release();
-                    }
+                final AccessControlList acl = metadataStore.getACL(key);
+                if (acl != null) {
+                    return acl;
                 }
 
                 // TODO : REMOVE!!! Temporary default ACL until will have client side for real manage
@@ -271,12 +243,66 @@ public class FSMountPoint implements MountPoint {
                 String msg = String.format("Unable read ACL for '%s'. ", key);
                 LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
                 throw new RuntimeException(msg);
-            } finally {
-                closeQuietly(dis);
             }
         }
     }
 
+    /**
+     * Sorted cursors of children of folder, see {@link ChildrenCursor}. Listing is read with {@link DirectoryStream} and is sorted once,
+     * then it is reused for each page of children until folder is changed.
+     */
+    private static final class ChildrenListing {
+        final long     lastModified;
+        final String[] cursors;
+
+        ChildrenListing(long lastModified, String[] cursors) {
+            this.lastModified = lastModified;
+            this.cursors = cursors;
+        }
+    }
+
+
+    /**
+     * Cache of listings of folders. Listing is dropped when this mount point publishes event about changes in the folder, see {@link
+     * #publishEvent(VirtualFileEvent)}. Listing is also reloaded if modification time of folder is changed, e.g. if folder is updated not
+     * through virtual file system API.
+     */
+    private class ChildrenListingCache extends ConcurrentLoadingCache<Path, ChildrenListing> {
+        ChildrenListingCache() {
+            super(CHILDREN_CACHE_SIZE);
+        }
+
+        ChildrenListing getListing(VirtualFileImpl folder) throws ServerException {
+            if (CHILDREN_CACHE_SIZE <= 0) {
+                return readChildren(folder);
+            }
+            try {
+                ChildrenListing listing = get(folder.getVirtualFilePath());
+                if (listing.lastModified != folder.getIoFile().lastModified()) {
+                    listing = readChildren(folder);
+                    put(folder.getVirtualFilePath(), listing);
+                }
+                return listing;
+            } catch (RuntimeException e) {
+                throw new ServerException(e.getMessage());
+            }
+        }
+
+        @Override
+        protected ChildrenListing loadValue(Path key) {
+            try {
+                return readChildren(new VirtualFileImpl(new java.io.File(ioRoot, toIoPath(key)), key, pathToId(key), FSMountPoint.this));
+            } catch (ServerException e) {
+                throw new RuntimeException(e.getMessage());
+            }
+        }
+
+        @Override
+        protected int weigh(Path key, ChildrenListing value) {
+            return Math.max(value.cursors.length, 1);
+        }
+    }
+
     private final String           workspaceId;
     private final java.io.File     ioRoot;
     private final EventService     eventService;
@@ -288,17 +314,23 @@ public class FSMountPoint implements MountPoint {
 
     private final VirtualFileImpl root;
 
+    /* ----- Storage of ACLs, lock tokens and file metadata. ----- */
+    private final MetadataStore metadataStore;
+
     /* ----- Access control list feature. ----- */
-    private final AccessControlListSerializer      aclSerializer;
-    private final Cache<Path, AccessControlList>[] aclCache;
+    private final ConcurrentLoadingCache<Path, AccessControlList> aclCache;
 
     /* ----- Virtual file system lock feature. ----- */
-    private final FileLockSerializer      locksSerializer;
-    private final Cache<Path, FileLock>[] lockTokensCache;
+    private final ConcurrentLoadingCache<Path, FileLock> lockTokensCache;
 
     /* ----- File metadata. ----- */
-    private final FileMetadataSerializer               metadataSerializer;
-    private final Cache<Path, Map<String, String[]>>[] metadataCache;
+    private final ConcurrentLoadingCache<Path, Map<String, String[]>> metadataCache;
+
+    /* ----- Sorted listings of folders. ----- */
+    private final ChildrenListingCache childrenCache;
+
+    /* ----- Md5 sums of files. ----- */
+    private final ContentHashIndex hashIndex;
 
     private final VirtualFileSystemUserContext userContext;
 
@@ -309,7 +341,6 @@ public class FSMountPoint implements MountPoint {
      *         root directory for virtual file system. Any file in higher level than root are not accessible through
      *         virtual file system API.
      */
-    @SuppressWarnings("unchecked")
     FSMountPoint(String workspaceId, java.io.File ioRoot, EventService eventService, SearcherProvider searcherProvider, SystemPathsFilter systemFilter) {
         this.workspaceId = workspaceId;
         this.ioRoot = ioRoot;
@@ -320,20 +351,15 @@ public class FSMountPoint implements MountPoint {
         root = new VirtualFileImpl(ioRoot, Path.ROOT, pathToId(Path.ROOT), this);
         pathLockFactory = new PathLockFactory(FILE_LOCK_MAX_THREADS);
 
-        aclSerializer = new AccessControlListSerializer();
-        aclCache = new Cache[CACHE_PARTITIONS_NUM];
-
-        locksSerializer = new FileLockSerializer();
-        lockTokensCache = new Cache[CACHE_PARTITIONS_NUM];
+        metadataStore = LOG_METADATA_STORE.equals(METADATA_STORE)
+                        ? new LogMetadataStore(ioRoot)
+                        : new ServiceDirMetadataStore(ioRoot, pathLockFactory);
 
-        metadataSerializer = new FileMetadataSerializer();
-        metadataCache = new Cache[CACHE_PARTITIONS_NUM];
-
-        for (int i = 0; i < CACHE_PARTITIONS_NUM; i++) {
-            aclCache[i] = new SynchronizedCache(new AccessControlListCache());
-            lockTokensCache[i] = new SynchronizedCache(new FileLockCache());
-            metadataCache[i] = new SynchronizedCache(new FileMetadataCache());
-        }
+        aclCache = new AccessControlListCache();
+        lockTokensCache = new FileLockCache();
+        metadataCache = new FileMetadataCache();
+        childrenCache = new ChildrenListingCache();
+        hashIndex = new ContentHashIndex(ioRoot);
         userContext = VirtualFileSystemUserContext.newInstance();
     }
 
@@ -387,9 +413,104 @@ public class FSMountPoint implements MountPoint {
 
     /** Call after unmount this MountPoint. Clear all caches. */
     public void reset() {
+        metadataStore.reset();
         clearMetadataCache();
         clearAclCache();
         clearLockTokensCache();
+        childrenCache.clear();
+        hashIndex.reset();
+    }
+
+    /**
+     * Updates caches and search index after items are changed not through this mount point, e.g. by native git, and notifies
+     * listeners with single {@link ChangesetEvent}. Cached data is dropped only for changed items unless some folder is removed or
+     * replaced. Used by {@link MountPointWatcher}.
+     */
+    void applyExternalChanges(List<ChangesetEvent.Change> changes) {
+        boolean folderRemoved = false;
+        Path parent = null;
+        for (ChangesetEvent.Change change : changes) {
+            final Path path = Path.fromString(change.getPath());
+            hashIndex.invalidate(change.getPath());
+            if (change.isFolder() && change.getType() != VirtualFileEvent.ChangeType.CREATED) {
+                folderRemoved = true;
+            } else {
+                metadataCache.remove(path);
+                aclCache.remove(path);
+                lockTokensCache.remove(path);
+                invalidateListingOfParent(change.getPath());
+            }
+            final Path changedIn = path.isRoot() ? path : path.getParent();
+            if (parent == null) {
+                parent = changedIn;
+            } else {
+                while (!(changedIn.equals(parent) || changedIn.isChild(parent))) {
+                    parent = parent.getParent();
+                }
+            }
+        }
+        if (folderRemoved) {
+            // Cached data of all items inside of folder are not valid any more.
+            clearMetadataCache();
+            clearAclCache();
+            clearLockTokensCache();
+            childrenCache.clear();
+        }
+
+        if (searcherProvider != null) {
+            try {
+                final Searcher searcher = searcherProvider.getSearcher(this, false);
+                if (searcher != null) {
+                    for (ChangesetEvent.Change change : changes) {
+                        final Path path = Path.fromString(change.getPath());
+                        switch (change.getType()) {
+                            case CREATED:
+                                searcher.add(new VirtualFileImpl(new java.io.File(ioRoot, toIoPath(path)), path, pathToId(path), this));
+                                break;
+                            case CONTENT_UPDATED:
+                                final VirtualFileImpl virtualFile =
+                                        new VirtualFileImpl(new java.io.File(ioRoot, toIoPath(path)), path, pathToId(path), this);
+                                if (change.isFolder()) {
+                                    searcher.delete(change.getPath(), false);
+                                    searcher.add(virtualFile);
+                                } else {
+                                    searcher.update(virtualFile);
+                                }
+                                break;
+                            case DELETED:
+                                // Watcher doesn't always know type of removed item.
+                                searcher.delete(change.getPath(), true);
+                                searcher.delete(change.getPath(), false);
+                                break;
+                        }
+                    }
+                }
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+
+        eventService.publish(new ChangesetEvent(workspaceId, parent.toString(), changes));
+    }
+
+    /**
+     * Resets all caches and search index when items are changed not through this mount point but changed items aren't known, e.g.
+     * if {@link MountPointWatcher} lost events. Search index is rebuilt when searcher is requested next time.
+     */
+    void resetExternalChanges() {
+        reset();
+        if (searcherProvider != null) {
+            try {
+                final Searcher searcher = searcherProvider.getSearcher(this, false);
+                if (searcher != null) {
+                    searcher.close();
+                }
+            } catch (ServerException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+        eventService.publish(new ChangesetEvent(workspaceId, root.getPath(), Collections.singletonList(
+                new ChangesetEvent.Change(root.getPath(), VirtualFileEvent.ChangeType.CONTENT_UPDATED, true))));
     }
 
     // Used in tests. Need this to check state of PathLockFactory.
@@ -463,6 +584,16 @@ public class FSMountPoint implements MountPoint {
 
 
     LazyIterator<VirtualFile> getChildren(VirtualFileImpl parent, VirtualFileFilter filter) throws ServerException {
+        return getChildren(parent, filter, null);
+    }
+
+
+    /**
+     * Gets children of folder that follow the cursor. Children are sorted once when listing of folder is read, name of child is
+     * converted to VirtualFile and its permissions are checked only when iterator reaches it, so cost of reading a page of children
+     * depends on the size of page but not on the number of children.
+     */
+    LazyIterator<VirtualFile> getChildren(VirtualFileImpl parent, VirtualFileFilter filter, String cursor) throws ServerException {
         if (!parent.isFolder()) {
             return LazyIterator.emptyIterator();
         }
@@ -474,18 +605,109 @@ public class FSMountPoint implements MountPoint {
                 return LazyIterator.emptyIterator();
             }
         }
-        final List<VirtualFile> children = doGetChildren(parent, SERVICE_DIR_FILTER);
-        for (Iterator<VirtualFile> iterator = children.iterator(); iterator.hasNext(); ) {
-            VirtualFile child = iterator.next();
+        final String[] cursors = childrenCache.getListing(parent).cursors;
+        int start = 0;
+        if (cursor != null) {
+            ChildrenCursor.check(cursor);
+            final int position = Arrays.binarySearch(cursors, cursor);
+            start = position >= 0 ? position + 1 : -(position + 1);
+        }
+        return new ChildrenIterator(parent, cursors, start, filter);
+    }
+
+
+    private class ChildrenIterator extends LazyIterator<VirtualFile> {
+        final VirtualFileImpl   parent;
+        final String[]          cursors;
+        final int               start;
+        final VirtualFileFilter filter;
+
+        int index;
+        int size = -1;
+
+        ChildrenIterator(VirtualFileImpl parent, String[] cursors, int start, VirtualFileFilter filter) {
+            this.parent = parent;
+            this.cursors = cursors;
+            this.start = start;
+            this.filter = filter;
+            index = start;
+            fetchNext();
+        }
+
+        @Override
+        protected void fetchNext() {
+            next = null;
+            while (next == null && index < cursors.length) {
+                next = acceptChild(cursors[index++]);
+            }
+        }
+
+        /**
+         * Counts children after the start position. For filters {@link VirtualFileFilter#ALL}, {@link VirtualFileFilter#FILES} and
+         * {@link VirtualFileFilter#FOLDERS} number of children is taken from listing of folder, permissions of children are not
+         * checked, so children that current user can't read are counted as well. With any other filter each child is checked.
+         */
+        @Override
+        public int size() {
+            if (size < 0) {
+                int count = 0;
+                if (filter == VirtualFileFilter.ALL) {
+                    count = cursors.length - start;
+                } else if (filter == VirtualFileFilter.FILES || filter == VirtualFileFilter.FOLDERS) {
+                    final boolean folders = filter == VirtualFileFilter.FOLDERS;
+                    for (int i = start; i < cursors.length; i++) {
+                        if (ChildrenCursor.isFolder(cursors[i]) == folders) {
+                            count++;
+                        }
+                    }
+                } else {
+                    for (int i = start; i < cursors.length; i++) {
+                        if (acceptChild(cursors[i]) != null) {
+                            count++;
+                        }
+                    }
+                }
+                size = count;
+            }
+            return size;
+        }
+
+        private VirtualFile acceptChild(String cursor) {
+            final Path childPath = parent.getVirtualFilePath().newPath(cursor.substring(2));
+            final VirtualFileImpl child =
+                    new VirtualFileImpl(new java.io.File(ioRoot, toIoPath(childPath)), childPath, pathToId(childPath), FSMountPoint.this);
             // Check permission directly for current file only.
             // We know the parent is accessible for current user otherwise we should not be here.
-            if (!hasPermission((VirtualFileImpl)child, BasicPermissions.READ.value(), false) || !filter.accept(child)) {
-                iterator.remove(); // Do not show item in list if current user has not permission to see it
+            // Do not show item in list if current user has not permission to see it.
+            // Listing may be changed since it was read, skip item if it was removed.
+            if (child.exists() && hasPermission(child, BasicPermissions.READ.value(), false) && filter.accept(child)) {
+                return child;
             }
+            return null;
         }
+    }
+
+
+    private ChildrenListing readChildren(VirtualFileImpl folder) throws ServerException {
+        final java.io.File ioFile = folder.getIoFile();
+        // Read modification time before listing, so concurrent changes in the folder cause the listing to be reloaded.
+        final long lastModified = ioFile.lastModified();
+        final List<String> cursors = new ArrayList<>();
+        try (DirectoryStream<java.nio.file.Path> stream = Files.newDirectoryStream(ioFile.toPath())) {
+            for (java.nio.file.Path entry : stream) {
+                final String name = entry.getFileName().toString();
+                if (!SERVICE_DIR.equals(name)) {
+                    cursors.add(ChildrenCursor.of(name, Files.isDirectory(entry)));
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            LOG.error(e.getMessage(), e);
+            throw new ServerException(String.format("Unable get children '%s'. ", folder.getPath()));
+        }
+        final String[] sorted = cursors.toArray(new String[cursors.size()]);
         // Always sort to get the exact same order of files for each listing.
-        Collections.sort(children);
-        return LazyIterator.fromList(children);
+        Arrays.sort(sorted);
+        return new ChildrenListing(lastModified, sorted);
     }
 
 
@@ -544,7 +766,7 @@ public class FSMountPoint implements MountPoint {
                 LOG.error(e.getMessage(), e);
             }
         }
-        eventService.publish(new CreateEvent(workspaceId, newVirtualFile.getPath(), false));
+        publishEvent(new CreateEvent(workspaceId, newVirtualFile.getPath(), false));
         return newVirtualFile;
     }
 
@@ -583,7 +805,7 @@ public class FSMountPoint implements MountPoint {
         // Return first created folder, e.g. assume we need create: folder1/folder2/folder3 in specified folder.
         // If folder1 already exists then return folder2 as first created in hierarchy.
         final VirtualFileImpl newVirtualFile = new VirtualFileImpl(newIoFile, newPath, pathToId(newPath), this);
-        eventService.publish(new CreateEvent(workspaceId, newVirtualFile.getPath(), true));
+        publishEvent(new CreateEvent(workspaceId, newVirtualFile.getPath(), true));
         return newVirtualFile;
     }
 
@@ -630,13 +852,19 @@ public class FSMountPoint implements MountPoint {
             doOverWrite(overWrite, destination, newPath);
         }
 
-        doCopy(source, destination);
-        eventService.publish(new CreateEvent(workspaceId, destination.getPath(), source.isFolder()));
+        MountPointWatcher.startedByApi(this, destination.getPath());
+        try {
+            doCopy(source, destination);
+            publishEvent(new CreateEvent(workspaceId, destination.getPath(), source.isFolder()));
+        } finally {
+            MountPointWatcher.finishedByApi(this, destination.getPath());
+        }
         return destination;
     }
 
 
-    private void doCopy(VirtualFileImpl source, VirtualFileImpl destination) throws ServerException {
+    /** Copies item and its properties. Returns items under {@code source} which are not copied since current user may not read them. */
+    private List<Path> doCopy(VirtualFileImpl source, VirtualFileImpl destination) throws ServerException {
         try {
             // First copy metadata (properties) for source.
             // If we do in this way and fail cause to any i/o or
@@ -650,6 +878,7 @@ public class FSMountPoint implements MountPoint {
             // Check recursively permissions of sources in case of folder
             // and add all item current user cannot read in skip list.
             java.io.FilenameFilter filter = null;
+            final List<Path> skipPaths = new ArrayList<>();
             if (source.isFolder()) {
                 final LinkedList<VirtualFileImpl> skipList = new LinkedList<>();
                 final LinkedList<VirtualFile> q = new LinkedList<>();
@@ -669,6 +898,10 @@ public class FSMountPoint implements MountPoint {
                     }
                 }
                 if (!skipList.isEmpty()) {
+                    for (VirtualFileImpl skipFile : skipList) {
+                        skipPaths.add(skipFile.getVirtualFilePath());
+                    }
+                    final java.io.FilenameFilter skipMetadataFilter = metadataStore.getSkipFilter(skipPaths);
                     filter = new java.io.FilenameFilter() {
                         @Override
                         public boolean accept(java.io.File dir, String name) {
@@ -677,24 +910,14 @@ public class FSMountPoint implements MountPoint {
                                 if (testPath.startsWith(skipFile.getIoFile().getAbsolutePath())) {
                                     return false;
                                 }
-                                final java.io.File metadataFile =
-                                        new java.io.File(ioRoot, toIoPath(getMetadataFilePath(skipFile.getVirtualFilePath())));
-                                if (metadataFile.exists() && testPath.startsWith(metadataFile.getAbsolutePath())) {
-                                    return false;
-                                }
                             }
-                            return true;
+                            return skipMetadataFilter == null || skipMetadataFilter.accept(dir, name);
                         }
                     };
                 }
             }
 
-            final java.io.File sourceMetadataFile = new java.io.File(ioRoot, toIoPath(getMetadataFilePath(source.getVirtualFilePath())));
-            final java.io.File destinationMetadataFile =
-                    new java.io.File(ioRoot, toIoPath(getMetadataFilePath(destination.getVirtualFilePath())));
-            if (sourceMetadataFile.exists()) {
-                nioCopy(sourceMetadataFile, destinationMetadataFile, filter);
-            }
+            metadataStore.copyProperties(source.getVirtualFilePath(), destination.getVirtualFilePath(), skipPaths);
             nioCopy(source.getIoFile(), destination.getIoFile(), filter);
 
             if (searcherProvider != null) {
@@ -704,6 +927,7 @@ public class FSMountPoint implements MountPoint {
                     LOG.error(e.getMessage(), e); // just log about i/o error in index
                 }
             }
+            return skipPaths;
         } catch (IOException e) {
             // Do nothing for file tree. Let client side decide what to do.
             // User may delete copied files (if any) and try copy again.
@@ -734,28 +958,9 @@ public class FSMountPoint implements MountPoint {
             if (renamed.exists()) {
                 throw new ConflictException(String.format("Item '%s' already exists. ", renamed.getName()));
             }
-            // use copy and delete
-            doCopy(virtualFile, renamed);
-            // permissions is not copied with 'doCopy' method, copy them now if any
-            final AccessControlList sourceAcl = getACL(virtualFile);
-            if (!sourceAcl.isEmpty()) {
-                final java.io.File renamedAclFile = new java.io.File(ioRoot, toIoPath(getAclFilePath(renamed.getVirtualFilePath())));
-                DataOutputStream dos = null;
-                try {
-                    // Ignore result of 'mkdirs' here. If we are failed to create directory
-                    // We will get FileNotFoundException at the next line when try to create FileOutputStream.
-                    renamedAclFile.getParentFile().mkdirs();
-                    dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(renamedAclFile)));
-                    aclSerializer.write(dos, sourceAcl);
-                } catch (IOException e) {
-                    String msg = String.format("Unable save ACL for '%s'. ", virtualFile.getPath());
-                    LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
-                    throw new ServerException(msg);
-                } finally {
-                    closeQuietly(dos);
-                }
-            }
-            doDelete(virtualFile, lockToken);
+            // use copy and delete, ACLs and other metadata of whole tree are moved when source is deleted
+            final List<Path> skipPaths = doCopy(virtualFile, renamed);
+            doDelete(virtualFile, lockToken, renamed, skipPaths);
         } else {
             renamed = virtualFile;
         }
@@ -766,7 +971,7 @@ public class FSMountPoint implements MountPoint {
                 LOG.warn("Unable to set timestamp to '{}'. ", virtualFile.getIoFile());
             }
         }
-        eventService.publish(new RenameEvent(workspaceId, renamed.getPath(), sourcePath, renamed.isFolder()));
+        publishEvent(new RenameEvent(workspaceId, renamed.getPath(), sourcePath, renamed.isFolder()));
         return renamed;
     }
 
@@ -831,10 +1036,17 @@ public class FSMountPoint implements MountPoint {
             doOverWrite(overWrite, destination, newPath);
         }
 
-        // use copy and delete
-        doCopy(source, destination);
-        doDelete(source, lockToken);
-        eventService.publish(new MoveEvent(workspaceId, destination.getPath(), sourcePath, destination.isFolder()));
+        MountPointWatcher.startedByApi(this, sourcePath);
+        MountPointWatcher.startedByApi(this, destination.getPath());
+        try {
+            // use copy and delete, ACLs and other metadata of whole tree are moved when source is deleted
+            final List<Path> skipPaths = doCopy(source, destination);
+            doDelete(source, lockToken, destination, skipPaths);
+            publishEvent(new MoveEvent(workspaceId, destination.getPath(), sourcePath, destination.isFolder()));
+        } finally {
+            MountPointWatcher.finishedByApi(this, destination.getPath());
+            MountPointWatcher.finishedByApi(this, sourcePath);
+        }
         return destination;
     }
 
@@ -937,7 +1149,7 @@ public class FSMountPoint implements MountPoint {
                 LOG.error(e.getMessage(), e);
             }
         }
-        eventService.publish(new UpdateContentEvent(workspaceId, virtualFile.getPath()));
+        publishEvent(new UpdateContentEvent(workspaceId, virtualFile.getPath()));
     }
 
 
@@ -993,11 +1205,25 @@ public class FSMountPoint implements MountPoint {
             throw new ForbiddenException(String.format("Unable delete item '%s'. Item is locked. ", myPath));
         }
 
-        doDelete(virtualFile, lockToken);
-        eventService.publish(new DeleteEvent(workspaceId, myPath, folder));
+        MountPointWatcher.startedByApi(this, myPath);
+        try {
+            doDelete(virtualFile, lockToken);
+            publishEvent(new DeleteEvent(workspaceId, myPath, folder));
+        } finally {
+            MountPointWatcher.finishedByApi(this, myPath);
+        }
     }
 
     private void doDelete(VirtualFileImpl virtualFile, String lockToken) throws ForbiddenException, ServerException {
+        doDelete(virtualFile, lockToken, null, Collections.<Path>emptyList());
+    }
+
+    /**
+     * Deletes item. If {@code moveTo} isn't {@code null} metadata of item and its descendants is moved to {@code moveTo} instead of
+     * being removed, items from {@code skipPaths} were not copied to {@code moveTo} and their metadata is removed.
+     */
+    private void doDelete(VirtualFileImpl virtualFile, String lockToken, VirtualFileImpl moveTo, List<Path> skipPaths)
+            throws ForbiddenException, ServerException {
         if (virtualFile.isFolder()) {
             final LinkedList<VirtualFile> q = new LinkedList<>();
             q.add(virtualFile);
@@ -1040,22 +1266,19 @@ public class FSMountPoint implements MountPoint {
             throw new ServerException(String.format("Unable delete item '%s'. ", path));
         }
 
-        // delete ACL file
-        final java.io.File aclFile = new java.io.File(ioRoot, toIoPath(getAclFilePath(virtualFile.getVirtualFilePath())));
-        if (aclFile.delete()) {
-            if (aclFile.exists()) {
-                LOG.error("Unable delete ACL file {}", aclFile);
-                throw new ServerException(String.format("Unable delete item '%s'. ", path));
-            }
-        }
-
-        // delete metadata file
-        final java.io.File metadataFile = new java.io.File(ioRoot, toIoPath(getMetadataFilePath(virtualFile.getVirtualFilePath())));
-        if (metadataFile.delete()) {
-            if (metadataFile.exists()) {
-                LOG.error("Unable delete file metadata {}", metadataFile);
-                throw new ServerException(String.format("Unable delete item '%s'. ", path));
+        // delete ACL and metadata or move them to new location of item
+        try {
+            if (moveTo == null) {
+                metadataStore.delete(virtualFile.getVirtualFilePath());
+            } else {
+                metadataStore.move(virtualFile.getVirtualFilePath(), moveTo.getVirtualFilePath(), skipPaths);
+                clearAclCache();
+                clearLockTokensCache();
+                clearMetadataCache();
             }
+        } catch (IOException e) {
+            LOG.error(String.format("Unable delete ACL and metadata of %s. ", path) + e.getMessage(), e);
+            throw new ServerException(String.format("Unable delete item '%s'. ", path));
         }
 
         if (searcherProvider != null) {
@@ -1068,24 +1291,69 @@ public class FSMountPoint implements MountPoint {
     }
 
 
-    private void clearLockTokensCache() {
-        for (Cache<Path, FileLock> cache : lockTokensCache) {
-            cache.clear();
+    /** Publishes event about changes in this mount point and drops cached listings of folders that are changed. */
+    private void publishEvent(VirtualFileEvent event) {
+        MountPointWatcher.changedByApi(this, event);
+        switch (event.getType()) {
+            case CREATED:
+                invalidateListingOfParent(event.getPath());
+                break;
+            case CONTENT_UPDATED:
+                hashIndex.invalidate(event.getPath());
+                break;
+            case DELETED:
+            case RENAMED:
+            case MOVED:
+                hashIndex.invalidate(event.getPath());
+                if (event instanceof RenameEvent) {
+                    hashIndex.invalidate(((RenameEvent)event).getOldPath());
+                } else if (event instanceof MoveEvent) {
+                    hashIndex.invalidate(((MoveEvent)event).getOldPath());
+                }
+                if (event.isFolder()) {
+                    // Listings of all sub-folders are not valid any more.
+                    childrenCache.clear();
+                } else {
+                    invalidateListingOfParent(event.getPath());
+                    if (event instanceof RenameEvent) {
+                        invalidateListingOfParent(((RenameEvent)event).getOldPath());
+                    } else if (event instanceof MoveEvent) {
+                        invalidateListingOfParent(((MoveEvent)event).getOldPath());
+                    }
+                }
+                break;
+            case CHANGESET:
+                // Bulk operation may create folders that aren't reported separately, e.g. parents of zip entries.
+                childrenCache.clear();
+                for (ChangesetEvent.Change change : ((ChangesetEvent)event).getChanges()) {
+                    hashIndex.invalidate(change.getPath());
+                }
+                break;
         }
+        eventService.publish(event);
     }
 
 
-    private void clearAclCache() {
-        for (Cache<Path, AccessControlList> cache : aclCache) {
-            cache.clear();
+    private void invalidateListingOfParent(String path) {
+        final Path parent = Path.fromString(path).getParent();
+        if (parent != null) {
+            childrenCache.remove(parent);
         }
     }
 
 
+    private void clearLockTokensCache() {
+        lockTokensCache.clear();
+    }
+
+
+    private void clearAclCache() {
+        aclCache.clear();
+    }
+
+
     private void clearMetadataCache() {
-        for (Cache<Path, Map<String, String[]>> cache : metadataCache) {
-            cache.clear();
-        }
+        metadataCache.clear();
     }
 
 
@@ -1167,7 +1435,18 @@ public class FSMountPoint implements MountPoint {
         if (!hasPermission(parent, BasicPermissions.WRITE.value(), true)) {
             throw new ForbiddenException(String.format("Unable import from zip to '%s'. Operation not permitted. ", parent.getPath()));
         }
+        // Import may take long time, don't let MountPointWatcher report its changes as external before event about them is published.
+        MountPointWatcher.startedByApi(this, parent.getPath());
+        try {
+            doUnzip(parent, zipContent, overwrite, stripNumber);
+        } finally {
+            MountPointWatcher.finishedByApi(this, parent.getPath());
+        }
+    }
 
+    private void doUnzip(VirtualFileImpl parent, ZipContent zipContent, boolean overwrite, int stripNumber)
+            throws ForbiddenException, ConflictException, ServerException {
+        final List<ChangesetEvent.Change> changes = new ArrayList<>();
         ZipInputStream zip = null;
         try {
             zip = new ZipInputStream(zipContent.zippedData);
@@ -1201,7 +1480,7 @@ public class FSMountPoint implements MountPoint {
                     final java.io.File dir = new java.io.File(current.getIoFile(), name);
                     if (!dir.exists()) {
                         if (dir.mkdir()) {
-                            eventService.publish(new CreateEvent(workspaceId, newPath.toString(), true));
+                            changes.add(new ChangesetEvent.Change(newPath.toString(), VirtualFileEvent.ChangeType.CREATED, true));
                         } else {
                             throw new ServerException(String.format("Unable create directory '%s' ", newPath));
                         }
@@ -1233,11 +1512,10 @@ public class FSMountPoint implements MountPoint {
                     }
 
                     doUpdateContent(file, noCloseZip);
-                    if (newFile) {
-                        eventService.publish(new CreateEvent(workspaceId, newPath.toString(), false));
-                    } else {
-                        eventService.publish(new UpdateContentEvent(workspaceId, newPath.toString()));
-                    }
+                    changes.add(new ChangesetEvent.Change(newPath.toString(),
+                                                          newFile ? VirtualFileEvent.ChangeType.CREATED
+                                                                  : VirtualFileEvent.ChangeType.CONTENT_UPDATED,
+                                                          false));
                 }
                 zip.closeEntry();
             }
@@ -1252,6 +1530,10 @@ public class FSMountPoint implements MountPoint {
             throw new ServerException(e.getMessage(), e);
         } finally {
             closeQuietly(zip);
+            // Items that are already extracted are reported even if import fails.
+            if (!changes.isEmpty()) {
+                publishEvent(new ChangesetEvent(workspaceId, parent.getPath(), changes));
+            }
         }
     }
 
@@ -1270,35 +1552,21 @@ public class FSMountPoint implements MountPoint {
 
 
     private String doLock(VirtualFileImpl virtualFile, long timeout) throws ConflictException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        if (NO_LOCK == lockTokensCache[index].get(virtualFile.getVirtualFilePath())) // causes read from file if need.
+        if (NO_LOCK == lockTokensCache.get(virtualFile.getVirtualFilePath())) // causes read from file if need.
         {
             final String lockToken = NameGenerator.generate(null, 16);
             final long expired = timeout > 0 ? (System.currentTimeMillis() + timeout) : Long.MAX_VALUE;
             final FileLock fileLock = new FileLock(lockToken, expired);
-            DataOutputStream dos = null;
             try {
-                final Path lockFilePath = getLockFilePath(virtualFile.getVirtualFilePath());
-                final java.io.File lockIoFile = new java.io.File(ioRoot, toIoPath(lockFilePath));
-                lockIoFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create
-                // directory we will get FileNotFoundException at the next line when try to create FileOutputStream.
-                final PathLockFactory.PathLock lockFilePathLock = pathLockFactory.getLock(lockFilePath, true).acquire(LOCK_FILE_TIMEOUT);
-                try {
-                    dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(lockIoFile)));
-                    locksSerializer.write(dos, fileLock);
-                } finally {
-                    lockFilePathLock.release();
-                }
+                metadataStore.setLock(virtualFile.getVirtualFilePath(), fileLock);
             } catch (IOException e) {
                 String msg = String.format("Unable lock file '%s'. ", virtualFile.getPath());
                 LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
                 throw new ServerException(msg);
-            } finally {
-                closeQuietly(dos);
             }
 
             // Save lock token in cache if lock successful.
-            lockTokensCache[index].put(virtualFile.getVirtualFilePath(), fileLock);
+            lockTokensCache.put(virtualFile.getVirtualFilePath(), fileLock);
             return lockToken;
         }
 
@@ -1322,17 +1590,13 @@ public class FSMountPoint implements MountPoint {
     }
 
     private void doUnlock(VirtualFileImpl virtualFile, FileLock lock, String lockToken) throws ForbiddenException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         try {
             if (!lock.getLockToken().equals(lockToken)) {
                 throw new ForbiddenException(String.format("Unable unlock file '%s'. Lock token does not match. ", virtualFile.getPath()));
             }
-            final java.io.File lockIoFile = new java.io.File(ioRoot, toIoPath(getLockFilePath(virtualFile.getVirtualFilePath())));
-            if (!lockIoFile.delete()) {
-                throw new IOException(String.format("Unable delete lock file %s. ", lockIoFile));
-            }
+            metadataStore.setLock(virtualFile.getVirtualFilePath(), null);
             // Mark as unlocked in cache.
-            lockTokensCache[index].put(virtualFile.getVirtualFilePath(), NO_LOCK);
+            lockTokensCache.put(virtualFile.getVirtualFilePath(), NO_LOCK);
         } catch (IOException e) {
             String msg = String.format("Unable unlock file '%s'. ", virtualFile.getPath());
             LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
@@ -1346,21 +1610,19 @@ public class FSMountPoint implements MountPoint {
     }
 
     private FileLock checkIsLockValidAndGet(VirtualFileImpl virtualFile) {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         // causes read from file if need
-        final FileLock lock = lockTokensCache[index].get(virtualFile.getVirtualFilePath());
+        final FileLock lock = lockTokensCache.get(virtualFile.getVirtualFilePath());
         if (NO_LOCK == lock) {
             return NO_LOCK;
         }
         if (lock.getExpired() < System.currentTimeMillis()) {
-            final java.io.File lockIoFile = new java.io.File(ioRoot, toIoPath(getLockFilePath(virtualFile.getVirtualFilePath())));
-            if (!lockIoFile.delete()) {
-                if (lockIoFile.exists()) {
-                    // just warn here
-                    LOG.warn("Unable delete lock file %s. ", lockIoFile);
-                }
+            try {
+                metadataStore.setLock(virtualFile.getVirtualFilePath(), null);
+            } catch (IOException e) {
+                // just warn here
+                LOG.warn("Unable remove expired lock of {}. {}", virtualFile.getPath(), e.getMessage());
             }
-            lockTokensCache[index].put(virtualFile.getVirtualFilePath(), NO_LOCK);
+            lockTokensCache.put(virtualFile.getVirtualFilePath(), NO_LOCK);
             return NO_LOCK;
         }
         return lock;
@@ -1373,24 +1635,17 @@ public class FSMountPoint implements MountPoint {
     }
 
 
-    private Path getLockFilePath(Path virtualFilePath) {
-        return virtualFilePath.isRoot()
-               ? virtualFilePath.newPath(LOCKS_DIR, virtualFilePath.getName() + LOCK_FILE_SUFFIX)
-               : virtualFilePath.getParent().newPath(LOCKS_DIR, virtualFilePath.getName() + LOCK_FILE_SUFFIX);
-    }
-
    /* ============ ACCESS CONTROL  ============ */
 
     AccessControlList getACL(VirtualFileImpl virtualFile) {
         // Do not check permission here. We already check 'read' permission when get VirtualFile.
-        return new AccessControlList(aclCache[virtualFile.getVirtualFilePath().hashCode() & MASK].get(virtualFile.getVirtualFilePath()));
+        return new AccessControlList(aclCache.get(virtualFile.getVirtualFilePath()));
     }
 
 
     void updateACL(VirtualFileImpl virtualFile, List<AccessControlEntry> acl, boolean override, String lockToken)
             throws ForbiddenException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        final AccessControlList actualACL = aclCache[index].get(virtualFile.getVirtualFilePath());
+        final AccessControlList actualACL = aclCache.get(virtualFile.getVirtualFilePath());
 
         if (!hasPermission(virtualFile, BasicPermissions.UPDATE_ACL.value(), true)) {
             throw new ForbiddenException(String.format("Unable update ACL for '%s'. Operation not permitted. ", virtualFile.getPath()));
@@ -1404,44 +1659,23 @@ public class FSMountPoint implements MountPoint {
         final AccessControlList copy = new AccessControlList(actualACL);
         // 2. update ACL copy
         copy.update(acl, override);
-        // 3. save updated ACL (write in file)
-        DataOutputStream dos = null;
+        // 3. save updated ACL
         try {
-            final Path aclFilePath = getAclFilePath(virtualFile.getVirtualFilePath());
-            final java.io.File aclFile = new java.io.File(ioRoot, toIoPath(aclFilePath));
-            if (copy.isEmpty()) {
-                if (!aclFile.delete()) {
-                    if (aclFile.exists()) {
-                        throw new IOException(String.format("Unable delete file '%s'. ", aclFile));
-                    }
-                }
-            } else {
-                aclFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create directory
-                // we will get FileNotFoundException at the next line when try to create FileOutputStream.
-                final PathLockFactory.PathLock lock = pathLockFactory.getLock(aclFilePath, true).acquire(LOCK_FILE_TIMEOUT);
-                try {
-                    dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(aclFile)));
-                    aclSerializer.write(dos, copy);
-                } finally {
-                    lock.release();
-                }
-            }
+            metadataStore.setACL(virtualFile.getVirtualFilePath(), copy);
         } catch (IOException e) {
             String msg = String.format("Unable save ACL for '%s'. ", virtualFile.getPath());
             LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
             throw new ServerException(msg);
-        } finally {
-            closeQuietly(dos);
         }
 
         // 4. update cache
-        aclCache[index].put(virtualFile.getVirtualFilePath(), copy);
+        aclCache.put(virtualFile.getVirtualFilePath(), copy);
         // 5. update last modification time
         if (!virtualFile.getIoFile().setLastModified(System.currentTimeMillis())) {
             LOG.warn("Unable to set timestamp to '{}'. ", virtualFile.getIoFile());
         }
 
-        eventService.publish(new UpdateACLEvent(workspaceId, virtualFile.getPath(), virtualFile.isFolder()));
+        publishEvent(new UpdateACLEvent(workspaceId, virtualFile.getPath(), virtualFile.isFolder()));
     }
 
 
@@ -1449,7 +1683,7 @@ public class FSMountPoint implements MountPoint {
         final VirtualFileSystemUser user = userContext.getVirtualFileSystemUser();
         Path path = virtualFile.getVirtualFilePath();
         while (path != null) {
-            final AccessControlList accessControlList = aclCache[path.hashCode() & MASK].get(path);
+            final AccessControlList accessControlList = aclCache.get(path);
             if (!accessControlList.isEmpty()) {
                 final Principal userPrincipal = DtoFactory.getInstance().createDto(Principal.class)
                                                           .withName(user.getUserId()).withType(Principal.Type.USER);
@@ -1485,12 +1719,6 @@ public class FSMountPoint implements MountPoint {
     }
 
 
-    private Path getAclFilePath(Path virtualFilePath) {
-        return virtualFilePath.isRoot()
-               ? virtualFilePath.newPath(ACL_DIR, virtualFilePath.getName() + ACL_FILE_SUFFIX)
-               : virtualFilePath.getParent().newPath(ACL_DIR, virtualFilePath.getName() + ACL_FILE_SUFFIX);
-    }
-
    /* ============ METADATA  ============ */
 
     List<Property> getProperties(VirtualFileImpl virtualFile, PropertyFilter filter) {
@@ -1515,7 +1743,6 @@ public class FSMountPoint implements MountPoint {
 
     void updateProperties(VirtualFileImpl virtualFile, List<Property> properties, String lockToken)
             throws ForbiddenException, ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         if (!hasPermission(virtualFile, BasicPermissions.WRITE.value(), true)) {
             throw new ForbiddenException(
                     String.format("Unable update properties for '%s'. Operation not permitted. ", virtualFile.getPath()));
@@ -1527,7 +1754,7 @@ public class FSMountPoint implements MountPoint {
         }
 
         // 1. make copy of properties
-        final Map<String, String[]> metadata = copyMetadataMap(metadataCache[index].get(virtualFile.getVirtualFilePath()));
+        final Map<String, String[]> metadata = copyMetadataMap(metadataCache.get(virtualFile.getVirtualFilePath()));
         // 2. update
         for (Property property : properties) {
             final String name = property.getName();
@@ -1542,33 +1769,30 @@ public class FSMountPoint implements MountPoint {
         // 3. save in file
         saveFileMetadata(virtualFile, metadata);
         // 4. update cache
-        metadataCache[index].put(virtualFile.getVirtualFilePath(), metadata);
+        metadataCache.put(virtualFile.getVirtualFilePath(), metadata);
         // 5. update last modification time
         if (!virtualFile.getIoFile().setLastModified(System.currentTimeMillis())) {
             LOG.warn("Unable to set timestamp to '{}'. ", virtualFile.getIoFile());
         }
-        eventService.publish(new UpdatePropertiesEvent(workspaceId, virtualFile.getPath(), virtualFile.isFolder()));
+        publishEvent(new UpdatePropertiesEvent(workspaceId, virtualFile.getPath(), virtualFile.isFolder()));
     }
 
 
     private Map<String, String[]> getFileMetadata(VirtualFileImpl virtualFile) {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        return copyMetadataMap(metadataCache[index].get(virtualFile.getVirtualFilePath()));
+        return copyMetadataMap(metadataCache.get(virtualFile.getVirtualFilePath()));
     }
 
 
     String getPropertyValue(VirtualFileImpl virtualFile, String name) {
         // Do not check permission here. We already check 'read' permission when get VirtualFile.
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        final String[] value = metadataCache[index].get(virtualFile.getVirtualFilePath()).get(name);
+        final String[] value = metadataCache.get(virtualFile.getVirtualFilePath()).get(name);
         return value == null || value.length == 0 ? null : value[0];
     }
 
 
     String[] getPropertyValues(VirtualFileImpl virtualFile, String name) {
         // Do not check permission here. We already check 'read' permission when get VirtualFile.
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
-        final String[] value = metadataCache[index].get(virtualFile.getVirtualFilePath()).get(name);
+        final String[] value = metadataCache.get(virtualFile.getVirtualFilePath()).get(name);
         final String[] copyValue = new String[value.length];
         System.arraycopy(value, 0, copyValue, 0, value.length);
         return copyValue;
@@ -1581,9 +1805,8 @@ public class FSMountPoint implements MountPoint {
 
 
     void setProperty(VirtualFileImpl virtualFile, String name, String... value) throws ServerException {
-        final int index = virtualFile.getVirtualFilePath().hashCode() & MASK;
         // 1. make copy of properties
-        final Map<String, String[]> metadata = copyMetadataMap(metadataCache[index].get(virtualFile.getVirtualFilePath()));
+        final Map<String, String[]> metadata = copyMetadataMap(metadataCache.get(virtualFile.getVirtualFilePath()));
         // 2. update
         if (value != null) {
             String[] copyValue = new String[value.length];
@@ -1595,49 +1818,21 @@ public class FSMountPoint implements MountPoint {
         // 3. save in file
         saveFileMetadata(virtualFile, metadata);
         // 4. update cache
-        metadataCache[index].put(virtualFile.getVirtualFilePath(), metadata);
+        metadataCache.put(virtualFile.getVirtualFilePath(), metadata);
     }
 
 
     private void saveFileMetadata(VirtualFileImpl virtualFile, Map<String, String[]> properties) throws ServerException {
-        DataOutputStream dos = null;
-
         try {
-            final Path metadataFilePath = getMetadataFilePath(virtualFile.getVirtualFilePath());
-            final java.io.File metadataFile = new java.io.File(ioRoot, toIoPath(metadataFilePath));
-            if (properties.isEmpty()) {
-                if (!metadataFile.delete()) {
-                    if (metadataFile.exists()) {
-                        throw new IOException(String.format("Unable delete file '%s'. ", metadataFile));
-                    }
-                }
-            } else {
-                metadataFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create
-                // directory we will get FileNotFoundException at the next line when try to create FileOutputStream.
-                final PathLockFactory.PathLock lock = pathLockFactory.getLock(metadataFilePath, true).acquire(LOCK_FILE_TIMEOUT);
-                try {
-                    dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metadataFile)));
-                    metadataSerializer.write(dos, properties);
-                } finally {
-                    lock.release();
-                }
-            }
+            metadataStore.setProperties(virtualFile.getVirtualFilePath(), properties);
         } catch (IOException e) {
             String msg = String.format("Unable save properties for '%s'. ", virtualFile.getPath());
             LOG.error(msg + e.getMessage(), e); // More details in log but do not show internal error to caller.
             throw new ServerException(msg);
-        } finally {
-            closeQuietly(dos);
         }
     }
 
 
-    private Path getMetadataFilePath(Path virtualFilePath) {
-        return virtualFilePath.isRoot()
-               ? virtualFilePath.newPath(PROPS_DIR, virtualFilePath.getName() + PROPERTIES_FILE_SUFFIX)
-               : virtualFilePath.getParent().newPath(PROPS_DIR, virtualFilePath.getName() + PROPERTIES_FILE_SUFFIX);
-    }
-
    /* ============ VERSIONING ============ */
    /* versions is not supported in fact. Here implements simple contract for single version. */
 
@@ -1668,20 +1863,21 @@ public class FSMountPoint implements MountPoint {
 
    /* ==================================== */
 
+    /**
+     * Counts md5 sums of all files in folder. Sums of files that are not changed since they were counted last time are got from {@link
+     * ContentHashIndex}, other files are hashed in parallel. Files that can't be read are skipped.
+     */
     LazyIterator<Pair<String, String>> countMd5Sums(VirtualFileImpl virtualFile) throws ServerException {
         if (!virtualFile.isFolder()) {
             return LazyIterator.emptyIterator();
         }
-        final List<Pair<String, String>> hashes = new ArrayList<>();
-        final int trimPathLength = virtualFile.getPath().length() + 1;
-        final HashFunction hashFunction = Hashing.md5();
-        final ValueHolder<ServerException> errorHolder = new ValueHolder<>();
+        final List<VirtualFileImpl> files = new ArrayList<>();
         virtualFile.accept(new VirtualFileVisitor() {
             @Override
             public void visit(final VirtualFile virtualFile) {
                 try {
                     if (virtualFile.isFile()) {
-                        hashes.add(Pair.of(countHashSum(virtualFile, hashFunction), virtualFile.getPath().substring(trimPathLength)));
+                        files.add((VirtualFileImpl)virtualFile);
                     } else {
                         final LazyIterator<VirtualFile> children = virtualFile.getChildren(VirtualFileFilter.ALL);
                         while (children.hasNext()) {
@@ -1689,22 +1885,96 @@ public class FSMountPoint implements MountPoint {
                         }
                     }
                 } catch (ServerException e) {
-                    errorHolder.set(e);
+                    LOG.warn(e.getMessage());
                 }
             }
         });
+
+        final String[] sums = new String[files.size()];
+        final List<Integer> notIndexed = new ArrayList<>();
+        for (int i = 0, size = files.size(); i < size; i++) {
+            final VirtualFileImpl file = files.get(i);
+            final java.io.File ioFile = file.getIoFile();
+            sums[i] = hashIndex.get(file.getPath(), ioFile.length(), ioFile.lastModified());
+            if (sums[i] == null) {
+                notIndexed.add(i);
+            }
+        }
+        if (!notIndexed.isEmpty()) {
+            countHashSums(files, notIndexed, sums);
+            try {
+                hashIndex.save();
+            } catch (IOException e) {
+                LOG.warn("Unable save md5 sums of {}. {}", ioRoot, e.getMessage());
+            }
+        }
+
+        final List<Pair<String, String>> hashes = new ArrayList<>(files.size());
+        final int trimPathLength = virtualFile.getPath().length() + 1;
+        for (int i = 0, size = files.size(); i < size; i++) {
+            if (sums[i] != null) {
+                hashes.add(Pair.of(sums[i], files.get(i).getPath().substring(trimPathLength)));
+            }
+        }
         return LazyIterator.fromList(hashes);
     }
 
 
-    private String countHashSum(VirtualFile virtualFile, HashFunction hashFunction) throws ServerException {
+    /** Counts sums of files with specified indexes and saves them in {@code sums} and in {@link ContentHashIndex}. */
+    private void countHashSums(final List<VirtualFileImpl> files, List<Integer> indexes, final String[] sums) {
+        final int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), indexes.size() / MIN_FILES_PER_HASH_TASK);
+        if (parallelism <= 1) {
+            for (int i : indexes) {
+                sums[i] = countHashSum(files.get(i));
+            }
+            return;
+        }
+        final List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        for (int t = 0; t < parallelism; t++) {
+            final List<Integer> part = indexes.subList(indexes.size() * t / parallelism, indexes.size() * (t + 1) / parallelism);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i : part) {
+                        sums[i] = countHashSum(files.get(i));
+                    }
+                    return null;
+                }
+            });
+        }
+        try {
+            // Results are visible to this thread once all tasks are completed.
+            for (Future<Void> future : ContentHashIndex.getExecutor().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+
+    /** Counts md5 sum of file. Content of file is read with small buffer. Returns {@code null} if file can't be read. */
+    private String countHashSum(VirtualFileImpl virtualFile) {
+        final java.io.File ioFile = virtualFile.getIoFile();
         final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getVirtualFilePath(), false).acquire(LOCK_FILE_TIMEOUT);
-        try (InputStream contentStream = virtualFile.getContent().getStream()) {
-            return ByteSource.wrap(ByteStreams.toByteArray(contentStream)).hash(hashFunction).toString();
-        } catch (ForbiddenException e) {
-            throw new ServerException(e.getServiceError());
+        try (InputStream contentStream = new FileInputStream(ioFile)) {
+            // Sum is bound to size and modification time that file has before reading.
+            final long length = ioFile.length();
+            final long lastModified = ioFile.lastModified();
+            final Hasher hasher = Hashing.md5().newHasher();
+            final byte[] buff = new byte[COPY_BUFFER_SIZE];
+            int r;
+            while ((r = contentStream.read(buff)) != -1) {
+                hasher.putBytes(buff, 0, r);
+            }
+            final String md5 = hasher.hash().toString();
+            hashIndex.put(virtualFile.getPath(), length, lastModified, md5);
+            return md5;
         } catch (IOException e) {
-            throw new ServerException(e);
+            LOG.warn("Unable count md5 sum of '{}'. {}", virtualFile.getPath(), e.getMessage());
+            return null;
         } finally {
             lock.release();
         }
@@ -100,10 +100,24 @@ public class LocalFileSystemProvider extends VirtualFileSystemProvider {
                                    vfsRegistry);
     }
 
+    /**
+     * Closes this provider. Closed provider never mounts virtual file system again, see {@link #getMountPoint(boolean)}. Use {@link
+     * #unmount()} to unmount virtual file system but keep provider usable.
+     */
     @Override
     public void close() {
-        final FSMountPoint mount = mountRef.remove();
+        release(mountRef.close());
+        super.close();
+    }
+
+    /** Unmounts backing local filesystem. It is mounted again when virtual file system is accessed next time. */
+    public void unmount() {
+        release(mountRef.remove());
+    }
+
+    private void release(FSMountPoint mount) {
         if (mount != null) {
+            mount.reset();
             if (searcherProvider != null) {
                 try {
                     final Searcher searcher = searcherProvider.getSearcher(mount, false);
@@ -115,7 +129,6 @@ public class LocalFileSystemProvider extends VirtualFileSystemProvider {
                 }
             }
         }
-        super.close();
     }
 
     /**
@@ -150,6 +163,12 @@ public class LocalFileSystemProvider extends VirtualFileSystemProvider {
                     throw new ServerException(String.format("Virtual filesystem '%s' is not available. ", workspaceId));
                 }
                 mount = newMount;
+            } else {
+                mount = mountRef.get();
+                if (mount == null) {
+                    // Provider is closed, e.g. evicted from VirtualFileSystemRegistry. Don't create mount point that nobody closes.
+                    throw new ServerException(String.format("Virtual filesystem '%s' is closed. ", workspaceId));
+                }
             }
         }
         return mount;
@@ -157,15 +176,18 @@ public class LocalFileSystemProvider extends VirtualFileSystemProvider {
 
     private static class MountPointRef {
         final AtomicReference<FSMountPoint> ref;
+        // Guarded by this.
+        boolean closed;
 
         private MountPointRef() {
             ref = new AtomicReference<>();
         }
 
-        boolean maybeSet(FSMountPoint mountPoint) {
-            final boolean res = ref.compareAndSet(null, mountPoint);
+        synchronized boolean maybeSet(FSMountPoint mountPoint) {
+            final boolean res = !closed && ref.compareAndSet(null, mountPoint);
             if (res) {
                 MountPointCacheCleaner.add(mountPoint);
+                MountPointWatcher.add(mountPoint);
             }
             return res;
         }
@@ -174,12 +196,19 @@ public class LocalFileSystemProvider extends VirtualFileSystemProvider {
             return ref.get();
         }
 
-        FSMountPoint remove() {
+        synchronized FSMountPoint remove() {
             final FSMountPoint mountPoint = ref.getAndSet(null);
             if (mountPoint != null) {
                 MountPointCacheCleaner.remove(mountPoint);
+                MountPointWatcher.remove(mountPoint);
             }
             return mountPoint;
         }
+
+        /** Removes mount point. Mount point can't be set after this method is called. */
+        synchronized FSMountPoint close() {
+            closed = true;
+            return remove();
+        }
     }
 }
@@ -0,0 +1,632 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.vfs.server.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.ACL_DIR;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.ACL_FILE_SUFFIX;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.LOCKS_DIR;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.LOCK_FILE_SUFFIX;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.PROPERTIES_FILE_SUFFIX;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.PROPS_DIR;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.SERVICE_DIR;
+
+/**
+ * Keeps metadata of all items of mount point in single append-only log file. Metadata is loaded in memory when store is accessed
+ * first time, after that all reads are served from memory. Each update appends one record to the log. Record is framed with its
+ * length and CRC32 checksum, incomplete or corrupted record at the end of log, e.g. after crash, is discarded when log is loaded.
+ * When log contains too many outdated records it is compacted: current state is written in temporary file that atomically
+ * replaces the log.
+ * <p/>
+ * If log doesn't exist yet metadata is imported from service directories of {@link ServiceDirMetadataStore}. Service directories
+ * are not removed after import.
+ *
+ * @author agent
+ */
+class LogMetadataStore implements MetadataStore {
+    private static final Logger LOG = LoggerFactory.getLogger(LogMetadataStore.class);
+
+    static final String LOG_FILE = "metadata.log";
+
+    /*
+     * Log is compacted when number of records in it is greater than this value and more than twice greater than number of actual
+     * records. May be changed with system property "org.eclipse.che.vfs.metadata-log.compact-threshold".
+     */
+    private static final int COMPACT_THRESHOLD = Integer.getInteger("org.eclipse.che.vfs.metadata-log.compact-threshold", 1000);
+    private static final int MAX_RECORD_SIZE   = 16 * 1024 * 1024; // 16M
+    private static final int HEADER_SIZE       = 8; // length + checksum
+
+    private static final byte SET_ACL           = 1;
+    private static final byte REMOVE_ACL        = 2;
+    private static final byte SET_LOCK          = 3;
+    private static final byte REMOVE_LOCK       = 4;
+    private static final byte SET_PROPERTIES    = 5;
+    private static final byte REMOVE_PROPERTIES = 6;
+    private static final byte REMOVE_TREE       = 7;
+
+    private final java.io.File                ioRoot;
+    private final java.io.File                logFile;
+    private final NavigableMap<String, Entry> index;
+    private final AccessControlListSerializer aclSerializer;
+    private final FileLockSerializer          locksSerializer;
+    private final FileMetadataSerializer      metadataSerializer;
+
+    private volatile boolean     loaded;
+    /* guarded by this */
+    private          FileChannel channel;
+    /* guarded by this */
+    private          int         records;
+    /* Number of records in compacted log, i.e. sum of sizes of all entries of index. guarded by this */
+    private          int         liveRecords;
+
+    /**
+     * @param ioRoot
+     *         root directory of mount point, log is placed in service directory of root
+     */
+    LogMetadataStore(java.io.File ioRoot) {
+        this.ioRoot = ioRoot;
+        logFile = new java.io.File(new java.io.File(ioRoot, SERVICE_DIR), LOG_FILE);
+        index = new ConcurrentSkipListMap<>();
+        aclSerializer = new AccessControlListSerializer();
+        locksSerializer = new FileLockSerializer();
+        metadataSerializer = new FileMetadataSerializer();
+    }
+
+    @Override
+    public AccessControlList getACL(Path path) throws IOException {
+        final Entry entry = getEntry(path);
+        return entry == null || entry.acl == null ? null : new AccessControlList(entry.acl);
+    }
+
+    @Override
+    public synchronized void setACL(Path path, AccessControlList acl) throws IOException {
+        final String key = path.toString();
+        final Entry entry = getEntry(path);
+        if (acl.isEmpty()) {
+            if (entry != null && entry.acl != null) {
+                append(REMOVE_ACL, key, null, null);
+                update(key, entry.withACL(null));
+            }
+        } else {
+            final AccessControlList copy = new AccessControlList(acl);
+            append(SET_ACL, key, aclSerializer, copy);
+            update(key, (entry == null ? Entry.EMPTY : entry).withACL(copy));
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public FileLock getLock(Path path) throws IOException {
+        final Entry entry = getEntry(path);
+        return entry == null ? null : entry.lock;
+    }
+
+    @Override
+    public synchronized void setLock(Path path, FileLock lock) throws IOException {
+        final String key = path.toString();
+        final Entry entry = getEntry(path);
+        if (lock == null) {
+            if (entry != null && entry.lock != null) {
+                append(REMOVE_LOCK, key, null, null);
+                update(key, entry.withLock(null));
+            }
+        } else {
+            append(SET_LOCK, key, locksSerializer, lock);
+            update(key, (entry == null ? Entry.EMPTY : entry).withLock(lock));
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public Map<String, String[]> getProperties(Path path) throws IOException {
+        final Entry entry = getEntry(path);
+        return entry == null || entry.properties == null ? Collections.<String, String[]>emptyMap() : entry.properties;
+    }
+
+    @Override
+    public synchronized void setProperties(Path path, Map<String, String[]> properties) throws IOException {
+        final String key = path.toString();
+        final Entry entry = getEntry(path);
+        if (properties.isEmpty()) {
+            if (entry != null && entry.properties != null) {
+                append(REMOVE_PROPERTIES, key, null, null);
+                update(key, entry.withProperties(null));
+            }
+        } else {
+            final Map<String, String[]> copy = copyProperties(properties);
+            append(SET_PROPERTIES, key, metadataSerializer, copy);
+            update(key, (entry == null ? Entry.EMPTY : entry).withProperties(copy));
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void copyProperties(Path source, Path destination, Collection<Path> skip) throws IOException {
+        ensureLoaded();
+        final String sourceKey = source.toString();
+        final String destinationKey = destination.toString();
+        for (String key : getSubtreeKeys(sourceKey)) {
+            final Entry entry = index.get(key);
+            if (entry.properties == null || isSkipped(key, skip)) {
+                continue;
+            }
+            final String copyKey = destinationKey + key.substring(sourceKey.length());
+            append(SET_PROPERTIES, copyKey, metadataSerializer, entry.properties);
+            final Entry copyEntry = index.get(copyKey);
+            update(copyKey, (copyEntry == null ? Entry.EMPTY : copyEntry).withProperties(entry.properties));
+        }
+        compactIfNeeded();
+    }
+
+    @Override
+    public java.io.FilenameFilter getSkipFilter(Collection<Path> skip) {
+        // Nothing is stored in directories of items.
+        return null;
+    }
+
+    @Override
+    public synchronized void delete(Path path) throws IOException {
+        ensureLoaded();
+        final String key = path.toString();
+        if (!getSubtreeKeys(key).isEmpty()) {
+            removeTree(key);
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public synchronized void move(Path source, Path destination, Collection<Path> skip) throws IOException {
+        ensureLoaded();
+        final String sourceKey = source.toString();
+        final String destinationKey = destination.toString();
+        if (!getSubtreeKeys(destinationKey).isEmpty()) {
+            removeTree(destinationKey);
+        }
+        final List<String> keys = getSubtreeKeys(sourceKey);
+        if (keys.isEmpty()) {
+            return;
+        }
+        for (String key : keys) {
+            if (isSkipped(key, skip)) {
+                continue;
+            }
+            final Entry entry = index.get(key);
+            final String moveKey = destinationKey + key.substring(sourceKey.length());
+            if (entry.acl != null) {
+                append(SET_ACL, moveKey, aclSerializer, entry.acl);
+            }
+            if (entry.lock != null) {
+                append(SET_LOCK, moveKey, locksSerializer, entry.lock);
+            }
+            if (entry.properties != null) {
+                append(SET_PROPERTIES, moveKey, metadataSerializer, entry.properties);
+            }
+            update(moveKey, entry);
+        }
+        removeTree(sourceKey);
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized void reset() {
+        loaded = false;
+        clearIndex();
+        records = 0;
+        closeChannel();
+    }
+
+    private Entry getEntry(Path path) throws IOException {
+        ensureLoaded();
+        return index.get(path.toString());
+    }
+
+    /* guarded by this */
+    private void removeTree(String key) throws IOException {
+        append(REMOVE_TREE, key, null, null);
+        for (String removed : getSubtreeKeys(key)) {
+            remove(removed);
+        }
+    }
+
+    /* guarded by this */
+    private void update(String key, Entry entry) {
+        final Entry previous = entry.isEmpty() ? index.remove(key) : index.put(key, entry);
+        liveRecords += entry.size() - (previous == null ? 0 : previous.size());
+    }
+
+    /* guarded by this */
+    private void remove(String key) {
+        final Entry removed = index.remove(key);
+        if (removed != null) {
+            liveRecords -= removed.size();
+        }
+    }
+
+    /* guarded by this */
+    private void clearIndex() {
+        index.clear();
+        liveRecords = 0;
+    }
+
+    /** Gets keys of item and all its descendants. Keys of descendants are prefixed with key of item followed by '/'. */
+    private List<String> getSubtreeKeys(String key) {
+        if ("/".equals(key)) {
+            return new ArrayList<>(index.keySet());
+        }
+        final List<String> keys = new ArrayList<>();
+        if (index.containsKey(key)) {
+            keys.add(key);
+        }
+        // '0' is next character after '/'.
+        keys.addAll(index.subMap(key + '/', true, key + '0', false).keySet());
+        return keys;
+    }
+
+    private boolean isSkipped(String key, Collection<Path> skip) {
+        for (Path path : skip) {
+            final String skipKey = path.toString();
+            if (key.equals(skipKey) || key.startsWith(skipKey + '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* ============ LOG ============ */
+
+    private void ensureLoaded() throws IOException {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    /* guarded by this */
+    private void load() throws IOException {
+        clearIndex();
+        records = 0;
+        final boolean exists = logFile.exists();
+        if (!exists) {
+            logFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create directory
+            // we will get exception at the next line when try to open channel.
+        }
+        channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (exists) {
+                replay();
+            } else {
+                importServiceDirectories();
+                if (!index.isEmpty()) {
+                    compact();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            clearIndex();
+            closeChannel();
+            throw e;
+        }
+    }
+
+    /* guarded by this */
+    private void replay() throws IOException {
+        final long size = channel.size();
+        long position = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            final CRC32 crc = new CRC32();
+            while (size - position >= HEADER_SIZE) {
+                final int length = in.readInt();
+                final int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE || length > size - position - HEADER_SIZE) {
+                    break;
+                }
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int)crc.getValue() != checksum) {
+                    break;
+                }
+                apply(payload);
+                position += HEADER_SIZE + length;
+                records++;
+            }
+        } catch (EOFException ignored) {
+            // Log is changed while we read it. Should not happen since file is not shared with anyone else.
+        }
+        if (position < size) {
+            LOG.warn("Discard {} bytes of incomplete metadata record at the end of {}", size - position, logFile);
+            channel.truncate(position);
+        }
+        channel.position(position);
+    }
+
+    /* guarded by this */
+    private void apply(byte[] payload) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        final byte type = in.readByte();
+        final String key = in.readUTF();
+        final Entry entry = index.get(key);
+        final Entry current = entry == null ? Entry.EMPTY : entry;
+        switch (type) {
+            case SET_ACL:
+                update(key, current.withACL(aclSerializer.read(in)));
+                break;
+            case REMOVE_ACL:
+                update(key, current.withACL(null));
+                break;
+            case SET_LOCK:
+                update(key, current.withLock(locksSerializer.read(in)));
+                break;
+            case REMOVE_LOCK:
+                update(key, current.withLock(null));
+                break;
+            case SET_PROPERTIES:
+                update(key, current.withProperties(Collections.unmodifiableMap(metadataSerializer.read(in))));
+                break;
+            case REMOVE_PROPERTIES:
+                update(key, current.withProperties(null));
+                break;
+            case REMOVE_TREE:
+                for (String removed : getSubtreeKeys(key)) {
+                    remove(removed);
+                }
+                break;
+            default:
+                throw new IOException(String.format("Unknown type of metadata record %d in %s. ", type, logFile));
+        }
+    }
+
+    /* guarded by this */
+    private <T> void append(byte type, String key, DataSerializer<T> serializer, T value) throws IOException {
+        ensureLoaded();
+        final long position = channel.position();
+        try {
+            write(channel, type, key, serializer, value);
+        } catch (IOException e) {
+            // Do not leave partially written record in the middle of log.
+            try {
+                channel.truncate(position);
+                channel.position(position);
+            } catch (IOException ignored) {
+            }
+            throw e;
+        }
+        records++;
+    }
+
+    private <T> void write(WritableByteChannel out, byte type, String key, DataSerializer<T> serializer, T value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        final DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(type);
+        payload.writeUTF(key);
+        if (serializer != null) {
+            serializer.write(payload, value);
+        }
+        payload.flush();
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, bytes.size());
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bytes.size());
+        buffer.putInt(bytes.size());
+        buffer.putInt((int)crc.getValue());
+        buffer.put(bytes.toByteArray());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /* guarded by this */
+    private void compactIfNeeded() throws IOException {
+        if (records > COMPACT_THRESHOLD && records > liveRecords * 2) {
+            compact();
+        }
+    }
+
+    /* guarded by this */
+    private void compact() throws IOException {
+        final java.io.File compactFile = new java.io.File(logFile.getParentFile(), LOG_FILE + ".compact");
+        int written = 0;
+        try (FileChannel out = FileChannel.open(compactFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                final String key = e.getKey();
+                final Entry entry = e.getValue();
+                if (entry.acl != null) {
+                    write(out, SET_ACL, key, aclSerializer, entry.acl);
+                    written++;
+                }
+                if (entry.lock != null) {
+                    write(out, SET_LOCK, key, locksSerializer, entry.lock);
+                    written++;
+                }
+                if (entry.properties != null) {
+                    write(out, SET_PROPERTIES, key, metadataSerializer, entry.properties);
+                    written++;
+                }
+            }
+            out.force(true);
+        }
+        closeChannel();
+        try {
+            Files.move(compactFile.toPath(), logFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        } catch (IOException e) {
+            // Log is either old or compacted one, both are consistent. Reload state from log at next access.
+            loaded = false;
+            closeChannel();
+            throw e;
+        }
+        records = written;
+        LOG.debug("Metadata log {} is compacted, {} records", logFile, written);
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn(e.getMessage(), e);
+            }
+            channel = null;
+        }
+    }
+
+    /* guarded by this */
+    private void importServiceDirectories() throws IOException {
+        final java.nio.file.Path rootPath = ioRoot.toPath();
+        if (!Files.isDirectory(rootPath)) {
+            return;
+        }
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<java.nio.file.Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(java.nio.file.Path dir, BasicFileAttributes attrs) throws IOException {
+                final java.nio.file.Path name = dir.getFileName();
+                if (name != null && ".git".equals(name.toString())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (name != null && SERVICE_DIR.equals(name.toString())) {
+                    final Path parent = toVirtualFilePath(rootPath.relativize(dir.getParent()));
+                    importServiceFiles(dir.getParent().resolve(ACL_DIR), parent, ACL_FILE_SUFFIX, SET_ACL);
+                    importServiceFiles(dir.getParent().resolve(LOCKS_DIR), parent, LOCK_FILE_SUFFIX, SET_LOCK);
+                    importServiceFiles(dir.getParent().resolve(PROPS_DIR), parent, PROPERTIES_FILE_SUFFIX, SET_PROPERTIES);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void importServiceFiles(java.nio.file.Path serviceDir, Path parent, String suffix, byte type) throws IOException {
+        final java.io.File[] files = serviceDir.toFile().listFiles();
+        if (files == null) {
+            return;
+        }
+        for (java.io.File file : files) {
+            final String fileName = file.getName();
+            if (!(file.isFile() && fileName.endsWith(suffix))) {
+                continue;
+            }
+            final String name = fileName.substring(0, fileName.length() - suffix.length());
+            // Metadata of root is stored in root's own service directory in file without name prefix.
+            final String key = name.isEmpty() ? parent.toString() : parent.newPath(name).toString();
+            final Entry entry = index.get(key);
+            final Entry current = entry == null ? Entry.EMPTY : entry;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                switch (type) {
+                    case SET_ACL:
+                        update(key, current.withACL(aclSerializer.read(in)));
+                        break;
+                    case SET_LOCK:
+                        update(key, current.withLock(locksSerializer.read(in)));
+                        break;
+                    case SET_PROPERTIES:
+                        update(key, current.withProperties(Collections.unmodifiableMap(metadataSerializer.read(in))));
+                        break;
+                }
+            }
+        }
+    }
+
+    private static Path toVirtualFilePath(java.nio.file.Path relative) {
+        if (relative.toString().isEmpty()) {
+            return Path.ROOT;
+        }
+        final String[] elements = new String[relative.getNameCount()];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = relative.getName(i).toString();
+        }
+        return Path.ROOT.newPath(elements);
+    }
+
+    private static Map<String, String[]> copyProperties(Map<String, String[]> source) {
+        final Map<String, String[]> copy = new HashMap<>(source.size());
+        for (Map.Entry<String, String[]> e : source.entrySet()) {
+            final String[] value = e.getValue();
+            if (value != null) {
+                copy.put(e.getKey(), Arrays.copyOf(value, value.length));
+            }
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /** Metadata of single item. Immutable. */
+    private static final class Entry {
+        static final Entry EMPTY = new Entry(null, null, null);
+
+        final AccessControlList     acl;
+        final FileLock              lock;
+        final Map<String, String[]> properties;
+
+        Entry(AccessControlList acl, FileLock lock, Map<String, String[]> properties) {
+            this.acl = acl;
+            this.lock = lock;
+            this.properties = properties;
+        }
+
+        Entry withACL(AccessControlList acl) {
+            return new Entry(acl, lock, properties);
+        }
+
+        Entry withLock(FileLock lock) {
+            return new Entry(acl, lock, properties);
+        }
+
+        Entry withProperties(Map<String, String[]> properties) {
+            return new Entry(acl, lock, properties);
+        }
+
+        /** Number of records that describe this entry in compacted log. */
+        int size() {
+            return (acl == null ? 0 : 1) + (lock == null ? 0 : 1) + (properties == null ? 0 : 1);
+        }
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+    }
+}
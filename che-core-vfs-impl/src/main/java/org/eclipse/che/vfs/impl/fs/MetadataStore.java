@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.vfs.server.Path;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Keeps metadata of items of {@link FSMountPoint}: access control lists, lock tokens and properties. Implementation must be
+ * thread-safe. FSMountPoint caches values returned by store and never modifies them.
+ *
+ * @author agent
+ * @see ServiceDirMetadataStore
+ * @see LogMetadataStore
+ */
+interface MetadataStore {
+    /**
+     * Gets ACL of item.
+     *
+     * @param path
+     *         path of item
+     * @return ACL of item or {@code null} if there is no ACL for item
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    AccessControlList getACL(Path path) throws IOException;
+
+    /**
+     * Saves ACL of item. Empty ACL removes saved one.
+     *
+     * @param path
+     *         path of item
+     * @param acl
+     *         ACL
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void setACL(Path path, AccessControlList acl) throws IOException;
+
+    /**
+     * Gets lock of file.
+     *
+     * @param path
+     *         path of file
+     * @return lock of file or {@code null} if file is not locked
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    FileLock getLock(Path path) throws IOException;
+
+    /**
+     * Saves lock of file. {@code null} removes saved lock.
+     *
+     * @param path
+     *         path of file
+     * @param lock
+     *         lock
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void setLock(Path path, FileLock lock) throws IOException;
+
+    /**
+     * Gets properties of item.
+     *
+     * @param path
+     *         path of item
+     * @return properties of item or empty map if item doesn't have properties
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    Map<String, String[]> getProperties(Path path) throws IOException;
+
+    /**
+     * Saves properties of item. Empty map removes saved properties.
+     *
+     * @param path
+     *         path of item
+     * @param properties
+     *         properties
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void setProperties(Path path, Map<String, String[]> properties) throws IOException;
+
+    /**
+     * Copies properties of item {@code source} to {@code destination}. Called by FSMountPoint before it copies files of item. Lock
+     * tokens and ACLs are never copied.
+     *
+     * @param source
+     *         path of source item
+     * @param destination
+     *         path of destination item
+     * @param skip
+     *         items under {@code source} which are not copied, e.g. because current user may not read them
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void copyProperties(Path source, Path destination, Collection<Path> skip) throws IOException;
+
+    /**
+     * Gets filter that rejects files in which this store keeps metadata of skipped items. FSMountPoint uses this filter when copies
+     * files of item.
+     *
+     * @param skip
+     *         items which are not copied
+     * @return filter or {@code null} if store keeps nothing in directories of mount point
+     */
+    java.io.FilenameFilter getSkipFilter(Collection<Path> skip);
+
+    /**
+     * Removes ACL and properties of item. Called by FSMountPoint after it removes files of item. Store removes metadata of all
+     * descendants of item, unless metadata of descendants is removed together with files of item.
+     *
+     * @param path
+     *         path of item
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void delete(Path path) throws IOException;
+
+    /**
+     * Moves ACLs, locks and properties of item {@code source} and all its descendants to {@code destination}. Called by FSMountPoint
+     * on rename or move of item after it copies files of item to {@code destination} and removes files of {@code source}. Metadata
+     * that {@code destination} had before is replaced.
+     *
+     * @param source
+     *         path of source item
+     * @param destination
+     *         path of destination item
+     * @param skip
+     *         items under {@code source} which are not copied to {@code destination}, their metadata is removed
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    void move(Path source, Path destination, Collection<Path> skip) throws IOException;
+
+    /** Drops metadata that store keeps in memory and releases opened files, if any. Store reloads its state on next access. */
+    void reset();
+}
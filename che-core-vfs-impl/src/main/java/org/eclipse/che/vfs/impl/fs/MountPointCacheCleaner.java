@@ -70,7 +70,12 @@ public class MountPointCacheCleaner {
     }
 
     static void remove(FSMountPoint mountPoint) {
-        watched.remove(mountPoint.getRoot().getIoFile());
+        final java.io.File ioRoot = mountPoint.getRoot().getIoFile();
+        final Entry entry = watched.get(ioRoot);
+        // Same directory may be mounted again before previous mount point is removed, e.g. if it is evicted from registry.
+        if (entry != null && entry.mountPoint == mountPoint) {
+            watched.remove(ioRoot, entry);
+        }
     }
 
     public static class Finalizer {
@@ -0,0 +1,773 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.RenameEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent.ChangeType;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.eclipse.che.commons.lang.IoUtil.GIT_FILTER;
+
+/**
+ * Watches local directories of mounted file systems and catches changes that are made not through virtual file system API, e.g. by
+ * native git or by builders and runners that write straight to disk.
+ * <p/>
+ * Directories of all mount points are registered in single {@link WatchService}, service directories of mount point and git
+ * directories are not watched. Changes are collected for each mount point until there are no new changes during {@link #QUIET_PERIOD}
+ * ms, but not longer than {@link #MAX_DELAY} ms, then they are applied to mount point at once with {@link
+ * FSMountPoint#applyExternalChanges(List)}. Caches and search index are updated only for changed items and listeners get single
+ * {@link ChangesetEvent} for whole burst of changes, e.g. for checkout of git branch. If events are lost by {@link WatchService} or
+ * there are too many changes, all caches of mount point are reset, see {@link FSMountPoint#resetExternalChanges()}.
+ * <p/>
+ * Items changed through virtual file system API are reported by mount point itself. Folder that is changed by long operation, e.g. by
+ * import of zip, is marked as busy with {@link #startedByApi(FSMountPoint, String)} while operation is in progress, changes inside such
+ * folder are not flushed until operation is finished with {@link #finishedByApi(FSMountPoint, String)}. When mount point publishes event
+ * about item watcher remembers whether item exists, its size and modification time, and ignores changes of exactly this item while it
+ * stays in the same state. Items inside folder that is created, copied or moved through API are remembered as well, items inside folder
+ * that is removed through API are ignored while they don't exist. Anything else that appears in such folder, e.g. files of git repository
+ * cloned in folder created through API, is reported. Remembered state is dropped after {@link #API_CHANGE_TTL} ms. Thread that publishes
+ * event checks state of changed item only, items inside created folder are remembered and its sub-directories are registered later by
+ * watcher thread, so bulk operations, e.g. import of zip, don't wait for walk over the whole subtree.
+ * <p/>
+ * Directories of mount point are registered in background by watcher thread, so mounting of big file system isn't delayed.
+ * <p/>
+ * Watcher may be disabled with system property "org.eclipse.che.vfs.watcher" set to {@code false}. If directory can't be watched,
+ * e.g. if limit of inotify watches is exceeded, cache of mount point may still be reset with {@link MountPointCacheCleaner}.
+ *
+ * @author agent
+ */
+public class MountPointWatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(MountPointWatcher.class);
+
+    private static final boolean ENABLED        = Boolean.parseBoolean(System.getProperty("org.eclipse.che.vfs.watcher", "true"));
+    private static final long    POLL_PERIOD    = 100;
+    private static final long    QUIET_PERIOD   = Long.getLong("org.eclipse.che.vfs.watcher.quiet-period", 500);
+    private static final long    MAX_DELAY      = 5000;
+    private static final long    API_CHANGE_TTL = 5000;
+    /** Max number of changes collected for mount point. All caches of mount point are reset if it is exceeded. */
+    private static final int     MAX_CHANGES    = 10000;
+
+    private static final Map<java.io.File, Entry>    watched       = new ConcurrentHashMap<>();
+    private static final Map<WatchKey, Registration> registrations = new ConcurrentHashMap<>();
+    /** Mount points which directories should be registered by watcher thread. */
+    private static final Queue<Entry>                pending       = new ConcurrentLinkedQueue<>();
+
+    private static WatchService watchService;
+    private static Thread       watcher;
+
+    static void add(FSMountPoint mountPoint) {
+        if (!ENABLED) {
+            return;
+        }
+        final WatchService service = getWatchService();
+        if (service == null) {
+            return;
+        }
+        final java.io.File ioRoot = mountPoint.getRoot().getIoFile();
+        final Entry entry = new Entry(mountPoint, ioRoot.toPath(), service);
+        if (watched.put(ioRoot, entry) != null) {
+            LOG.warn("Local filesystem {} is already watched", ioRoot);
+        }
+        // Root directory of mount point may be not created yet, it is registered with first change through API then.
+        if (ioRoot.isDirectory()) {
+            entry.requestRegistration();
+        }
+    }
+
+    static void remove(FSMountPoint mountPoint) {
+        final java.io.File ioRoot = mountPoint.getRoot().getIoFile();
+        final Entry entry = watched.get(ioRoot);
+        // Same directory may be mounted again before previous mount point is removed, e.g. if it is evicted from registry.
+        if (entry != null && entry.mountPoint == mountPoint && watched.remove(ioRoot, entry)) {
+            entry.cancel();
+        }
+    }
+
+    /** Notifies watcher that item is changed through virtual file system API and mount point publishes event about it. */
+    static void changedByApi(FSMountPoint mountPoint, VirtualFileEvent event) {
+        if (watched.isEmpty()) {
+            return;
+        }
+        final Entry entry = watched.get(mountPoint.getRoot().getIoFile());
+        if (entry == null) {
+            return;
+        }
+        if (entry.keys.isEmpty() && !entry.unwatchable) {
+            entry.requestRegistration();
+        }
+        final long expired = System.currentTimeMillis() + API_CHANGE_TTL;
+        if (event instanceof ChangesetEvent) {
+            // Bulk operation may create folders that aren't reported separately, e.g. parents of zip entries. Walk once over whole
+            // subtree of changeset instead of walking over each created folder.
+            entry.changedByApi(event.getPath(), true, expired);
+            for (ChangesetEvent.Change change : ((ChangesetEvent)event).getChanges()) {
+                if (change.getType() == ChangeType.DELETED) {
+                    entry.changedByApi(change.getPath(), false, expired);
+                }
+            }
+        } else {
+            final ChangeType type = event.getType();
+            entry.changedByApi(event.getPath(), type == ChangeType.CREATED || type == ChangeType.MOVED || type == ChangeType.RENAMED,
+                               expired);
+            if (event instanceof MoveEvent) {
+                entry.changedByApi(((MoveEvent)event).getOldPath(), false, expired);
+            } else if (event instanceof RenameEvent) {
+                entry.changedByApi(((RenameEvent)event).getOldPath(), false, expired);
+            }
+        }
+    }
+
+    /**
+     * Notifies watcher that folder is going to be changed through virtual file system API. Changes inside the folder are not flushed
+     * until {@link #finishedByApi(FSMountPoint, String)} is called for the same folder, that must be done after mount point publishes
+     * event about changes.
+     */
+    static void startedByApi(FSMountPoint mountPoint, String path) {
+        if (watched.isEmpty()) {
+            return;
+        }
+        final Entry entry = watched.get(mountPoint.getRoot().getIoFile());
+        if (entry != null) {
+            entry.startedByApi(path);
+        }
+    }
+
+    /** Notifies watcher that change of folder through virtual file system API is finished and event about it is published. */
+    static void finishedByApi(FSMountPoint mountPoint, String path) {
+        if (watched.isEmpty()) {
+            return;
+        }
+        final Entry entry = watched.get(mountPoint.getRoot().getIoFile());
+        if (entry != null) {
+            entry.finishedByApi(path);
+        }
+    }
+
+    /** Checks whether watcher thread has remembered all items of folders created through API. Used in tests. */
+    static boolean isApiChangesProcessed(FSMountPoint mountPoint) {
+        final Entry entry = watched.get(mountPoint.getRoot().getIoFile());
+        return entry == null || entry.createdByApi.isEmpty();
+    }
+
+    /** Checks whether root directory of mount point is watched already. Used in tests. */
+    static boolean isWatched(FSMountPoint mountPoint) {
+        final Entry entry = watched.get(mountPoint.getRoot().getIoFile());
+        return entry != null && entry.keys.containsKey(entry.root);
+    }
+
+    private static synchronized WatchService getWatchService() {
+        if (watchService == null) {
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+            } catch (IOException | UnsupportedOperationException e) {
+                LOG.warn("Unable watch local filesystems. {}", e.getMessage());
+                return null;
+            }
+            watcher = new ThreadFactoryBuilder().setNameFormat("MountPointWatcher-%d").setDaemon(true).build().newThread(new Runnable() {
+                @Override
+                public void run() {
+                    watch();
+                }
+            });
+            watcher.start();
+        }
+        return watchService;
+    }
+
+    private static void watch() {
+        final WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Entry registering;
+                while ((registering = pending.poll()) != null) {
+                    registering.registerRoot();
+                }
+                walkCreatedByApi();
+                WatchKey key = service.poll(POLL_PERIOD, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    final Registration registration = registrations.get(key);
+                    if (registration != null) {
+                        registration.entry.process(registration.dir, key.pollEvents());
+                        if (!key.reset()) {
+                            registration.entry.invalidated(registration.dir);
+                        }
+                    } else {
+                        key.cancel();
+                    }
+                    key = service.poll();
+                }
+                final long now = System.currentTimeMillis();
+                for (Entry entry : watched.values()) {
+                    try {
+                        entry.maybeFlush(now);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException ignored) {
+        } catch (ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private static void walkCreatedByApi() {
+        for (Entry entry : watched.values()) {
+            try {
+                entry.walkCreatedByApi();
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    public static class Finalizer {
+        @PreDestroy
+        void stop() {
+            synchronized (MountPointWatcher.class) {
+                if (watcher != null) {
+                    watcher.interrupt();
+                    watcher = null;
+                }
+                if (watchService != null) {
+                    try {
+                        watchService.close();
+                    } catch (IOException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                    watchService = null;
+                }
+            }
+            watched.clear();
+            registrations.clear();
+            pending.clear();
+            LOG.info("VFS watcher stopped.");
+        }
+    }
+
+    private static class Registration {
+        final Entry entry;
+        final Path  dir;
+
+        Registration(Entry entry, Path dir) {
+            this.entry = entry;
+            this.dir = dir;
+        }
+    }
+
+    /*
+    Changes are collected and flushed by watcher thread only. Registration of directories and changes made through API may come from
+    other threads as well.
+     */
+    private static class Entry {
+        final FSMountPoint                    mountPoint;
+        final Path                            root;
+        final WatchService                    service;
+        final ConcurrentMap<Path, WatchKey>   keys;
+        /** Paths of items changed through API and their state after change. */
+        final ConcurrentMap<String, Snapshot> apiChanges;
+        /** Paths of folders created, copied or moved through API and expiration time of their state, see {@link #walkCreatedByApi()}. */
+        final ConcurrentMap<String, Long>     createdByApi;
+        final Map<String, Change>             changes;
+        /** Paths of folders that are being changed through API and number of operations in progress for each of them. */
+        final Map<String, Integer>            busy;
+        final AtomicBoolean                   registrationRequested;
+
+        volatile boolean unwatchable;
+        /** Incremented each time when change of folder through API is finished. */
+        volatile int     finishedApiChanges;
+        // Guarded by this.
+        boolean cancelled;
+        // Accessed by watcher thread only.
+        boolean overflow;
+        boolean heldBack;
+        int     heldBackAt;
+        long    firstChange;
+        long    lastChange;
+
+        Entry(FSMountPoint mountPoint, Path root, WatchService service) {
+            this.mountPoint = mountPoint;
+            this.root = root;
+            this.service = service;
+            keys = new ConcurrentHashMap<>();
+            apiChanges = new ConcurrentHashMap<>();
+            createdByApi = new ConcurrentHashMap<>();
+            changes = new LinkedHashMap<>();
+            busy = new HashMap<>();
+            registrationRequested = new AtomicBoolean();
+        }
+
+        /** Asks watcher thread to register root directory and all its sub-directories. */
+        void requestRegistration() {
+            if (registrationRequested.compareAndSet(false, true)) {
+                pending.add(this);
+            }
+        }
+
+        void registerRoot() {
+            registrationRequested.set(false);
+            if (!unwatchable && Files.isDirectory(root)) {
+                register(root);
+            }
+        }
+
+        void startedByApi(String path) {
+            synchronized (busy) {
+                final Integer count = busy.get(path);
+                busy.put(path, count == null ? 1 : count + 1);
+            }
+        }
+
+        void finishedByApi(String path) {
+            synchronized (busy) {
+                final Integer count = busy.get(path);
+                if (count == null || count == 1) {
+                    busy.remove(path);
+                } else {
+                    busy.put(path, count - 1);
+                }
+                finishedApiChanges++;
+            }
+        }
+
+        private List<String> getBusyPaths() {
+            synchronized (busy) {
+                return busy.isEmpty() ? Collections.<String>emptyList() : new ArrayList<>(busy.keySet());
+            }
+        }
+
+        /** Registers directory and all its sub-directories. */
+        synchronized void register(Path start) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                        if (!dir.equals(root) && isIgnored(dir)) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        return registerDirectory(dir) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        // Removed concurrently or not accessible.
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                // Most likely limit of inotify watches is exceeded, rest of directories isn't watched.
+                unwatchable = true;
+                LOG.warn("Unable watch all directories of local filesystem {}. {}", root, e.getMessage());
+            } catch (ClosedWatchServiceException e) {
+                unwatchable = true;
+            }
+        }
+
+        /** Registers single directory. Returns {@code false} if directory doesn't exist anymore. Must be called while holding lock. */
+        private boolean registerDirectory(Path dir) throws IOException {
+            if (!keys.containsKey(dir)) {
+                final WatchKey key;
+                try {
+                    key = dir.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                } catch (NoSuchFileException e) {
+                    // Removed concurrently.
+                    return false;
+                }
+                registrations.put(key, new Registration(this, dir));
+                keys.put(dir, key);
+            }
+            return true;
+        }
+
+        /** Registers directory found by walk over folder changed through API. Returns {@code false} if directory doesn't exist. */
+        synchronized boolean registerChanged(Path dir) {
+            if (cancelled || unwatchable) {
+                return true;
+            }
+            try {
+                return registerDirectory(dir);
+            } catch (IOException e) {
+                unwatchable = true;
+                LOG.warn("Unable watch all directories of local filesystem {}. {}", root, e.getMessage());
+            } catch (ClosedWatchServiceException e) {
+                unwatchable = true;
+            }
+            return true;
+        }
+
+        synchronized void unregister(Path dir) {
+            for (Iterator<Map.Entry<Path, WatchKey>> i = keys.entrySet().iterator(); i.hasNext(); ) {
+                final Map.Entry<Path, WatchKey> e = i.next();
+                if (e.getKey().startsWith(dir)) {
+                    e.getValue().cancel();
+                    registrations.remove(e.getValue());
+                    i.remove();
+                }
+            }
+        }
+
+        /** Directory is removed or moved, so it can't be watched anymore. */
+        void invalidated(Path dir) {
+            unregister(dir);
+            if (!dir.equals(root)) {
+                // Parent may report removal of directory too late to know that it was directory.
+                addChange(toVfsPath(dir), ChangeType.DELETED, true);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            for (WatchKey key : keys.values()) {
+                key.cancel();
+                registrations.remove(key);
+            }
+            keys.clear();
+        }
+
+        void process(Path dir, List<WatchEvent<?>> events) {
+            for (WatchEvent<?> event : events) {
+                final WatchEvent.Kind<?> kind = event.kind();
+                if (kind == OVERFLOW) {
+                    overflow = true;
+                    touch();
+                } else {
+                    final Path file = dir.resolve((Path)event.context());
+                    if (isIgnored(file)) {
+                        continue;
+                    }
+                    final boolean folder;
+                    final ChangeType type;
+                    if (kind == ENTRY_CREATE) {
+                        folder = Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS);
+                        if (folder && !unwatchable) {
+                            // Items created in directory before it is registered are covered by change of directory itself.
+                            register(file);
+                        }
+                        type = ChangeType.CREATED;
+                    } else if (kind == ENTRY_DELETE) {
+                        folder = keys.containsKey(file);
+                        if (folder) {
+                            unregister(file);
+                        }
+                        type = ChangeType.DELETED;
+                    } else {
+                        folder = Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS);
+                        if (folder) {
+                            // Modification of directory itself is reported with events about its children.
+                            continue;
+                        }
+                        type = ChangeType.CONTENT_UPDATED;
+                    }
+                    addChange(toVfsPath(file), type, folder);
+                }
+            }
+        }
+
+        private void touch() {
+            heldBack = false;
+            final long now = System.currentTimeMillis();
+            if (firstChange == 0) {
+                firstChange = now;
+            }
+            lastChange = now;
+        }
+
+        private void addChange(String path, ChangeType type, boolean folder) {
+            touch();
+            final Change existed = changes.get(path);
+            if (existed == null) {
+                changes.put(path, new Change(type, folder));
+            } else if (existed.type == ChangeType.CREATED) {
+                if (type == ChangeType.DELETED) {
+                    // Temporary item, nothing changed for mount point.
+                    changes.remove(path);
+                } else {
+                    existed.folder = folder;
+                }
+            } else if (existed.type == ChangeType.DELETED) {
+                if (type == ChangeType.CREATED) {
+                    // Replaced, e.g. with rename of temporary file.
+                    existed.type = ChangeType.CONTENT_UPDATED;
+                    existed.folder = folder;
+                }
+            } else if (type == ChangeType.DELETED) {
+                existed.type = ChangeType.DELETED;
+                existed.folder = existed.folder || folder;
+            }
+        }
+
+        void maybeFlush(long now) {
+            if (firstChange == 0 || (now - lastChange < QUIET_PERIOD && now - firstChange < MAX_DELAY)) {
+                return;
+            }
+            final int finished = finishedApiChanges;
+            if (heldBack && heldBackAt == finished) {
+                // Only changes inside folders that are being changed through API are left, wait until API operations are finished.
+                return;
+            }
+            // Folders reported by API operations that are finished already must be walked before changes are checked.
+            walkCreatedByApi();
+            removeExpiredApiChanges(now);
+            Map<String, Change> held = null;
+            if (overflow || changes.size() > MAX_CHANGES) {
+                LOG.info("Too many changes in local filesystem {}, reset its cache", root);
+                mountPoint.resetExternalChanges();
+            } else {
+                final List<String> busyPaths = getBusyPaths();
+                final List<ChangesetEvent.Change> external = new ArrayList<>(changes.size());
+                for (Map.Entry<String, Change> e : changes.entrySet()) {
+                    if (isBusy(e.getKey(), busyPaths)) {
+                        // Checked when API operation is finished and event about it is published.
+                        if (held == null) {
+                            held = new LinkedHashMap<>();
+                        }
+                        held.put(e.getKey(), e.getValue());
+                    } else if (!isChangedByApi(e.getKey())) {
+                        external.add(new ChangesetEvent.Change(e.getKey(), e.getValue().type, e.getValue().folder));
+                    }
+                }
+                if (!external.isEmpty()) {
+                    mountPoint.applyExternalChanges(external);
+                }
+            }
+            changes.clear();
+            overflow = false;
+            if (held == null) {
+                heldBack = false;
+                firstChange = 0;
+                lastChange = 0;
+            } else {
+                changes.putAll(held);
+                heldBack = true;
+                heldBackAt = finished;
+            }
+        }
+
+        private boolean isBusy(String path, List<String> busyPaths) {
+            for (String busyPath : busyPaths) {
+                if ("/".equals(busyPath) || path.equals(busyPath) || path.startsWith(busyPath + '/')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Remembers state of item changed through API. If item is folder that is created, copied or moved then its descendants are
+         * remembered later by watcher thread, see {@link #walkCreatedByApi()}.
+         */
+        void changedByApi(String path, boolean created, long expired) {
+            final Snapshot snapshot = Snapshot.of(toIoPath(path), expired);
+            apiChanges.put(path, snapshot);
+            if (created && snapshot.folder) {
+                createdByApi.put(path, expired);
+            }
+        }
+
+        /**
+         * Remembers state of all descendants of folders created, copied or moved through API and registers their sub-directories at
+         * once in the same walk over the folder. Called by watcher thread only.
+         */
+        void walkCreatedByApi() {
+            if (createdByApi.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, Long> e : createdByApi.entrySet()) {
+                // Too many changes reset cache of mount point anyway.
+                if (apiChanges.size() <= MAX_CHANGES) {
+                    walkCreatedByApi(toIoPath(e.getKey()), e.getValue());
+                }
+                // Folder is walked again if it is changed through API once more while we walk over it.
+                createdByApi.remove(e.getKey(), e.getValue());
+            }
+        }
+
+        private void walkCreatedByApi(final Path folder, final long expired) {
+            try {
+                Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (!dir.equals(folder) && isIgnored(dir)) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        // Otherwise items created in folder later are missed if they appear before folder is registered.
+                        if (!registerChanged(dir)) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        return dir.equals(folder) ? FileVisitResult.CONTINUE : remember(dir, attrs);
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path child, BasicFileAttributes attrs) {
+                        return isIgnored(child) ? FileVisitResult.CONTINUE : remember(child, attrs);
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path child, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    private FileVisitResult remember(Path child, BasicFileAttributes attrs) {
+                        apiChanges.put(toVfsPath(child), new Snapshot(attrs, expired));
+                        return apiChanges.size() > MAX_CHANGES ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                LOG.debug(e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Checks whether change of item is made through API, i.e. item is in the same state as it was after API call or it is
+         * removed together with folder removed or moved through API.
+         */
+        private boolean isChangedByApi(String path) {
+            if (apiChanges.isEmpty()) {
+                return false;
+            }
+            final Snapshot snapshot = apiChanges.get(path);
+            if (snapshot != null) {
+                if (snapshot.matches(toIoPath(path))) {
+                    return true;
+                }
+                apiChanges.remove(path, snapshot);
+                return false;
+            }
+            if (Files.exists(toIoPath(path), LinkOption.NOFOLLOW_LINKS)) {
+                return false;
+            }
+            String parent = path;
+            while (!"/".equals(parent)) {
+                final int separator = parent.lastIndexOf('/');
+                parent = separator == 0 ? "/" : parent.substring(0, separator);
+                final Snapshot parentSnapshot = apiChanges.get(parent);
+                if (parentSnapshot != null && !parentSnapshot.exists && parentSnapshot.matches(toIoPath(parent))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void removeExpiredApiChanges(long now) {
+            for (Iterator<Snapshot> i = apiChanges.values().iterator(); i.hasNext(); ) {
+                if (i.next().expired < now) {
+                    i.remove();
+                }
+            }
+        }
+
+        private boolean isIgnored(Path file) {
+            final String name = file.getFileName().toString();
+            return FSMountPoint.SERVICE_DIR.equals(name) || !GIT_FILTER.accept(file.getParent().toFile(), name);
+        }
+
+        private Path toIoPath(String vfsPath) {
+            return "/".equals(vfsPath) ? root : root.resolve(vfsPath.substring(1));
+        }
+
+        private String toVfsPath(Path file) {
+            final Path relative = root.relativize(file);
+            final StringBuilder vfsPath = new StringBuilder();
+            for (Path element : relative) {
+                vfsPath.append('/').append(element.toString());
+            }
+            return vfsPath.length() == 0 ? "/" : vfsPath.toString();
+        }
+    }
+
+    /** State of item after it is changed through API. Modification time of folder is not compared since it is changed by children. */
+    private static class Snapshot {
+        final boolean exists;
+        final boolean folder;
+        final long    size;
+        final long    lastModified;
+        final long    expired;
+
+        Snapshot(BasicFileAttributes attrs, long expired) {
+            this(true, attrs.isDirectory(), attrs.size(), attrs.lastModifiedTime().toMillis(), expired);
+        }
+
+        Snapshot(boolean exists, boolean folder, long size, long lastModified, long expired) {
+            this.exists = exists;
+            this.folder = folder;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.expired = expired;
+        }
+
+        static Snapshot of(Path file, long expired) {
+            try {
+                return new Snapshot(Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS), expired);
+            } catch (IOException e) {
+                return new Snapshot(false, false, 0, 0, expired);
+            }
+        }
+
+        boolean matches(Path file) {
+            final Snapshot current = of(file, 0);
+            if (exists != current.exists || folder != current.folder) {
+                return false;
+            }
+            return !exists || folder || (size == current.size && lastModified == current.lastModified);
+        }
+    }
+
+    private static class Change {
+        ChangeType type;
+        boolean    folder;
+
+        Change(ChangeType type, boolean folder) {
+            this.type = type;
+            this.folder = folder;
+        }
+    }
+}
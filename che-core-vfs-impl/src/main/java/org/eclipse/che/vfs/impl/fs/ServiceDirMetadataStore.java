@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.vfs.server.Path;
+import org.eclipse.che.api.vfs.server.PathLockFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.eclipse.che.commons.lang.IoUtil.nioCopy;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.ACL_DIR;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.ACL_FILE_SUFFIX;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.LOCKS_DIR;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.LOCK_FILE_SUFFIX;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.PROPERTIES_FILE_SUFFIX;
+import static org.eclipse.che.vfs.impl.fs.FSMountPoint.PROPS_DIR;
+
+/**
+ * Keeps metadata of each item in separate file in service directory of item's parent, e.g. properties of item '/a/b' are stored in
+ * file '/a/.vfs/props/b_props'. Service directories are copied and removed together with files of folders.
+ *
+ * @author agent
+ */
+class ServiceDirMetadataStore implements MetadataStore {
+    private static final long LOCK_FILE_TIMEOUT = 60000; // 60 seconds
+
+    private final java.io.File    ioRoot;
+    private final PathLockFactory pathLockFactory;
+
+    private final AccessControlListSerializer aclSerializer;
+    private final FileLockSerializer          locksSerializer;
+    private final FileMetadataSerializer      metadataSerializer;
+
+    ServiceDirMetadataStore(java.io.File ioRoot, PathLockFactory pathLockFactory) {
+        this.ioRoot = ioRoot;
+        this.pathLockFactory = pathLockFactory;
+        aclSerializer = new AccessControlListSerializer();
+        locksSerializer = new FileLockSerializer();
+        metadataSerializer = new FileMetadataSerializer();
+    }
+
+    @Override
+    public AccessControlList getACL(Path path) throws IOException {
+        return read(getAclFilePath(path), aclSerializer);
+    }
+
+    @Override
+    public void setACL(Path path, AccessControlList acl) throws IOException {
+        if (acl.isEmpty()) {
+            deleteFile(getAclFilePath(path));
+        } else {
+            write(getAclFilePath(path), aclSerializer, acl);
+        }
+    }
+
+    @Override
+    public FileLock getLock(Path path) throws IOException {
+        return read(getLockFilePath(path), locksSerializer);
+    }
+
+    @Override
+    public void setLock(Path path, FileLock lock) throws IOException {
+        if (lock == null) {
+            deleteFile(getLockFilePath(path));
+        } else {
+            write(getLockFilePath(path), locksSerializer, lock);
+        }
+    }
+
+    @Override
+    public Map<String, String[]> getProperties(Path path) throws IOException {
+        final Map<String, String[]> properties = read(getMetadataFilePath(path), metadataSerializer);
+        return properties == null ? Collections.<String, String[]>emptyMap() : properties;
+    }
+
+    @Override
+    public void setProperties(Path path, Map<String, String[]> properties) throws IOException {
+        if (properties.isEmpty()) {
+            deleteFile(getMetadataFilePath(path));
+        } else {
+            write(getMetadataFilePath(path), metadataSerializer, properties);
+        }
+    }
+
+    @Override
+    public void copyProperties(Path source, Path destination, Collection<Path> skip) throws IOException {
+        // Properties of children are copied together with service directories of source folder.
+        final java.io.File sourceMetadataFile = toIoFile(getMetadataFilePath(source));
+        if (sourceMetadataFile.exists()) {
+            nioCopy(sourceMetadataFile, toIoFile(getMetadataFilePath(destination)), null);
+        }
+    }
+
+    @Override
+    public java.io.FilenameFilter getSkipFilter(Collection<Path> skip) {
+        if (skip.isEmpty()) {
+            return null;
+        }
+        final List<String> skipMetadataFiles = new ArrayList<>(skip.size());
+        for (Path path : skip) {
+            final java.io.File metadataFile = toIoFile(getMetadataFilePath(path));
+            if (metadataFile.exists()) {
+                skipMetadataFiles.add(metadataFile.getAbsolutePath());
+            }
+        }
+        if (skipMetadataFiles.isEmpty()) {
+            return null;
+        }
+        return new java.io.FilenameFilter() {
+            @Override
+            public boolean accept(java.io.File dir, String name) {
+                final String testPath = dir.getAbsolutePath() + java.io.File.separatorChar + name;
+                for (String skipMetadataFile : skipMetadataFiles) {
+                    if (testPath.startsWith(skipMetadataFile)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        // Service directories of children are removed together with files of folder.
+        deleteFile(getAclFilePath(path));
+        deleteFile(getMetadataFilePath(path));
+    }
+
+    @Override
+    public void move(Path source, Path destination, Collection<Path> skip) throws IOException {
+        // Metadata of children is moved together with service directories of source folder.
+        moveFile(getAclFilePath(source), getAclFilePath(destination), aclSerializer);
+        moveFile(getLockFilePath(source), getLockFilePath(destination), locksSerializer);
+        moveFile(getMetadataFilePath(source), getMetadataFilePath(destination), metadataSerializer);
+    }
+
+    @Override
+    public void reset() {
+        // Nothing is kept in memory.
+    }
+
+    private <T> T read(Path metadataFilePath, DataSerializer<T> serializer) throws IOException {
+        final java.io.File metadataIoFile = toIoFile(metadataFilePath);
+        if (!metadataIoFile.exists()) {
+            return null;
+        }
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(metadataFilePath, false).acquire(LOCK_FILE_TIMEOUT);
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(metadataIoFile)))) {
+            return serializer.read(dis);
+        } finally {
+            lock.release();
+        }
+    }
+
+    private <T> void write(Path metadataFilePath, DataSerializer<T> serializer, T value) throws IOException {
+        final java.io.File metadataIoFile = toIoFile(metadataFilePath);
+        metadataIoFile.getParentFile().mkdirs(); // Ignore result of 'mkdirs' here. If we are failed to create
+        // directory we will get FileNotFoundException at the next line when try to create FileOutputStream.
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(metadataFilePath, true).acquire(LOCK_FILE_TIMEOUT);
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(metadataIoFile)))) {
+            serializer.write(dos, value);
+        } finally {
+            lock.release();
+        }
+    }
+
+    private <T> void moveFile(Path sourceFilePath, Path destinationFilePath, DataSerializer<T> serializer) throws IOException {
+        final T value = read(sourceFilePath, serializer);
+        if (value == null) {
+            deleteFile(destinationFilePath);
+        } else {
+            write(destinationFilePath, serializer, value);
+            deleteFile(sourceFilePath);
+        }
+    }
+
+    private void deleteFile(Path metadataFilePath) throws IOException {
+        final java.io.File metadataIoFile = toIoFile(metadataFilePath);
+        if (!metadataIoFile.delete()) {
+            if (metadataIoFile.exists()) {
+                throw new IOException(String.format("Unable delete file '%s'. ", metadataIoFile));
+            }
+        }
+    }
+
+    private java.io.File toIoFile(Path metadataFilePath) {
+        if ('/' == java.io.File.separatorChar) {
+            // Unix like system. Use vfs path as relative i/o path.
+            return new java.io.File(ioRoot, metadataFilePath.toString());
+        }
+        return new java.io.File(ioRoot, metadataFilePath.join(java.io.File.separatorChar));
+    }
+
+    private Path getAclFilePath(Path virtualFilePath) {
+        return getServiceFilePath(virtualFilePath, ACL_DIR, ACL_FILE_SUFFIX);
+    }
+
+    private Path getLockFilePath(Path virtualFilePath) {
+        return getServiceFilePath(virtualFilePath, LOCKS_DIR, LOCK_FILE_SUFFIX);
+    }
+
+    private Path getMetadataFilePath(Path virtualFilePath) {
+        return getServiceFilePath(virtualFilePath, PROPS_DIR, PROPERTIES_FILE_SUFFIX);
+    }
+
+    private Path getServiceFilePath(Path virtualFilePath, String serviceDir, String suffix) {
+        return virtualFilePath.isRoot()
+               ? virtualFilePath.newPath(serviceDir, virtualFilePath.getName() + suffix)
+               : virtualFilePath.getParent().newPath(serviceDir, virtualFilePath.getName() + suffix);
+    }
+}
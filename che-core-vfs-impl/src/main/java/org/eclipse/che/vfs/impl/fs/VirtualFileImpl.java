@@ -102,6 +102,11 @@ public class VirtualFileImpl implements VirtualFile {
         return mountPoint.getChildren(this, filter);
     }
 
+    @Override
+    public LazyIterator<VirtualFile> getChildren(VirtualFileFilter filter, String cursor) throws ServerException {
+        return mountPoint.getChildren(this, filter, cursor);
+    }
+
     @Override
     public VirtualFile getChild(String name) throws ForbiddenException, ServerException {
         return mountPoint.getChild(this, name);
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.vfs.server.VirtualFileSystemRegistry;
+
+import javax.annotation.security.RolesAllowed;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RESTful API for monitoring of mounted virtual file systems.
+ *
+ * @author agent
+ */
+@Path("/admin/vfs")
+@RolesAllowed("system/admin")
+public class VirtualFileSystemAdminService {
+    @Inject
+    private VirtualFileSystemRegistry virtualFileSystemRegistry;
+
+    /**
+     * Gets number of mounted virtual file systems, number of idle virtual file systems that are about to be evicted from registry and
+     * total number of evicted virtual file systems. Number of idle virtual file systems is available only if registry mounts them
+     * automatically.
+     */
+    @GET
+    @Path("/stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Number> getStats() {
+        final Map<String, Number> stats = new LinkedHashMap<>(4);
+        stats.put("mounted", virtualFileSystemRegistry.getMountedCount());
+        if (virtualFileSystemRegistry instanceof AutoMountVirtualFileSystemRegistry) {
+            stats.put("idle", ((AutoMountVirtualFileSystemRegistry)virtualFileSystemRegistry).getIdleCount());
+        }
+        stats.put("evicted", virtualFileSystemRegistry.getEvictedCount());
+        return stats;
+    }
+}
@@ -31,6 +31,7 @@ public class VirtualFileSystemFSModule extends AbstractModule {
         //bind(LocalFSMountStrategy.class).to(WorkspaceHashLocalFSMountStrategy.class);
         bind(SearcherProvider.class).to(CleanableSearcherProvider.class);
         bind(MountPointCacheCleaner.Finalizer.class).asEagerSingleton();
+        bind(MountPointWatcher.Finalizer.class).asEagerSingleton();
     }
 
     public static class DefaultVirtualFileFilter implements VirtualFileFilter {
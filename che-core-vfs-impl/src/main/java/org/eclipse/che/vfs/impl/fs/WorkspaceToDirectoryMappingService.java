@@ -61,8 +61,7 @@ public class WorkspaceToDirectoryMappingService {
             Files.createDirectories(Paths.get(mountPath));
         }
 
-        VirtualFileSystemProvider provider = virtualFileSystemRegistry.getProvider(workspaceId);
-        provider.close();
+        unmount(virtualFileSystemRegistry.getProvider(workspaceId));
         mappedDirectoryLocalFSMountStrategy.setMountPath(workspaceId, new File(mountPath));
         return getDirectoryMapping();
     }
@@ -72,12 +71,21 @@ public class WorkspaceToDirectoryMappingService {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     public Map<String, String> removeMountPath(@PathParam("ws-id") String workspaceId) throws ServerException, NotFoundException {
-        VirtualFileSystemProvider provider = virtualFileSystemRegistry.getProvider(workspaceId);
-        provider.close();
+        unmount(virtualFileSystemRegistry.getProvider(workspaceId));
         mappedDirectoryLocalFSMountStrategy.removeMountPath(workspaceId);
         return getDirectoryMapping();
     }
 
+    /** Unmounts virtual file system, it is mounted again with new path when accessed next time. */
+    private void unmount(VirtualFileSystemProvider provider) {
+        if (provider instanceof LocalFileSystemProvider) {
+            // Closed provider can't be mounted again.
+            ((LocalFileSystemProvider)provider).unmount();
+        } else {
+            provider.close();
+        }
+    }
+
     @GET
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
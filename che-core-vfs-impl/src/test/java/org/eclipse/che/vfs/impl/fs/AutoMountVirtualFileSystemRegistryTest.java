@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.vfs.impl.fs;
 
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.vfs.server.SystemPathsFilter;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemProvider;
@@ -25,4 +26,33 @@ public class AutoMountVirtualFileSystemRegistryTest extends LocalFileSystemTest
         final VirtualFileSystemProvider fileSystemProvider = registry.getProvider(MY_WORKSPACE_ID);
         assertEquals(MY_WORKSPACE_ID, fileSystemProvider.getWorkspaceId());
     }
+
+    public void testEvictIdleProvider() throws Exception {
+        AutoMountVirtualFileSystemRegistry registry =
+                new AutoMountVirtualFileSystemRegistry(new WorkspaceHashLocalFSMountStrategy(root, root), new EventService(), SystemPathsFilter.ANY, null);
+        final VirtualFileSystemProvider fileSystemProvider = registry.getProvider(MY_WORKSPACE_ID);
+        assertNotNull(fileSystemProvider.getMountPoint(true));
+        assertEquals(1, registry.getMountedCount());
+        assertEquals(0, registry.evictIdleProviders(60000));
+        assertEquals(1, registry.getIdleCount(0));
+
+        assertEquals(1, registry.evictIdleProviders(0));
+        assertEquals(1, registry.getEvictedCount());
+        assertEquals(0, registry.getMountedCount());
+        assertNull(fileSystemProvider.getMountPoint(false));
+        // Evicted provider must not mount file system again, otherwise nobody closes such mount point.
+        try {
+            fileSystemProvider.getMountPoint(true);
+            fail("Evicted provider must not mount file system again");
+        } catch (ServerException expected) {
+        }
+        assertNull(fileSystemProvider.getMountPoint(false));
+
+        // Mounted again when accessed.
+        final VirtualFileSystemProvider newFileSystemProvider = registry.getProvider(MY_WORKSPACE_ID);
+        assertNotSame(fileSystemProvider, newFileSystemProvider);
+        assertNotNull(newFileSystemProvider.getMountPoint(true));
+        assertEquals(1, registry.getMountedCount());
+        registry.unregisterProvider(MY_WORKSPACE_ID);
+    }
 }
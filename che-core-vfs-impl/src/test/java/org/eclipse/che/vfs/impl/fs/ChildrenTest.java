@@ -23,6 +23,7 @@ import com.google.common.collect.Sets;
 import org.everrest.core.impl.ContainerResponse;
 import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 
+import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -204,6 +205,45 @@ public class ChildrenTest extends LocalFileSystemTest {
         checkPage(requestPath, HttpMethod.GET, Item.class.getMethod("getName"), all);
     }
 
+    public void testGetChildrenPagingCursor() throws Exception {
+        // Get all children.
+        String requestPath = SERVICE_URI + "children/" + folderId;
+        ContainerResponse response = launcher.service(HttpMethod.GET, requestPath, BASE_URI, null, null, null);
+        assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+        @SuppressWarnings("unchecked")
+        ItemList children = (ItemList)response.getEntity();
+        List<String> all = new ArrayList<>(4);
+        for (Item i : children.getItems()) {
+            all.add(i.getName());
+        }
+
+        // Read children page by page, each page contains single item.
+        List<String> paged = new ArrayList<>(4);
+        String cursor = null;
+        do {
+            requestPath = SERVICE_URI + "children/" + folderId + '?' + "maxItems=" + 1
+                          + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, "UTF-8"));
+            response = launcher.service(HttpMethod.GET, requestPath, BASE_URI, null, null, null);
+            assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+            children = (ItemList)response.getEntity();
+            for (Item i : children.getItems()) {
+                paged.add(i.getName());
+            }
+            // Total number of children is reported for the first page only.
+            assertEquals(cursor == null ? all.size() : -1, children.getNumItems());
+            cursor = children.getNextCursor();
+            assertEquals(children.isHasMoreItems(), cursor != null);
+        } while (cursor != null);
+
+        assertEquals(all, paged);
+    }
+
+    public void testGetChildrenPagingCursorInvalid() throws Exception {
+        String requestPath = SERVICE_URI + "children/" + folderId + '?' + "cursor=" + "FILE01";
+        ContainerResponse response = launcher.service(HttpMethod.GET, requestPath, BASE_URI, null, null, null);
+        assertEquals(409, response.getStatus());
+    }
+
     public void testGetChildrenNoPropertyFilter() throws Exception {
         ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
         // Get children without filter.
@@ -249,6 +289,7 @@ public class ChildrenTest extends LocalFileSystemTest {
         @SuppressWarnings("unchecked")
         ItemList children = (ItemList)response.getEntity();
         assertEquals(2, children.getItems().size());
+        assertEquals(2, children.getNumItems());
         for (Item i : children.getItems()) {
             assertTrue(i.getItemType() == ItemType.FOLDER);
         }
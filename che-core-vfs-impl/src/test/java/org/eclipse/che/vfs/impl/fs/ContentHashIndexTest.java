@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class ContentHashIndexTest {
+    private static final String MD5   = "d41d8cd98f00b204e9800998ecf8427e";
+    private static final long   MTIME = 1000000L;
+
+    private java.io.File root;
+
+    @Before
+    public void setUp() throws Exception {
+        java.io.File testDir = new java.io.File(Thread.currentThread().getContextClassLoader().getResource(".").toURI()).getParentFile();
+        root = new java.io.File(testDir, "hash-index");
+        IoUtil.deleteRecursive(root);
+        assertTrue(root.mkdirs());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void reusesSumWhileSizeAndModificationTimeAreSame() throws Exception {
+        ContentHashIndex index = new ContentHashIndex(root);
+        index.put("/a/file", 10, MTIME, MD5);
+        assertEquals(MD5, index.get("/a/file", 10, MTIME));
+        assertNull(index.get("/a/file", 11, MTIME));
+        assertNull(index.get("/a/file", 10, MTIME + 1));
+    }
+
+    @Test
+    public void doesNotKeepSumOfRecentlyModifiedFile() throws Exception {
+        ContentHashIndex index = new ContentHashIndex(root);
+        final long now = System.currentTimeMillis();
+        index.put("/a/file", 10, now, MD5);
+        assertNull(index.get("/a/file", 10, now));
+    }
+
+    @Test
+    public void invalidatesSubtree() throws Exception {
+        ContentHashIndex index = new ContentHashIndex(root);
+        index.put("/a/file", 10, MTIME, MD5);
+        index.put("/a/b/file", 10, MTIME, MD5);
+        index.put("/a0", 10, MTIME, MD5);
+        index.put("/ab", 10, MTIME, MD5);
+        index.invalidate("/a");
+        assertNull(index.get("/a/file", 10, MTIME));
+        assertNull(index.get("/a/b/file", 10, MTIME));
+        assertEquals(MD5, index.get("/a0", 10, MTIME));
+        assertEquals(MD5, index.get("/ab", 10, MTIME));
+    }
+
+    @Test
+    public void restoresSumsFromIndexFile() throws Exception {
+        ContentHashIndex index = new ContentHashIndex(root);
+        index.put("/a/file", 10, MTIME, MD5);
+        index.reset();
+
+        index = new ContentHashIndex(root);
+        assertEquals(MD5, index.get("/a/file", 10, MTIME));
+    }
+
+    @Test
+    public void ignoresCorruptedIndexFile() throws Exception {
+        ContentHashIndex index = new ContentHashIndex(root);
+        index.put("/a/file", 10, MTIME, MD5);
+        index.save();
+        final java.io.File indexFile = new java.io.File(new java.io.File(root, FSMountPoint.SERVICE_DIR), ContentHashIndex.INDEX_FILE);
+        try (OutputStream out = new FileOutputStream(indexFile)) {
+            out.write(new byte[]{0, 0, 0, 1, 0, 0, 0, 5, 1, 2});
+        }
+
+        index = new ContentHashIndex(root);
+        assertNull(index.get("/a/file", 10, MTIME));
+        index.put("/b/file", 10, MTIME, MD5);
+        index.save();
+
+        index = new ContentHashIndex(root);
+        assertEquals(MD5, index.get("/b/file", 10, MTIME));
+    }
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.vfs.server.Path;
+import org.eclipse.che.api.vfs.server.PathLockFactory;
+import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
+import org.eclipse.che.api.vfs.shared.dto.Principal;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class LogMetadataStoreTest {
+    private java.io.File root;
+    private java.io.File logFile;
+
+    @Before
+    public void setUp() throws Exception {
+        java.io.File testDir = new java.io.File(Thread.currentThread().getContextClassLoader().getResource(".").toURI()).getParentFile();
+        root = new java.io.File(testDir, "metadata-store");
+        IoUtil.deleteRecursive(root);
+        assertTrue(root.mkdirs());
+        logFile = new java.io.File(new java.io.File(root, FSMountPoint.SERVICE_DIR), LogMetadataStore.LOG_FILE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void restoresMetadataFromLog() throws Exception {
+        LogMetadataStore store = new LogMetadataStore(root);
+        store.setProperties(Path.fromString("/a"), properties("a", "1"));
+        store.setProperties(Path.fromString("/a"), properties("a", "2"));
+        store.setLock(Path.fromString("/a/file"), new FileLock("token", 100));
+        store.setLock(Path.fromString("/b"), new FileLock("other", 100));
+        store.setLock(Path.fromString("/b"), null);
+        store.reset();
+
+        store = new LogMetadataStore(root);
+        assertArrayEquals(new String[]{"2"}, store.getProperties(Path.fromString("/a")).get("a"));
+        assertEquals(new FileLock("token", 100), store.getLock(Path.fromString("/a/file")));
+        assertNull(store.getLock(Path.fromString("/b")));
+        store.reset();
+    }
+
+    @Test
+    public void discardsIncompleteRecordAtEndOfLog() throws Exception {
+        LogMetadataStore store = new LogMetadataStore(root);
+        store.setProperties(Path.fromString("/a"), properties("a", "1"));
+        store.reset();
+        final long length = logFile.length();
+        // Emulate crash in the middle of writing of record.
+        try (OutputStream out = new FileOutputStream(logFile, true)) {
+            out.write(new byte[]{0, 0, 0, 100, 1, 2, 3});
+        }
+
+        store = new LogMetadataStore(root);
+        assertArrayEquals(new String[]{"1"}, store.getProperties(Path.fromString("/a")).get("a"));
+        assertEquals(length, logFile.length());
+        store.setProperties(Path.fromString("/b"), properties("b", "1"));
+        store.reset();
+
+        store = new LogMetadataStore(root);
+        assertArrayEquals(new String[]{"1"}, store.getProperties(Path.fromString("/a")).get("a"));
+        assertArrayEquals(new String[]{"1"}, store.getProperties(Path.fromString("/b")).get("b"));
+        store.reset();
+    }
+
+    @Test
+    public void compactsLog() throws Exception {
+        LogMetadataStore store = new LogMetadataStore(root);
+        store.setProperties(Path.fromString("/a"), properties("a", "0"));
+        final long recordLength = logFile.length();
+        for (int i = 1; i <= 2000; i++) {
+            store.setProperties(Path.fromString("/a"), properties("a", String.valueOf(i)));
+        }
+        assertTrue(logFile.length() < recordLength * 1500);
+        store.reset();
+
+        store = new LogMetadataStore(root);
+        assertArrayEquals(new String[]{"2000"}, store.getProperties(Path.fromString("/a")).get("a"));
+        store.reset();
+    }
+
+    @Test
+    public void compactsLogAfterRemovingSubtree() throws Exception {
+        LogMetadataStore store = new LogMetadataStore(root);
+        for (int i = 0; i < 1200; i++) {
+            store.setProperties(Path.fromString("/a/" + i), properties("x", "1"));
+        }
+        store.setProperties(Path.fromString("/b"), properties("x", "1"));
+        final long length = logFile.length();
+
+        store.delete(Path.fromString("/a"));
+
+        assertTrue(logFile.length() < length / 100);
+        store.reset();
+
+        store = new LogMetadataStore(root);
+        assertTrue(store.getProperties(Path.fromString("/a/0")).isEmpty());
+        assertArrayEquals(new String[]{"1"}, store.getProperties(Path.fromString("/b")).get("x"));
+        store.reset();
+    }
+
+    @Test
+    public void removesSubtree() throws Exception {
+        final LogMetadataStore store = new LogMetadataStore(root);
+        store.setProperties(Path.fromString("/a"), properties("x", "1"));
+        store.setProperties(Path.fromString("/a/b"), properties("x", "1"));
+        store.setLock(Path.fromString("/a/b/c"), new FileLock("token", 100));
+        store.setProperties(Path.fromString("/ab"), properties("x", "1"));
+
+        store.delete(Path.fromString("/a"));
+
+        assertTrue(store.getProperties(Path.fromString("/a")).isEmpty());
+        assertTrue(store.getProperties(Path.fromString("/a/b")).isEmpty());
+        assertNull(store.getLock(Path.fromString("/a/b/c")));
+        assertArrayEquals(new String[]{"1"}, store.getProperties(Path.fromString("/ab")).get("x"));
+        store.reset();
+    }
+
+    @Test
+    public void copiesPropertiesOfSubtree() throws Exception {
+        final LogMetadataStore store = new LogMetadataStore(root);
+        store.setProperties(Path.fromString("/a"), properties("x", "a"));
+        store.setProperties(Path.fromString("/a/b"), properties("x", "b"));
+        store.setProperties(Path.fromString("/a/c"), properties("x", "c"));
+        store.setProperties(Path.fromString("/a/c/d"), properties("x", "d"));
+        store.setLock(Path.fromString("/a/b"), new FileLock("token", 100));
+
+        store.copyProperties(Path.fromString("/a"), Path.fromString("/z"), Collections.singletonList(Path.fromString("/a/c")));
+
+        assertArrayEquals(new String[]{"a"}, store.getProperties(Path.fromString("/z")).get("x"));
+        assertArrayEquals(new String[]{"b"}, store.getProperties(Path.fromString("/z/b")).get("x"));
+        assertTrue(store.getProperties(Path.fromString("/z/c")).isEmpty());
+        assertTrue(store.getProperties(Path.fromString("/z/c/d")).isEmpty());
+        assertNull(store.getLock(Path.fromString("/z/b")));
+        store.reset();
+    }
+
+    @Test
+    public void movesMetadataOfSubtree() throws Exception {
+        final Principal user = DtoFactory.getInstance().createDto(Principal.class).withName("andrew").withType(Principal.Type.USER);
+        LogMetadataStore store = new LogMetadataStore(root);
+        store.setProperties(Path.fromString("/a"), properties("x", "a"));
+        store.setACL(Path.fromString("/a/b/file"), acl(user, BasicPermissions.READ.value()));
+        store.setLock(Path.fromString("/a/b/file"), new FileLock("token", 100));
+        store.setProperties(Path.fromString("/a/c"), properties("x", "c"));
+        store.setProperties(Path.fromString("/z/old"), properties("x", "old"));
+
+        // Rename of folder '/a' to '/z'. Item '/a/c' is not copied.
+        store.move(Path.fromString("/a"), Path.fromString("/z"), Collections.singletonList(Path.fromString("/a/c")));
+        store.reset();
+
+        store = new LogMetadataStore(root);
+        assertTrue(store.getProperties(Path.fromString("/a")).isEmpty());
+        assertNull(store.getACL(Path.fromString("/a/b/file")));
+        assertNull(store.getLock(Path.fromString("/a/b/file")));
+        assertTrue(store.getProperties(Path.fromString("/a/c")).isEmpty());
+        assertArrayEquals(new String[]{"a"}, store.getProperties(Path.fromString("/z")).get("x"));
+        assertEquals(Collections.singleton(BasicPermissions.READ.value()),
+                     store.getACL(Path.fromString("/z/b/file")).getPermissions(user));
+        assertEquals(new FileLock("token", 100), store.getLock(Path.fromString("/z/b/file")));
+        assertTrue(store.getProperties(Path.fromString("/z/c")).isEmpty());
+        assertTrue(store.getProperties(Path.fromString("/z/old")).isEmpty());
+        store.reset();
+    }
+
+    @Test
+    public void returnsCopyOfACL() throws Exception {
+        final Principal user = DtoFactory.getInstance().createDto(Principal.class).withName("andrew").withType(Principal.Type.USER);
+        final LogMetadataStore store = new LogMetadataStore(root);
+        store.setACL(Path.fromString("/a"), acl(user, BasicPermissions.READ.value()));
+
+        store.getACL(Path.fromString("/a")).update(Collections.<AccessControlEntry>emptyList(), true);
+
+        assertEquals(Collections.singleton(BasicPermissions.READ.value()), store.getACL(Path.fromString("/a")).getPermissions(user));
+        store.reset();
+    }
+
+    @Test
+    public void importsMetadataFromServiceDirectories() throws Exception {
+        assertTrue(new java.io.File(root, "a").mkdirs());
+        final ServiceDirMetadataStore serviceDirStore = new ServiceDirMetadataStore(root, new PathLockFactory(4));
+        serviceDirStore.setProperties(Path.ROOT, properties("x", "root"));
+        serviceDirStore.setProperties(Path.fromString("/a"), properties("x", "a"));
+        serviceDirStore.setProperties(Path.fromString("/a/b"), properties("x", "b"));
+        serviceDirStore.setLock(Path.fromString("/a/b"), new FileLock("token", 100));
+
+        final LogMetadataStore store = new LogMetadataStore(root);
+        assertArrayEquals(new String[]{"root"}, store.getProperties(Path.ROOT).get("x"));
+        assertArrayEquals(new String[]{"a"}, store.getProperties(Path.fromString("/a")).get("x"));
+        assertArrayEquals(new String[]{"b"}, store.getProperties(Path.fromString("/a/b")).get("x"));
+        assertEquals(new FileLock("token", 100), store.getLock(Path.fromString("/a/b")));
+        assertTrue(logFile.exists());
+        store.reset();
+    }
+
+    private AccessControlList acl(Principal principal, String permission) {
+        final Map<Principal, Set<String>> permissions = new HashMap<>(1);
+        permissions.put(principal, Collections.singleton(permission));
+        return new AccessControlList(permissions);
+    }
+
+    private Map<String, String[]> properties(String name, String value) {
+        final Map<String, String[]> properties = new HashMap<>(1);
+        properties.put(name, new String[]{value});
+        return properties;
+    }
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.vfs.impl.fs;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.vfs.server.SystemPathsFilter;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.user.UserImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author agent
+ */
+public class MountPointWatcherTest {
+    private java.io.File                    root;
+    private FSMountPoint                    mountPoint;
+    private BlockingQueue<ChangesetEvent>   events;
+    private EventSubscriber<ChangesetEvent> subscriber;
+
+    @Before
+    public void setUp() throws Exception {
+        java.io.File testDir = new java.io.File(Thread.currentThread().getContextClassLoader().getResource(".").toURI()).getParentFile();
+        root = new java.io.File(testDir, "watched-fs");
+        IoUtil.deleteRecursive(root);
+        assertTrue(new java.io.File(root, "a").mkdirs());
+        mountPoint = new FSMountPoint("my-ws", root, new EventService(), null, SystemPathsFilter.ANY);
+        events = new LinkedBlockingQueue<>();
+        subscriber = new EventSubscriber<ChangesetEvent>() {
+            @Override
+            public void onEvent(ChangesetEvent event) {
+                events.add(event);
+            }
+        };
+        mountPoint.getEventService().subscribe(subscriber);
+        MountPointWatcher.add(mountPoint);
+        // Directories are registered in background.
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!MountPointWatcher.isWatched(mountPoint) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(MountPointWatcher.isWatched(mountPoint));
+        EnvironmentContext.getCurrent().setUser(new UserImpl("admin", "admin", null, Arrays.asList("workspace/developer"), false));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        MountPointWatcher.remove(mountPoint);
+        mountPoint.getEventService().unsubscribe(subscriber);
+        IoUtil.deleteRecursive(root);
+        EnvironmentContext.reset();
+    }
+
+    @Test
+    public void reportsBurstOfExternalChangesWithSingleEvent() throws Exception {
+        Files.write(new java.io.File(root, "a/file1.txt").toPath(), "file1".getBytes());
+        assertTrue(new java.io.File(root, "a/b").mkdir());
+        Files.write(new java.io.File(root, "a/b/file2.txt").toPath(), "file2".getBytes());
+        Files.write(new java.io.File(root, "a/file1.txt").toPath(), "updated".getBytes());
+
+        final ChangesetEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("/a", event.getPath());
+        final Map<String, ChangesetEvent.Change> changes = new HashMap<>();
+        for (ChangesetEvent.Change change : event.getChanges()) {
+            changes.put(change.getPath(), change);
+        }
+        assertEquals(VirtualFileEvent.ChangeType.CREATED, changes.get("/a/file1.txt").getType());
+        assertEquals(VirtualFileEvent.ChangeType.CREATED, changes.get("/a/b").getType());
+        assertTrue(changes.get("/a/b").isFolder());
+        assertNull(events.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void reportsRemovedFolder() throws Exception {
+        assertTrue(new java.io.File(root, "a/b/c").mkdirs());
+        assertNotNull(events.poll(10, TimeUnit.SECONDS));
+
+        assertTrue(IoUtil.deleteRecursive(new java.io.File(root, "a/b")));
+
+        final ChangesetEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event);
+        ChangesetEvent.Change removed = null;
+        for (ChangesetEvent.Change change : event.getChanges()) {
+            if ("/a/b".equals(change.getPath())) {
+                removed = change;
+            }
+        }
+        assertNotNull(removed);
+        assertEquals(VirtualFileEvent.ChangeType.DELETED, removed.getType());
+        assertTrue(removed.isFolder());
+    }
+
+    @Test
+    public void ignoresTemporaryFilesAndChangesMadeThroughApi() throws Exception {
+        final java.io.File temp = new java.io.File(root, "a/temp.txt");
+        Files.write(temp.toPath(), "temp".getBytes());
+        assertTrue(temp.delete());
+        mountPoint.getVirtualFile("/a").createFile("file.txt", null, new ByteArrayInputStream("file".getBytes()));
+        mountPoint.getVirtualFile("/a").createFolder("b");
+
+        assertNull(events.poll(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void reportsExternalChangesInFolderCreatedThroughApi() throws Exception {
+        mountPoint.getVirtualFile("/a").createFolder("b");
+        waitForApiChangesProcessed();
+        // E.g. git clone in folder created through API.
+        Files.write(new java.io.File(root, "a/b/cloned.txt").toPath(), "cloned".getBytes());
+
+        final ChangesetEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event);
+        final Map<String, ChangesetEvent.Change> changes = new HashMap<>();
+        for (ChangesetEvent.Change change : event.getChanges()) {
+            changes.put(change.getPath(), change);
+        }
+        assertEquals(VirtualFileEvent.ChangeType.CREATED, changes.get("/a/b/cloned.txt").getType());
+        assertNull(changes.get("/a/b"));
+    }
+
+    @Test
+    public void ignoresItemsOfFolderCopiedThroughApi() throws Exception {
+        final VirtualFile folder = mountPoint.getVirtualFile("/a").createFolder("b");
+        folder.createFolder("c").createFile("file.txt", null, new ByteArrayInputStream("file".getBytes()));
+        assertNull(events.poll(2, TimeUnit.SECONDS));
+
+        folder.copyTo(mountPoint.getRoot());
+
+        assertNull(events.poll(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void reportsExternalUpdateOfFileChangedThroughApi() throws Exception {
+        mountPoint.getVirtualFile("/a").createFile("file.txt", null, new ByteArrayInputStream("file".getBytes()));
+        Files.write(new java.io.File(root, "a/file.txt").toPath(), "updated externally".getBytes());
+
+        final ChangesetEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(1, event.getChanges().size());
+        assertEquals("/a/file.txt", event.getChanges().get(0).getPath());
+    }
+
+    @Test
+    public void holdsBackChangesInFolderThatIsBeingChangedThroughApi() throws Exception {
+        MountPointWatcher.startedByApi(mountPoint, "/a");
+        // Slow import, its changes are published when it is finished.
+        Files.write(new java.io.File(root, "a/imported.txt").toPath(), "imported".getBytes());
+        Files.write(new java.io.File(root, "outside.txt").toPath(), "outside".getBytes());
+
+        final ChangesetEvent event = events.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(1, event.getChanges().size());
+        assertEquals("/outside.txt", event.getChanges().get(0).getPath());
+        assertNull(events.poll(1, TimeUnit.SECONDS));
+
+        MountPointWatcher.changedByApi(mountPoint, new ChangesetEvent("my-ws", "/a", Arrays.asList(
+                new ChangesetEvent.Change("/a/imported.txt", VirtualFileEvent.ChangeType.CREATED, false))));
+        MountPointWatcher.finishedByApi(mountPoint, "/a");
+
+        assertNull(events.poll(2, TimeUnit.SECONDS));
+    }
+
+    private void waitForApiChangesProcessed() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!MountPointWatcher.isApiChangesProcessed(mountPoint) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(MountPointWatcher.isApiChangesProcessed(mountPoint));
+    }
+}
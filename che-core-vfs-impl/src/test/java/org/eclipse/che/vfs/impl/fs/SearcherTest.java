@@ -35,6 +35,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.HttpHeaders;
@@ -144,15 +145,25 @@ public class SearcherTest extends LocalFileSystemTest {
         }
     }
 
+    public void testInitialIndexingMetrics() throws Exception {
+        assertTrue(searcher.getTimeToSearchable() >= 0);
+        assertEquals(0, searcher.getInitiallyQueuedFiles());
+        refreshSearcher();
+        IndexSearcher luceneSearcher = searcherManager.acquire();
+        TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", "/")), 1000);
+        assertEquals(topDocs.totalHits, searcher.getInitiallyIndexedFiles());
+        searcherManager.release(luceneSearcher);
+    }
+
     public void testDeleteFile() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(file1).delete(null);
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
         assertEquals(0, topDocs.totalHits);
@@ -160,14 +171,14 @@ public class SearcherTest extends LocalFileSystemTest {
     }
 
     public void testDeleteFolder() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(searchTestPath).delete(null);
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(0, topDocs.totalHits);
@@ -175,14 +186,14 @@ public class SearcherTest extends LocalFileSystemTest {
     }
 
     public void testAdd() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).createFile("new_file.txt", null, new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(5, topDocs.totalHits);
@@ -190,14 +201,14 @@ public class SearcherTest extends LocalFileSystemTest {
     }
 
     public void testUpdate() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).updateContent(new ByteArrayInputStream("updated content".getBytes()), null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
         assertEquals(1, topDocs.totalHits);
@@ -205,7 +216,7 @@ public class SearcherTest extends LocalFileSystemTest {
     }
 
     public void testMove() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = createDirectory(testRootPath, "___destination");
         String expected = destination + '/' + "SearcherTest_File03";
@@ -214,7 +225,7 @@ public class SearcherTest extends LocalFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).moveTo(mountPoint.getVirtualFile(destination), null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -224,7 +235,7 @@ public class SearcherTest extends LocalFileSystemTest {
     }
 
     public void testCopy() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = createDirectory(testRootPath, "___destination");
         String expected = destination + '/' + "SearcherTest_File03";
@@ -233,7 +244,7 @@ public class SearcherTest extends LocalFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).copyTo(mountPoint.getVirtualFile(destination));
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -244,14 +255,14 @@ public class SearcherTest extends LocalFileSystemTest {
 
     public void testRename() throws Exception {
         String newName = "___renamed";
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", file2)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).rename(newName, null, null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath + '/' + newName)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -264,14 +275,14 @@ public class SearcherTest extends LocalFileSystemTest {
         String newName = FILE_NAME + "A";
         String newPath =searchTestPath + '/' + newName;
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", file4)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file4).rename(newName, null, null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", newPath)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -288,14 +299,14 @@ public class SearcherTest extends LocalFileSystemTest {
 
     public void testRenameFolder() throws Exception {
         String newName = "___renamed";
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).rename(newName, null, null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
 
         String newPath = testRootPath + "/" + newName;
@@ -310,14 +321,14 @@ public class SearcherTest extends LocalFileSystemTest {
     public void testRenameFolderByAddingFewNewSymbol() throws Exception {
         String newName = SEARCH_FOLDER_PATH + "A";
         String newPath = searchTestPath + "A";
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).rename(newName, null, null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
 
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", newPath)), 10);
@@ -326,4 +337,10 @@ public class SearcherTest extends LocalFileSystemTest {
         assertEquals(4, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
     }
+
+    /** Waits until all changes are applied to the index and reopens searcher. */
+    private void refreshSearcher() throws Exception {
+        assertTrue(searcher.waitForIndexed(searcher.getLastSequence(), 10, TimeUnit.SECONDS));
+        searcherManager.maybeRefresh();
+    }
 }
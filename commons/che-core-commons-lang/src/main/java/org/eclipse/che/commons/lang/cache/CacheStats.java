@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+/**
+ * Snapshot of statistics of {@link ConcurrentLoadingCache}.
+ *
+ * @author agent
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long loadFailureCount;
+    private final long evictionCount;
+    private final long evictionWeight;
+
+    CacheStats(long hitCount, long missCount, long loadCount, long loadFailureCount, long evictionCount, long evictionWeight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+    }
+
+    /** Number of lookups that found value in the cache. */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** Number of lookups that did not find value in the cache. */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /** Number of values loaded successfully by the cache. */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /** Number of failed attempts to load value. */
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /** Number of entries that were evicted because of size limit of the cache. */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /** Sum of weights of entries that were evicted because of size limit of the cache. */
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    /** Ratio of lookups that found value in the cache or {@code 1.0} if there were no lookups at all. */
+    public double getHitRate() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double)hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+               "hitCount=" + hitCount +
+               ", missCount=" + missCount +
+               ", loadCount=" + loadCount +
+               ", loadFailureCount=" + loadFailureCount +
+               ", evictionCount=" + evictionCount +
+               ", evictionWeight=" + evictionWeight +
+               '}';
+    }
+}
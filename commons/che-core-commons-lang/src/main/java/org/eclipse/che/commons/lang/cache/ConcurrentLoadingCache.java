@@ -0,0 +1,729 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * Concurrent cache with size (or weight) limit and W-TinyLFU eviction policy.
+ * <p/>
+ * Entries are kept in {@link ConcurrentHashMap}, so lookups do not take any locks. Instead of reordering of LRU lists on each
+ * read, access to the entry is recorded in small striped lossy buffer. The buffers are drained, and the eviction policy is
+ * updated, under the eviction lock when buffer becomes full or when any entry is added, updated or removed.
+ * <p/>
+ * Eviction policy:
+ * <ul>
+ * <li>New entries are placed in the small "window" LRU queue (1% of maximum weight)</li>
+ * <li>Entry that is pushed out of window becomes candidate for the main SLRU area. Candidate is admitted only if it is
+ * accessed more frequently then the least recently used entry of the probationary segment of the main area. Otherwise
+ * candidate is evicted. Frequency of access is estimated with {@link FrequencySketch}</li>
+ * <li>Entry in probationary segment that is accessed again moves to the protected segment (80% of main area)</li>
+ * </ul>
+ * Usage:
+ * <pre>
+ *     ConcurrentLoadingCache&lt;Path, FileMetadata&gt; cache = new ConcurrentLoadingCache&lt;Path, FileMetadata&gt;(1000) {
+ *         &#64;Override
+ *         protected FileMetadata loadValue(Path key) {
+ *             return readMetadata(key);
+ *         }
+ *     };
+ * </pre>
+ * Cache may be configured by overriding its methods:
+ * <ul>
+ * <li>{@link #loadValue(Object)} loads value if it is not cached yet. Value is loaded not more then once if many threads
+ * try to get value for the same key at the same time</li>
+ * <li>{@link #weigh(Object, Object)} gets weight of entry, by default each entry has weight {@code 1}, so maximum weight
+ * of the cache is max number of entries in the cache</li>
+ * <li>{@link #evict(Object, Object, RemovalCause)} is notified about each entry removed from cache</li>
+ * </ul>
+ *
+ * @author agent
+ * @see <a href="http://arxiv.org/pdf/1512.00727.pdf">TinyLFU: A Highly Efficient Cache Admission Policy</a>
+ */
+public class ConcurrentLoadingCache<K, V> {
+    /** The reason why entry was removed from the cache. */
+    public enum RemovalCause {
+        /** Entry was removed with method {@link #remove(Object)}. */
+        EXPLICIT,
+        /** Value of entry was replaced with method {@link #put(Object, Object)}. */
+        REPLACED,
+        /** Entry was evicted due to size limit of the cache. */
+        SIZE,
+        /** Entry was removed with method {@link #clear()}. */
+        CLEARED
+    }
+
+    private static final int NCPU               = Runtime.getRuntime().availableProcessors();
+    private static final int READ_BUFFER_NUM    = Math.min(Integer.highestOneBit(NCPU * 4 - 1) << 1, 64);
+    private static final int READ_BUFFER_SIZE   = 32;
+    private static final int READ_BUFFER_MASK   = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN  = READ_BUFFER_SIZE / 2;
+    private static final int WINDOW_PERCENT     = 1;
+    private static final int PROTECTED_PERCENT  = 80;
+
+    // Position of entry in eviction policy.
+    private static final int NONE      = 0; // Entry is added in map but is not processed by eviction policy yet.
+    private static final int WINDOW    = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int DEAD      = 4; // Entry is removed from map and from eviction policy.
+
+    // Write tasks.
+    private static final int ADD    = 0;
+    private static final int UPDATE = 1;
+    private static final int REMOVE = 2;
+
+    private final ConcurrentHashMap<K, Node<K, V>>    data;
+    private final ConcurrentHashMap<K, FutureTask<V>> loadings;
+    private final ReadBuffer<K, V>[]                  readBuffers;
+    private final ReentrantLock                       evictionLock;
+    private final FrequencySketch                     sketch;
+    private final AccessOrderDeque<K, V>              windowQueue;
+    private final AccessOrderDeque<K, V>              probationQueue;
+    private final AccessOrderDeque<K, V>              protectedQueue;
+    private final long                                maximumWeight;
+    private final long                                windowMaximum;
+    private final long                                protectedMaximum;
+
+    private final LongAdder hitCount;
+    private final LongAdder missCount;
+    private final LongAdder loadCount;
+    private final LongAdder loadFailureCount;
+    private final LongAdder evictionCount;
+    private final LongAdder evictionWeight;
+
+    // Guarded by evictionLock.
+    private long weightedSize;
+    private long windowWeightedSize;
+    private long protectedWeightedSize;
+
+    /**
+     * @param maximumWeight
+     *         max weight of all entries in the cache. If method {@link #weigh(Object, Object)} is not overridden this is the max
+     *         number of entries in the cache.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLoadingCache(long maximumWeight) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Maximum weight must be greater than zero. ");
+        }
+        this.maximumWeight = maximumWeight;
+        windowMaximum = Math.max(1, maximumWeight * WINDOW_PERCENT / 100);
+        protectedMaximum = (maximumWeight - windowMaximum) * PROTECTED_PERCENT / 100;
+        data = new ConcurrentHashMap<>((int)Math.min(maximumWeight, 1 << 10));
+        loadings = new ConcurrentHashMap<>();
+        readBuffers = new ReadBuffer[READ_BUFFER_NUM];
+        for (int i = 0; i < READ_BUFFER_NUM; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+        evictionLock = new ReentrantLock();
+        sketch = new FrequencySketch(maximumWeight);
+        windowQueue = new AccessOrderDeque<>();
+        probationQueue = new AccessOrderDeque<>();
+        protectedQueue = new AccessOrderDeque<>();
+        hitCount = new LongAdder();
+        missCount = new LongAdder();
+        loadCount = new LongAdder();
+        loadFailureCount = new LongAdder();
+        evictionCount = new LongAdder();
+        evictionWeight = new LongAdder();
+    }
+
+    /**
+     * Gets value from the cache. If value is not cached yet it is loaded with method {@link #loadValue(Object)} and saved in
+     * the cache.
+     *
+     * @param key
+     *         key
+     * @return value or {@code null} if value is not cached and {@link #loadValue(Object)} returns {@code null}
+     * @throws RuntimeException
+     *         if failed to load value
+     */
+    public V get(K key) {
+        checkNotNull(key, "key");
+        final Node<K, V> node = data.get(key);
+        if (node != null) {
+            hitCount.increment();
+            afterRead(node);
+            return node.value;
+        }
+        missCount.increment();
+        return load(key);
+    }
+
+    /**
+     * Gets value from the cache. Unlike to method {@link #get(Object)} this method never loads value.
+     *
+     * @param key
+     *         key
+     * @return value or {@code null} if there is no value for specified key in the cache
+     */
+    public V getIfPresent(K key) {
+        checkNotNull(key, "key");
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * Puts value in the cache.
+     *
+     * @return previous value or {@code null} if there was no value for specified key in the cache
+     */
+    public V put(K key, final V value) {
+        checkNotNull(key, "key");
+        checkNotNull(value, "value");
+        final Node<K, V> newNode = new Node<>(key, value);
+        final Object[] previous = new Object[1];
+        final Node<K, V> node = data.compute(key, new BiFunction<K, Node<K, V>, Node<K, V>>() {
+            @Override
+            public Node<K, V> apply(K k, Node<K, V> prior) {
+                if (prior == null) {
+                    return newNode;
+                }
+                previous[0] = prior.value;
+                prior.value = value;
+                return prior;
+            }
+        });
+        if (node == newNode) {
+            afterWrite(node, ADD);
+            return null;
+        }
+        afterWrite(node, UPDATE);
+        @SuppressWarnings("unchecked")
+        final V previousValue = (V)previous[0];
+        if (previousValue != value) {
+            evict(key, previousValue, RemovalCause.REPLACED);
+        }
+        return previousValue;
+    }
+
+    /**
+     * Removes value from the cache.
+     *
+     * @return removed value or {@code null} if there was no value for specified key in the cache
+     */
+    public V remove(K key) {
+        checkNotNull(key, "key");
+        loadings.remove(key);
+        final Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        afterWrite(node, REMOVE);
+        evict(key, node.value, RemovalCause.EXPLICIT);
+        return node.value;
+    }
+
+    /** Checks is value for specified key is cached. This method never loads value and does not affect eviction policy. */
+    public boolean contains(K key) {
+        checkNotNull(key, "key");
+        return data.containsKey(key);
+    }
+
+    /** Removes all entries from the cache. */
+    public void clear() {
+        final List<Node<K, V>> removed = new ArrayList<>();
+        loadings.clear();
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    removeFromPolicy(node);
+                    removed.add(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        for (Node<K, V> node : removed) {
+            evict(node.key, node.value, RemovalCause.CLEARED);
+        }
+    }
+
+    /** Gets number of entries in the cache. */
+    public int size() {
+        return data.size();
+    }
+
+    /** Gets sum of weights of all entries in the cache. */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Gets max weight of all entries in the cache. */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /** Gets snapshot of statistics of this cache. */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(),
+                              missCount.sum(),
+                              loadCount.sum(),
+                              loadFailureCount.sum(),
+                              evictionCount.sum(),
+                              evictionWeight.sum());
+    }
+
+    /** Applies all pending updates of eviction policy. Typically there is no need to call this method. */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Loads value in implementation specific way. By default this method returns {@code null}, that means cache does not
+     * load values.
+     *
+     * @param key
+     *         key
+     * @return value or {@code null} if value for specified key does not exist
+     * @throws RuntimeException
+     *         if failed to load value
+     */
+    protected V loadValue(K key) throws RuntimeException {
+        return null;
+    }
+
+    /**
+     * Gets weight of the entry. Weight of entry is counted once when entry is added or updated. By default each entry has
+     * weight {@code 1}.
+     *
+     * @param key
+     *         key
+     * @param value
+     *         value
+     * @return non-negative weight of entry
+     */
+    protected int weigh(K key, V value) {
+        return 1;
+    }
+
+    /**
+     * Should be called when value is removed from the cache. Eviction due to size limit is notified after the eviction lock
+     * is released, implementation may do slow operations, e.g. save value in persistent storage, but should not expect
+     * that this method is called in thread that caused eviction.
+     *
+     * @param key
+     *         key
+     * @param value
+     *         removed value
+     * @param cause
+     *         the reason why value is removed
+     */
+    protected void evict(K key, V value, RemovalCause cause) {
+        // nothing by default
+    }
+
+    private V load(final K key) {
+        final FutureTask<V> task = new FutureTask<>(new Callable<V>() {
+            @Override
+            public V call() {
+                return loadValue(key);
+            }
+        });
+        final FutureTask<V> loading = loadings.putIfAbsent(key, task);
+        if (loading != null) {
+            // Value is being loaded by another thread.
+            final V value = waitFor(loading);
+            final Node<K, V> node = data.get(key);
+            if (node != null) {
+                afterRead(node);
+            }
+            return value;
+        }
+        final Node<K, V> loaded = data.get(key);
+        if (loaded != null) {
+            // Value was loaded and published by another thread before we registered our task.
+            loadings.remove(key, task);
+            afterRead(loaded);
+            return loaded.value;
+        }
+        // Load value outside of the map, do not hold lock of the map's bin while loading.
+        task.run();
+        final V value;
+        try {
+            value = waitFor(task);
+        } catch (RuntimeException | Error e) {
+            loadings.remove(key, task);
+            loadFailureCount.increment();
+            throw e;
+        }
+        // Value is not published if key was removed while loading.
+        if (loadings.remove(key, task) && value != null) {
+            final Node<K, V> newNode = new Node<>(key, value);
+            final Node<K, V> prior = data.putIfAbsent(key, newNode);
+            if (prior == null) {
+                loadCount.increment();
+                afterWrite(newNode, ADD);
+            } else {
+                // Value was put with method put() while loading.
+                afterRead(prior);
+                return prior.value;
+            }
+        }
+        return value;
+    }
+
+    private V waitFor(FutureTask<V> task) {
+        boolean interrupted = false;
+        try {
+            for (; ; ) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error)cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        final long id = Thread.currentThread().getId();
+        final ReadBuffer<K, V> buffer = readBuffers[(int)(id ^ (id >>> 16)) & (READ_BUFFER_NUM - 1)];
+        if (buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Node<K, V> node, int task) {
+        final List<Node<K, V>> evicted;
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            switch (task) {
+                case ADD:
+                    addToPolicy(node);
+                    break;
+                case UPDATE:
+                    updateInPolicy(node);
+                    break;
+                case REMOVE:
+                    removeFromPolicy(node);
+                    break;
+            }
+            evicted = evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+        if (evicted != null) {
+            for (Node<K, V> evictedNode : evicted) {
+                evict(evictedNode.key, evictedNode.value, RemovalCause.SIZE);
+            }
+        }
+    }
+
+    /* ===== Methods below must be called while holding the eviction lock. ===== */
+
+    private void drainReadBuffers() {
+        for (ReadBuffer<K, V> readBuffer : readBuffers) {
+            readBuffer.drain(this);
+        }
+    }
+
+    private void addToPolicy(Node<K, V> node) {
+        if (node.queue != NONE) {
+            return;
+        }
+        if (data.get(node.key) != node) {
+            // Removed before we got chance to process it.
+            node.queue = DEAD;
+            return;
+        }
+        final int weight = weigh(node.key, node.value);
+        node.weight = weight;
+        node.queue = WINDOW;
+        windowQueue.addLast(node);
+        windowWeightedSize += weight;
+        weightedSize += weight;
+        sketch.increment(node.key);
+    }
+
+    private void updateInPolicy(Node<K, V> node) {
+        if (node.queue == NONE || node.queue == DEAD) {
+            // Weight of new entry is counted when it is added to the policy.
+            return;
+        }
+        final int weight = weigh(node.key, node.value);
+        final int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queue == WINDOW) {
+            windowWeightedSize += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeightedSize += delta;
+        }
+        onAccess(node);
+    }
+
+    private void removeFromPolicy(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                windowQueue.remove(node);
+                windowWeightedSize -= node.weight;
+                weightedSize -= node.weight;
+                break;
+            case PROBATION:
+                probationQueue.remove(node);
+                weightedSize -= node.weight;
+                break;
+            case PROTECTED:
+                protectedQueue.remove(node);
+                protectedWeightedSize -= node.weight;
+                weightedSize -= node.weight;
+                break;
+        }
+        node.queue = DEAD;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                sketch.increment(node.key);
+                windowQueue.moveToBack(node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                probationQueue.remove(node);
+                protectedQueue.addLast(node);
+                node.queue = PROTECTED;
+                protectedWeightedSize += node.weight;
+                demoteFromProtected();
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                protectedQueue.moveToBack(node);
+                break;
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (protectedWeightedSize > protectedMaximum) {
+            final Node<K, V> node = protectedQueue.peekFirst();
+            if (node == null) {
+                break;
+            }
+            protectedQueue.remove(node);
+            protectedWeightedSize -= node.weight;
+            probationQueue.addLast(node);
+            node.queue = PROBATION;
+        }
+    }
+
+    private List<Node<K, V>> evictEntries() {
+        // Entries that are pushed out of window become candidates at the tail of probation queue.
+        int candidates = 0;
+        while (windowWeightedSize > windowMaximum) {
+            final Node<K, V> node = windowQueue.peekFirst();
+            if (node == null) {
+                break;
+            }
+            windowQueue.remove(node);
+            windowWeightedSize -= node.weight;
+            probationQueue.addLast(node);
+            node.queue = PROBATION;
+            ++candidates;
+        }
+        List<Node<K, V>> evicted = null;
+        while (weightedSize > maximumWeight) {
+            final Node<K, V> victim = probationQueue.peekFirst();
+            final Node<K, V> candidate = candidates > 0 ? probationQueue.peekLast() : null;
+            Node<K, V> node;
+            if (victim == null) {
+                node = protectedQueue.peekFirst();
+                if (node == null) {
+                    node = windowQueue.peekFirst();
+                }
+                if (node == null) {
+                    break;
+                }
+            } else if (candidate == null || candidate == victim) {
+                node = victim;
+                if (candidate != null) {
+                    --candidates;
+                }
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                // Admit candidate, evict the least recently used entry of main area.
+                node = victim;
+            } else {
+                node = candidate;
+                --candidates;
+            }
+            final boolean removed = data.remove(node.key, node);
+            removeFromPolicy(node);
+            if (removed) {
+                evictionCount.increment();
+                evictionWeight.add(node.weight);
+                if (evicted == null) {
+                    evicted = new ArrayList<>(4);
+                }
+                evicted.add(node);
+            }
+        }
+        return evicted;
+    }
+
+    private static void checkNotNull(Object value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(String.format("Null %s. ", name));
+        }
+    }
+
+    /* =============================================== */
+
+    private static final class Node<K, V> {
+        final    K          key;
+        volatile V          value;
+        // Fields below are guarded by the eviction lock.
+        int        weight;
+        int        queue;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** Doubly-linked list of nodes in access order. Not thread safe. */
+    private static final class AccessOrderDeque<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+
+        Node<K, V> peekFirst() {
+            return head;
+        }
+
+        Node<K, V> peekLast() {
+            return tail;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Lossy ring buffer of recent reads. Any thread may add node, if buffer is full or another thread adds node at the same time
+     * the read is not recorded. Nodes are taken from buffer only while holding the eviction lock.
+     */
+    private static final class ReadBuffer<K, V> {
+        final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        final AtomicLong                       writeCounter = new AtomicLong();
+        volatile long readCounter;
+
+        /** Returns {@code true} if buffer should be drained. */
+        boolean offer(Node<K, V> node) {
+            final long head = readCounter;
+            final long tail = writeCounter.get();
+            final long size = tail - head;
+            if (size >= READ_BUFFER_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int)(tail & READ_BUFFER_MASK), node);
+                return size + 1 >= READ_BUFFER_DRAIN;
+            }
+            return false;
+        }
+
+        void drain(ConcurrentLoadingCache<K, V> cache) {
+            long head = readCounter;
+            final long tail = writeCounter.get();
+            while (head < tail) {
+                final int index = (int)(head & READ_BUFFER_MASK);
+                final Node<K, V> node = buffer.get(index);
+                if (node == null) {
+                    // Slot is reserved but node is not published yet.
+                    break;
+                }
+                buffer.lazySet(index, null);
+                cache.onAccess(node);
+                ++head;
+            }
+            readCounter = head;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+/**
+ * Count-Min sketch with 4-bit counters that estimates popularity of the keys for TinyLFU admission policy. Each key is
+ * hashed to four counters, estimated frequency of key is minimal value of them. When number of increments reaches the
+ * sample size all counters are halved, so the sketch "forgets" keys that were popular in the past.
+ * <p/>
+ * Sixteen counters are packed into one {@code long}. All four counters of the key are placed in different slots of the
+ * table but each of them uses different nibble in own slot.
+ * <p/>
+ * This class is not thread safe.
+ *
+ * @author agent
+ * @see <a href="http://arxiv.org/pdf/1512.00727.pdf">TinyLFU: A Highly Efficient Cache Admission Policy</a>
+ */
+final class FrequencySketch {
+    private static final long[] SEED       = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long   RESET_MASK = 0x7777777777777777L;
+    private static final long   ONE_MASK   = 0x1111111111111111L;
+    private static final int    MAX_SIZE   = 1 << 24;
+
+    private final long[] table;
+    private final int    tableMask;
+    private final int    sampleSize;
+    private       int    size;
+
+    /**
+     * @param expectedSize
+     *         expected number of entries in the cache. Accuracy of the sketch decreases if cache contains much more entries.
+     */
+    FrequencySketch(long expectedSize) {
+        final int maximum = (int)Math.min(Math.max(expectedSize, 16), MAX_SIZE);
+        table = new long[Integer.highestOneBit(maximum - 1) << 1];
+        tableMask = table.length - 1;
+        sampleSize = 10 * maximum;
+    }
+
+    /** Gets estimated number of occurrences of the key, value is never greater then 15. */
+    int frequency(Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            final int index = indexOf(hash, i);
+            final int count = (int)((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /** Increments popularity of the key. */
+    void increment(Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /** Halves all counters. */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEED[i]) * SEED[i];
+        h += h >>> 32;
+        return ((int)h) & tableMask;
+    }
+
+    /** Applies supplemental hash function to protect against poor quality of hash codes. */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.lang.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/** Test of ConcurrentLoadingCache class */
+public class ConcurrentLoadingCacheTest {
+    @Test
+    public void shouldLoadValueOnlyOnce() throws Exception {
+        //given
+        final AtomicInteger loads = new AtomicInteger();
+        ConcurrentLoadingCache<String, String> cache = new ConcurrentLoadingCache<String, String>(10) {
+            @Override
+            protected String loadValue(String key) {
+                loads.incrementAndGet();
+                return key.toUpperCase();
+            }
+        };
+        //when
+        String value1 = cache.get("k1");
+        String value2 = cache.get("k1");
+        //then
+        assertEquals(value1, "K1");
+        assertEquals(value2, "K1");
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.stats().getHitCount(), 1);
+        assertEquals(cache.stats().getMissCount(), 1);
+        assertEquals(cache.stats().getLoadCount(), 1);
+    }
+
+    @Test
+    public void shouldNotCacheNullValue() throws Exception {
+        //given
+        ConcurrentLoadingCache<String, String> cache = new ConcurrentLoadingCache<>(10);
+        //when
+        String value = cache.get("k1");
+        //then
+        assertNull(value);
+        assertFalse(cache.contains("k1"));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void shouldNotifyAboutReplacedAndRemovedValues() throws Exception {
+        //given
+        final List<String> removed = new ArrayList<>();
+        ConcurrentLoadingCache<String, String> cache = new ConcurrentLoadingCache<String, String>(10) {
+            @Override
+            protected void evict(String key, String value, RemovalCause cause) {
+                removed.add(value + ':' + cause);
+            }
+        };
+        cache.put("k1", "v1");
+        //when
+        String previous = cache.put("k1", "v2");
+        String removedValue = cache.remove("k1");
+        //then
+        assertEquals(previous, "v1");
+        assertEquals(removedValue, "v2");
+        assertEquals(removed.size(), 2);
+        assertEquals(removed.get(0), "v1:REPLACED");
+        assertEquals(removed.get(1), "v2:EXPLICIT");
+    }
+
+    @Test
+    public void shouldNotBeAbleToKeepMoreThenMaximumWeight() throws Exception {
+        //given
+        final AtomicInteger evicted = new AtomicInteger();
+        ConcurrentLoadingCache<Integer, String> cache = new ConcurrentLoadingCache<Integer, String>(100) {
+            @Override
+            protected int weigh(Integer key, String value) {
+                return value.length();
+            }
+
+            @Override
+            protected void evict(Integer key, String value, RemovalCause cause) {
+                if (cause == RemovalCause.SIZE) {
+                    evicted.incrementAndGet();
+                }
+            }
+        };
+        //when
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "1234567890");
+        }
+        //then
+        assertEquals(cache.size(), 10);
+        assertEquals(cache.weightedSize(), 100);
+        assertEquals(evicted.get(), 90);
+        assertEquals(cache.stats().getEvictionCount(), 90);
+        assertEquals(cache.stats().getEvictionWeight(), 900);
+    }
+
+    @Test
+    public void shouldKeepFrequentlyUsedValuesWhenScanned() throws Exception {
+        //given
+        ConcurrentLoadingCache<Integer, Integer> cache = new ConcurrentLoadingCache<Integer, Integer>(100) {
+            @Override
+            protected Integer loadValue(Integer key) {
+                return key;
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            for (int key = 0; key < 50; key++) {
+                cache.get(key);
+            }
+        }
+        //when
+        // Scan that touches each key only once must not push out popular keys.
+        for (int key = 1000; key < 5000; key++) {
+            cache.get(key);
+        }
+        //then
+        int retained = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.contains(key)) {
+                retained++;
+            }
+        }
+        assertTrue(retained >= 45, String.format("Expected to retain most of popular keys but only %d retained", retained));
+        assertEquals(cache.size(), 100);
+    }
+
+    @Test
+    public void shouldClearCache() throws Exception {
+        //given
+        final AtomicInteger cleared = new AtomicInteger();
+        ConcurrentLoadingCache<Integer, Integer> cache = new ConcurrentLoadingCache<Integer, Integer>(100) {
+            @Override
+            protected void evict(Integer key, Integer value, RemovalCause cause) {
+                if (cause == RemovalCause.CLEARED) {
+                    cleared.incrementAndGet();
+                }
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+        //when
+        cache.clear();
+        //then
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.weightedSize(), 0);
+        assertEquals(cleared.get(), 10);
+    }
+
+    @Test
+    public void shouldKeepConsistentSizeWhenUsedConcurrently() throws Exception {
+        //given
+        final ConcurrentLoadingCache<Integer, Integer> cache = new ConcurrentLoadingCache<Integer, Integer>(64) {
+            @Override
+            protected Integer loadValue(Integer key) {
+                return key;
+            }
+        };
+        final int threads = 8;
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch waiter = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        starter.await();
+                        for (int i = 0; i < 20000; i++) {
+                            final int key = (i * 31 + seed) % 256;
+                            if (i % 10 == 0) {
+                                cache.put(key, key);
+                            } else if (i % 17 == 0) {
+                                cache.remove(key);
+                            } else {
+                                cache.get(key);
+                            }
+                        }
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        waiter.countDown();
+                    }
+                }
+            }.start();
+        }
+        //when
+        starter.countDown();
+        waiter.await();
+        cache.cleanUp();
+        //then
+        assertTrue(cache.size() <= 64);
+        assertEquals(cache.weightedSize(), cache.size());
+    }
+
+    @Test(timeOut = 10000)
+    public void shouldNotBlockOtherKeysWhileLoading() throws Exception {
+        //given
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ConcurrentLoadingCache<Integer, Integer> cache = new ConcurrentLoadingCache<Integer, Integer>(64) {
+            @Override
+            protected Integer loadValue(Integer key) {
+                if (key == 0) {
+                    loadStarted.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return key;
+            }
+        };
+        final Thread slowLoader = new Thread() {
+            @Override
+            public void run() {
+                cache.get(0);
+            }
+        };
+        slowLoader.start();
+        loadStarted.await();
+        //when
+        for (int i = 1; i < 64; i++) {
+            cache.put(i, i);
+            cache.get(i);
+        }
+        cache.remove(1);
+        release.countDown();
+        slowLoader.join();
+        //then
+        assertEquals(cache.get(0), Integer.valueOf(0));
+        assertEquals(cache.stats().getLoadCount(), 1);
+    }
+}
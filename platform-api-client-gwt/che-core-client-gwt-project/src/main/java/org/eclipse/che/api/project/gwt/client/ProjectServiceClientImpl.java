@@ -367,6 +367,9 @@ public class ProjectServiceClientImpl implements ProjectServiceClient {
         if (expression.getSkipCount() != 0) {
             queryParameters.append("&skipCount=").append(expression.getSkipCount());
         }
+        if (expression.getAfter() != null && !expression.getAfter().isEmpty()) {
+            queryParameters.append("&after=").append(expression.getAfter());
+        }
 
         asyncRequestFactory.createGetRequest(requestUrl + queryParameters.toString().replaceFirst("&", "?"))
                 .header(ACCEPT, MimeType.APPLICATION_JSON)
@@ -18,6 +18,7 @@ public class QueryExpression {
     private String text;
     private int    maxItems;
     private int    skipCount;
+    private String after;
 
     /**
      * Get path to start search.
@@ -150,4 +151,26 @@ public class QueryExpression {
         this.skipCount = skipCount;
         return this;
     }
+
+    /**
+     * Get path of the last item of previous page of search results.
+     *
+     * @return path of the last item of previous page
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    /**
+     * Set path of the last item of previous page of search results. Search results are sorted by path, only items after the
+     * specified one are returned.
+     *
+     * @param after
+     *         path of the last item of previous page
+     * @return this {@code QueryExpression}
+     */
+    public QueryExpression setAfter(String after) {
+        this.after = after;
+        return this;
+    }
 }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder;
 
+import com.google.common.base.Joiner;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.builder.dto.BaseBuilderRequest;
@@ -39,9 +40,7 @@ import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
 import org.eclipse.che.api.workspace.server.WorkspaceService;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDescriptor;
 import org.eclipse.che.commons.env.EnvironmentContext;
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.SLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
+import org.eclipse.che.commons.lang.cache.ConcurrentLoadingCache;
 import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.eclipse.che.commons.user.User;
 import org.eclipse.che.dto.server.DtoFactory;
@@ -59,8 +58,10 @@ import javax.inject.Singleton;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -69,15 +70,19 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 
@@ -87,6 +92,13 @@ import static com.google.common.base.MoreObjects.firstNonNull;
  * Accepts all build request and redirects them to the slave-builders. If there is no any available slave-builder at the moment it stores
  * build request and tries send request again. Requests don't stay in this queue forever. Max time (in minutes) for request to be in the
  * queue set up by configuration parameter {@link org.eclipse.che.api.builder.internal.Constants#WAITING_TIME}.
+ * <p/>
+ * Waiting requests don't hold threads. Single dispatcher thread assigns them to slave-builders which have free workers. Number of free
+ * workers of each slave-builder is cached and refreshed in background when build is finished or after {@link
+ * #CHECK_AVAILABLE_BUILDER_DELAY}. Requests
+ * of workspace that has less builds in progress are dispatched first, so one workspace can't occupy all slave-builders while other
+ * workspaces are waiting. Number of waiting requests is limited by configuration parameter {@link
+ * org.eclipse.che.api.builder.internal.Constants#MAX_WAITING_REQUESTS}.
  *
  * @author andrew00x
  * @author Eugene Voevodin
@@ -96,23 +108,45 @@ public class BuildQueue {
     private static final Logger LOG = LoggerFactory.getLogger(BuildQueue.class);
 
     private static final long CHECK_AVAILABLE_BUILDER_DELAY = 2000;
+    private static final int  DEFAULT_MAX_WAITING_REQUESTS  = 1000;
+    /** Number of recent requests that statistics of wait time is calculated for. */
+    private static final int  WAIT_TIME_SAMPLES             = 1024;
 
     private static final AtomicLong sequence = new AtomicLong(1);
 
-    private final ConcurrentMap<String, RemoteBuilderServer> builderServices;
-    private final BuilderSelectionStrategy                   builderSelector;
-    private final ConcurrentMap<Long, BuildQueueTask>        tasks;
-    private final ConcurrentMap<BuilderListKey, BuilderList> builderListMapping;
-    private final int                                        maxExecutionTimeMillis;
-    private final EventService                               eventService;
+    private final ConcurrentMap<String, RemoteBuilderServer>             builderServices;
+    private final BuilderSelectionStrategy                               builderSelector;
+    private final ConcurrentMap<Long, BuildQueueTask>                    tasks;
+    private final ConcurrentMap<BuilderListKey, BuilderList>             builderListMapping;
+    private final int                                                    maxExecutionTimeMillis;
+    private final EventService                                           eventService;
     /** Max time for request to be in queue in milliseconds. */
-    private final long                                       waitingTimeMillis;
-    private final Cache<BaseBuilderRequest, RemoteTask>      successfulBuilds;
-    private final AtomicBoolean                              started;
-    private final long                                       keepResultTimeMillis;
+    private final long                                                   waitingTimeMillis;
+    private final ConcurrentLoadingCache<BaseBuilderRequest, RemoteTask> successfulBuilds;
+    private final AtomicBoolean                                          started;
+    private final long                                                   keepResultTimeMillis;
+    private final ConcurrentMap<RemoteBuilder, BuilderCapacity>          builderCapacities;
+    private final WaitTimeRecorder                                       waitTimes;
+    private final ReentrantLock                                          dispatchLock;
+    private final Condition                                              dispatchRequested;
+    // Fields below are guarded by dispatchLock.
+    /** Requests that are waiting for free builder. */
+    private final List<WaitingRequest>                                   waitingRequests;
+    /** Requests that are sent to builders and are not finished yet. */
+    private final Map<Long, WaitingRequest>                              dispatchedRequests;
+    /** Number of requests that are sent to builders and are not finished yet, per workspace. */
+    private final Map<String, Integer>                                   workspaceLoad;
+    private       int                                                    reservedSlots;
+    private       boolean                                                dispatchNeeded;
 
     private ExecutorService          executor;
     private ScheduledExecutorService scheduler;
+    private Thread                   dispatcher;
+
+    /** Max number of requests that are waiting for free builder. */
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.MAX_WAITING_REQUESTS)
+    private int maxWaitingRequests = DEFAULT_MAX_WAITING_REQUESTS;
 
     /** Optional pre-configured slave builders. */
     @com.google.inject.Inject(optional = true)
@@ -140,9 +174,16 @@ public class BuildQueue {
 
         tasks = new ConcurrentHashMap<>();
         builderListMapping = new ConcurrentHashMap<>();
-        successfulBuilds = new SynchronizedCache<>(new SLRUCache<BaseBuilderRequest, RemoteTask>(200, 400));
+        successfulBuilds = new ConcurrentLoadingCache<>(600);
         builderServices = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
+        builderCapacities = new ConcurrentHashMap<>();
+        waitTimes = new WaitTimeRecorder(WAIT_TIME_SAMPLES);
+        dispatchLock = new ReentrantLock();
+        dispatchRequested = dispatchLock.newCondition();
+        waitingRequests = new ArrayList<>();
+        dispatchedRequests = new HashMap<>();
+        workspaceLoad = new HashMap<>();
     }
 
     /**
@@ -171,6 +212,16 @@ public class BuildQueue {
         return count;
     }
 
+    /**
+     * Get statistics of time that recent requests were waiting for free builder.
+     *
+     * @return statistics of wait time
+     */
+    public WaitTimeStats getWaitTimeStats() {
+        checkStarted();
+        return waitTimes.getStats();
+    }
+
     public List<RemoteBuilderServer> getRegisterBuilderServers() {
         return new ArrayList<>(builderServices.values());
     }
@@ -223,7 +274,11 @@ public class BuildQueue {
                 builderList = newBuilderList;
             }
         }
-        return builderList.addBuilders(builderServer.getRemoteBuilders());
+        final boolean modified = builderList.addBuilders(builderServer.getRemoteBuilders());
+        if (modified) {
+            requestDispatch();
+        }
+        return modified;
     }
 
     /**
@@ -254,6 +309,7 @@ public class BuildQueue {
             for (RemoteBuilder builder : builderList.getBuilders()) {
                 if (url.equals(builder.getBaseUrl())) {
                     modified |= builderList.removeBuilder(builder);
+                    builderCapacities.remove(builder);
                 }
             }
             if (builderList.size() == 0) {
@@ -299,7 +355,7 @@ public class BuildQueue {
         if (!hasBuilder(request)) {
             throw new BuilderException(String.format("Builder '%s' is not available for workspace %s.", request.getBuilder(), wsId));
         }
-        final RemoteTask successfulTask = successfulBuilds.get(request);
+        final RemoteTask successfulTask = successfulBuilds.getIfPresent(request);
         Callable<RemoteTask> callable = null;
         boolean reuse = false;
         if (successfulTask != null) {
@@ -327,23 +383,35 @@ public class BuildQueue {
             request.setTimeout(getBuildTimeout(workspace));
             callable = createTaskFor(request);
         }
-        final Long id = sequence.getAndIncrement();
-        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, reuse);
-        request.setId(id);
-        final BuildQueueTask task = new BuildQueueTask(id, request, waitingTimeMillis, future, eventService, serviceContext.getServiceUriBuilder());
-        tasks.put(id, task);
-        eventService.publish(BuilderEvent.queueStartedEvent(id, wsId, project));
-        executor.execute(future);
-        return task;
+        final boolean dispatch = callable instanceof RemoteBuildCallable;
+        if (dispatch) {
+            reserveWaitingSlot();
+        }
+        try {
+            final Long id = sequence.getAndIncrement();
+            final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, reuse);
+            request.setId(id);
+            final BuildQueueTask task =
+                    new BuildQueueTask(id, request, waitingTimeMillis, future, eventService, serviceContext.getServiceUriBuilder());
+            tasks.put(id, task);
+            eventService.publish(BuilderEvent.queueStartedEvent(id, wsId, project));
+            if (dispatch) {
+                enqueue(new WaitingRequest(future, (RemoteBuildCallable)callable, request));
+            } else {
+                executor.execute(future);
+            }
+            return task;
+        } catch (RuntimeException e) {
+            if (dispatch) {
+                // Request isn't added in queue, so nobody takes reserved slot.
+                releaseWaitingSlot();
+            }
+            throw e;
+        }
     }
 
     protected Callable<RemoteTask> createTaskFor(final BuildRequest request) {
-        return new Callable<RemoteTask>() {
-            @Override
-            public RemoteTask call() throws BuilderException {
-                return getBuilder(request).perform(request);
-            }
-        };
+        return new RemoteBuildCallable(request);
     }
 
     /**
@@ -384,22 +452,34 @@ public class BuildQueue {
         final WorkspaceDescriptor workspace = getWorkspaceDescriptor(wsId, serviceContext);
         request.setTimeout(getBuildTimeout(workspace));
         final Callable<RemoteTask> callable = createTaskFor(request);
-        final Long id = sequence.getAndIncrement();
-        final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, false);
-        request.setId(id);
-        final BuildQueueTask task = new BuildQueueTask(id, request, waitingTimeMillis, future, eventService, serviceContext.getServiceUriBuilder());
-        tasks.put(id, task);
-        executor.execute(future);
-        return task;
+        final boolean dispatch = callable instanceof RemoteBuildCallable;
+        if (dispatch) {
+            reserveWaitingSlot();
+        }
+        try {
+            final Long id = sequence.getAndIncrement();
+            final InternalBuildTask future = new InternalBuildTask(ThreadLocalPropagateContext.wrap(callable), id, wsId, project, false);
+            request.setId(id);
+            final BuildQueueTask task =
+                    new BuildQueueTask(id, request, waitingTimeMillis, future, eventService, serviceContext.getServiceUriBuilder());
+            tasks.put(id, task);
+            if (dispatch) {
+                enqueue(new WaitingRequest(future, (RemoteBuildCallable)callable, request));
+            } else {
+                executor.execute(future);
+            }
+            return task;
+        } catch (RuntimeException e) {
+            if (dispatch) {
+                // Request isn't added in queue, so nobody takes reserved slot.
+                releaseWaitingSlot();
+            }
+            throw e;
+        }
     }
 
     protected Callable<RemoteTask> createTaskFor(final DependencyRequest request) {
-        return new Callable<RemoteTask>() {
-            @Override
-            public RemoteTask call() throws BuilderException {
-                return getBuilder(request).perform(request);
-            }
-        };
+        return new RemoteBuildCallable(request);
     }
 
     private void fillRequestFromProjectDescriptor(ProjectDescriptor descriptor, BaseBuilderRequest request) throws BuilderException {
@@ -499,20 +579,214 @@ public class BuildQueue {
         return builderList;
     }
 
-    // Switched to default for test.
-    // private
-    RemoteBuilder getBuilder(BaseBuilderRequest request) throws BuilderException {
-        final BuilderList builderList = getBuilderList(request.getWorkspace(), request.getProject());
-        if (builderList == null) {
-            // Cannot continue, typically should never happen. At least shared builders should be available for everyone.
-            throw new BuilderException("There is no any builder to process this request. ");
+    // >>>>>>>>>>>>>>>>>>>>>>>> Dispatching of requests
+
+    private void reserveWaitingSlot() throws BuilderException {
+        dispatchLock.lock();
+        try {
+            if (waitingRequests.size() + reservedSlots >= maxWaitingRequests) {
+                throw new BuilderException("Too many build requests are waiting for builder. Try again later.");
+            }
+            reservedSlots++;
+        } finally {
+            dispatchLock.unlock();
         }
-        final RemoteBuilder builder = builderList.getBuilder(request);
-        if (builder == null) {
-            throw new BuilderException("There is no any builder available. ");
+    }
+
+    private void releaseWaitingSlot() {
+        dispatchLock.lock();
+        try {
+            if (reservedSlots > 0) {
+                reservedSlots--;
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private void enqueue(WaitingRequest waitingRequest) {
+        dispatchLock.lock();
+        try {
+            reservedSlots--;
+            waitingRequests.add(waitingRequest);
+            dispatchNeeded = true;
+            dispatchRequested.signal();
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private void requestDispatch() {
+        dispatchLock.lock();
+        try {
+            dispatchNeeded = true;
+            dispatchRequested.signal();
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /** Called when request that was sent to builder is finished. Lets dispatcher use released worker of builder. */
+    private void releaseBuilder(long id) {
+        final WaitingRequest dispatched;
+        dispatchLock.lock();
+        try {
+            dispatched = dispatchedRequests.remove(id);
+            if (dispatched != null) {
+                final String workspace = dispatched.request.getWorkspace();
+                final Integer load = workspaceLoad.get(workspace);
+                if (load == null || load <= 1) {
+                    workspaceLoad.remove(workspace);
+                } else {
+                    workspaceLoad.put(workspace, load - 1);
+                }
+            }
+            dispatchNeeded = true;
+            dispatchRequested.signal();
+        } finally {
+            dispatchLock.unlock();
+        }
+        if (dispatched != null) {
+            final BuilderCapacity capacity = builderCapacities.get(dispatched.callable.builder);
+            if (capacity != null) {
+                capacity.stale = true;
+            }
+        }
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            dispatchLock.lock();
+            try {
+                if (!dispatchNeeded) {
+                    dispatchRequested.await(CHECK_AVAILABLE_BUILDER_DELAY, TimeUnit.MILLISECONDS);
+                }
+                dispatchNeeded = false;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                dispatchLock.unlock();
+            }
+            try {
+                dispatchWaitingRequests();
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void dispatchWaitingRequests() {
+        final List<WaitingRequest> candidates;
+        final Map<String, Integer> load;
+        dispatchLock.lock();
+        try {
+            for (Iterator<WaitingRequest> i = waitingRequests.iterator(); i.hasNext(); ) {
+                if (i.next().future.isDone()) {
+                    // Cancelled while waiting.
+                    i.remove();
+                }
+            }
+            candidates = new ArrayList<>(waitingRequests);
+            load = new HashMap<>(workspaceLoad);
+        } finally {
+            dispatchLock.unlock();
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        // Builders that may process waiting requests. State of builder is requested at most once per CHECK_AVAILABLE_BUILDER_DELAY
+        // regardless of number of waiting requests.
+        final Map<WaitingRequest, List<BuilderCapacity>> matched = new HashMap<>();
+        final DispatchQueue<WaitingRequest> queue = new DispatchQueue<>(load);
+        for (WaitingRequest candidate : candidates) {
+            final BaseBuilderRequest request = candidate.request;
+            final BuilderList builderList = getBuilderList(request.getWorkspace(), request.getProject());
+            final List<RemoteBuilder> builders = builderList == null ? null : builderList.getBuilders(request.getBuilder());
+            if (builders == null || builders.isEmpty()) {
+                // Cannot continue, typically should never happen. At least shared builders should be available for everyone.
+                removeWaiting(candidate);
+                candidate.future.fail(new BuilderException("There is no any builder to process this request. "));
+                continue;
+            }
+            final List<BuilderCapacity> capacities = new ArrayList<>(builders.size());
+            for (RemoteBuilder builder : builders) {
+                BuilderCapacity capacity = builderCapacities.get(builder);
+                if (capacity == null) {
+                    final BuilderCapacity newCapacity = new BuilderCapacity(builder, executor, new Runnable() {
+                        @Override
+                        public void run() {
+                            requestDispatch();
+                        }
+                    });
+                    capacity = builderCapacities.putIfAbsent(builder, newCapacity);
+                    if (capacity == null) {
+                        capacity = newCapacity;
+                    }
+                }
+                // State of builder is requested in background, dispatcher is notified when it gets new state.
+                capacity.refreshIfStale();
+                capacities.add(capacity);
+            }
+            matched.put(candidate, capacities);
+            queue.add(candidate, request.getWorkspace(), candidate.future.id);
+        }
+        // Workspace that has less builds in progress goes first, FIFO within the same load. Free workers only decrease during pass,
+        // so request that can't be dispatched now waits for the next pass.
+        WaitingRequest candidate;
+        while ((candidate = queue.poll()) != null) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (candidate.future.isDone()) {
+                continue;
+            }
+            final List<RemoteBuilder> available = new ArrayList<>();
+            final Map<RemoteBuilder, BuilderCapacity> availableCapacities = new HashMap<>();
+            for (BuilderCapacity capacity : matched.get(candidate)) {
+                if (capacity.getFreeWorkers() > 0) {
+                    available.add(capacity.builder);
+                    availableCapacities.put(capacity.builder, capacity);
+                }
+            }
+            if (!available.isEmpty()) {
+                final RemoteBuilder builder = available.size() > 1 ? builderSelector.select(available) : available.get(0);
+                if (availableCapacities.get(builder).acquire()) {
+                    dispatch(candidate, builder);
+                    queue.dispatched(candidate.request.getWorkspace());
+                }
+            }
+        }
+    }
+
+    private void removeWaiting(WaitingRequest waitingRequest) {
+        dispatchLock.lock();
+        try {
+            waitingRequests.remove(waitingRequest);
+        } finally {
+            dispatchLock.unlock();
         }
+    }
+
+    private void dispatch(WaitingRequest waitingRequest, RemoteBuilder builder) {
+        final String workspace = waitingRequest.request.getWorkspace();
+        dispatchLock.lock();
+        try {
+            waitingRequests.remove(waitingRequest);
+            dispatchedRequests.put(waitingRequest.future.id, waitingRequest);
+            final Integer load = workspaceLoad.get(workspace);
+            workspaceLoad.put(workspace, load == null ? 1 : load + 1);
+        } finally {
+            dispatchLock.unlock();
+        }
+        waitTimes.add(System.currentTimeMillis() - waitingRequest.enqueueTime);
         LOG.info("Use builder '{}' at '{}'", builder.getName(), builder.getBaseUrl());
-        return builder;
+        waitingRequest.callable.builder = builder;
+        try {
+            executor.execute(waitingRequest.future);
+        } catch (RejectedExecutionException e) {
+            // BuildQueue is stopped.
+            waitingRequest.future.fail(e);
+        }
     }
 
     private long getBuildTimeout(WorkspaceDescriptor workspace) throws BuilderException {
@@ -630,6 +904,7 @@ public class BuildQueue {
                             }
                             if (remote == null) {
                                 i.remove();
+                                releaseBuilder(task.getId());
                                 successfulBuilds.remove(DtoFactory.getInstance().clone(request).withId(0L).withTimeout(0L));
                                 num++;
                             } else if ((remote.getCreationTime() + keepResultTimeMillis) < System.currentTimeMillis()) {
@@ -637,10 +912,12 @@ public class BuildQueue {
                                     remote.getBuildTaskDescriptor();
                                 } catch (NotFoundException e) {
                                     i.remove();
+                                    releaseBuilder(task.getId());
                                     num++;
                                 } catch (Exception e) {
                                     LOG.warn(e.getMessage(), e);
                                     i.remove();
+                                    releaseBuilder(task.getId());
                                     num++;
                                 }
                             }
@@ -674,6 +951,17 @@ public class BuildQueue {
             });
 
             eventService.subscribe(new BuildStatusMessenger());
+            // release workers of slave-builders when build is finished
+            eventService.subscribe(new BuildCompletionListener());
+
+            dispatcher = new ThreadFactoryBuilder().setNameFormat("BuildQueueDispatcher-%d").setDaemon(true).build()
+                                                   .newThread(new Runnable() {
+                                                       @Override
+                                                       public void run() {
+                                                           dispatchLoop();
+                                                       }
+                                                   });
+            dispatcher.start();
 
             //Log events for analytics
             eventService.subscribe(new AnalyticsMessenger());
@@ -743,6 +1031,12 @@ public class BuildQueue {
     public void stop() {
         if (started.compareAndSet(true, false)) {
             boolean interrupted = false;
+            dispatcher.interrupt();
+            try {
+                dispatcher.join(5000);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
             scheduler.shutdownNow();
             try {
                 if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -766,6 +1060,16 @@ public class BuildQueue {
             tasks.clear();
             builderListMapping.clear();
             successfulBuilds.clear();
+            builderCapacities.clear();
+            dispatchLock.lock();
+            try {
+                waitingRequests.clear();
+                dispatchedRequests.clear();
+                workspaceLoad.clear();
+                reservedSlots = 0;
+            } finally {
+                dispatchLock.unlock();
+            }
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
@@ -778,7 +1082,7 @@ public class BuildQueue {
         return eventService;
     }
 
-    private static class InternalBuildTask extends FutureTask<RemoteTask> {
+    private class InternalBuildTask extends FutureTask<RemoteTask> {
         final Long    id;
         final String  workspace;
         final String  project;
@@ -791,6 +1095,168 @@ public class BuildQueue {
             this.project = project;
             this.reused = reused;
         }
+
+        void fail(Throwable error) {
+            setException(error);
+        }
+
+        @Override
+        protected void done() {
+            boolean failed = isCancelled();
+            if (!failed) {
+                try {
+                    get();
+                } catch (Exception e) {
+                    failed = true;
+                }
+            }
+            if (failed) {
+                // Request isn't sent to builder or builder rejected it.
+                releaseBuilder(id);
+            }
+        }
+    }
+
+    /** Sends request to the builder that is selected by dispatcher. */
+    private static class RemoteBuildCallable implements Callable<RemoteTask> {
+        final BaseBuilderRequest request;
+
+        volatile RemoteBuilder builder;
+
+        RemoteBuildCallable(BaseBuilderRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public RemoteTask call() throws BuilderException {
+            if (request instanceof DependencyRequest) {
+                return builder.perform((DependencyRequest)request);
+            }
+            return builder.perform((BuildRequest)request);
+        }
+    }
+
+    private static class WaitingRequest {
+        final InternalBuildTask   future;
+        final RemoteBuildCallable callable;
+        final BaseBuilderRequest  request;
+        final long                enqueueTime;
+
+        WaitingRequest(InternalBuildTask future, RemoteBuildCallable callable, BaseBuilderRequest request) {
+            this.future = future;
+            this.callable = callable;
+            this.request = request;
+            enqueueTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Cached number of free workers of slave-builder. State of builder is requested in background, so slow or unreachable builder
+     * doesn't stop dispatching of requests to other builders.
+     */
+    static class BuilderCapacity {
+        final RemoteBuilder builder;
+
+        private final Executor      executor;
+        private final Runnable      onRefresh;
+        private final AtomicBoolean refreshing;
+
+        volatile boolean stale = true;
+        private volatile long updated;
+        // Fields below are guarded by this.
+        private int freeWorkers;
+        /** Number of requests that are sent to builder since its state was requested last time. */
+        private int dispatchedSinceRefresh;
+
+        /**
+         * @param executor
+         *         executor that requests state of builder
+         * @param onRefresh
+         *         is called when new state of builder is received
+         */
+        BuilderCapacity(RemoteBuilder builder, Executor executor, Runnable onRefresh) {
+            this.builder = builder;
+            this.executor = executor;
+            this.onRefresh = onRefresh;
+            refreshing = new AtomicBoolean();
+        }
+
+        /** Requests state of builder in background if cached state is stale. Never blocks. */
+        void refreshIfStale() {
+            final long now = System.currentTimeMillis();
+            if ((stale || (now - updated) >= CHECK_AVAILABLE_BUILDER_DELAY) && refreshing.compareAndSet(false, true)) {
+                // If builder is marked as stale while we are getting its state, state is requested again next time.
+                stale = false;
+                updated = now;
+                synchronized (this) {
+                    dispatchedSinceRefresh = 0;
+                }
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            refresh();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // BuildQueue is stopped.
+                    refreshing.set(false);
+                }
+            }
+        }
+
+        private void refresh() {
+            int free;
+            try {
+                free = builder.getBuilderState().getFreeWorkers();
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+                free = 0;
+            }
+            synchronized (this) {
+                // Builder might not count requests that are sent to it while its state was requested.
+                freeWorkers = Math.max(0, free - dispatchedSinceRefresh);
+            }
+            refreshing.set(false);
+            onRefresh.run();
+        }
+
+        synchronized int getFreeWorkers() {
+            return freeWorkers;
+        }
+
+        /** Takes one free worker of builder. Returns {@code false} if there is no free workers. */
+        synchronized boolean acquire() {
+            if (freeWorkers <= 0) {
+                return false;
+            }
+            freeWorkers--;
+            dispatchedSinceRefresh++;
+            return true;
+        }
+    }
+
+    /** Keeps wait time of recent requests. */
+    private static class WaitTimeRecorder {
+        final long[] samples;
+        int count;
+        int next;
+
+        WaitTimeRecorder(int size) {
+            samples = new long[size];
+        }
+
+        synchronized void add(long waitTime) {
+            samples[next] = waitTime;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) {
+                count++;
+            }
+        }
+
+        synchronized WaitTimeStats getStats() {
+            return new WaitTimeStats(Arrays.copyOf(samples, count));
+        }
     }
 
     private static class BuilderListKey {
@@ -872,49 +1338,14 @@ public class BuildQueue {
             return builders.size();
         }
 
-        synchronized RemoteBuilder getBuilder(BaseBuilderRequest request) {
+        synchronized List<RemoteBuilder> getBuilders(String name) {
             final List<RemoteBuilder> matched = new ArrayList<>();
             for (RemoteBuilder builder : builders) {
-                if (request.getBuilder().equals(builder.getName())) {
+                if (name.equals(builder.getName())) {
                     matched.add(builder);
                 }
             }
-            final int size = matched.size();
-            if (size == 0) {
-                return null;
-            }
-            final List<RemoteBuilder> available = new ArrayList<>(matched.size());
-            for (; ; ) {
-                for (RemoteBuilder builder : matched) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        return null; // stop immediately
-                    }
-                    BuilderState builderState;
-                    try {
-                        builderState = builder.getBuilderState();
-                    } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
-                        continue;
-                    }
-                    if (builderState.getFreeWorkers() > 0) {
-                        available.add(builder);
-                    }
-                }
-
-                if (available.isEmpty()) {
-                    try {
-                        wait(CHECK_AVAILABLE_BUILDER_DELAY); // wait and try again
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        return null; // expected to get here if task is canceled
-                    }
-                } else {
-                    if (available.size() > 1) {
-                        return builderSelector.select(available);
-                    }
-                    return available.get(0);
-                }
-            }
+            return matched;
         }
     }
 
@@ -1024,6 +1455,16 @@ public class BuildQueue {
         }
     }
 
+    private class BuildCompletionListener implements EventSubscriber<BuilderEvent> {
+        @Override
+        public void onEvent(BuilderEvent event) {
+            if ((event.getType() == BuilderEvent.EventType.DONE && !event.isReused())
+                || event.getType() == BuilderEvent.EventType.CANCELED) {
+                releaseBuilder(event.getTaskId());
+            }
+        }
+    }
+
     private class BuildStatusMessenger implements EventSubscriber<BuilderEvent> {
         @Override
         public void onEvent(BuilderEvent event) {
@@ -1049,6 +1490,16 @@ public class BuildQueue {
                                                      message.getLineNum(), JsonUtils.getJsonString(message.getMessage())));
                         }
                         break;
+                    case MESSAGES_LOGGED:
+                        final BuilderEvent.LoggedChunk chunk = event.getChunk();
+                        if (chunk != null) {
+                            bm.setChannel(String.format("builder:output:%d", id));
+                            // Lines of chunk are sent as single multi-line message, "num" is number of its first line.
+                            bm.setBody(String.format("{\"num\":%d, \"line\":%s, \"lines\":%d}",
+                                                     chunk.getFromLine(), JsonUtils.getJsonString(Joiner.on('\n').join(chunk.getLines())),
+                                                     chunk.getLines().size()));
+                        }
+                        break;
                 }
                 WSConnectionContext.sendMessage(bm);
             } catch (Exception e) {
@@ -276,11 +276,15 @@ public class BuildQueueTask implements Cancellable {
     }
 
     public void readLogs(HttpOutputMessage output) throws BuilderException, IOException, NotFoundException {
+        readLogs(output, 0);
+    }
+
+    public void readLogs(HttpOutputMessage output, int offset) throws BuilderException, IOException, NotFoundException {
         if (isWaiting()) {
             // Logs aren't available until build starts
             throw new BuilderException("Logs are not available. Task is not started yet.");
         }
-        getRemoteTask().readLogs(output);
+        getRemoteTask().readLogs(output, offset);
     }
 
     public void readReport(HttpOutputMessage output) throws BuilderException, IOException, NotFoundException {
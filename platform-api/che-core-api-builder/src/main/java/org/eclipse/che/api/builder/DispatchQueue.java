@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orders requests that are waiting for free builder during one pass of dispatcher. Request of workspace that has less builds in
+ * progress goes first, requests of workspaces with the same load are taken in order of their ids.
+ * <p/>
+ * Load of workspace grows each time when its request is dispatched. Priority of other requests of the same workspace is not
+ * updated at once but when request reaches head of the queue, so each pass takes O(n log n) time for n waiting requests.
+ *
+ * @author agent
+ */
+final class DispatchQueue<T> {
+    private final Map<String, Integer>   load;
+    private final PriorityQueue<Item<T>> queue;
+
+    /**
+     * @param load
+     *         number of builds in progress per workspace, map is copied
+     */
+    DispatchQueue(Map<String, Integer> load) {
+        this.load = new HashMap<>(load);
+        queue = new PriorityQueue<>();
+    }
+
+    void add(T request, String workspace, long id) {
+        queue.add(new Item<>(request, workspace, id, getLoad(workspace)));
+    }
+
+    /** Takes request with the highest priority or returns {@code null} if queue is empty. */
+    T poll() {
+        Item<T> item;
+        while ((item = queue.poll()) != null) {
+            final int current = getLoad(item.workspace);
+            if (current == item.load) {
+                return item.request;
+            }
+            // Load of workspace may only grow during pass, so request goes back in the queue with lower priority.
+            item.load = current;
+            queue.add(item);
+        }
+        return null;
+    }
+
+    /** Notifies that request of workspace is sent to builder. */
+    void dispatched(String workspace) {
+        load.put(workspace, getLoad(workspace) + 1);
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private int getLoad(String workspace) {
+        final Integer value = load.get(workspace);
+        return value == null ? 0 : value;
+    }
+
+    private static final class Item<T> implements Comparable<Item<T>> {
+        final T      request;
+        final String workspace;
+        final long   id;
+        int load;
+
+        Item(T request, String workspace, long id, int load) {
+            this.request = request;
+            this.workspace = workspace;
+            this.id = id;
+            this.load = load;
+        }
+
+        @Override
+        public int compareTo(Item<T> other) {
+            if (load != other.load) {
+                return load < other.load ? -1 : 1;
+            }
+            return Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of time that recent build requests were waiting in {@link BuildQueue} for free builder.
+ *
+ * @author agent
+ * @see BuildQueue#getWaitTimeStats()
+ */
+public final class WaitTimeStats {
+    private final int  sampleCount;
+    private final long median;
+    private final long percentile90;
+    private final long percentile99;
+    private final long max;
+
+    /**
+     * @param samples
+     *         wait times in milliseconds, array is sorted by this constructor
+     */
+    WaitTimeStats(long[] samples) {
+        Arrays.sort(samples);
+        sampleCount = samples.length;
+        median = percentile(samples, 50);
+        percentile90 = percentile(samples, 90);
+        percentile99 = percentile(samples, 99);
+        max = sampleCount == 0 ? 0 : samples[sampleCount - 1];
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int rank = (int)Math.ceil(sorted.length * percent / 100.0);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /** Number of recent requests that statistics is calculated for. */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /** Median wait time in milliseconds. */
+    public long getMedian() {
+        return median;
+    }
+
+    /** 90th percentile of wait time in milliseconds. */
+    public long getPercentile90() {
+        return percentile90;
+    }
+
+    /** 99th percentile of wait time in milliseconds. */
+    public long getPercentile99() {
+        return percentile99;
+    }
+
+    /** Max wait time in milliseconds. */
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "WaitTimeStats{" +
+               "sampleCount=" + sampleCount +
+               ", median=" + median +
+               ", percentile90=" + percentile90 +
+               ", percentile99=" + percentile99 +
+               ", max=" + max +
+               '}';
+    }
+}
@@ -11,37 +11,105 @@
 package org.eclipse.che.api.builder.internal;
 
 import org.eclipse.che.api.core.notification.EventService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Publishes builder's outputs to the EventService.
+ * Publishes builder's outputs to the EventService. Lines are published in chunks, chunk is published when it reaches its max size or
+ * periodically, so noisy build doesn't produce event for each line of output. Underlying logger is flushed periodically as well.
  *
  * @author andrew00x
  */
 class BuildLogsPublisher extends DelegateBuildLogger {
-    private final AtomicInteger lineCounter;
-    private final EventService eventService;
-    private final long         taskId;
-    private final String       workspace;
-    private final String       project;
+    private static final Logger LOG = LoggerFactory.getLogger(BuildLogsPublisher.class);
 
-    BuildLogsPublisher(BuildLogger delegate, EventService eventService, long taskId, String workspace, String project) {
+    private static final int  MAX_CHUNK_LINES = 200;
+    private static final int  MAX_CHUNK_CHARS = 64 * 1024;
+    private static final long FLUSH_INTERVAL  = 200; // milliseconds
+
+    private final EventService       eventService;
+    private final long               taskId;
+    private final String             workspace;
+    private final String             project;
+    private final List<String>       chunk;
+    private final ScheduledFuture<?> flusher;
+
+    /* Number of the first line of the current chunk. */
+    private int lineCounter;
+    private int chunkChars;
+
+    BuildLogsPublisher(BuildLogger delegate,
+                       EventService eventService,
+                       ScheduledExecutorService scheduler,
+                       long taskId,
+                       String workspace,
+                       String project) {
         super(delegate);
         this.eventService = eventService;
         this.taskId = taskId;
         this.workspace = workspace;
         this.project = project;
-        lineCounter = new AtomicInteger(1);
+        chunk = new ArrayList<>();
+        lineCounter = 1;
+        flusher = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    LOG.debug(e.getMessage(), e);
+                }
+            }
+        }, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void writeLine(String line) throws IOException {
+        super.writeLine(line);
         if (line != null) {
-            eventService.publish(BuilderEvent.messageLoggedEvent(taskId, workspace, project,
-                                                                 new BuilderEvent.LoggedMessage(line, lineCounter.getAndIncrement())));
+            synchronized (this) {
+                chunk.add(line);
+                chunkChars += line.length();
+                if (chunk.size() >= MAX_CHUNK_LINES || chunkChars >= MAX_CHUNK_CHARS) {
+                    super.flush();
+                    publishChunk();
+                }
+            }
         }
-        super.writeLine(line);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        super.flush();
+        publishChunk();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.cancel(false);
+        flush();
+        super.close();
+    }
+
+    /*
+    Must be called with lock on this instance, so chunks are published in the same order as lines are written. Underlying logger must
+    be flushed before, then client that gets event may read the same lines from the logs.
+     */
+    private void publishChunk() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        final BuilderEvent.LoggedChunk loggedChunk = new BuilderEvent.LoggedChunk(new ArrayList<>(chunk), lineCounter);
+        lineCounter += chunk.size();
+        chunk.clear();
+        chunkChars = 0;
+        eventService.publish(BuilderEvent.messagesLoggedEvent(taskId, workspace, project, loggedChunk));
     }
 }
@@ -390,30 +390,44 @@ public abstract class Builder {
         final CommandLine commandLine = createCommandLine(configuration);
         final BaseBuilderRequest request = configuration.getRequest();
         final BuildLogger myLogger =
-                new BuildLogsPublisher(logger, eventService, request.getId(), request.getWorkspace(), request.getProject());
-        final Callable<Boolean> callable = createTaskFor(commandLine, myLogger, request.getTimeout(), configuration);
+                new BuildLogsPublisher(logger, eventService, scheduler, request.getId(), request.getWorkspace(), request.getProject());
         final Long internalId = buildIdSequence.getAndIncrement();
-        final BuildTask.Callback callback = new BuildTask.Callback() {
-            @Override
-            public void begin(BuildTask task) {}
+        try {
+            final Callable<Boolean> callable = createTaskFor(commandLine, myLogger, request.getTimeout(), configuration);
+            final BuildTask.Callback callback = new BuildTask.Callback() {
+                @Override
+                public void begin(BuildTask task) {}
 
-            @Override
-            public void done(BuildTask task) {
-                final BaseBuilderRequest buildRequest = task.getConfiguration().getRequest();
-                eventService.publish(BuilderEvent.doneEvent(buildRequest.getId(), buildRequest.getWorkspace(), buildRequest.getProject()));
-                try {
-                    myLogger.close();
-                    LOG.debug("Close build logger {}", myLogger);
-                } catch (IOException e) {
-                    LOG.error(e.getMessage(), e);
+                @Override
+                public void done(BuildTask task) {
+                    final BaseBuilderRequest buildRequest = task.getConfiguration().getRequest();
+                    // Closing of logger publishes buffered lines of log, they must reach clients before 'done' event.
+                    closeLogger(myLogger);
+                    eventService.publish(BuilderEvent.doneEvent(buildRequest.getId(), buildRequest.getWorkspace(),
+                                                                buildRequest.getProject()));
                 }
-            }
-        };
-        Callable<Boolean> contextCallable = ThreadLocalPropagateContext.wrap(callable);
-        final FutureBuildTask task = new FutureBuildTask(contextCallable, internalId, commandLine, getName(), configuration, myLogger, callback);
-        tasks.put(internalId, task);
-        executor.execute(task);
-        return task;
+            };
+            Callable<Boolean> contextCallable = ThreadLocalPropagateContext.wrap(callable);
+            final FutureBuildTask task =
+                    new FutureBuildTask(contextCallable, internalId, commandLine, getName(), configuration, myLogger, callback);
+            tasks.put(internalId, task);
+            executor.execute(task);
+            return task;
+        } catch (RuntimeException e) {
+            // Task isn't started, so nobody else stops flushing of logger, e.g. executor rejects task.
+            tasks.remove(internalId);
+            closeLogger(myLogger);
+            throw e;
+        }
+    }
+
+    private void closeLogger(BuildLogger logger) {
+        try {
+            logger.close();
+            LOG.debug("Close build logger {}", logger);
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
     }
 
     protected BuildLogger createBuildLogger(BuilderConfiguration buildConfiguration, java.io.File logFile) throws BuilderException {
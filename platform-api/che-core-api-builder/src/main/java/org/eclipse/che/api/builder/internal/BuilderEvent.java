@@ -12,6 +12,8 @@ package org.eclipse.che.api.builder.internal;
 
 import org.eclipse.che.api.core.notification.EventOrigin;
 
+import java.util.List;
+
 /**
  * @author andrew00x
  */
@@ -35,7 +37,13 @@ public class BuilderEvent {
          *
          * @see BuildLogger
          */
-        MESSAGE_LOGGED("messageLogged");
+        MESSAGE_LOGGED("messageLogged"),
+        /**
+         * Gets chunk of consecutive logged messages from the builder.
+         *
+         * @see BuildLogger
+         */
+        MESSAGES_LOGGED("messagesLogged");
 
         private final String value;
 
@@ -94,6 +102,50 @@ public class BuilderEvent {
         }
     }
 
+    /** Consecutive lines of output of the builder. Lines are numbered from 1. */
+    public static class LoggedChunk {
+        private List<String> lines;
+        private int          fromLine;
+
+        public LoggedChunk(List<String> lines, int fromLine) {
+            this.lines = lines;
+            this.fromLine = fromLine;
+        }
+
+        public LoggedChunk() {
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public void setLines(List<String> lines) {
+            this.lines = lines;
+        }
+
+        /** Gets number of the first line of this chunk. */
+        public int getFromLine() {
+            return fromLine;
+        }
+
+        public void setFromLine(int fromLine) {
+            this.fromLine = fromLine;
+        }
+
+        /** Gets number of the last line of this chunk. */
+        public int getToLine() {
+            return fromLine + (lines == null ? 0 : lines.size()) - 1;
+        }
+
+        @Override
+        public String toString() {
+            return "LoggedChunk{" +
+                   "fromLine=" + fromLine +
+                   ", toLine=" + getToLine() +
+                   '}';
+        }
+    }
+
     public static BuilderEvent beginEvent(long taskId, String workspace, String project) {
         return new BuilderEvent(EventType.BEGIN, taskId, workspace, project);
     }
@@ -122,6 +174,12 @@ public class BuilderEvent {
         return new BuilderEvent(EventType.MESSAGE_LOGGED, taskId, workspace, project, message);
     }
 
+    public static BuilderEvent messagesLoggedEvent(long taskId, String workspace, String project, LoggedChunk chunk) {
+        final BuilderEvent event = new BuilderEvent(EventType.MESSAGES_LOGGED, taskId, workspace, project);
+        event.chunk = chunk;
+        return event;
+    }
+
     public static BuilderEvent buildTimeStartedEvent(long taskId, String workspace, String project, long startTime) {
         return new BuilderEvent(EventType.BUILD_TIME_STARTED, taskId, workspace, project, new LoggedMessage(Long.toString(startTime), 0));
     }
@@ -136,6 +194,8 @@ public class BuilderEvent {
     private String        project;
     /** Message associated with this event. Makes sense only for {@link EventType#MESSAGE_LOGGED} events. */
     private LoggedMessage message;
+    /** Chunk of messages associated with this event. Makes sense only for {@link EventType#MESSAGES_LOGGED} events. */
+    private LoggedChunk   chunk;
     /** Indicates if build result was reused. */
     private boolean       reused;
 
@@ -205,6 +265,14 @@ public class BuilderEvent {
         this.message = message;
     }
 
+    public LoggedChunk getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(LoggedChunk chunk) {
+        this.chunk = chunk;
+    }
+
     public boolean isReused() {
         return reused;
     }
@@ -221,6 +289,7 @@ public class BuilderEvent {
                ", workspace='" + workspace + '\'' +
                ", project='" + project + '\'' +
                ", message='" + message + '\'' +
+               ", chunk=" + chunk +
                '}';
     }
 }
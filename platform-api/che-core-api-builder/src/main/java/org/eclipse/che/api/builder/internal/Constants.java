@@ -64,6 +64,11 @@ public class Constants {
      * this time build may be terminated.
      */
     public static final String MAX_EXECUTION_TIME         = "builder.max_execution_time";
+    /**
+     * Max number of build requests that are waiting for free slave-builder in BuildQueue. New requests are rejected when this limit is
+     * reached.
+     */
+    public static final String MAX_WAITING_REQUESTS       = "builder.queue.max_waiting_requests";
 
     /** Build results archive type: .zip */
     public static final String RESULT_ARCHIVE_ZIP         = "zip";
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder.internal;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
@@ -17,20 +18,18 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 
 /**
- * File based implementation of BuildLogger.
+ * File based implementation of BuildLogger. Lines are buffered and aren't visible for {@link #getReader()} until {@link #flush()}.
  *
  * @author andrew00x
  */
-public final class DefaultBuildLogger implements BuildLogger {
+public final class DefaultBuildLogger implements BuildLogger, Flushable {
     private final java.io.File file;
     private final String       contentType;
     private final Writer       writer;
-    private final boolean      autoFlush;
 
     public DefaultBuildLogger(java.io.File file, String contentType) throws IOException {
         this.file = file;
         this.contentType = contentType;
-        autoFlush = true;
         writer = Files.newBufferedWriter(file.toPath(), Charset.defaultCharset());
     }
 
@@ -55,9 +54,11 @@ public final class DefaultBuildLogger implements BuildLogger {
             writer.write(line);
         }
         writer.write('\n');
-        if (autoFlush) {
-            writer.flush();
-        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
     }
 
     @Override
@@ -10,15 +10,17 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder.internal;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.Reader;
 
 /**
- * Implementation of the {@code BuildLogger} which delegates log messages to underlying {@code BuildLogger}.
+ * Implementation of the {@code BuildLogger} which delegates log messages to underlying {@code BuildLogger}. Method {@link #flush()}
+ * flushes underlying {@code BuildLogger} if it is {@link Flushable}.
  *
  * @author andrew00x
  */
-public abstract class DelegateBuildLogger implements BuildLogger {
+public abstract class DelegateBuildLogger implements BuildLogger, Flushable {
     protected final BuildLogger delegate;
 
     public DelegateBuildLogger(BuildLogger delegate) {
@@ -45,6 +47,13 @@ public abstract class DelegateBuildLogger implements BuildLogger {
         return delegate.getFile();
     }
 
+    @Override
+    public void flush() throws IOException {
+        if (delegate instanceof Flushable) {
+            ((Flushable)delegate).flush();
+        }
+    }
+
     @Override
     public void close() throws IOException {
         delegate.close();
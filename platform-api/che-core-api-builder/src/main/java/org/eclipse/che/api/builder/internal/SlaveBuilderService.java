@@ -52,10 +52,12 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -153,9 +155,23 @@ public final class SlaveBuilderService extends Service {
 
     @GET
     @Path("logs/{builder}/{id}")
-    public Response getLogs(@PathParam("builder") String builder, @PathParam("id") Long id) throws Exception {
+    public Response getLogs(@PathParam("builder") String builder,
+                            @PathParam("id") Long id,
+                            @DefaultValue("0") @QueryParam("offset") int offset) throws Exception {
         final BuildLogger logger = getBuilder(builder).getBuildTask(id).getBuildLogger();
-        return Response.ok(logger.getReader(), logger.getContentType()).build();
+        final Reader reader = logger.getReader();
+        if (offset > 0) {
+            // Client already has first lines of log, e.g. it got them with events before reconnect.
+            final BufferedReader bufferedReader = new BufferedReader(reader);
+            try {
+                skipLines(bufferedReader, offset);
+            } catch (IOException | RuntimeException e) {
+                bufferedReader.close();
+                throw e;
+            }
+            return Response.ok(bufferedReader, logger.getContentType()).build();
+        }
+        return Response.ok(reader, logger.getContentType()).build();
     }
 
     @POST
@@ -417,6 +433,15 @@ public final class SlaveBuilderService extends Service {
         throw new NotFoundException(String.format("%s does not exist or is not a file", path));
     }
 
+    /** Skips specified number of lines or all lines if reader has less lines. */
+    private static void skipLines(BufferedReader reader, int lines) throws IOException {
+        for (int i = 0; i < lines; i++) {
+            if (reader.readLine() == null) {
+                return;
+            }
+        }
+    }
+
     private Builder getBuilder(String name) throws NotFoundException {
         final Builder myBuilder = builders.get(name);
         if (myBuilder == null) {
@@ -17,8 +17,8 @@ import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.json.JsonParseException;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.commons.lang.ZipUtils;
 
+import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.io.CharStreams;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -39,6 +40,13 @@ import java.io.StringReader;
 import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.text.ParseException;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -55,6 +63,8 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.HttpHeaders;
@@ -62,6 +72,15 @@ import javax.ws.rs.core.MediaType;
 
 /**
  * Implementation of SourcesManager that stores sources locally and gets only updated files over virtual file system RESt API.
+ * <p/>
+ * Md5 sums of locally stored files are kept in persistent manifest (see {@link SourcesManifest}), so only new and changed
+ * files are hashed before each build. Sources are copied in the working directory of build. Locally stored files are never
+ * changed in place, updated files are written to temporary file which then replaces the old one.
+ * <p/>
+ * Copying may be replaced with hard links to the locally stored files with system property
+ * {@code org.eclipse.che.builder.sources.hardlinks=true}. Working directory then shares files with local storage and with
+ * concurrent builds of the same project, so it may be enabled only for builders that never modify source files in place,
+ * e.g. don't generate code in source folders or change permissions of files.
  *
  * @author andrew00x
  * @author Eugene Voevodin
@@ -76,6 +95,9 @@ public class SourcesManagerImpl implements SourcesManager {
     private final Set<SourceManagerListener>          listeners;
     private final ScheduledExecutorService            executor;
 
+    /** Enabled with system property, becomes {@code false} after first failure to create hard link. */
+    private volatile boolean hardLinks;
+
     private static final long KEEP_PROJECT_TIME = TimeUnit.MINUTES.toMillis(30);
     private static final int  CONNECT_TIMEOUT   = (int)TimeUnit.MINUTES.toMillis(4);//This time is chosen empirically and
     private static final int  READ_TIMEOUT      = (int)TimeUnit.MINUTES.toMillis(4);//necessary for some large projects. See IDEX-1957.
@@ -87,6 +109,7 @@ public class SourcesManagerImpl implements SourcesManager {
         executor = Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder().setNameFormat(getClass().getSimpleName() + "-FileCleaner-%d").setDaemon(true).build());
         listeners = new CopyOnWriteArraySet<>();
+        hardLinks = Boolean.getBoolean("org.eclipse.che.builder.sources.hardlinks");
     }
 
     public void start() { // TODO: guice must do this
@@ -158,7 +181,7 @@ public class SourcesManagerImpl implements SourcesManager {
             if (ioError != null) {
                 throw ioError;
             }
-            IoUtil.copy(srcDir, workDir, IoUtil.ANY_FILTER);
+            populate(srcDir, workDir);
             for (SourceManagerListener listener : listeners) {
                 listener.afterDownload(new SourceManagerEvent(workspace, project, sourcesUrl, workDir));
             }
@@ -191,28 +214,17 @@ public class SourcesManagerImpl implements SourcesManager {
         }
     };
 
+    /** Gets file of manifest of sources that are stored in directory {@code srcDir}. */
+    private java.io.File getManifestFile(java.io.File srcDir) {
+        return new java.io.File(srcDir.getParentFile(), srcDir.getName() + ".manifest");
+    }
+
     private void download(String downloadUrl, java.io.File downloadTo) throws IOException {
         HttpURLConnection conn = null;
         try {
-            final LinkedList<java.io.File> q = new LinkedList<>();
-            q.add(downloadTo);
             final long start = System.currentTimeMillis();
-            final List<Pair<String, String>> md5sums = new LinkedList<>();
-            while (!q.isEmpty()) {
-                java.io.File current = q.pop();
-                java.io.File[] list = current.listFiles();
-                if (list != null) {
-                    for (java.io.File f : list) {
-                        if (f.isDirectory()) {
-                            q.push(f);
-                        } else {
-                            md5sums.add(Pair.of(com.google.common.io.Files.hash(f, Hashing.md5()).toString(),
-                                                downloadTo.toPath().relativize(f.toPath()).toString()
-                                                          .replace("\\", "/"))); //Replacing of "\" is need for windows support
-                        }
-                    }
-                }
-            }
+            final SourcesManifest manifest = SourcesManifest.load(getManifestFile(downloadTo));
+            final List<Pair<String, String>> md5sums = manifest.refresh(downloadTo);
             final long end = System.currentTimeMillis();
             if (md5sums.size() > 0) {
                 LOG.debug("count md5sums of {} files, time: {}ms", md5sums.size(), (end - start));
@@ -265,7 +277,9 @@ public class SourcesManagerImpl implements SourcesManager {
                                         try (FileOutputStream fOut = new FileOutputStream(tmp)) {
                                             multipart.readBodyData(fOut);
                                         }
-                                        ZipUtils.unzip(tmp, downloadTo);
+                                        try (InputStream zipIn = new FileInputStream(tmp)) {
+                                            unzip(zipIn, downloadTo, manifest);
+                                        }
                                     } finally {
                                         if (tmp.exists()) {
                                             tmp.delete();
@@ -274,7 +288,7 @@ public class SourcesManagerImpl implements SourcesManager {
                                 } else {
                                     final ByteArrayOutputStream bOut = new ByteArrayOutputStream(length);
                                     multipart.readBodyData(bOut);
-                                    ZipUtils.unzip(new ByteArrayInputStream(bOut.toByteArray()), downloadTo);
+                                    unzip(new ByteArrayInputStream(bOut.toByteArray()), downloadTo, manifest);
                                 }
                             } else if ("removed-paths".equals(name)) {
                                 final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
@@ -286,6 +300,7 @@ public class SourcesManagerImpl implements SourcesManager {
                                     if (!f.delete()) {
                                         throw new IOException(String.format("Unable delete %s", path));
                                     }
+                                    manifest.remove(path);
                                 }
                             } else {
                                 // To /dev/null :)
@@ -296,12 +311,13 @@ public class SourcesManagerImpl implements SourcesManager {
                     }
                 } else {
                     try (InputStream in = conn.getInputStream()) {
-                        ZipUtils.unzip(in, downloadTo);
+                        unzip(in, downloadTo, manifest);
                     }
                 }
             } else if (responseCode != HttpURLConnection.HTTP_NO_CONTENT) {
                 throw new IOException(String.format("Invalid response status %d from remote server. ", responseCode));
             }
+            manifest.save();
         } catch (ParseException | JsonParseException e) {
             throw new IOException(e.getMessage(), e);
         } finally {
@@ -311,6 +327,87 @@ public class SourcesManagerImpl implements SourcesManager {
         }
     }
 
+    /**
+     * Unzips sources to the directory and records md5 sums of unzipped files in the manifest. Each file is written to
+     * temporary file first and then replaces existing file, existing file is never overwritten in place because it may be
+     * linked to working directories of builds.
+     */
+    private void unzip(InputStream in, java.io.File targetDir, SourcesManifest manifest) throws IOException {
+        final ZipInputStream zipIn = new ZipInputStream(in);
+        final byte[] b = new byte[8192];
+        ZipEntry zipEntry;
+        while ((zipEntry = zipIn.getNextEntry()) != null) {
+            final java.io.File file = new java.io.File(targetDir, zipEntry.getName());
+            if (zipEntry.isDirectory()) {
+                if (!file.exists() && !file.mkdirs()) {
+                    throw new IOException("Unable to create folder " + file.getAbsolutePath());
+                }
+            } else {
+                final java.io.File parent = file.getParentFile();
+                if (!parent.exists() && !parent.mkdirs()) {
+                    throw new IOException("Unable to create parent folder " + parent.getAbsolutePath());
+                }
+                final java.io.File tmp = new java.io.File(parent, '.' + file.getName() + ".tmp");
+                final Hasher hasher = Hashing.md5().newHasher();
+                try {
+                    try (FileOutputStream fos = new FileOutputStream(tmp)) {
+                        int r;
+                        while ((r = zipIn.read(b)) != -1) {
+                            fos.write(b, 0, r);
+                            hasher.putBytes(b, 0, r);
+                        }
+                    }
+                    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    if (tmp.exists()) {
+                        tmp.delete();
+                    }
+                }
+                manifest.put(targetDir.toPath().relativize(file.toPath()).toString().replace("\\", "/"), hasher.hash().toString(),
+                             file);
+            }
+            zipIn.closeEntry();
+        }
+    }
+
+    /**
+     * Puts sources to the working directory of build. Copies files unless hard links are enabled, if hard link can't be created
+     * files are copied as well.
+     */
+    private void populate(java.io.File srcDir, java.io.File workDir) throws IOException {
+        if (!hardLinks) {
+            IoUtil.copy(srcDir, workDir, IoUtil.ANY_FILTER);
+            return;
+        }
+        final Path source = srcDir.toPath();
+        final Path target = workDir.toPath();
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                final Path link = target.resolve(source.relativize(file).toString());
+                Files.deleteIfExists(link);
+                if (hardLinks) {
+                    try {
+                        Files.createLink(link, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (UnsupportedOperationException | FileSystemException e) {
+                        // E.g. file system doesn't support hard links or directories are on different devices.
+                        LOG.warn("Unable create hard link {}, sources will be copied: {}", link, e.getMessage());
+                        hardLinks = false;
+                    }
+                }
+                Files.copy(file, link, StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
     private Map<String, List<String>> parseChunkHeader(List<String> rawHeaders) throws IOException {
         final Map<String, List<String>> headers = new HashMap<>();
         for (String field : rawHeaders) {
@@ -367,6 +464,10 @@ public class SourcesManagerImpl implements SourcesManager {
                     //get list of workspace projects
                     java.io.File[] projects = workspace.listFiles();
                     for (java.io.File project : projects) {
+                        if (!project.isDirectory()) {
+                            // Manifest of sources, removed together with sources.
+                            continue;
+                        }
                         String key = workspace.getName() + project.getName();
                         //if project is not downloading
                         if (tasks.get(key) == null) {
@@ -375,6 +476,7 @@ public class SourcesManagerImpl implements SourcesManager {
                                 final long lastModifiedMillis = project.lastModified();
                                 if ((System.currentTimeMillis() - lastModifiedMillis) >= KEEP_PROJECT_TIME) {
                                     IoUtil.deleteRecursive(project);
+                                    getManifestFile(project).delete();
                                     LOG.debug("Remove project {} that is unused since {}", project, lastModifiedMillis);
                                 }
                             } finally {
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.commons.lang.Pair;
+
+import com.google.common.hash.Hashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent manifest of locally cached project sources. For each file manifest keeps its path relative to the root of the
+ * project, size, modification time and md5 hash. Hash of file is re-calculated only if size or modification time of file is
+ * changed since the manifest was saved, so preparation of the list of md5 sums for the remote server takes time proportional
+ * to number of changed files instead of size of project.
+ * <p/>
+ * Modification time of file may have low resolution, e.g. one or two seconds. File that is modified within such interval
+ * after its hash was calculated may still have the same size and modification time. To avoid missing such changes, hash is
+ * trusted only for files that were modified at least {@link #MTIME_RESOLUTION} milliseconds before manifest was saved.
+ * <p/>
+ * Instance of this class is not thread-safe.
+ *
+ * @author agent
+ */
+final class SourcesManifest {
+    private static final Logger LOG = LoggerFactory.getLogger(SourcesManifest.class);
+
+    private static final String HEADER           = "sources-manifest-v1";
+    private static final long   MTIME_RESOLUTION = 2000;
+
+    private final java.io.File       file;
+    private final Map<String, Entry> entries;
+    /** Time when manifest was saved last time. */
+    private       long               savedAt;
+
+    private SourcesManifest(java.io.File file) {
+        this.file = file;
+        entries = new HashMap<>();
+    }
+
+    /**
+     * Loads manifest from the file. If file doesn't exist or can't be parsed empty manifest is returned.
+     *
+     * @param file
+     *         file of manifest
+     */
+    static SourcesManifest load(java.io.File file) {
+        final SourcesManifest manifest = new SourcesManifest(file);
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            final String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER + ' ')) {
+                throw new IOException("Invalid header");
+            }
+            manifest.savedAt = Long.parseLong(header.substring(HEADER.length() + 1));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // md5 size mtime path, path may contain spaces so it is the last one.
+                final String[] parts = line.split(" ", 4);
+                if (parts.length != 4) {
+                    throw new IOException("Invalid line " + line);
+                }
+                manifest.entries.put(parts[3], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+            }
+        } catch (NoSuchFileException e) {
+            // Sources are not downloaded yet.
+        } catch (IOException | NumberFormatException e) {
+            LOG.warn("Unable read manifest {}, all files will be re-hashed: {}", file, e.getMessage());
+            manifest.entries.clear();
+            manifest.savedAt = 0;
+        }
+        return manifest;
+    }
+
+    /**
+     * Brings manifest in sync with content of directory {@code dir}. Entries of removed files are removed, new files and files
+     * which size or modification time is changed are hashed.
+     *
+     * @param dir
+     *         root directory of project sources
+     * @return list of pairs: md5 sum of file and path of file relative to {@code dir}
+     */
+    List<Pair<String, String>> refresh(java.io.File dir) throws IOException {
+        final List<Pair<String, String>> md5sums = new ArrayList<>(entries.size());
+        final Set<String> existing = new HashSet<>();
+        final LinkedList<java.io.File> q = new LinkedList<>();
+        q.add(dir);
+        int hashed = 0;
+        while (!q.isEmpty()) {
+            final java.io.File current = q.pop();
+            final java.io.File[] list = current.listFiles();
+            if (list != null) {
+                for (java.io.File f : list) {
+                    if (f.isDirectory()) {
+                        q.push(f);
+                    } else {
+                        //Replacing of "\" is need for windows support
+                        final String path = dir.toPath().relativize(f.toPath()).toString().replace("\\", "/");
+                        final long size = f.length();
+                        final long mtime = f.lastModified();
+                        Entry entry = entries.get(path);
+                        if (entry == null || entry.size != size || entry.mtime != mtime || mtime + MTIME_RESOLUTION > savedAt) {
+                            entry = new Entry(com.google.common.io.Files.hash(f, Hashing.md5()).toString(), size, mtime);
+                            entries.put(path, entry);
+                            hashed++;
+                        }
+                        existing.add(path);
+                        md5sums.add(Pair.of(entry.md5, path));
+                    }
+                }
+            }
+        }
+        entries.keySet().retainAll(existing);
+        LOG.debug("{} files in manifest {}, {} files hashed", entries.size(), file, hashed);
+        return md5sums;
+    }
+
+    /**
+     * Records hash of file that is just written to the sources directory.
+     *
+     * @param path
+     *         path of file relative to the root of sources
+     * @param md5
+     *         md5 hash of content of file
+     * @param f
+     *         file
+     */
+    void put(String path, String md5, java.io.File f) {
+        entries.put(path, new Entry(md5, f.length(), f.lastModified()));
+    }
+
+    /** Removes entry of file that is removed from the sources directory. */
+    void remove(String path) {
+        entries.remove(path);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** Saves manifest. Manifest is written to temporary file which is renamed after that, so saving is atomic. */
+    void save() throws IOException {
+        savedAt = System.currentTimeMillis();
+        final java.io.File tmp = new java.io.File(file.getParentFile(), file.getName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write(' ');
+            writer.write(Long.toString(savedAt));
+            writer.newLine();
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                final Entry entry = e.getValue();
+                writer.write(entry.md5);
+                writer.write(' ');
+                writer.write(Long.toString(entry.size));
+                writer.write(' ');
+                writer.write(Long.toString(entry.mtime));
+                writer.write(' ');
+                writer.write(e.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static final class Entry {
+        final String md5;
+        final long   size;
+        final long   mtime;
+
+        Entry(String md5, long size, long mtime) {
+            this.md5 = md5;
+            this.size = size;
+            this.mtime = mtime;
+        }
+    }
+}
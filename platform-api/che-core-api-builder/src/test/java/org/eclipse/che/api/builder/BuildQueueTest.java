@@ -10,8 +10,104 @@
  *******************************************************************************/
 package org.eclipse.che.api.builder;
 
+import org.eclipse.che.api.builder.dto.BuilderDescriptor;
+import org.eclipse.che.api.builder.dto.BuilderState;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author andrew00x
  */
 public class BuildQueueTest {
+    @Test
+    public void testBuilderCapacityDoesNotBlockDispatcher() throws Exception {
+        final CountDownLatch stateRequested = new CountDownLatch(1);
+        final CountDownLatch stateReturned = new CountDownLatch(1);
+        final RemoteBuilder builder = new TestRemoteBuilder(2) {
+            @Override
+            public BuilderState getBuilderState() throws BuilderException {
+                stateRequested.countDown();
+                try {
+                    stateReturned.await();
+                } catch (InterruptedException e) {
+                    throw new BuilderException(e.getMessage());
+                }
+                return super.getBuilderState();
+            }
+        };
+        final CountDownLatch refreshed = new CountDownLatch(1);
+        final BuildQueue.BuilderCapacity capacity = new BuildQueue.BuilderCapacity(builder, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                new Thread(command).start();
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                refreshed.countDown();
+            }
+        });
+
+        capacity.refreshIfStale();
+        Assert.assertTrue(stateRequested.await(5, TimeUnit.SECONDS));
+        // State of builder isn't known yet.
+        Assert.assertEquals(capacity.getFreeWorkers(), 0);
+        Assert.assertFalse(capacity.acquire());
+        stateReturned.countDown();
+        Assert.assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(capacity.getFreeWorkers(), 2);
+    }
+
+    @Test
+    public void testBuilderCapacityCountsRequestsDispatchedWhileStateIsRequested() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        final BuildQueue.BuilderCapacity capacity = new BuildQueue.BuilderCapacity(new TestRemoteBuilder(3), new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        capacity.refreshIfStale();
+        tasks.remove(0).run();
+        Assert.assertTrue(capacity.acquire());
+        Assert.assertEquals(capacity.getFreeWorkers(), 2);
+
+        capacity.stale = true;
+        capacity.refreshIfStale();
+        // Builder doesn't see this request yet when it reports its state.
+        Assert.assertTrue(capacity.acquire());
+        tasks.remove(0).run();
+        Assert.assertEquals(capacity.getFreeWorkers(), 2);
+        // State isn't requested again while it is fresh.
+        capacity.refreshIfStale();
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    private static class TestRemoteBuilder extends RemoteBuilder {
+        final int freeWorkers;
+
+        TestRemoteBuilder(int freeWorkers) {
+            super("http://localhost:8080/api/internal/builder",
+                  DtoFactory.getInstance().createDto(BuilderDescriptor.class).withName("maven"),
+                  new ArrayList<Link>());
+            this.freeWorkers = freeWorkers;
+        }
+
+        @Override
+        public BuilderState getBuilderState() throws BuilderException {
+            return DtoFactory.getInstance().createDto(BuilderState.class).withFreeWorkers(freeWorkers);
+        }
+    }
 }
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** @author agent */
+public class DispatchQueueTest {
+    @Test
+    public void testFifoWithinTheSameLoad() {
+        DispatchQueue<String> queue = new DispatchQueue<>(Collections.<String, Integer>emptyMap());
+        queue.add("c", "ws1", 3);
+        queue.add("a", "ws1", 1);
+        queue.add("b", "ws2", 2);
+        Assert.assertEquals(queue.poll(), "a");
+        Assert.assertEquals(queue.poll(), "b");
+        Assert.assertEquals(queue.poll(), "c");
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testWorkspaceWithLessBuildsInProgressGoesFirst() {
+        Map<String, Integer> load = new HashMap<>();
+        load.put("ws1", 2);
+        DispatchQueue<String> queue = new DispatchQueue<>(load);
+        queue.add("ws1-1", "ws1", 1);
+        queue.add("ws2-1", "ws2", 2);
+        Assert.assertEquals(queue.poll(), "ws2-1");
+        Assert.assertEquals(queue.poll(), "ws1-1");
+    }
+
+    @Test
+    public void testPriorityIsUpdatedWhenRequestIsDispatched() {
+        DispatchQueue<String> queue = new DispatchQueue<>(Collections.<String, Integer>emptyMap());
+        queue.add("ws1-1", "ws1", 1);
+        queue.add("ws1-2", "ws1", 2);
+        queue.add("ws1-3", "ws1", 3);
+        queue.add("ws2-1", "ws2", 4);
+        queue.add("ws2-2", "ws2", 5);
+
+        Assert.assertEquals(queue.poll(), "ws1-1");
+        queue.dispatched("ws1");
+        Assert.assertEquals(queue.poll(), "ws2-1");
+        queue.dispatched("ws2");
+        Assert.assertEquals(queue.poll(), "ws1-2");
+        queue.dispatched("ws1");
+        Assert.assertEquals(queue.poll(), "ws2-2");
+        // Request is not dispatched, e.g. there is no free builder for it, load of workspace is not changed.
+        Assert.assertEquals(queue.poll(), "ws1-3");
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testLoadIsCopied() {
+        Map<String, Integer> load = new HashMap<>();
+        DispatchQueue<String> queue = new DispatchQueue<>(load);
+        queue.add("a", "ws1", 1);
+        queue.dispatched("ws1");
+        Assert.assertTrue(load.isEmpty());
+    }
+}
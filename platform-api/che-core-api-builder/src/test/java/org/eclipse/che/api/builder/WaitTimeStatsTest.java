@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/** @author agent */
+public class WaitTimeStatsTest {
+    @Test
+    public void testPercentiles() {
+        final long[] samples = new long[100];
+        for (int i = 0; i < samples.length; i++) {
+            // unsorted on purpose
+            samples[i] = (i * 37) % 100 + 1;
+        }
+        final WaitTimeStats stats = new WaitTimeStats(samples);
+        Assert.assertEquals(stats.getSampleCount(), 100);
+        Assert.assertEquals(stats.getMedian(), 50);
+        Assert.assertEquals(stats.getPercentile90(), 90);
+        Assert.assertEquals(stats.getPercentile99(), 99);
+        Assert.assertEquals(stats.getMax(), 100);
+    }
+
+    @Test
+    public void testSingleSample() {
+        final WaitTimeStats stats = new WaitTimeStats(new long[]{7});
+        Assert.assertEquals(stats.getMedian(), 7);
+        Assert.assertEquals(stats.getPercentile99(), 7);
+        Assert.assertEquals(stats.getMax(), 7);
+    }
+
+    @Test
+    public void testNoSamples() {
+        final WaitTimeStats stats = new WaitTimeStats(new long[0]);
+        Assert.assertEquals(stats.getSampleCount(), 0);
+        Assert.assertEquals(stats.getMedian(), 0);
+        Assert.assertEquals(stats.getMax(), 0);
+    }
+}
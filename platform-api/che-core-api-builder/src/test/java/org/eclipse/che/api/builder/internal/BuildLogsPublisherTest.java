@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/** @author agent */
+public class BuildLogsPublisherTest {
+    private File                           root;
+    private ScheduledExecutorService       scheduler;
+    private EventService                   eventService;
+    private List<BuilderEvent.LoggedChunk> chunks;
+    private EventSubscriber<BuilderEvent>  subscriber;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("build-logs").toFile();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        eventService = new EventService();
+        chunks = new CopyOnWriteArrayList<>();
+        subscriber = new EventSubscriber<BuilderEvent>() {
+            @Override
+            public void onEvent(BuilderEvent event) {
+                if (event.getType() == BuilderEvent.EventType.MESSAGES_LOGGED) {
+                    chunks.add(event.getChunk());
+                }
+            }
+        };
+        eventService.subscribe(subscriber);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        eventService.unsubscribe(subscriber);
+        scheduler.shutdownNow();
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testPublishLinesInChunks() throws Exception {
+        final File file = new File(root, "build.log");
+        final BuildLogsPublisher publisher =
+                new BuildLogsPublisher(new DefaultBuildLogger(file, "text/plain"), eventService, scheduler, 1, "workspace", "project");
+        for (int i = 1; i <= 450; i++) {
+            publisher.writeLine("line " + i);
+        }
+        // Full chunks are published immediately, the rest of lines is published with periodic flush.
+        final long end = System.currentTimeMillis() + 5000;
+        while (countLines() < 450 && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(countLines(), 450);
+        int next = 1;
+        for (BuilderEvent.LoggedChunk chunk : chunks) {
+            Assert.assertEquals(chunk.getFromLine(), next);
+            Assert.assertTrue(chunk.getLines().size() <= 200);
+            Assert.assertEquals(chunk.getLines().get(0), "line " + next);
+            next = chunk.getToLine() + 1;
+        }
+        // Logs are flushed to the file as well.
+        try (BufferedReader reader = new BufferedReader(publisher.getReader())) {
+            int lines = 0;
+            while (reader.readLine() != null) {
+                lines++;
+            }
+            Assert.assertEquals(lines, 450);
+        }
+
+        publisher.writeLine("last");
+        publisher.close();
+        final BuilderEvent.LoggedChunk last = chunks.get(chunks.size() - 1);
+        Assert.assertEquals(last.getFromLine(), 451);
+        Assert.assertEquals(last.getLines().get(0), "last");
+    }
+
+    private int countLines() {
+        int lines = 0;
+        for (BuilderEvent.LoggedChunk chunk : chunks) {
+            lines += chunk.getLines().size();
+        }
+        return lines;
+    }
+}
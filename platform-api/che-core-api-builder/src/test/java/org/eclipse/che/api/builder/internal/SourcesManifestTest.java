@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.builder.internal;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.Pair;
+
+import com.google.common.hash.Hashing;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** @author agent */
+public class SourcesManifestTest {
+    private File root;
+    private File sources;
+    private File manifestFile;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("sources-manifest").toFile();
+        sources = new File(root, "project");
+        Assert.assertTrue(new File(sources, "src/main").mkdirs());
+        manifestFile = new File(root, "project.manifest");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void testRefreshHashesFiles() throws Exception {
+        write("src/main/a.txt", "a");
+        write("b.txt", "b");
+        SourcesManifest manifest = SourcesManifest.load(manifestFile);
+        Map<String, String> md5sums = toMap(manifest.refresh(sources));
+        Assert.assertEquals(md5sums.size(), 2);
+        Assert.assertEquals(md5sums.get("src/main/a.txt"), md5("a"));
+        Assert.assertEquals(md5sums.get("b.txt"), md5("b"));
+    }
+
+    @Test
+    public void testSavedManifestIsReused() throws Exception {
+        File a = write("src/main/a.txt", "a");
+        // Make file older than resolution of modification time so its hash may be trusted.
+        Assert.assertTrue(a.setLastModified(System.currentTimeMillis() - 60000));
+        SourcesManifest manifest = SourcesManifest.load(manifestFile);
+        manifest.refresh(sources);
+        manifest.save();
+
+        // Content is changed but size and modification time are the same, hash from manifest is used.
+        long lastModified = a.lastModified();
+        write("src/main/a.txt", "x");
+        Assert.assertTrue(a.setLastModified(lastModified));
+        Map<String, String> md5sums = toMap(SourcesManifest.load(manifestFile).refresh(sources));
+        Assert.assertEquals(md5sums.get("src/main/a.txt"), md5("a"));
+
+        // Modification time is changed, file is hashed again.
+        Assert.assertTrue(a.setLastModified(lastModified + 5000));
+        md5sums = toMap(SourcesManifest.load(manifestFile).refresh(sources));
+        Assert.assertEquals(md5sums.get("src/main/a.txt"), md5("x"));
+    }
+
+    @Test
+    public void testRemovedFilesAreRemovedFromManifest() throws Exception {
+        write("src/main/a.txt", "a");
+        File b = write("b.txt", "b");
+        SourcesManifest manifest = SourcesManifest.load(manifestFile);
+        manifest.refresh(sources);
+        manifest.save();
+        Assert.assertTrue(b.delete());
+        manifest = SourcesManifest.load(manifestFile);
+        Map<String, String> md5sums = toMap(manifest.refresh(sources));
+        Assert.assertEquals(md5sums.size(), 1);
+        Assert.assertEquals(manifest.size(), 1);
+    }
+
+    @Test
+    public void testInvalidManifestIsIgnored() throws Exception {
+        write("b.txt", "b");
+        Files.write(manifestFile.toPath(), "garbage".getBytes(StandardCharsets.UTF_8));
+        SourcesManifest manifest = SourcesManifest.load(manifestFile);
+        Assert.assertEquals(manifest.size(), 0);
+        Assert.assertEquals(toMap(manifest.refresh(sources)).get("b.txt"), md5("b"));
+    }
+
+    private File write(String path, String content) throws Exception {
+        File file = new File(sources, path);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String md5(String content) {
+        return Hashing.md5().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    private static Map<String, String> toMap(List<Pair<String, String>> md5sums) {
+        Map<String, String> map = new HashMap<>();
+        for (Pair<String, String> pair : md5sums) {
+            map.put(pair.second, pair.first);
+        }
+        return map;
+    }
+}
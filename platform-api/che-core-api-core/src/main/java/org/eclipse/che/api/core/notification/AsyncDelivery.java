@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration of asynchronous delivery of events to the subscriber. Each subscriber that is registered with asynchronous
+ * delivery gets own bounded queue of events. Method {@link EventService#publish(Object)} puts event in the queue and returns
+ * immediately, events are delivered to the subscriber by tasks that are running in the configured {@code Executor}. Events
+ * are delivered to the subscriber one by one in order they were published, but different subscribers receive events
+ * concurrently. Any {@code Executor} may be used, e.g. executor that starts new virtual thread for each task on JVMs that
+ * support them. If executor is not set, shared executor of {@code EventService} is used.
+ * <p/>
+ * Usage example:
+ * <pre>
+ *     EventService bus = ...
+ *     bus.subscribe(new EventSubscriber&lt;MyEvent&gt;() {
+ *         &#64;Override
+ *         public void onEvent(MyEvent event) {
+ *             // do something with event
+ *         }
+ *     }, new AsyncDelivery(1000, AsyncDelivery.OverflowPolicy.DROP_OLDEST));
+ * </pre>
+ * Override method {@link #getCoalescingKey(Object)} to control which events replace each other if {@link
+ * OverflowPolicy#COALESCE} is used.
+ *
+ * @author agent
+ * @see EventService#subscribe(EventSubscriber, AsyncDelivery)
+ */
+public class AsyncDelivery {
+    /** Describes what happens when event is published but queue of the subscriber is full. */
+    public enum OverflowPolicy {
+        /** Publisher is blocked until there is free space in the queue. */
+        BLOCK,
+        /** The oldest event in the queue is dropped. */
+        DROP_OLDEST,
+        /**
+         * Event replaces pending event with the same coalescing key, see {@link AsyncDelivery#getCoalescingKey(Object)}. Events
+         * are coalesced even if queue is not full. If there is no pending event with the same key and queue is full publisher is
+         * blocked until there is free space in the queue.
+         */
+        COALESCE
+    }
+
+    private final int            queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Executor       executor;
+
+    /**
+     * Creates configuration of asynchronous delivery that uses shared executor of {@code EventService}.
+     *
+     * @param queueCapacity
+     *         max number of events that are waiting for delivery to the subscriber
+     * @param overflowPolicy
+     *         what to do when queue of the subscriber is full
+     */
+    public AsyncDelivery(int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(queueCapacity, overflowPolicy, null);
+    }
+
+    /**
+     * @param queueCapacity
+     *         max number of events that are waiting for delivery to the subscriber
+     * @param overflowPolicy
+     *         what to do when queue of the subscriber is full
+     * @param executor
+     *         executor that runs delivery of events or {@code null} to use shared executor of {@code EventService}
+     */
+    public AsyncDelivery(int queueCapacity, OverflowPolicy overflowPolicy, Executor executor) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid queue capacity " + queueCapacity);
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Null overflow policy.");
+        }
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.executor = executor;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /** Gets executor that runs delivery of events or {@code null} if shared executor of {@code EventService} is used. */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets key of the event for {@link OverflowPolicy#COALESCE} policy. Pending event is replaced with new one if they have
+     * equal keys. By default event itself is used as key, so only equal events are coalesced.
+     */
+    protected Object getCoalescingKey(Object event) {
+        return event;
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDelivery{" +
+               "queueCapacity=" + queueCapacity +
+               ", overflowPolicy=" + overflowPolicy +
+               ", executor=" + executor +
+               '}';
+    }
+}
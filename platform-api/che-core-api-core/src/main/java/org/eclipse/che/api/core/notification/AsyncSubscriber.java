@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wraps subscriber that receives events asynchronously. Published events are put in the bounded queue and delivered to the
+ * wrapped subscriber by task that is running in executor. At most one task is running for each subscriber at the same time,
+ * so subscriber receives events one by one in order they were published.
+ *
+ * @author agent
+ * @see AsyncDelivery
+ */
+final class AsyncSubscriber implements EventSubscriber<Object>, Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncSubscriber.class);
+
+    /** Max number of events delivered by one task, after that task is re-submitted to let other tasks use thread of executor. */
+    private static final int MAX_EVENTS_PER_TASK = 64;
+
+    private final EventSubscriber             delegate;
+    private final Class<?>                    eventType;
+    private final AsyncDelivery               delivery;
+    private final Executor                    executor;
+    private final ArrayDeque<PendingEvent>    queue;
+    /** Pending events by coalescing key, used only with {@link AsyncDelivery.OverflowPolicy#COALESCE} policy. */
+    private final Map<Object, PendingEvent>   pendingByKey;
+    private final ReentrantLock               lock;
+    private final Condition                   notFull;
+
+    /** Thread that delivers events to the subscriber at the moment. */
+    private volatile Thread dispatchThread;
+
+    // All fields below are guarded by lock.
+    private boolean scheduled;
+    private boolean closed;
+    private int     maxQueueDepth;
+    private long    deliveredCount;
+    private long    droppedCount;
+    private long    coalescedCount;
+    private long    totalLatencyNanos;
+    private long    maxLatencyNanos;
+
+    AsyncSubscriber(EventSubscriber<?> delegate, Class<?> eventType, AsyncDelivery delivery, Executor executor) {
+        this.delegate = delegate;
+        this.eventType = eventType;
+        this.delivery = delivery;
+        this.executor = executor;
+        queue = new ArrayDeque<>();
+        pendingByKey = delivery.getOverflowPolicy() == AsyncDelivery.OverflowPolicy.COALESCE ? new HashMap<Object, PendingEvent>() : null;
+        lock = new ReentrantLock();
+        notFull = lock.newCondition();
+    }
+
+    EventSubscriber<?> getDelegate() {
+        return delegate;
+    }
+
+    Class<?> getEventType() {
+        return eventType;
+    }
+
+    /** Puts event in the queue of the subscriber. */
+    @Override
+    public void onEvent(Object event) {
+        boolean schedule = false;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            Object key = null;
+            if (pendingByKey != null) {
+                key = delivery.getCoalescingKey(event);
+                final PendingEvent pending = pendingByKey.get(key);
+                if (pending != null) {
+                    pending.event = event;
+                    coalescedCount++;
+                    return;
+                }
+            }
+            while (queue.size() >= delivery.getQueueCapacity() && !closed) {
+                if (delivery.getOverflowPolicy() == AsyncDelivery.OverflowPolicy.DROP_OLDEST) {
+                    removeKey(queue.poll());
+                    droppedCount++;
+                } else if (Thread.currentThread() == dispatchThread) {
+                    // Subscriber publishes events for itself. Waiting for free space in the queue here never ends.
+                    break;
+                } else {
+                    try {
+                        notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        droppedCount++;
+                        LOG.warn("Interrupted while waiting for free space in queue of {}, event {} is dropped", delegate, event);
+                        return;
+                    }
+                }
+            }
+            if (closed) {
+                droppedCount++;
+                return;
+            }
+            final PendingEvent pending = new PendingEvent(event, key, System.nanoTime());
+            queue.add(pending);
+            if (key != null) {
+                pendingByKey.put(key, pending);
+            }
+            if (queue.size() > maxQueueDepth) {
+                maxQueueDepth = queue.size();
+            }
+            if (!scheduled) {
+                scheduled = schedule = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            submit();
+        }
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            LOG.error(String.format("Unable deliver events to %s, executor rejected delivery task", delegate), e);
+            lock.lock();
+            try {
+                scheduled = false;
+                droppedCount += queue.size();
+                queue.clear();
+                if (pendingByKey != null) {
+                    pendingByKey.clear();
+                }
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void removeKey(PendingEvent pending) {
+        if (pendingByKey != null && pending.key != null && pendingByKey.get(pending.key) == pending) {
+            pendingByKey.remove(pending.key);
+        }
+    }
+
+    /** Delivers pending events to the subscriber. */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void run() {
+        dispatchThread = Thread.currentThread();
+        boolean completed = false;
+        try {
+            for (int i = 0; i < MAX_EVENTS_PER_TASK; i++) {
+                final Object event;
+                lock.lock();
+                try {
+                    final PendingEvent pending = queue.poll();
+                    if (pending == null) {
+                        scheduled = false;
+                        completed = true;
+                        return;
+                    }
+                    removeKey(pending);
+                    notFull.signal();
+                    final long latency = System.nanoTime() - pending.publishTime;
+                    totalLatencyNanos += latency;
+                    if (latency > maxLatencyNanos) {
+                        maxLatencyNanos = latency;
+                    }
+                    deliveredCount++;
+                    event = pending.event;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    LOG.debug("Publish event {} for {}", event, delegate);
+                    delegate.onEvent(event);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+            completed = true;
+        } finally {
+            dispatchThread = null;
+            if (!completed) {
+                // Subscriber throws Error. Task still owns delivery, so it must hand delivery over to the next task.
+                final boolean resubmit;
+                lock.lock();
+                try {
+                    resubmit = scheduled = !queue.isEmpty() && !closed;
+                } finally {
+                    lock.unlock();
+                }
+                if (resubmit) {
+                    submit();
+                }
+            }
+        }
+        // There are more events, give other tasks a chance to run.
+        submit();
+    }
+
+    /** Stops delivery of events. Events that are still in the queue are dropped. */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            droppedCount += queue.size();
+            queue.clear();
+            if (pendingByKey != null) {
+                pendingByKey.clear();
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    DeliveryStats getStats() {
+        lock.lock();
+        try {
+            return new DeliveryStats(queue.size(), maxQueueDepth, deliveredCount, droppedCount, coalescedCount, totalLatencyNanos,
+                                     maxLatencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncSubscriber{" +
+               "delegate=" + delegate +
+               ", delivery=" + delivery +
+               '}';
+    }
+
+    private static final class PendingEvent {
+        final Object key;
+        final long   publishTime;
+        Object event;
+
+        PendingEvent(Object event, Object key, long publishTime) {
+            this.event = event;
+            this.key = key;
+            this.publishTime = publishTime;
+        }
+    }
+}
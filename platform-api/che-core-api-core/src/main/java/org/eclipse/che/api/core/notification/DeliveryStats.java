@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+/**
+ * Snapshot of statistics of asynchronous delivery of events to one subscriber.
+ *
+ * @author agent
+ * @see EventService#getDeliveryStats(EventSubscriber)
+ */
+public final class DeliveryStats {
+    private final int  queueDepth;
+    private final int  maxQueueDepth;
+    private final long deliveredCount;
+    private final long droppedCount;
+    private final long coalescedCount;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    DeliveryStats(int queueDepth, int maxQueueDepth, long deliveredCount, long droppedCount, long coalescedCount,
+                  long totalLatencyNanos, long maxLatencyNanos) {
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.deliveredCount = deliveredCount;
+        this.droppedCount = droppedCount;
+        this.coalescedCount = coalescedCount;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /** Number of events that are waiting for delivery. */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /** Max number of events that were waiting for delivery at the same time. */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /** Number of events delivered to the subscriber. */
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /** Number of events dropped because queue was full or subscriber was unsubscribed. */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /** Number of events replaced with newer events with the same coalescing key. */
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /** Average time in nanoseconds between publishing of event and start of its delivery to the subscriber. */
+    public long getAverageLatencyNanos() {
+        return deliveredCount == 0 ? 0 : totalLatencyNanos / deliveredCount;
+    }
+
+    /** Max time in nanoseconds between publishing of event and start of its delivery to the subscriber. */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "DeliveryStats{" +
+               "queueDepth=" + queueDepth +
+               ", maxQueueDepth=" + maxQueueDepth +
+               ", deliveredCount=" + deliveredCount +
+               ", droppedCount=" + droppedCount +
+               ", coalescedCount=" + coalescedCount +
+               ", averageLatencyNanos=" + getAverageLatencyNanos() +
+               ", maxLatencyNanos=" + maxLatencyNanos +
+               '}';
+    }
+}
@@ -10,13 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.notification;
 
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
+import org.eclipse.che.commons.lang.cache.ConcurrentLoadingCache;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -27,6 +28,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +44,9 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default events are delivered synchronously in the thread that calls method {@link #publish(Object)}. Subscriber that
+ * is registered with {@link AsyncDelivery} receives events in separate thread, see {@link #subscribe(EventSubscriber,
+ * AsyncDelivery)}.
  *
  * @author andrew00x
  */
@@ -47,40 +54,39 @@ import java.util.concurrent.CopyOnWriteArraySet;
 public class EventService {
     private static final Logger LOG = LoggerFactory.getLogger(EventService.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
+    private static final int TYPE_CACHE_SIZE = 256;
 
-    private final Cache<Class<?>, Set<Class<?>>>[]              typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    private final ConcurrentLoadingCache<Class<?>, Set<Class<?>>>    typeCache;
+    private final ConcurrentMap<Class<?>, Set<EventSubscriber>>      subscribersByEventType;
+    private final ConcurrentMap<EventSubscriber<?>, AsyncSubscriber> asyncSubscribers;
+
+    /** Executor for asynchronous delivery of events to subscribers that don't have own executor. Created on demand. */
+    private ExecutorService asyncExecutor;
 
-    @SuppressWarnings("unchecked")
     public EventService() {
         subscribersByEventType = new ConcurrentHashMap<>();
-        typeCache = new Cache[CACHE_NUM];
-        for (int i = 0; i < CACHE_NUM; i++) {
-            typeCache[i] = new SynchronizedCache<>(new LoadingValueSLRUCache<Class<?>, Set<Class<?>>>(SEG_SIZE, SEG_SIZE) {
-                @Override
-                protected Set<Class<?>> loadValue(Class<?> eventClass) throws RuntimeException {
-                    LinkedList<Class<?>> parents = new LinkedList<>();
-                    Set<Class<?>> classes = new HashSet<>();
-                    parents.add(eventClass);
-                    while (!parents.isEmpty()) {
-                        Class<?> clazz = parents.pop();
-                        classes.add(clazz);
-                        Class<?> parent = clazz.getSuperclass();
-                        if (parent != null) {
-                            parents.add(parent);
-                        }
-                        Class<?>[] interfaces = clazz.getInterfaces();
-                        if (interfaces.length > 0) {
-                            Collections.addAll(parents, interfaces);
-                        }
+        asyncSubscribers = new ConcurrentHashMap<>();
+        typeCache = new ConcurrentLoadingCache<Class<?>, Set<Class<?>>>(TYPE_CACHE_SIZE) {
+            @Override
+            protected Set<Class<?>> loadValue(Class<?> eventClass) throws RuntimeException {
+                LinkedList<Class<?>> parents = new LinkedList<>();
+                Set<Class<?>> classes = new HashSet<>();
+                parents.add(eventClass);
+                while (!parents.isEmpty()) {
+                    Class<?> clazz = parents.pop();
+                    classes.add(clazz);
+                    Class<?> parent = clazz.getSuperclass();
+                    if (parent != null) {
+                        parents.add(parent);
+                    }
+                    Class<?>[] interfaces = clazz.getInterfaces();
+                    if (interfaces.length > 0) {
+                        Collections.addAll(parents, interfaces);
                     }
-                    return classes;
                 }
-            });
-        }
+                return classes;
+            }
+        };
     }
 
     /**
@@ -95,7 +101,7 @@ public class EventService {
             throw new IllegalArgumentException("Null event.");
         }
         final Class<?> eventClass = event.getClass();
-        for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].get(eventClass)) {
+        for (Class<?> clazz : typeCache.get(eventClass)) {
             final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
             if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
                 for (EventSubscriber eventSubscriber : eventSubscribers) {
@@ -133,6 +139,71 @@ public class EventService {
         doSubscribe(subscriber, eventType);
     }
 
+    /**
+     * Subscribe event listener that receives events asynchronously. Method {@link #publish(Object)} puts event in the queue of
+     * subscriber and returns without waiting for delivery. The event to subscribe to is inferred by checking the generic type
+     * arguments of the given subscriber.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @param delivery
+     *         configuration of asynchronous delivery
+     * @throws IllegalArgumentException
+     *         if subscriber is already subscribed for asynchronous delivery
+     * @see AsyncDelivery
+     */
+    public void subscribe(EventSubscriber<?> subscriber, AsyncDelivery delivery) {
+        final Class<?> eventType = getEventType(subscriber);
+        doSubscribeAsync(subscriber, eventType, delivery);
+    }
+
+    /**
+     * Subscribe to an event with asynchronous delivery.
+     *
+     * @param subscriber The subscriber to call when an event is published.
+     * @param eventType The event to subscribe to.
+     * @param delivery configuration of asynchronous delivery
+     * @throws IllegalArgumentException
+     *         if subscriber is already subscribed for asynchronous delivery
+     * @see #subscribe(EventSubscriber, AsyncDelivery)
+     */
+    public <T> void subscribe(EventSubscriber<? extends T> subscriber, Class<T> eventType, AsyncDelivery delivery) {
+        doSubscribeAsync(subscriber, eventType, delivery);
+    }
+
+    private void doSubscribeAsync(EventSubscriber<?> subscriber, Class<?> eventType, AsyncDelivery delivery) {
+        if (delivery == null) {
+            throw new IllegalArgumentException("Null delivery.");
+        }
+        final Executor executor = delivery.getExecutor() == null ? getAsyncExecutor() : delivery.getExecutor();
+        final AsyncSubscriber asyncSubscriber = new AsyncSubscriber(subscriber, eventType, delivery, executor);
+        if (asyncSubscribers.putIfAbsent(subscriber, asyncSubscriber) != null) {
+            throw new IllegalArgumentException(String.format("%s is already subscribed for asynchronous delivery", subscriber));
+        }
+        doSubscribe(asyncSubscriber, eventType);
+    }
+
+    private synchronized Executor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            asyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("EventService-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Gets statistics of asynchronous delivery of events to the subscriber.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @return statistics of delivery or {@code null} if subscriber is not subscribed for asynchronous delivery
+     */
+    public DeliveryStats getDeliveryStats(EventSubscriber<?> subscriber) {
+        final AsyncSubscriber asyncSubscriber = asyncSubscribers.get(subscriber);
+        return asyncSubscriber == null ? null : asyncSubscriber.getStats();
+    }
+
     private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
@@ -152,7 +223,16 @@ public class EventService {
      *         event subscriber
      */
     public void unsubscribe(EventSubscriber<?> subscriber) {
-        final Class<?> eventType = getEventType(subscriber);
+        final AsyncSubscriber asyncSubscriber = asyncSubscribers.remove(subscriber);
+        if (asyncSubscriber != null) {
+            asyncSubscriber.close();
+            doUnsubscribe(asyncSubscriber, asyncSubscriber.getEventType());
+        } else {
+            doUnsubscribe(subscriber, getEventType(subscriber));
+        }
+    }
+
+    private void doUnsubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
         final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries != null && !entries.isEmpty()) {
             boolean changed = entries.remove(subscriber);
@@ -164,6 +244,14 @@ public class EventService {
         }
     }
 
+    /** Stops asynchronous delivery of events with shared executor. */
+    @PreDestroy
+    public synchronized void stop() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+        }
+    }
+
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
         Class<?> eventType = null;
         Class<?> clazz = subscriber.getClass();
@@ -55,7 +55,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public final class WSocketEventBusClient {
     private static final Logger LOG = LoggerFactory.getLogger(WSocketEventBusClient.class);
 
-    private static final long WS_CONNECTION_TIMEOUT = 2;
+    private static final long WS_CONNECTION_TIMEOUT      = 2;
+    /** Max number of events that are waiting for propagation to remote event buses. */
+    private static final int  PROPAGATION_QUEUE_CAPACITY = 1000;
 
     private final EventService                         eventService;
     private final Pair<String, String>[]               eventSubscriptions;
@@ -83,12 +85,13 @@ public final class WSocketEventBusClient {
     void start() {
         if (start.compareAndSet(false, true)) {
             if (policy != null) {
+                // Serialization and sending of events over websocket must not slow down threads that publish events.
                 eventService.subscribe(new EventSubscriber<Object>() {
                     @Override
                     public void onEvent(Object event) {
                         propagate(event);
                     }
-                });
+                }, new AsyncDelivery(PROPAGATION_QUEUE_CAPACITY, AsyncDelivery.OverflowPolicy.BLOCK));
             }
             if (eventSubscriptions != null) {
                 final Map<URI, Set<String>> cfg = new HashMap<>();
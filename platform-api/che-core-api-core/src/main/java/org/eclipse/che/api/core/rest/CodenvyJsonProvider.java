@@ -11,7 +11,9 @@
 package org.eclipse.che.api.core.rest;
 
 import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.dto.server.BinarySerializable;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.shared.DTO;
 import org.everrest.core.impl.provider.JsonEntityProvider;
@@ -28,6 +30,7 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -43,6 +46,8 @@ import java.util.Set;
 
 /**
  * Implementation of {@link MessageBodyReader} and {@link MessageBodyWriter} needed for binding JSON content to and from Java Objects.
+ * DTOs and lists of DTOs may be also sent and received in binary format, see {@link BinarySerializable}. Server sends binary format
+ * only if client accepts it, see {@link org.eclipse.che.everrest.BinaryDtoResponseFilter}.
  *
  * @author andrew00x
  * @see DTO
@@ -50,9 +55,11 @@ import java.util.Set;
  */
 @Singleton
 @Provider
-@Produces({MediaType.APPLICATION_JSON})
-@Consumes({MediaType.APPLICATION_JSON})
+@Produces({MediaType.APPLICATION_JSON, BinarySerializable.MEDIA_TYPE})
+@Consumes({MediaType.APPLICATION_JSON, BinarySerializable.MEDIA_TYPE})
 public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWriter<T> {
+    private static final MediaType BINARY_TYPE = MediaType.valueOf(BinarySerializable.MEDIA_TYPE);
+
     private Set<Class> ignoredClasses;
     private final JsonEntityProvider delegate = new JsonEntityProvider<>();
 
@@ -64,6 +71,10 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
     @SuppressWarnings("unchecked")
     @Override
     public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (isBinary(mediaType)) {
+            // Elements of list are checked by BinaryDtoResponseFilter.
+            return BinarySerializable.class.isAssignableFrom(type) || List.class.isAssignableFrom(type);
+        }
         return !ignoredClasses.contains(type) &&
                (type.isAnnotationPresent(DTO.class) || delegate.isWriteable(type, genericType, annotations, mediaType));
     }
@@ -79,9 +90,12 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
                         MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
         // Add Cache-Control before start write body.
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
-        if (t instanceof JsonSerializable) {
-            try (Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"))) {
-                w.write(((JsonSerializable)t).toJson());
+        if (isBinary(mediaType)) {
+            DtoFactory.getInstance().toBinary(t instanceof BinarySerializable ? t : new JsonArrayImpl<>((List<Object>)t), entityStream);
+        } else if (t instanceof JsonSerializable) {
+            // Write JSON directly to the response stream without creating JSON string in memory.
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(entityStream, Charset.forName("UTF-8")))) {
+                ((JsonSerializable)t).writeTo(w);
             }
         } else {
             delegate.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
@@ -91,6 +105,9 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
     @SuppressWarnings("unchecked")
     @Override
     public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (isBinary(mediaType)) {
+            return type.isAnnotationPresent(DTO.class) || getDtoElementType(type, genericType) != null;
+        }
         return !ignoredClasses.contains(type) &&
                (type.isAnnotationPresent(DTO.class) || delegate.isReadable(type, genericType, annotations, mediaType));
     }
@@ -99,21 +116,35 @@ public class CodenvyJsonProvider<T> implements MessageBodyReader<T>, MessageBody
     @Override
     public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
                       MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
+        final boolean binary = isBinary(mediaType);
         if (type.isAnnotationPresent(DTO.class)) {
-            return DtoFactory.getInstance().createDtoFromJson(entityStream, type);
-        } else if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
-            ParameterizedType parameterizedType = (ParameterizedType)genericType;
-            Type elementType = parameterizedType.getActualTypeArguments()[0];
-            if (elementType instanceof Class) {
-                Class elementClass = (Class)elementType;
-                if (elementClass.isAnnotationPresent(DTO.class)) {
-                    return (T)DtoFactory.getInstance().createListDtoFromJson(entityStream, elementClass);
-                }
-            }
+            return binary ? DtoFactory.getInstance().createDtoFromBinary(entityStream, type)
+                          : DtoFactory.getInstance().createDtoFromJson(entityStream, type);
+        }
+        final Class elementClass = getDtoElementType(type, genericType);
+        if (elementClass != null) {
+            return binary ? (T)DtoFactory.getInstance().createListDtoFromBinary(entityStream, elementClass)
+                          : (T)DtoFactory.getInstance().createListDtoFromJson(entityStream, elementClass);
         }
         return (T)delegate.readFrom(type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    /** Returns type of elements if {@code type} is list of DTOs or {@code null} otherwise. */
+    private static Class<?> getDtoElementType(Class<?> type, Type genericType) {
+        if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
+            Type elementType = ((ParameterizedType)genericType).getActualTypeArguments()[0];
+            if (elementType instanceof Class && ((Class<?>)elementType).isAnnotationPresent(DTO.class)) {
+                return (Class<?>)elementType;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBinary(MediaType mediaType) {
+        return mediaType != null && BINARY_TYPE.getType().equals(mediaType.getType())
+               && BINARY_TYPE.getSubtype().equals(mediaType.getSubtype());
+    }
+
     /**
      * Get Set of classes that we never try to serialize or deserialize. Returned Set is mutable and new classes may be added in ignored
      * Set.
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 
 import org.eclipse.che.api.core.BadRequestException;
@@ -23,6 +24,7 @@ import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.user.User;
+import org.eclipse.che.dto.server.BinarySerializable;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
@@ -35,22 +37,26 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Simple implementation of {@link HttpJsonRequest} based on {@link HttpURLConnection}.
+ * Connections are taken from {@link HttpConnectionPool} and are kept alive between requests.
  *
  * <p>The implementation is not thread-safe, instance of this class must be created each time when it's needed.
  *
@@ -61,11 +67,15 @@ import static java.util.Objects.requireNonNull;
  * @see DefaultHttpJsonRequestFactory
  */
 public class DefaultHttpJsonRequest implements HttpJsonRequest {
- 
+
+    /** Value of {@link HttpHeaders#ACCEPT} header that allows server to send DTOs in binary format instead of JSON. */
+    static final String ACCEPT_JSON_OR_BINARY_DTO = MediaType.APPLICATION_JSON + ", " + BinarySerializable.MEDIA_TYPE;
+
     private static final int      DEFAULT_QUERY_PARAMS_LIST_SIZE = 5;
     private static final Object[] EMPTY_ARRAY                    = new Object[0];
 
-    private final String url;
+    private final HttpConnectionPool connectionPool;
+    private final String             url;
 
     private int                   timeout;
     private String                method;
@@ -73,11 +83,20 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
     private List<Pair<String, ?>> queryParams;
 
     DefaultHttpJsonRequest(String url) {
-        this.url = requireNonNull(url, "Required non-null url");
+        this(HttpConnectionPool.getDefault(), url);
     }
 
     DefaultHttpJsonRequest(Link link) {
-        this(requireNonNull(link, "Required non-null link").getHref());
+        this(HttpConnectionPool.getDefault(), link);
+    }
+
+    DefaultHttpJsonRequest(HttpConnectionPool connectionPool, String url) {
+        this.connectionPool = requireNonNull(connectionPool, "Required non-null connection pool");
+        this.url = requireNonNull(url, "Required non-null url");
+    }
+
+    DefaultHttpJsonRequest(HttpConnectionPool connectionPool, Link link) {
+        this(connectionPool, requireNonNull(link, "Required non-null link").getHref());
         this.method = link.getMethod();
     }
 
@@ -136,11 +155,46 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         return doRequest(timeout, url, method, body, queryParams);
     }
 
+    /**
+     * Makes this request in thread of the {@link HttpConnectionPool connection pool}. Parameters of request are copied when this method
+     * is called and {@link EnvironmentContext} of the caller is used for the request, so this instance may be changed and reused
+     * immediately.
+     */
+    @Override
+    public CompletableFuture<HttpJsonResponse> requestAsync() {
+        if (method == null) {
+            throw new IllegalStateException("Could not perform request, request method wasn't set");
+        }
+        final int timeout = this.timeout;
+        final String url = this.url;
+        final String method = this.method;
+        final Object body = this.body;
+        final List<Pair<String, ?>> queryParams = this.queryParams == null ? null : new ArrayList<>(this.queryParams);
+        final EnvironmentContext context = EnvironmentContext.getCurrent();
+        final CompletableFuture<HttpJsonResponse> future = new CompletableFuture<>();
+        connectionPool.getAsyncExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                EnvironmentContext.setCurrent(context);
+                try {
+                    future.complete(doRequest(timeout, url, method, body, queryParams));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    EnvironmentContext.reset();
+                }
+            }
+        });
+        return future;
+    }
+
     /**
      * Makes this request using {@link HttpURLConnection}.
      *
-     * <p>Uses {@link HttpHeaders#AUTHORIZATION} header with value from {@link EnvironmentContext}.
-     * <br>uses {@link HttpHeaders#ACCEPT} header with "application/json" value.
+     * <p>Takes connection from {@link HttpConnectionPool}, waits if all connections to the host are in use.
+     * <br>Uses {@link HttpHeaders#AUTHORIZATION} header with value from {@link EnvironmentContext}.
+     * <br>uses {@link HttpHeaders#ACCEPT} header with "application/json" and binary DTO format values, response in binary format
+     * is decoded by {@link DefaultHttpJsonResponse}.
      * <br>Encodes query parameters in "UTF-8".
      *
      * @param timeout
@@ -155,7 +209,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
      *         query parameters, may be null
      * @return response to this request
      * @throws IOException
-     *         when connection content type is not "application/json"
+     *         when connection content type is neither "application/json" nor binary DTO format
      * @throws ServerException
      *         when response code is 500 or it is different from 400, 401, 403, 404, 409
      * @throws ForbiddenException
@@ -198,36 +252,31 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
             }
             url = ub.build().toString();
         }
-        final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
-        conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
-        conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+        final HttpConnectionPool.Connection lease = connectionPool.open(new URL(url), timeout > 0 ? timeout : 60000);
+        final HttpURLConnection conn = lease.getConnection();
         try {
             conn.setRequestMethod(method);
-            //drop a hint for server side that we want to receive application/json
-            conn.addRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+            //drop a hint for server side that we want to receive application/json or DTO in binary format
+            conn.addRequestProperty(HttpHeaders.ACCEPT, ACCEPT_JSON_OR_BINARY_DTO);
             if (authToken != null) {
                 conn.setRequestProperty(HttpHeaders.AUTHORIZATION, authToken);
             }
             if (body != null) {
                 conn.addRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-                conn.setDoOutput(true);
 
                 if (HttpMethod.DELETE.equals(method)) { //to avoid jdk bug described here http://bugs.java.com/view_bug.do?bug_id=7157360
                     conn.setRequestMethod(HttpMethod.POST);
                     conn.setRequestProperty("X-HTTP-Method-Override", HttpMethod.DELETE);
                 }
 
-                try (OutputStream output = conn.getOutputStream()) {
-                    output.write(DtoFactory.getInstance().toJson(body).getBytes());
+                try (Writer output = new BufferedWriter(new OutputStreamWriter(lease.getOutputStream()))) {
+                    DtoFactory.getInstance().toJson(body, output);
                 }
             }
 
             final int responseCode = conn.getResponseCode();
             if ((responseCode / 100) != 2) {
-                InputStream in = conn.getErrorStream();
-                if (in == null) {
-                    in = conn.getInputStream();
-                }
+                final InputStream in = lease.getErrorStream();
                 final String str;
                 try (Reader reader = new InputStreamReader(in)) {
                     str = CharStreams.toString(reader);
@@ -257,15 +306,23 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                                                     UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
             }
             final String contentType = conn.getContentType();
+            if (contentType != null && contentType.startsWith(BinarySerializable.MEDIA_TYPE)) {
+                try (InputStream in = lease.getInputStream()) {
+                    return new DefaultHttpJsonResponse(ByteStreams.toByteArray(in), responseCode);
+                }
+            }
             if (contentType != null && !contentType.startsWith(MediaType.APPLICATION_JSON)) {
                 throw new IOException(conn.getResponseMessage());
             }
 
-            try (Reader reader = new InputStreamReader(conn.getInputStream())) {
+            try (Reader reader = new InputStreamReader(lease.getInputStream())) {
                 return new DefaultHttpJsonResponse(CharStreams.toString(reader), responseCode);
             }
+        } catch (IOException e) {
+            lease.abort();
+            throw e;
         } finally {
-            conn.disconnect();
+            lease.close();
         }
     }
 
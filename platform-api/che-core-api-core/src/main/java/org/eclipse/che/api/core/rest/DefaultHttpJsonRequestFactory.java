@@ -12,24 +12,43 @@ package org.eclipse.che.api.core.rest;
 
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.validation.constraints.NotNull;
 
+import static java.util.Objects.requireNonNull;
+
 /**
- * Creates {@link DefaultHttpJsonRequest} instances.
+ * Creates {@link DefaultHttpJsonRequest} instances. All requests that are created by this factory share the same {@link
+ * HttpConnectionPool}, by default it is {@link HttpConnectionPool#getDefault()}.
  *
  * @author Yevhenii Voevodin
  */
 @Singleton
 public class DefaultHttpJsonRequestFactory implements HttpJsonRequestFactory {
+    private final HttpConnectionPool connectionPool;
+
+    @Inject
+    public DefaultHttpJsonRequestFactory() {
+        this(HttpConnectionPool.getDefault());
+    }
+
+    public DefaultHttpJsonRequestFactory(HttpConnectionPool connectionPool) {
+        this.connectionPool = requireNonNull(connectionPool, "Required non-null connection pool");
+    }
+
+    /** Gets pool of connections that is used by requests of this factory. */
+    public HttpConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
 
     @Override
     public HttpJsonRequest fromUrl(@NotNull String url) {
-        return new DefaultHttpJsonRequest(url);
+        return new DefaultHttpJsonRequest(connectionPool, url);
     }
 
     @Override
     public HttpJsonRequest fromLink(@NotNull Link link) {
-        return new DefaultHttpJsonRequest(link);
+        return new DefaultHttpJsonRequest(connectionPool, link);
     }
 }
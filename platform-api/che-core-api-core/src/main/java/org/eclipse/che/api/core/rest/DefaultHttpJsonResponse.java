@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -17,43 +18,84 @@ import java.util.Map;
 
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.json.JsonParseException;
+import org.eclipse.che.dto.server.BinaryDtoReader;
+import org.eclipse.che.dto.server.BinaryDtoWriter;
 import org.eclipse.che.dto.server.DtoFactory;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Default implementation of {@link HttpJsonResponse}.
- * 
+ * <p>
+ * Response may be received either in JSON or in binary DTO format. Binary response is converted to JSON only if it is requested with
+ * {@link #asString()}, {@link #asProperties()} or {@link #as(Class, Type)}.
+ *
  * @author Yevhenii Voevodin
  */
 public class DefaultHttpJsonResponse implements HttpJsonResponse {
 
     private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+    // The same as generated DTOs use for JSON serialization.
+    private static final Gson GSON            = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final byte[] binaryResponseBody;
+    private final int    responseCode;
 
-    private final String responseBody;
-    private final int responseCode;
+    private String responseBody;
 
     DefaultHttpJsonResponse(String response, int responseCode) {
         this.responseBody = response;
         this.responseCode = responseCode;
+        this.binaryResponseBody = null;
+    }
+
+    /** Creates response with body in binary DTO format, see {@link BinaryDtoWriter}. */
+    DefaultHttpJsonResponse(byte[] binaryResponse, int responseCode) {
+        this.binaryResponseBody = binaryResponse;
+        this.responseCode = responseCode;
     }
 
     @Override
     public String asString() {
+        if (responseBody == null && binaryResponseBody != null) {
+            try {
+                final BinaryDtoReader reader = new BinaryDtoReader(new ByteArrayInputStream(binaryResponseBody), binaryResponseBody.length);
+                responseBody = GSON.toJson(reader.nextJson());
+            } catch (IOException | IllegalStateException e) {
+                throw new JsonSyntaxException(e.getMessage(), e);
+            }
+        }
         return responseBody;
     }
 
     @Override
     public <T> T asDto(Class<T> dtoInterface) {
         requireNonNull(dtoInterface, "Required non-null dto interface");
+        if (binaryResponseBody != null) {
+            try {
+                return DtoFactory.getInstance().createDtoFromBinary(new ByteArrayInputStream(binaryResponseBody), dtoInterface);
+            } catch (IOException e) {
+                throw new JsonSyntaxException(e.getMessage(), e);
+            }
+        }
         return DtoFactory.getInstance().createDtoFromJson(responseBody, dtoInterface);
     }
 
     @Override
     public <T> List<T> asList(Class<T> dtoInterface) {
         requireNonNull(dtoInterface, "Required non-null dto interface");
+        if (binaryResponseBody != null) {
+            try {
+                return DtoFactory.getInstance().createListDtoFromBinary(new ByteArrayInputStream(binaryResponseBody), dtoInterface);
+            } catch (IOException e) {
+                throw new JsonSyntaxException(e.getMessage(), e);
+            }
+        }
         return DtoFactory.getInstance().createListDtoFromJson(responseBody, dtoInterface);
     }
 
@@ -67,9 +109,11 @@ public class DefaultHttpJsonResponse implements HttpJsonResponse {
     public <T> T as(Class<T> clazz, Type genericType) throws IOException {
         requireNonNull(clazz, "Required non-null class");
         try {
-            return JsonHelper.fromJson(responseBody, clazz, genericType);
+            return JsonHelper.fromJson(asString(), clazz, genericType);
         } catch (JsonParseException jsonEx) {
             throw new IOException(jsonEx.getLocalizedMessage(), jsonEx);
+        } catch (JsonSyntaxException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
         }
     }
 
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Manages HTTP connections that are used by {@link DefaultHttpJsonRequest} and {@link HttpJsonHelper}.
+ * <ul>
+ * <li>Number of connections that are used concurrently for each host may be bounded. In this case request waits for free connection
+ * not longer than acquire timeout and fails with {@link IOException} after that. Connection is held until response is read, so bound
+ * must be large enough for requests that are made to the same host while handling response of other request. By default number of
+ * connections isn't bounded.</li>
+ * <li>Connections are kept alive between requests. Connection is not closed explicitly after successful request, so JDK returns it
+ * to its keep-alive cache once response is read, number of idle connections per host in the cache is controlled with system property
+ * {@code http.maxConnections}. Connection is closed if request fails.</li>
+ * <li>Responses are requested gzip compressed. Request bodies are compressed only if it is enabled since server must be able to
+ * decompress them.</li>
+ * <li>Statistics of request latency and usage of connections is collected for each host, see {@link #getStats()}.</li>
+ * </ul>
+ * Default instance is configured with system properties {@code org.eclipse.che.http.max_connections_per_host}, {@code
+ * org.eclipse.che.http.acquire_timeout} (milliseconds) and {@code org.eclipse.che.http.gzip_requests}.
+ *
+ * @author agent
+ */
+public class HttpConnectionPool {
+    /** Number of connections per host isn't bounded. */
+    public static final int  UNBOUNDED                        = 0;
+    public static final int  DEFAULT_MAX_CONNECTIONS_PER_HOST = UNBOUNDED;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT          = TimeUnit.SECONDS.toMillis(60);
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private static class DefaultHolder {
+        static final HttpConnectionPool INSTANCE =
+                new HttpConnectionPool(Integer.getInteger("org.eclipse.che.http.max_connections_per_host", DEFAULT_MAX_CONNECTIONS_PER_HOST),
+                                       Long.getLong("org.eclipse.che.http.acquire_timeout", DEFAULT_ACQUIRE_TIMEOUT),
+                                       Boolean.getBoolean("org.eclipse.che.http.gzip_requests"));
+    }
+
+    /** Gets instance of pool that is shared by all requests that don't use own pool. */
+    public static HttpConnectionPool getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private final int                         maxConnectionsPerHost;
+    private final long                        acquireTimeout;
+    private final boolean                     gzipRequests;
+    private final ConcurrentMap<String, Host> hosts;
+    private final ExecutorService             asyncExecutor;
+
+    /**
+     * @param maxConnectionsPerHost
+     *         max number of connections that are used concurrently for each host or {@link #UNBOUNDED}
+     * @param acquireTimeout
+     *         max time in milliseconds to wait for free connection
+     * @param gzipRequests
+     *         compress bodies of requests or not
+     */
+    public HttpConnectionPool(int maxConnectionsPerHost, long acquireTimeout, boolean gzipRequests) {
+        if (maxConnectionsPerHost < 0) {
+            throw new IllegalArgumentException("Max number of connections per host must not be negative: " + maxConnectionsPerHost);
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.acquireTimeout = acquireTimeout;
+        this.gzipRequests = gzipRequests;
+        hosts = new ConcurrentHashMap<>();
+        asyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("HttpJsonRequest-%d")
+                                                                                .setDaemon(true)
+                                                                                .build());
+    }
+
+    /**
+     * Opens connection to the specified URL. Waits if number of connections per host is bounded and all connections to the host are in
+     * use. Returned connection must be closed after
+     * usage to make it available for other requests.
+     *
+     * @param url
+     *         URL
+     * @param timeout
+     *         connect and read timeout in milliseconds
+     * @throws IOException
+     *         if free connection isn't available during acquire timeout or if an i/o error occurs
+     */
+    public Connection open(URL url, int timeout) throws IOException {
+        final String key = url.getProtocol() + "://" + url.getHost() + ':' + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+        Host host = hosts.get(key);
+        if (host == null) {
+            final Host newHost = new Host(key, maxConnectionsPerHost);
+            host = hosts.putIfAbsent(key, newHost);
+            if (host == null) {
+                host = newHost;
+            }
+        }
+        host.acquire(acquireTimeout);
+        final HttpURLConnection conn;
+        try {
+            conn = (HttpURLConnection)url.openConnection();
+        } catch (IOException | RuntimeException e) {
+            host.release(-1);
+            throw e;
+        }
+        conn.setConnectTimeout(timeout);
+        conn.setReadTimeout(timeout);
+        conn.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return new Connection(conn, host);
+    }
+
+    /** Executor for asynchronous requests. */
+    ExecutorService getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /** Gets statistics for each host that this pool connected to. */
+    public List<HttpHostStats> getStats() {
+        final List<HttpHostStats> stats = new ArrayList<>(hosts.size());
+        for (Host host : hosts.values()) {
+            stats.add(host.getStats());
+        }
+        return stats;
+    }
+
+    /** Stops threads that execute asynchronous requests. */
+    public void shutdown() {
+        asyncExecutor.shutdownNow();
+    }
+
+    /** Connection that is leased from the pool. */
+    public final class Connection implements Closeable {
+        private final HttpURLConnection conn;
+        private final Host              host;
+        private final long              startTime;
+
+        private boolean aborted;
+        private boolean closed;
+
+        private Connection(HttpURLConnection conn, Host host) {
+            this.conn = conn;
+            this.host = host;
+            startTime = System.nanoTime();
+        }
+
+        public HttpURLConnection getConnection() {
+            return conn;
+        }
+
+        /** Opens stream for body of request. Body is compressed if compression of requests is enabled for the pool. */
+        public OutputStream getOutputStream() throws IOException {
+            conn.setDoOutput(true);
+            if (gzipRequests) {
+                conn.setRequestProperty(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new GZIPOutputStream(conn.getOutputStream());
+            }
+            return conn.getOutputStream();
+        }
+
+        /** Gets body of successful response, decompresses it if need. */
+        public InputStream getInputStream() throws IOException {
+            return decode(conn.getInputStream());
+        }
+
+        /** Gets body of error response, decompresses it if need. Returns body of response if there is no error stream. */
+        public InputStream getErrorStream() throws IOException {
+            final InputStream in = conn.getErrorStream();
+            return in == null ? getInputStream() : decode(in);
+        }
+
+        /** Marks connection as broken, it is closed instead of being returned to the keep-alive cache. */
+        public void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (aborted) {
+                conn.disconnect();
+                host.release(-1);
+            } else {
+                host.release(System.nanoTime() - startTime);
+            }
+        }
+
+        private InputStream decode(InputStream in) throws IOException {
+            return "gzip".equalsIgnoreCase(conn.getContentEncoding()) ? new GZIPInputStream(in) : in;
+        }
+    }
+
+    private static class Host {
+        final String        name;
+        final int           maxConnections;
+        final Semaphore     permits;
+        final AtomicInteger active;
+        final AtomicInteger waiting;
+        final AtomicLong    requests;
+        final AtomicLong    failures;
+        final AtomicLong    rejected;
+        final long[]        latencies;
+
+        int latencyCount;
+        int latencyIndex;
+
+        Host(String name, int maxConnections) {
+            this.name = name;
+            this.maxConnections = maxConnections;
+            permits = maxConnections == UNBOUNDED ? null : new Semaphore(maxConnections, true);
+            active = new AtomicInteger();
+            waiting = new AtomicInteger();
+            requests = new AtomicLong();
+            failures = new AtomicLong();
+            rejected = new AtomicLong();
+            latencies = new long[LATENCY_SAMPLES];
+        }
+
+        void acquire(long timeout) throws IOException {
+            if (permits == null || permits.tryAcquire()) {
+                active.incrementAndGet();
+                return;
+            }
+            waiting.incrementAndGet();
+            try {
+                if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                    rejected.incrementAndGet();
+                    throw new IOException(String.format("Timeout waiting for free connection to %s, all %d connections are in use",
+                                                        name, maxConnections));
+                }
+                active.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for free connection to " + name);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        /**
+         * @param latency
+         *         request latency in nanoseconds or -1 if request failed
+         */
+        void release(long latency) {
+            active.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+            requests.incrementAndGet();
+            if (latency < 0) {
+                failures.incrementAndGet();
+                return;
+            }
+            synchronized (latencies) {
+                latencies[latencyIndex] = TimeUnit.NANOSECONDS.toMillis(latency);
+                latencyIndex = (latencyIndex + 1) % latencies.length;
+                latencyCount = Math.min(latencyCount + 1, latencies.length);
+            }
+        }
+
+        HttpHostStats getStats() {
+            final long[] samples;
+            synchronized (latencies) {
+                samples = Arrays.copyOf(latencies, latencyCount);
+            }
+            return new HttpHostStats(name,
+                                     maxConnections,
+                                     active.get(),
+                                     waiting.get(),
+                                     requests.get(),
+                                     failures.get(),
+                                     rejected.get(),
+                                     samples);
+        }
+    }
+}
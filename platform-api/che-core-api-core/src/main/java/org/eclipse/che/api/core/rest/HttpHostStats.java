@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of usage of connections to single host in {@link HttpConnectionPool} and latency of recent requests to this host.
+ *
+ * @author agent
+ * @see HttpConnectionPool#getStats()
+ */
+public final class HttpHostStats {
+    private final String host;
+    private final int    maxConnections;
+    private final int    activeConnections;
+    private final int    waitingRequests;
+    private final long   requestCount;
+    private final long   failedCount;
+    private final long   rejectedCount;
+    private final int    sampleCount;
+    private final long   median;
+    private final long   percentile90;
+    private final long   percentile99;
+    private final long   max;
+
+    /**
+     * @param latencySamples
+     *         latency of recent successful requests in milliseconds, array is sorted by this constructor
+     */
+    HttpHostStats(String host,
+                  int maxConnections,
+                  int activeConnections,
+                  int waitingRequests,
+                  long requestCount,
+                  long failedCount,
+                  long rejectedCount,
+                  long[] latencySamples) {
+        this.host = host;
+        this.maxConnections = maxConnections;
+        this.activeConnections = activeConnections;
+        this.waitingRequests = waitingRequests;
+        this.requestCount = requestCount;
+        this.failedCount = failedCount;
+        this.rejectedCount = rejectedCount;
+        Arrays.sort(latencySamples);
+        sampleCount = latencySamples.length;
+        median = percentile(latencySamples, 50);
+        percentile90 = percentile(latencySamples, 90);
+        percentile99 = percentile(latencySamples, 99);
+        max = sampleCount == 0 ? 0 : latencySamples[sampleCount - 1];
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int rank = (int)Math.ceil(sorted.length * percent / 100.0);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    /** Host in format {@code protocol://host:port}. */
+    public String getHost() {
+        return host;
+    }
+
+    /** Max number of connections that may be used concurrently or {@link HttpConnectionPool#UNBOUNDED} if number isn't bounded. */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /** Number of connections that are currently in use. */
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    /** Number of requests that are currently waiting for free connection. */
+    public int getWaitingRequests() {
+        return waitingRequests;
+    }
+
+    /** Pool saturation, ratio of connections in use to max number of connections. Always 0 if number of connections isn't bounded. */
+    public double getSaturation() {
+        return maxConnections == HttpConnectionPool.UNBOUNDED ? 0 : (double)activeConnections / maxConnections;
+    }
+
+    /** Total number of completed requests, including failed. */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /** Total number of requests that failed with i/o error. */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /** Total number of requests that didn't get free connection during acquire timeout. */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /** Number of recent requests that latency statistics is calculated for. */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /** Median latency in milliseconds. */
+    public long getMedian() {
+        return median;
+    }
+
+    /** 90th percentile of latency in milliseconds. */
+    public long getPercentile90() {
+        return percentile90;
+    }
+
+    /** 99th percentile of latency in milliseconds. */
+    public long getPercentile99() {
+        return percentile99;
+    }
+
+    /** Max latency in milliseconds. */
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "HttpHostStats{" +
+               "host='" + host + '\'' +
+               ", maxConnections=" + maxConnections +
+               ", activeConnections=" + activeConnections +
+               ", waitingRequests=" + waitingRequests +
+               ", requestCount=" + requestCount +
+               ", failedCount=" + failedCount +
+               ", rejectedCount=" + rejectedCount +
+               ", sampleCount=" + sampleCount +
+               ", median=" + median +
+               ", percentile90=" + percentile90 +
+               ", percentile99=" + percentile99 +
+               ", max=" + max +
+               '}';
+    }
+}
@@ -22,6 +22,7 @@ import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.user.User;
+import org.eclipse.che.dto.server.BinarySerializable;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import javax.ws.rs.HttpMethod;
@@ -29,18 +30,21 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.List;
 
 /**
- * Provides helper method to send HTTP requests with JSON content.
+ * Provides helper method to send HTTP requests with JSON content. Requests use connections from {@link HttpConnectionPool#getDefault()}.
  *
  * @author andrew00x
  */
@@ -336,8 +340,18 @@ public class HttpJsonHelper {
 
     /**
      * Execute all request from HttpJsonHelper throw single method  requestString.
+     * Connections are taken from {@link HttpConnectionPool}, by default the pool is shared with {@link DefaultHttpJsonRequestFactory}.
      */
     public static class HttpJsonHelperImpl {
+        private final HttpConnectionPool connectionPool;
+
+        public HttpJsonHelperImpl() {
+            this(HttpConnectionPool.getDefault());
+        }
+
+        public HttpJsonHelperImpl(HttpConnectionPool connectionPool) {
+            this.connectionPool = connectionPool;
+        }
 
         public <DTO> DTO request(Class<DTO> dtoInterface,
                                  String url,
@@ -348,18 +362,28 @@ public class HttpJsonHelper {
             return request(dtoInterface, -1, url, method, body, parameters);
         }
 
-        public <DTO> DTO request(Class<DTO> dtoInterface,
+        public <DTO> DTO request(final Class<DTO> dtoInterface,
                                  int timeout,
                                  String url,
                                  String method,
                                  Object body,
                                  Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(timeout, url, method, body, parameters);
-            if (dtoInterface != null) {
-                return DtoFactory.getInstance().createDtoFromJson(str, dtoInterface);
+            if (dtoInterface == null) {
+                requestString(timeout, url, method, body, parameters);
+                return null;
             }
-            return null;
+            return doRequest(timeout, url, method, body, new DtoResponseReader<DTO>() {
+                @Override
+                public DTO read(Reader reader) throws IOException {
+                    return DtoFactory.getInstance().createDtoFromJson(reader, dtoInterface);
+                }
+
+                @Override
+                public DTO readBinary(InputStream in) throws IOException {
+                    return DtoFactory.getInstance().createDtoFromBinary(in, dtoInterface);
+                }
+            }, parameters);
         }
 
         public <DTO> List<DTO> requestArray(Class<DTO> dtoInterface,
@@ -371,18 +395,28 @@ public class HttpJsonHelper {
             return requestArray(dtoInterface, -1, url, method, body, parameters);
         }
 
-        public <DTO> List<DTO> requestArray(Class<DTO> dtoInterface,
+        public <DTO> List<DTO> requestArray(final Class<DTO> dtoInterface,
                                             int timeout,
                                             String url,
                                             String method,
                                             Object body,
                                             Pair<String, ?>... parameters)
                 throws IOException, ServerException, UnauthorizedException, ForbiddenException, NotFoundException, ConflictException {
-            final String str = requestString(timeout, url, method, body, parameters);
-            if (dtoInterface != null) {
-                return DtoFactory.getInstance().createListDtoFromJson(str, dtoInterface);
+            if (dtoInterface == null) {
+                requestString(timeout, url, method, body, parameters);
+                return null;
             }
-            return null;
+            return doRequest(timeout, url, method, body, new DtoResponseReader<List<DTO>>() {
+                @Override
+                public List<DTO> read(Reader reader) throws IOException {
+                    return DtoFactory.getInstance().createListDtoFromJson(reader, dtoInterface);
+                }
+
+                @Override
+                public List<DTO> readBinary(InputStream in) throws IOException {
+                    return DtoFactory.getInstance().createListDtoFromBinary(in, dtoInterface);
+                }
+            }, parameters);
         }
 
         private String getAuthenticationToken() {
@@ -407,6 +441,27 @@ public class HttpJsonHelper {
                                     Object body,
                                     Pair<String, ?>... parameters)
                 throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
+            return doRequest(timeout, url, method, body, new ResponseReader<String>() {
+                @Override
+                public String read(Reader reader) throws IOException {
+                    return CharStreams.toString(reader);
+                }
+            }, parameters);
+        }
+
+        /**
+         * Sends request and reads successful response with {@code responseReader}. Body of request is written and body of response is
+         * read directly from the connection streams. If {@code responseReader} is {@link DtoResponseReader} server is allowed to send
+         * response in binary DTO format.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T doRequest(int timeout,
+                                String url,
+                                String method,
+                                Object body,
+                                ResponseReader<T> responseReader,
+                                Pair<String, ?>... parameters)
+                throws IOException, ServerException, ForbiddenException, NotFoundException, UnauthorizedException, ConflictException {
             final String authToken = getAuthenticationToken();
             if ((parameters != null && parameters.length > 0) || authToken != null) {
                 final UriBuilder ub = UriBuilder.fromUri(url);
@@ -423,36 +478,33 @@ public class HttpJsonHelper {
                 }
                 url = ub.build().toString();
             }
-            final HttpURLConnection conn = (HttpURLConnection)new URL(url).openConnection();
-            conn.setConnectTimeout(timeout > 0 ? timeout : 60000);
-            conn.setReadTimeout(timeout > 0 ? timeout : 60000);
+            final HttpConnectionPool.Connection lease = connectionPool.open(new URL(url), timeout > 0 ? timeout : 60000);
+            final HttpURLConnection conn = lease.getConnection();
             try {
                 conn.setRequestMethod(method);
-                //drop a hint for server side that we want to receive application/json
-                conn.addRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+                //drop a hint for server side that we want to receive application/json or DTO in binary format
+                conn.addRequestProperty(HttpHeaders.ACCEPT, responseReader instanceof DtoResponseReader
+                                                            ? DefaultHttpJsonRequest.ACCEPT_JSON_OR_BINARY_DTO
+                                                            : MediaType.APPLICATION_JSON);
                 if (authToken != null) {
                     conn.setRequestProperty(HttpHeaders.AUTHORIZATION, authToken);
                 }
                 if (body != null) {
                     conn.addRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-                    conn.setDoOutput(true);
 
                     if (HttpMethod.DELETE.equals(method)) { //to avoid jdk bug described here http://bugs.java.com/view_bug.do?bug_id=7157360
                         conn.setRequestMethod(HttpMethod.POST);
                         conn.setRequestProperty("X-HTTP-Method-Override", HttpMethod.DELETE);
                     }
 
-                    try (OutputStream output = conn.getOutputStream()) {
-                        output.write(DtoFactory.getInstance().toJson(body).getBytes());
+                    try (Writer output = new BufferedWriter(new OutputStreamWriter(lease.getOutputStream()))) {
+                        DtoFactory.getInstance().toJson(body, output);
                     }
                 }
 
                 final int responseCode = conn.getResponseCode();
                 if ((responseCode / 100) != 2) {
-                    InputStream in = conn.getErrorStream();
-                    if (in == null) {
-                        in = conn.getInputStream();
-                    }
+                    final InputStream in = lease.getErrorStream();
                     final String str;
                     try (Reader reader = new InputStreamReader(in)) {
                         str = CharStreams.toString(reader);
@@ -480,17 +532,35 @@ public class HttpJsonHelper {
                                                         UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
                 }
                 final String contentType = conn.getContentType();
+                if (contentType != null && contentType.startsWith(BinarySerializable.MEDIA_TYPE)
+                    && responseReader instanceof DtoResponseReader) {
+                    try (InputStream in = new BufferedInputStream(lease.getInputStream())) {
+                        return ((DtoResponseReader<T>)responseReader).readBinary(in);
+                    }
+                }
                 if (!(contentType == null || contentType.startsWith(MediaType.APPLICATION_JSON))) {
                     throw new IOException("We received an error response from the server." +
                                           " Retry the request. If this issue continues, contact. support.");
                 }
 
-                try (Reader reader = new InputStreamReader(conn.getInputStream())) {
-                    return CharStreams.toString(reader);
+                try (Reader reader = new InputStreamReader(lease.getInputStream())) {
+                    return responseReader.read(reader);
                 }
+            } catch (IOException e) {
+                lease.abort();
+                throw e;
             } finally {
-                conn.disconnect();
+                lease.close();
             }
         }
+
+        private interface ResponseReader<T> {
+            T read(Reader reader) throws IOException;
+        }
+
+        /** Reader of DTOs, they may be sent by server either in JSON or in binary format. */
+        private interface DtoResponseReader<T> extends ResponseReader<T> {
+            T readBinary(InputStream in) throws IOException;
+        }
     }
 }
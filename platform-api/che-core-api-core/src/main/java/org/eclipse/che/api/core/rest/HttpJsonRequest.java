@@ -12,6 +12,7 @@ package org.eclipse.che.api.core.rest;
 
 import com.google.common.annotations.Beta;
 
+import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Defines simple set of methods for requesting json objects.
@@ -160,6 +162,27 @@ public interface HttpJsonRequest {
                                       ConflictException,
                                       BadRequestException;
 
+    /**
+     * Makes the same request as {@link #request()} does but doesn't block the caller.
+     * Returned future completes with response or exceptionally with any exception that {@link #request()} may throw.
+     *
+     * <p>Default implementation makes request in the caller thread and returns already completed future,
+     * implementations should override it to make request in background.
+     *
+     * @return future of {@link HttpJsonResponse}
+     * @throws IllegalStateException
+     *         when request method isn't set
+     */
+    default CompletableFuture<HttpJsonResponse> requestAsync() {
+        final CompletableFuture<HttpJsonResponse> future = new CompletableFuture<>();
+        try {
+            future.complete(request());
+        } catch (IOException | ApiException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
     /**
      * Uses {@link HttpMethod#GET} as a request method.
      *
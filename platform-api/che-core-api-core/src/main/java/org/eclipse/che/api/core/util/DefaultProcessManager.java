@@ -47,4 +47,9 @@ class DefaultProcessManager extends ProcessManager {
     int system(String command) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    ProcessTree getProcessTree() {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timer that is optimized for large number of timeouts that are mostly cancelled before they expire, e.g. timeouts of processes.
+ * Timeouts are kept in the wheel of buckets, single thread moves over the wheel by one bucket each tick and expires timeouts from
+ * current bucket. Adding and cancellation of timeout take constant time, timeout expires not earlier than its delay and not later than
+ * one tick after its delay.
+ * <p/>
+ * Expired tasks are executed by executor that is passed to the constructor, so long running tasks don't delay other timeouts.
+ *
+ * @author agent
+ */
+public final class HashedWheelTimer {
+    private static final Logger LOG = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    /** Handle of task that is scheduled with {@link #newTimeout(Runnable, long, TimeUnit)}. */
+    public interface Timeout {
+        /**
+         * Cancels task.
+         *
+         * @return {@code true} if task is cancelled and {@code false} if it is already expired or cancelled
+         */
+        boolean cancel();
+
+        boolean isExpired();
+
+        boolean isCancelled();
+    }
+
+    private static final int INIT      = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED   = 2;
+
+    private final class TimeoutImpl implements Timeout {
+        final Runnable      task;
+        final long          deadline;
+        final AtomicInteger state;
+
+        long remainingRounds;
+
+        TimeoutImpl(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+            state = new AtomicInteger(INIT);
+        }
+
+        @Override
+        public boolean cancel() {
+            // Cancelled timeout is removed from the wheel by worker thread when it reaches the bucket.
+            return state.compareAndSet(INIT, CANCELLED);
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        void expire() {
+            if (state.compareAndSet(INIT, EXPIRED)) {
+                try {
+                    taskExecutor.execute(task);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private final long                tickDuration;
+    private final List<TimeoutImpl>[] wheel;
+    private final int                 mask;
+    private final Queue<TimeoutImpl>  pending;
+    private final Executor            taskExecutor;
+    private final Thread              worker;
+    private final long                startTime;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param threadFactory
+     *         factory of worker thread
+     * @param tickDuration
+     *         duration of one tick, it is precision of this timer
+     * @param unit
+     *         unit of {@code tickDuration}
+     * @param ticksPerWheel
+     *         number of buckets in the wheel, it is rounded up to the power of two
+     * @param taskExecutor
+     *         executor of expired tasks
+     */
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor taskExecutor) {
+        if (tickDuration < 1) {
+            throw new IllegalArgumentException(String.format("Invalid tick duration: %d", tickDuration));
+        }
+        if (ticksPerWheel < 1) {
+            throw new IllegalArgumentException(String.format("Invalid number of ticks per wheel: %d", ticksPerWheel));
+        }
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.taskExecutor = taskExecutor;
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        mask = size - 1;
+        pending = new ConcurrentLinkedQueue<>();
+        startTime = System.nanoTime();
+        worker = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                runWorker();
+            }
+        });
+        worker.start();
+    }
+
+    /**
+     * Schedules task for execution after the specified delay.
+     *
+     * @throws IllegalStateException
+     *         if timer is stopped
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("Timer is stopped. ");
+        }
+        final TimeoutImpl timeout = new TimeoutImpl(task, System.nanoTime() + unit.toNanos(delay));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /** Stops this timer. Pending timeouts are never expired. */
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    private void runWorker() {
+        long tick = 0;
+        while (!stopped) {
+            final long deadline = startTime + (tick + 1) * tickDuration;
+            long sleep;
+            while ((sleep = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (stopped) {
+                        return;
+                    }
+                }
+            }
+            transferPending(tick);
+            expireTimeouts(wheel[(int)(tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        TimeoutImpl timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            // Bucket of tick N is processed at the end of the tick, so timeout never expires earlier than its deadline.
+            final long ticks = (timeout.deadline - startTime) / tickDuration;
+            timeout.remainingRounds = (ticks - currentTick) / wheel.length;
+            wheel[(int)(Math.max(ticks, currentTick) & mask)].add(timeout);
+        }
+    }
+
+    private void expireTimeouts(List<TimeoutImpl> bucket) {
+        for (Iterator<TimeoutImpl> iterator = bucket.iterator(); iterator.hasNext(); ) {
+            final TimeoutImpl timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                timeout.expire();
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+}
@@ -24,4 +24,6 @@ abstract class ProcessManager {
     abstract boolean isAlive(Process process);
 
     abstract int system(String command);
+
+    abstract ProcessTree getProcessTree();
 }
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared service that reads output of processes and watches their timeouts.
+ * <ul>
+ * <li>Output of each process is read until the end of stream by thread from shared pool. Streams of processes are blocking and
+ * may not be selected, so thread is busy while stream is open, but threads are reused by next processes instead of being started
+ * for each of them. Lines are passed to consumer in the same thread, so slow consumer delays only its own process.</li>
+ * <li>Timeouts are watched by single {@link HashedWheelTimer}. Cancellation of process is executed in separate thread since it may
+ * take a while.</li>
+ * </ul>
+ *
+ * @author agent
+ * @see StreamPump
+ * @see Watchdog
+ */
+public final class ProcessSupervisor {
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessSupervisor.class);
+
+    private static final long TICK_DURATION   = 100; // milliseconds
+    private static final int  TICKS_PER_WHEEL = 512;
+
+    private static class DefaultHolder {
+        static final ProcessSupervisor INSTANCE = new ProcessSupervisor();
+    }
+
+    /** Gets instance that is shared by all processes. */
+    public static ProcessSupervisor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private final ExecutorService  readers;
+    private final ExecutorService  cancellations;
+    private final HashedWheelTimer timer;
+
+    public ProcessSupervisor() {
+        readers = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("ProcessOutputReader-%d")
+                                                                          .setDaemon(true)
+                                                                          .build());
+        cancellations = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("ProcessCancellation-%d")
+                                                                                .setDaemon(true)
+                                                                                .build());
+        timer = new HashedWheelTimer(new ThreadFactoryBuilder().setNameFormat("ProcessWatchdog")
+                                                               .setDaemon(true)
+                                                               .build(),
+                                     TICK_DURATION, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL, cancellations);
+    }
+
+    /**
+     * Starts reading of output of process. Each line of output is passed to the consumer. Reading stops at the end of stream, i.e.
+     * when process and all its children that inherit the stream are finished.
+     *
+     * @param output
+     *         output stream of the process, e.g. {@link Process#getInputStream()}
+     * @param consumer
+     *         consumer of lines
+     */
+    public OutputPump pump(InputStream output, LineConsumer consumer) {
+        final OutputPump pump = new OutputPump(output, consumer);
+        try {
+            readers.execute(pump);
+        } catch (RejectedExecutionException e) {
+            pump.finish(new IOException("Process supervisor is stopped. "));
+        }
+        return pump;
+    }
+
+    /**
+     * Cancels {@code cancellable} after the specified timeout unless returned {@code Timeout} is cancelled before.
+     *
+     * @param name
+     *         name of task, it is used in logs only. This parameter is optional and may be {@code null}
+     */
+    public HashedWheelTimer.Timeout schedule(final String name, final Cancellable cancellable, long timeout, TimeUnit unit) {
+        return timer.newTimeout(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    cancellable.cancel();
+                } catch (Exception e) {
+                    LOG.error(String.format("Unable cancel %s. ", name == null ? cancellable : name) + e.getMessage(), e);
+                }
+            }
+        }, timeout, unit);
+    }
+
+    /** Stops all threads of this supervisor. Processes are not stopped. */
+    public void shutdown() {
+        timer.stop();
+        readers.shutdownNow();
+        cancellations.shutdownNow();
+    }
+
+    /** Reading of output of single process. */
+    public static final class OutputPump implements Runnable {
+        private final InputStream  output;
+        private final LineConsumer consumer;
+
+        private boolean   stopped;
+        private boolean   done;
+        private Exception exception;
+
+        private OutputPump(InputStream output, LineConsumer consumer) {
+            this.output = output;
+            this.consumer = consumer;
+        }
+
+        /** Waits until all output of the process is read or pump is stopped. */
+        public synchronized void await() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        public synchronized Exception getException() {
+            return exception;
+        }
+
+        /** Stops reading and closes output stream of the process. */
+        public void stop() {
+            synchronized (this) {
+                stopped = true;
+            }
+            // Not clear do we need close original stream, but close it anyway to release resources as soon as possible.
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        /** NOTE: Not expected to call directly by regular users of this class. */
+        @Override
+        public void run() {
+            IOException error = null;
+            try {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(output));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    consumer.writeLine(line);
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                finish(error);
+            }
+        }
+
+        private synchronized void finish(IOException e) {
+            if (e != null && !stopped) {
+                exception = e;
+            }
+            done = true;
+            notifyAll();
+        }
+    }
+}
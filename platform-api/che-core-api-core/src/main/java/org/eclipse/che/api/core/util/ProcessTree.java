@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshot of the system process table. Snapshot is read in single pass and keeps parent-child relations between processes, so the
+ * whole tree of descendants of any process may be resolved without further reading of process table. Snapshot is never updated, read
+ * new one with {@link ProcessUtil#getProcessTree()} to get actual state of processes.
+ *
+ * @author agent
+ */
+public final class ProcessTree {
+    private static final Pattern PID_PATTERN = Pattern.compile("\\d+");
+
+    /** Information about single process. */
+    public static final class ProcessInfo {
+        private final int    pid;
+        private final int    parentPid;
+        private final String command;
+        private final long   cpuTime;
+        private final long   rss;
+
+        ProcessInfo(int pid, int parentPid, String command, long cpuTime, long rss) {
+            this.pid = pid;
+            this.parentPid = parentPid;
+            this.command = command;
+            this.cpuTime = cpuTime;
+            this.rss = rss;
+        }
+
+        public int getPid() {
+            return pid;
+        }
+
+        public int getParentPid() {
+            return parentPid;
+        }
+
+        /** Gets name of executable of process. */
+        public String getCommand() {
+            return command;
+        }
+
+        /** Gets CPU time, user and system, that is consumed by process in milliseconds or {@code -1} if it is unknown. */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /** Gets resident set size of process in bytes or {@code -1} if it is unknown. */
+        public long getRss() {
+            return rss;
+        }
+
+        @Override
+        public String toString() {
+            return "ProcessInfo{" +
+                   "pid=" + pid +
+                   ", parentPid=" + parentPid +
+                   ", command='" + command + '\'' +
+                   ", cpuTime=" + cpuTime +
+                   ", rss=" + rss +
+                   '}';
+        }
+    }
+
+    /**
+     * Reads process table from {@code /proc/[pid]/stat} files.
+     *
+     * @param procDir
+     *         mount point of proc filesystem, typically {@code /proc}
+     * @param clockTicks
+     *         number of clock ticks per second, CPU times in {@code stat} files are measured in clock ticks
+     * @param pageSize
+     *         size of memory page in bytes, resident set size in {@code stat} files is measured in pages
+     * @throws IOException
+     *         if {@code procDir} can't be read. Errors of reading {@code stat} file of single process are not reported, such
+     *         process is not included in snapshot
+     */
+    static ProcessTree readProc(Path procDir, long clockTicks, long pageSize) throws IOException {
+        final List<ProcessInfo> processes = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(procDir)) {
+            for (Path dir : dirs) {
+                final String name = dir.getFileName().toString();
+                if (!PID_PATTERN.matcher(name).matches()) {
+                    continue;
+                }
+                final String stat;
+                try {
+                    stat = new String(Files.readAllBytes(dir.resolve("stat")), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    // Process finished after we listed directory. Reading of stat file of exiting process may fail with
+                    // NoSuchFileException or with other errors, e.g. ESRCH (No such process). Skip such process.
+                    continue;
+                }
+                final ProcessInfo process = parseStat(stat, clockTicks, pageSize);
+                if (process != null) {
+                    processes.add(process);
+                }
+            }
+        }
+        return new ProcessTree(processes);
+    }
+
+    /**
+     * Parses content of {@code /proc/[pid]/stat} file, see proc(5). Name of executable is in parentheses and may contain spaces and
+     * parentheses itself, so fields that follow it are counted from the last ')'.
+     *
+     * @return parsed process or {@code null} if content isn't in expected format
+     */
+    static ProcessInfo parseStat(String stat, long clockTicks, long pageSize) {
+        final int commandStart = stat.indexOf('(');
+        final int commandEnd = stat.lastIndexOf(')');
+        if (commandStart < 0 || commandEnd < commandStart) {
+            return null;
+        }
+        // Fields after command: state(0) ppid(1) ... utime(11) stime(12) ... rss(21)
+        final String[] fields = stat.substring(commandEnd + 1).trim().split(" ");
+        if (fields.length < 22) {
+            return null;
+        }
+        try {
+            final int pid = Integer.parseInt(stat.substring(0, commandStart).trim());
+            final int ppid = Integer.parseInt(fields[1]);
+            final long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+            final long pages = Long.parseLong(fields[21]);
+            return new ProcessInfo(pid, ppid, stat.substring(commandStart + 1, commandEnd), ticks * 1000 / clockTicks, pages * pageSize);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses output of command {@code ps -e -o pid=,ppid=,rss=,comm=}. It is used on systems that don't have proc filesystem. CPU
+     * time isn't available in this case.
+     */
+    static ProcessTree parsePs(List<String> lines) {
+        final List<ProcessInfo> processes = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            final String[] tokens = line.trim().split("\\s+", 4);
+            if (tokens.length == 4) {
+                try {
+                    processes.add(new ProcessInfo(Integer.parseInt(tokens[0]),
+                                                  Integer.parseInt(tokens[1]),
+                                                  tokens[3],
+                                                  -1,
+                                                  Long.parseLong(tokens[2]) * 1024));
+                } catch (NumberFormatException ignored) {
+                    // Not a line of process table.
+                }
+            }
+        }
+        return new ProcessTree(processes);
+    }
+
+    private final Map<Integer, ProcessInfo>       processes;
+    private final Map<Integer, List<ProcessInfo>> children;
+    private final long                            timestamp;
+
+    private ProcessTree(List<ProcessInfo> processList) {
+        processes = new HashMap<>(processList.size() * 4 / 3 + 1);
+        children = new HashMap<>();
+        for (ProcessInfo process : processList) {
+            processes.put(process.getPid(), process);
+            List<ProcessInfo> siblings = children.get(process.getParentPid());
+            if (siblings == null) {
+                children.put(process.getParentPid(), siblings = new ArrayList<>(2));
+            }
+            siblings.add(process);
+        }
+        timestamp = System.currentTimeMillis();
+    }
+
+    /** Gets time when this snapshot was read. */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /** Gets all processes of snapshot. */
+    public Collection<ProcessInfo> getProcesses() {
+        return Collections.unmodifiableCollection(processes.values());
+    }
+
+    /** Gets process with specified pid or {@code null} if there is no such process in snapshot. */
+    public ProcessInfo getProcess(int pid) {
+        return processes.get(pid);
+    }
+
+    /** Gets direct children of process. */
+    public List<ProcessInfo> getChildren(int pid) {
+        final List<ProcessInfo> myChildren = children.get(pid);
+        return myChildren == null ? Collections.<ProcessInfo>emptyList() : Collections.unmodifiableList(myChildren);
+    }
+
+    /** Gets all descendants of process. Parent always goes before its children in the returned list. */
+    public List<ProcessInfo> getDescendants(int pid) {
+        final List<ProcessInfo> descendants = new ArrayList<>();
+        final List<ProcessInfo> myChildren = children.get(pid);
+        if (myChildren != null) {
+            descendants.addAll(myChildren);
+            // List grows while we walk over it, so it is breadth-first traversal.
+            for (int i = 0; i < descendants.size(); i++) {
+                final List<ProcessInfo> next = children.get(descendants.get(i).getPid());
+                if (next != null) {
+                    descendants.addAll(next);
+                }
+            }
+        }
+        return descendants;
+    }
+}
@@ -24,8 +24,8 @@ public final class ProcessUtil {
     private static final ProcessManager PROCESS_MANAGER = ProcessManager.newInstance();
 
     /**
-     * Writes stdout and stderr of the process to consumers.<br>
-     * Supposes that stderr of the process is redirected to stdout.
+     * Writes stdout and stderr of the process to consumers. Stdout is read in the current thread, stderr is read at the same time by
+     * {@link ProcessSupervisor}, so process is not blocked when it writes a lot to stderr.
      *
      * @param p
      *         process to read output from
@@ -36,15 +36,22 @@ public final class ProcessUtil {
      * @throws IOException
      */
     public static void process(Process p, LineConsumer stdout, LineConsumer stderr) throws IOException {
-        try (BufferedReader inputReader = new BufferedReader(new InputStreamReader(p.getInputStream()));
-             BufferedReader errorReader = new BufferedReader(new InputStreamReader(p.getErrorStream()))) {
+        final ProcessSupervisor.OutputPump errorPump = ProcessSupervisor.getDefault().pump(p.getErrorStream(), stderr);
+        try (BufferedReader inputReader = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
             String line;
             while ((line = inputReader.readLine()) != null) {
                 stdout.writeLine(line);
             }
-            while ((line = errorReader.readLine()) != null) {
-                stderr.writeLine(line);
-            }
+            errorPump.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading stderr of process. ", e);
+        } finally {
+            errorPump.stop();
+        }
+        final Exception error = errorPump.getException();
+        if (error != null) {
+            throw error instanceof IOException ? (IOException)error : new IOException(error.getMessage(), error);
         }
     }
 
@@ -99,6 +106,17 @@ public final class ProcessUtil {
         return PROCESS_MANAGER.system(command);
     }
 
+    /**
+     * Reads snapshot of the system process table. Snapshot may be used to find descendants of process or to get CPU and memory
+     * usage of processes.
+     *
+     * @throws UnsupportedOperationException
+     *         if it isn't supported for current system
+     */
+    public static ProcessTree getProcessTree() {
+        return PROCESS_MANAGER.getProcessTree();
+    }
+
     private ProcessUtil() {
     }
 }
@@ -12,15 +12,18 @@ package org.eclipse.che.api.core.util;
 
 import com.sun.jna.Library;
 import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Process manager for *nix like system.
@@ -38,6 +41,10 @@ class UnixProcessManager extends ProcessManager {
 
     private static final Field PID_FIELD;
 
+    /* Units of CPU time and memory in /proc/[pid]/stat. */
+    private static final long CLOCK_TICKS;
+    private static final long PAGE_SIZE;
+
     static {
         CLibrary lib = null;
         Field pidField = null;
@@ -54,23 +61,44 @@ class UnixProcessManager extends ProcessManager {
                 LOG.error(e.getMessage(), e);
             }
         }
+        long clockTicks = 100;
+        long pageSize = 4096;
+        if (lib != null && SystemInfo.isLinux()) {
+            try {
+                final long sysClockTicks = lib.sysconf(CLibrary._SC_CLK_TCK).longValue();
+                if (sysClockTicks > 0) {
+                    clockTicks = sysClockTicks;
+                }
+                pageSize = lib.getpagesize();
+            } catch (Exception | UnsatisfiedLinkError e) {
+                LOG.warn("Cannot get clock ticks and page size, defaults are used. {}", e.getMessage());
+            }
+        }
         C_LIBRARY = lib;
         PID_FIELD = pidField;
+        CLOCK_TICKS = clockTicks;
+        PAGE_SIZE = pageSize;
     }
 
     private static interface CLibrary extends Library {
         // kill -l
         int SIGKILL = 9;
         int SIGTERM = 15;
+        // sysconf names, linux only
+        int _SC_CLK_TCK = 2;
 
         int kill(int pid, int signal);
 
         String strerror(int errno);
 
         int system(String cmd);
+
+        int getpagesize();
+
+        NativeLong sysconf(int name);
     }
 
-    private static final Pattern UNIX_PS_TABLE_PATTERN = Pattern.compile("\\s+");
+    private static final Path PROC_DIR = Paths.get("/proc");
 
     @Override
     public void kill(Process process) {
@@ -82,14 +110,23 @@ class UnixProcessManager extends ProcessManager {
     }
 
     private void killTree(int pid) {
-        final int[] children = getChildProcesses(pid);
-        LOG.debug("PID: {}, child PIDs: {}", pid, children);
-        if (children.length > 0) {
-            for (int cpid : children) {
-                killTree(cpid); // kill process tree recursively
-            }
+        // Read process table once. Parents are killed before their children, so they can't start new processes while we kill tree.
+        List<ProcessTree.ProcessInfo> descendants = Collections.emptyList();
+        try {
+            descendants = getProcessTree().getDescendants(pid);
+        } catch (RuntimeException e) {
+            // Kill process itself even if we can't find its descendants.
+            LOG.warn("Can't get descendants of process {}, only this process is killed. {}", pid, e.getMessage());
+        }
+        LOG.debug("PID: {}, descendant PIDs: {}", pid, descendants);
+        kill(pid);
+        for (ProcessTree.ProcessInfo descendant : descendants) {
+            kill(descendant.getPid());
         }
-        int r = C_LIBRARY.kill(pid, CLibrary.SIGKILL); // kill origin process
+    }
+
+    private void kill(int pid) {
+        int r = C_LIBRARY.kill(pid, CLibrary.SIGKILL);
         LOG.debug("kill {}", pid);
         if (r != 0) {
             if (LOG.isDebugEnabled()) {
@@ -98,65 +135,31 @@ class UnixProcessManager extends ProcessManager {
         }
     }
 
-    private int[] getChildProcesses(final int myPid) {
-        final String ps = "ps -e -o ppid,pid,comm"; /* PPID, PID, COMMAND */
-        final List<Integer> children = new ArrayList<>();
-        final StringBuilder error = new StringBuilder();
-        final LineConsumer stdout = new LineConsumer() {
-            @Override
-            public void writeLine(String line) throws IOException {
-                if (line != null && !line.isEmpty()) {
-                    final String[] tokens = UNIX_PS_TABLE_PATTERN.split(line.trim());
-                    if (tokens.length == 3 /* PPID, PID, COMMAND */) {
-                        int ppid;
-                        try {
-                            ppid = Integer.parseInt(tokens[0]);
-                        } catch (NumberFormatException e) {
-                            // May be first line from process table: 'PPID PID COMMAND'. Skip it.
-                            return;
-                        }
-                        if (ppid == myPid) {
-                            int pid = Integer.parseInt(tokens[1]);
-                            children.add(pid);
-                        }
-                    }
-                }
-            }
-
-            @Override
-            public void close() throws IOException {
-            }
-        };
-
-        final LineConsumer stderr = new LineConsumer() {
-            @Override
-            public void writeLine(String line) throws IOException {
-                if (error.length() > 0) {
-                    error.append('\n');
-                }
-                error.append(line);
-            }
-
-            @Override
-            public void close() throws IOException {
+    @Override
+    ProcessTree getProcessTree() {
+        if (Files.isDirectory(PROC_DIR)) {
+            try {
+                return ProcessTree.readProc(PROC_DIR, CLOCK_TICKS, PAGE_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("can't read process table: " + e.getMessage(), e);
             }
-        };
+        }
+        return readPs();
+    }
 
+    private ProcessTree readPs() {
+        final String ps = "ps -e -o pid=,ppid=,rss=,comm="; /* PID, PPID, RSS, COMMAND */
+        final ListLineConsumer stdout = new ListLineConsumer();
+        final ListLineConsumer stderr = new ListLineConsumer();
         try {
             ProcessUtil.process(Runtime.getRuntime().exec(ps), stdout, stderr);
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
-
-        if (error.length() > 0) {
-            throw new IllegalStateException("can't get child processes: " + error.toString());
-        }
-        final int size = children.size();
-        final int[] result = new int[size];
-        for (int i = 0; i < size; i++) {
-            result[i] = children.get(i);
+        if (!stderr.getLines().isEmpty()) {
+            throw new IllegalStateException("can't read process table: " + stderr.getText());
         }
-        return result;
+        return ProcessTree.parsePs(stdout.getLines());
     }
 
     @Override
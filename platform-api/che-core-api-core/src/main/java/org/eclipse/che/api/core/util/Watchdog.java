@@ -26,14 +26,15 @@ public final class Watchdog implements Runnable {
     private final String name;
     private final long   timeout;
 
-    private boolean     watch;
-    private Cancellable cancellable;
+    private boolean                 watch;
+    private Cancellable             cancellable;
+    private HashedWheelTimer.Timeout scheduled;
 
     /**
      * Create new {@code Watchdog}.
      *
      * @param name
-     *         name for background {@code Thread}. It helps to identify out threads. This parameter is optional and may be {@code null}.
+     *         name of watchdog. It helps to identify it in logs. This parameter is optional and may be {@code null}.
      * @param timeout
      *         timeout
      * @param unit
@@ -52,7 +53,8 @@ public final class Watchdog implements Runnable {
     }
 
     /**
-     * Start watching {@code Cancellable}.
+     * Start watching {@code Cancellable}. Timeout is watched by shared timer of {@link ProcessSupervisor}, watchdog doesn't start own
+     * thread.
      *
      * @param cancellable
      *         Cancellable
@@ -60,35 +62,36 @@ public final class Watchdog implements Runnable {
     public synchronized void start(Cancellable cancellable) {
         this.cancellable = cancellable;
         this.watch = true;
-        final Thread t = name == null ? new Thread(this) : new Thread(this, name);
-        t.setDaemon(true);
-        t.start();
+        scheduled = ProcessSupervisor.getDefault().schedule(name, new Cancellable() {
+            @Override
+            public void cancel() throws Exception {
+                run();
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
     }
 
     /** Stop watching. */
     public synchronized void stop() {
         watch = false;
-        notify();
+        if (scheduled != null) {
+            scheduled.cancel();
+        }
     }
 
     /** NOTE: Not expected to call directly by regular users of this class. */
-    public synchronized void run() {
-        final long end = System.currentTimeMillis() + timeout;
-        long now;
-        while (watch && (end > (now = System.currentTimeMillis()))) {
-            try {
-                wait(end - now);
-            } catch (InterruptedException ignored) {
-                // Not expected to be thrown
-            }
-        }
-        if (watch) {
-            try {
-                cancellable.cancel();
-            } catch (Exception e) {
-                LOG.error(e.getMessage(), e);
+    public void run() {
+        final Cancellable toCancel;
+        synchronized (this) {
+            if (!watch) {
+                return;
             }
             watch = false;
+            toCancel = cancellable;
+        }
+        try {
+            toCancel.cancel();
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
         }
     }
 }
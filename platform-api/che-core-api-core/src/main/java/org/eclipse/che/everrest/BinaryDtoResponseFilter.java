@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.everrest;
+
+import org.eclipse.che.dto.server.BinarySerializable;
+import org.everrest.core.ApplicationContext;
+import org.everrest.core.Filter;
+import org.everrest.core.GenericContainerResponse;
+import org.everrest.core.ResponseFilter;
+import org.everrest.core.impl.ApplicationContextImpl;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Filter implementing {@link org.everrest.core.ResponseFilter} in order to send DTOs in binary format to clients that accept it.
+ * Resources still declare that they produce JSON, filter replaces JSON content type with {@link BinarySerializable#MEDIA_TYPE} if
+ * {@code Accept} header of request contains it explicitly and entity of successful response is DTO or list of DTOs. Wildcards in
+ * {@code Accept} header never select binary format, so browsers always get JSON.
+ *
+ * @author agent
+ * @see org.eclipse.che.api.core.rest.CodenvyJsonProvider
+ */
+@Filter
+public class BinaryDtoResponseFilter implements ResponseFilter {
+    private static final MediaType BINARY_TYPE = MediaType.valueOf(BinarySerializable.MEDIA_TYPE);
+
+    @Override
+    public void doFilter(GenericContainerResponse containerResponse) {
+        final Object entity = containerResponse.getEntity();
+        if (entity == null || containerResponse.getStatus() / 100 != 2) {
+            return;
+        }
+        final MediaType contentType = containerResponse.getContentType();
+        if (contentType == null
+            || !(MediaType.APPLICATION_JSON_TYPE.getType().equals(contentType.getType())
+                 && MediaType.APPLICATION_JSON_TYPE.getSubtype().equals(contentType.getSubtype()))) {
+            return;
+        }
+        if (!(isBinarySerializable(entity) && isBinaryAccepted())) {
+            return;
+        }
+        containerResponse.setResponse(Response.fromResponse(containerResponse.getResponse()).type(BINARY_TYPE).build());
+    }
+
+    private boolean isBinaryAccepted() {
+        final ApplicationContext applicationContext = ApplicationContextImpl.getCurrent();
+        for (MediaType acceptable : applicationContext.getHttpHeaders().getAcceptableMediaTypes()) {
+            if (BINARY_TYPE.getType().equals(acceptable.getType())
+                && BINARY_TYPE.getSubtype().equals(acceptable.getSubtype())
+                && !"0".equals(acceptable.getParameters().get("q"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBinarySerializable(Object entity) {
+        if (entity instanceof BinarySerializable) {
+            return true;
+        }
+        if (entity instanceof List) {
+            for (Object element : (List<?>)entity) {
+                if (!(element instanceof BinarySerializable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -17,6 +17,10 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author andrew00x
@@ -157,4 +161,157 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testAsyncDelivery() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                deliveryThread.set(Thread.currentThread());
+                delivered.countDown();
+            }
+        };
+        bus.subscribe(l, new AsyncDelivery(10, AsyncDelivery.OverflowPolicy.BLOCK));
+        bus.publish(new Event());
+        Assert.assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        Assert.assertNotEquals(deliveryThread.get(), Thread.currentThread());
+        Assert.assertEquals(bus.getDeliveryStats(l).getDeliveredCount(), 1);
+        bus.stop();
+    }
+
+    @Test
+    public void testAsyncDeliveryDropOldest() {
+        final List<String> events = new ArrayList<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        };
+        ManualExecutor executor = new ManualExecutor();
+        bus.subscribe(l, new AsyncDelivery(2, AsyncDelivery.OverflowPolicy.DROP_OLDEST, executor));
+        bus.publish(new Event("1"));
+        bus.publish(new Event("2"));
+        bus.publish(new Event("3"));
+        Assert.assertEquals(events.size(), 0);
+        Assert.assertEquals(bus.getDeliveryStats(l).getQueueDepth(), 2);
+        executor.runAll();
+        Assert.assertEquals(events.size(), 2);
+        Assert.assertEquals(events.get(0), "2");
+        Assert.assertEquals(events.get(1), "3");
+        DeliveryStats stats = bus.getDeliveryStats(l);
+        Assert.assertEquals(stats.getDeliveredCount(), 2);
+        Assert.assertEquals(stats.getDroppedCount(), 1);
+        Assert.assertEquals(stats.getMaxQueueDepth(), 2);
+        Assert.assertEquals(stats.getQueueDepth(), 0);
+    }
+
+    @Test
+    public void testAsyncDeliveryCoalesce() {
+        final List<String> events = new ArrayList<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        };
+        ManualExecutor executor = new ManualExecutor();
+        bus.subscribe(l, new AsyncDelivery(10, AsyncDelivery.OverflowPolicy.COALESCE, executor) {
+            @Override
+            protected Object getCoalescingKey(Object event) {
+                return ((Event)event).data.substring(0, 1);
+            }
+        });
+        bus.publish(new Event("a1"));
+        bus.publish(new Event("b1"));
+        bus.publish(new Event("a2"));
+        executor.runAll();
+        Assert.assertEquals(events.size(), 2);
+        // Newer event takes place of pending one.
+        Assert.assertEquals(events.get(0), "a2");
+        Assert.assertEquals(events.get(1), "b1");
+        Assert.assertEquals(bus.getDeliveryStats(l).getCoalescedCount(), 1);
+    }
+
+    @Test
+    public void testUnsubscribeAsync() {
+        final List<String> events = new ArrayList<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        };
+        ManualExecutor executor = new ManualExecutor();
+        bus.subscribe(l, new AsyncDelivery(10, AsyncDelivery.OverflowPolicy.BLOCK, executor));
+        bus.publish(new Event());
+        bus.unsubscribe(l);
+        bus.publish(new Event());
+        executor.runAll();
+        Assert.assertEquals(events.size(), 0);
+        Assert.assertNull(bus.getDeliveryStats(l));
+    }
+
+    @Test
+    public void testAsyncDeliveryContinuesAfterError() {
+        final List<String> events = new ArrayList<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+                if ("1".equals(event.data)) {
+                    throw new LinkageError("test");
+                }
+            }
+        };
+        ManualExecutor executor = new ManualExecutor();
+        bus.subscribe(l, new AsyncDelivery(10, AsyncDelivery.OverflowPolicy.BLOCK, executor));
+        bus.publish(new Event("1"));
+        bus.publish(new Event("2"));
+        boolean thrown = false;
+        try {
+            executor.runAll();
+        } catch (LinkageError e) {
+            thrown = true;
+        }
+        Assert.assertTrue(thrown);
+        executor.runAll();
+        bus.publish(new Event("3"));
+        executor.runAll();
+        Assert.assertEquals(events.size(), 3);
+        Assert.assertEquals(events.get(2), "3");
+    }
+
+    @Test
+    public void testSynchronousDeliveryIsDefault() {
+        final List<Thread> threads = new ArrayList<>();
+        EventSubscriber<Event> l = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                threads.add(Thread.currentThread());
+            }
+        };
+        bus.subscribe(l);
+        bus.publish(new Event());
+        Assert.assertEquals(threads.size(), 1);
+        Assert.assertEquals(threads.get(0), Thread.currentThread());
+        Assert.assertNull(bus.getDeliveryStats(l));
+    }
+
+    static class ManualExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
 }
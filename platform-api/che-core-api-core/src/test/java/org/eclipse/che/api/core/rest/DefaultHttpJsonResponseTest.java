@@ -18,6 +18,7 @@ import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Set;
 
@@ -74,6 +75,17 @@ public class DefaultHttpJsonResponseTest {
         assertEquals(response.asList(Link.class), singletonList(testLink));
     }
     
+    @Test
+    public void shouldDecodeResponseInBinaryFormat() throws Exception {
+        final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+        final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        DtoFactory.getInstance().toBinary(new JsonArrayImpl<>(singletonList(testLink)), binary);
+        final DefaultHttpJsonResponse response = new DefaultHttpJsonResponse(binary.toByteArray(), 200);
+
+        assertEquals(response.asList(Link.class), singletonList(testLink));
+        assertEquals(response.asString(), "[" + DtoFactory.getInstance().toJson(testLink) + "]");
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void shouldThrowNullPointerExceptionWhenClazzIsNull() throws Exception {
         new DefaultHttpJsonResponse("{}", 200).as(null, null);
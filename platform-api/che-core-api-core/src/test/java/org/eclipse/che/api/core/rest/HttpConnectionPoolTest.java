@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.io.CharStreams;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests of {@link HttpConnectionPool}.
+ *
+ * @author agent
+ */
+public class HttpConnectionPoolTest {
+    private HttpServer         server;
+    private HttpConnectionPool pool;
+    private URL                url;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/test", exchange -> {
+            final boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = gzip ? new GZIPOutputStream(exchange.getResponseBody()) : exchange.getResponseBody()) {
+                out.write("hello".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+        url = new URL("http://localhost:" + server.getAddress().getPort() + "/test");
+        pool = new HttpConnectionPool(1, 100, false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        pool.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldRequestAndDecodeGzipResponse() throws Exception {
+        try (HttpConnectionPool.Connection lease = pool.open(url, 5000)) {
+            assertEquals(lease.getConnection().getResponseCode(), 200);
+            assertEquals(lease.getConnection().getContentEncoding(), "gzip");
+            try (Reader reader = new InputStreamReader(lease.getInputStream(), StandardCharsets.UTF_8)) {
+                assertEquals(CharStreams.toString(reader), "hello");
+            }
+        }
+
+        final HttpHostStats stats = pool.getStats().get(0);
+        assertEquals(stats.getRequestCount(), 1);
+        assertEquals(stats.getFailedCount(), 0);
+        assertEquals(stats.getSampleCount(), 1);
+        assertEquals(stats.getActiveConnections(), 0);
+    }
+
+    @Test
+    public void shouldRejectRequestWhenAllConnectionsToHostAreInUse() throws Exception {
+        final HttpConnectionPool.Connection lease = pool.open(url, 5000);
+        try {
+            pool.open(url, 5000);
+            fail("IOException expected");
+        } catch (IOException ignored) {
+        }
+
+        HttpHostStats stats = pool.getStats().get(0);
+        assertEquals(stats.getActiveConnections(), 1);
+        assertEquals(stats.getSaturation(), 1.0);
+        assertEquals(stats.getRejectedCount(), 1);
+
+        lease.abort();
+        lease.close();
+        pool.open(url, 5000).close();
+
+        stats = pool.getStats().get(0);
+        assertEquals(stats.getActiveConnections(), 0);
+        assertEquals(stats.getRequestCount(), 2);
+        assertEquals(stats.getFailedCount(), 1);
+    }
+
+    @Test
+    public void shouldNotBoundConnectionsByDefault() throws Exception {
+        final HttpConnectionPool unbounded = new HttpConnectionPool(HttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_HOST, 100, false);
+        try {
+            final HttpConnectionPool.Connection outer = unbounded.open(url, 5000);
+            final HttpConnectionPool.Connection nested = unbounded.open(url, 5000);
+
+            HttpHostStats stats = unbounded.getStats().get(0);
+            assertEquals(stats.getActiveConnections(), 2);
+            assertEquals(stats.getSaturation(), 0.0);
+            assertEquals(stats.getRejectedCount(), 0);
+
+            nested.close();
+            outer.close();
+
+            stats = unbounded.getStats().get(0);
+            assertEquals(stats.getActiveConnections(), 0);
+            assertEquals(stats.getRequestCount(), 2);
+        } finally {
+            unbounded.shutdown();
+        }
+    }
+}
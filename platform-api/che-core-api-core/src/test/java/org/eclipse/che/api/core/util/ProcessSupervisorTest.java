@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/** @author agent */
+public class ProcessSupervisorTest {
+    private ProcessSupervisor supervisor;
+
+    @BeforeMethod
+    public void setUp() {
+        supervisor = new ProcessSupervisor();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        supervisor.shutdown();
+    }
+
+    @Test
+    public void shouldPassOutputOfProcessToConsumerLineByLine() throws Exception {
+        final List<ListLineConsumer> consumers = new ArrayList<>();
+        final List<ProcessSupervisor.OutputPump> pumps = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Process process = new FinishedProcess("line1\nline2\r\nline3\rline" + i);
+            final ListLineConsumer consumer = new ListLineConsumer();
+            consumers.add(consumer);
+            pumps.add(supervisor.pump(process.getInputStream(), consumer));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            pumps.get(i).await();
+            assertNull(pumps.get(i).getException());
+            assertEquals(consumers.get(i).getText(), "line1\nline2\nline3\nline" + i);
+        }
+    }
+
+    @Test
+    public void shouldReadOutputUntilEndOfStream() throws Exception {
+        // Stream may stay open after process is finished, e.g. if it is inherited by child process.
+        final PipedOutputStream out = new PipedOutputStream();
+        final ListLineConsumer consumer = new ListLineConsumer();
+        final ProcessSupervisor.OutputPump pump = supervisor.pump(new PipedInputStream(out), consumer);
+        out.write("line1\n".getBytes());
+        out.flush();
+        Thread.sleep(200);
+        assertFalse(pump.isDone());
+        out.write("line2".getBytes());
+        out.close();
+
+        pump.await();
+        assertNull(pump.getException());
+        assertEquals(consumer.getText(), "line1\nline2");
+    }
+
+    @Test
+    public void shouldNotDelayOutputOfOtherProcessesIfConsumerIsSlow() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ProcessSupervisor.OutputPump> blocked = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            blocked.add(supervisor.pump(new FinishedProcess("line").getInputStream(), new LineConsumer() {
+                @Override
+                public void writeLine(String line) throws IOException {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+
+                @Override
+                public void close() {
+                }
+            }));
+        }
+        final ListLineConsumer consumer = new ListLineConsumer();
+        final ProcessSupervisor.OutputPump pump = supervisor.pump(new FinishedProcess("line").getInputStream(), consumer);
+
+        pump.await();
+        assertEquals(consumer.getText(), "line");
+        release.countDown();
+        for (ProcessSupervisor.OutputPump blockedPump : blocked) {
+            blockedPump.await();
+        }
+    }
+
+    @Test
+    public void shouldCancelTaskAfterTimeout() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final boolean[] cancelled = new boolean[2];
+        supervisor.schedule(null, new Cancellable() {
+            @Override
+            public void cancel() throws Exception {
+                cancelled[0] = true;
+                latch.countDown();
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+        final HashedWheelTimer.Timeout timeout = supervisor.schedule(null, new Cancellable() {
+            @Override
+            public void cancel() throws Exception {
+                cancelled[1] = true;
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(cancelled[0]);
+        assertFalse(cancelled[1]);
+        assertFalse(timeout.isExpired());
+    }
+
+    private static class FinishedProcess extends Process {
+        private final InputStream output;
+
+        FinishedProcess(String output) {
+            this.output = new ByteArrayInputStream(output.getBytes(Charset.defaultCharset()));
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return output;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() {
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
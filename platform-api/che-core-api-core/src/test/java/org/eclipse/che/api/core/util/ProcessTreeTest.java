@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.eclipse.che.commons.lang.IoUtil;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/** @author agent */
+public class ProcessTreeTest {
+    private Path procDir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        procDir = Files.createTempDirectory("proc");
+        writeStat(1, "init", 0);
+        writeStat(100, "bash", 1);
+        writeStat(101, "java) (x", 100);
+        writeStat(102, "sleep", 100);
+        writeStat(103, "sleep", 101);
+        writeStat(200, "cron", 1);
+        Files.createDirectory(procDir.resolve("self"));
+        Files.createDirectory(procDir.resolve("300")); // process finished, no stat file
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(procDir.toFile());
+    }
+
+    @Test
+    public void shouldReadProcessTableInSinglePass() throws Exception {
+        final ProcessTree tree = ProcessTree.readProc(procDir, 100, 4096);
+
+        assertEquals(tree.getProcesses().size(), 6);
+        assertNull(tree.getProcess(300));
+        final ProcessTree.ProcessInfo java = tree.getProcess(101);
+        assertEquals(java.getCommand(), "java) (x");
+        assertEquals(java.getParentPid(), 100);
+        assertEquals(java.getCpuTime(), 1010 * 10 + 101 * 10);
+        assertEquals(java.getRss(), 101 * 4096);
+
+        assertEquals(new HashSet<>(pids(tree.getChildren(100))), new HashSet<>(Arrays.asList(101, 102)));
+        final List<Integer> descendants = pids(tree.getDescendants(100));
+        assertEquals(descendants.size(), 3);
+        assertTrue(descendants.indexOf(101) < descendants.indexOf(103), "Parent must go before its children");
+        assertTrue(tree.getDescendants(103).isEmpty());
+    }
+
+    @Test
+    public void shouldSkipProcessWhenItsStatFileCanNotBeRead() throws Exception {
+        // Reading of directory fails with IOException that isn't NoSuchFileException, the same as reading of stat file of
+        // process that is exiting.
+        Files.createDirectories(procDir.resolve("400").resolve("stat"));
+
+        final ProcessTree tree = ProcessTree.readProc(procDir, 100, 4096);
+
+        assertEquals(tree.getProcesses().size(), 6);
+        assertNull(tree.getProcess(400));
+    }
+
+    @Test
+    public void shouldParsePsOutput() throws Exception {
+        final ProcessTree tree = ProcessTree.parsePs(Arrays.asList("    1     0   100 init",
+                                                                   "  100     1   200 /bin/bash",
+                                                                   "  101   100   300 my command"));
+
+        assertEquals(pids(tree.getDescendants(1)), Arrays.asList(100, 101));
+        assertEquals(tree.getProcess(101).getCommand(), "my command");
+        assertEquals(tree.getProcess(101).getRss(), 300 * 1024);
+        assertEquals(tree.getProcess(101).getCpuTime(), -1);
+    }
+
+    private void writeStat(int pid, String command, int ppid) throws Exception {
+        final File dir = Files.createDirectory(procDir.resolve(Integer.toString(pid))).toFile();
+        // pid (comm) state ppid pgrp session tty_nr tpgid flags minflt cminflt majflt cmajflt utime stime cutime cstime priority nice
+        // num_threads itrealvalue starttime vsize rss ...
+        final String stat = String.format("%d (%s) S %d %d %d 0 -1 4194304 100 0 0 0 %d %d 0 0 20 0 1 0 1000 1000000 %d 0 0\n",
+                                          pid, command, ppid, pid, pid, pid * 10, pid, pid);
+        Files.write(dir.toPath().resolve("stat"), stat.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Integer> pids(List<ProcessTree.ProcessInfo> processes) {
+        final List<Integer> pids = new ArrayList<>(processes.size());
+        for (ProcessTree.ProcessInfo process : processes) {
+            pids.add(process.getPid());
+        }
+        return pids;
+    }
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares JSON serialization of DTO through JSON tree with streaming serialization and binary format. Tree-based benchmarks do the
+ * same as implementation of {@link DtoFactory} did before: {@code toJson()} creates JSON tree and string which then is written to the
+ * output, input is read line by line to string which then is parsed to JSON tree.
+ * <p/>
+ * Benchmark isn't compiled in regular build, run it with {@code benchmarks} profile:
+ * <pre>
+ *     mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.eclipse.che.dto.DtoSerializationBenchmark
+ * </pre>
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    private DtoFactory     dtoFactory;
+    private ComplicatedDto dto;
+    private String         json;
+    private byte[]         binary;
+    private Writer         nullWriter;
+    private OutputStream   nullOutputStream;
+
+    @Setup
+    public void setUp() throws IOException {
+        dtoFactory = DtoFactory.getInstance();
+        final List<String> strings = new ArrayList<>(size);
+        final List<SimpleDto> simpleDtos = new ArrayList<>(size);
+        final Map<String, SimpleDto> map = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class)
+                                                  .withId(i)
+                                                  .withName("name" + i)
+                                                  .withDefault("default value of item " + i);
+            strings.add("string" + i);
+            simpleDtos.add(simpleDto);
+            map.put("key" + i, simpleDto);
+        }
+        dto = dtoFactory.createDto(ComplicatedDto.class)
+                        .withStrings(strings)
+                        .withSimpleDtos(simpleDtos)
+                        .withMap(map)
+                        .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO);
+        json = dtoFactory.toJson(dto);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dtoFactory.toBinary(dto, out);
+        binary = out.toByteArray();
+        nullWriter = CharStreams.nullWriter();
+        nullOutputStream = ByteStreams.nullOutputStream();
+    }
+
+    @Benchmark
+    public void treeSerialization() throws IOException {
+        nullWriter.write(dtoFactory.toJson(dto));
+    }
+
+    @Benchmark
+    public void streamingSerialization() throws IOException {
+        dtoFactory.toJson(dto, nullWriter);
+    }
+
+    @Benchmark
+    public ComplicatedDto treeDeserialization() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final BufferedReader br = new BufferedReader(new StringReader(json));
+        String line;
+        while ((line = br.readLine()) != null) {
+            sb.append(line);
+        }
+        return dtoFactory.createDtoFromJson(sb.toString(), ComplicatedDto.class);
+    }
+
+    @Benchmark
+    public ComplicatedDto streamingDeserialization() throws IOException {
+        final Reader reader = new StringReader(json);
+        return dtoFactory.createDtoFromJson(reader, ComplicatedDto.class);
+    }
+
+    @Benchmark
+    public void binarySerialization() throws IOException {
+        dtoFactory.toBinary(dto, nullOutputStream);
+    }
+
+    @Benchmark
+    public ComplicatedDto binaryDeserialization() throws IOException {
+        return dtoFactory.createDtoFromBinary(new ByteArrayInputStream(binary), ComplicatedDto.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DtoSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -72,6 +72,8 @@ public class DtoImplServerTemplate extends DtoImpl {
         emitSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitStreamingDeserializer(methods, builder);
+        emitBinaryDeserializer(methods, builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
@@ -299,6 +301,8 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("      return result;\n");
         builder.append("    }\n");
         builder.append("\n");
+        emitStreamingSerializer(getters, builder);
+        emitBinarySerializer(getters, builder);
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
         // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
@@ -451,6 +455,193 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /**
+     * Generates methods that write JSON directly to the stream. Output is the same as output of {@code toJson()} but JSON tree is not
+     * created. DTOs that use compact JSON format are written through the tree.
+     */
+    private void emitStreamingSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeTo(java.io.Writer writer) throws java.io.IOException {\n");
+        // Same settings as gson uses for printing tree in toJson()
+        builder.append("      JsonWriter out = new JsonWriter(writer);\n");
+        builder.append("      out.setLenient(true);\n");
+        builder.append("      out.setSerializeNulls(false);\n");
+        builder.append("      writeTo(out);\n");
+        builder.append("      out.flush();\n");
+        builder.append("    }\n\n");
+        builder.append("    public void writeTo(JsonWriter out) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            builder.append("      gson.toJson(toJsonElementInt(false), out);\n");
+        } else {
+            builder.append("      out.beginObject();\n");
+            for (Method getter : getters) {
+                List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+                builder.append("      out.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                emitStreamingSerializerImpl(expandedTypes, 0, builder, getJavaFieldName(getter.getName()), "      ", false);
+            }
+            builder.append("      out.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Generates method that writes DTO in compact binary format, see {@link org.eclipse.che.dto.server.BinaryDtoWriter}. DTOs that use
+     * compact JSON format are written as indexed objects.
+     */
+    private void emitBinarySerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeTo(BinaryDtoWriter out) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            builder.append("      out.beginIndexed();\n");
+            for (int index = 0; index < getters.size(); index++) {
+                final Method getter = getters.get(index);
+                if (getter == null) {
+                    continue;
+                }
+                final List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+                final String fieldName = getJavaFieldName(getter.getName());
+                String i = "      ";
+                if (isLastMethod(getter) && isList(getRawClass(expandedTypes.get(0)))) {
+                    // The same as compact JSON, empty list at the end is omitted.
+                    builder.append(i).append("this.").append(getEnsureName(fieldName)).append("();\n");
+                    builder.append(i).append("if (!this.").append(fieldName).append(".isEmpty()) {\n");
+                    i += "  ";
+                }
+                builder.append(i).append("out.index(").append(index + 1).append(");\n");
+                emitStreamingSerializerImpl(expandedTypes, 0, builder, fieldName, i, true);
+                if (i.length() > 6) {
+                    builder.append("      }\n");
+                }
+            }
+            builder.append("      out.endIndexed();\n");
+        } else {
+            builder.append("      out.beginObject();\n");
+            for (Method getter : getters) {
+                List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+                builder.append("      out.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                emitStreamingSerializerImpl(expandedTypes, 0, builder, getJavaFieldName(getter.getName()), "      ", true);
+            }
+            builder.append("      out.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the variable with the given name to the JsonWriter or BinaryDtoWriter 'out'.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     * @param binary
+     *         {@code true} if 'out' is BinaryDtoWriter
+     */
+    private void emitStreamingSerializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i,
+                                             boolean binary) {
+        final Type type = expandedTypes.get(depth);
+        final String childInVar = inVar + "_";
+        final String entryVar = "entry" + depth;
+        final String value = depth == 0 ? "this." + inVar : inVar;
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            final String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            String ci = i;
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            } else {
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                ci = i + "  ";
+            }
+            if (isList(rawClass)) {
+                builder.append(ci).append(binary ? "out.beginArray(" + value + ".size());\n" : "out.beginArray();\n");
+                builder.append(ci).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                       .append(") {\n");
+            } else {
+                builder.append(ci).append("out.beginObject();\n");
+                builder.append(ci).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                       .append(" : ").append(value).append(".entrySet()) {\n");
+                builder.append(ci).append("  out.name(").append(entryVar).append(".getKey());\n");
+                builder.append(ci).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                       .append(".getValue();\n");
+            }
+            emitStreamingSerializerImpl(expandedTypes, depth + 1, builder, childInVar, ci + "  ", binary);
+            builder.append(ci).append("}\n");
+            builder.append(ci).append(isList(rawClass) ? "out.endArray();\n" : "out.endObject();\n");
+            if (depth != 0) {
+                builder.append(i).append("}\n");
+            }
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("out.value(").append(value).append(" == null ? null : ").append(value).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ((").append(getImplNameForDto((Class<?>)expandedTypes.get(depth))).append(")").append(value)
+                   .append(").writeTo(out);\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == boolean.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(".booleanValue());\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == float.class
+                   || rawClass == short.class
+                   || rawClass == byte.class
+                   || rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            // Write boxed value, the same as JsonPrimitive does, otherwise floats are printed as doubles
+            builder.append(i).append("out.value((Number)").append(value).append(");\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(value).append(" instanceof JsonElement) {\n");
+            if (binary) {
+                builder.append(i).append("  out.value((JsonElement)").append(value).append(");\n");
+            } else {
+                builder.append(i).append("  gson.toJson((JsonElement)").append(value).append(", out);\n");
+            }
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                // Implementation is generated separately and might not support streaming.
+                builder.append(i).append("if (").append(value).append(" == null) {\n");
+                builder.append(i).append("  out.nullValue();\n");
+                builder.append(i).append("} else {\n");
+                if (binary) {
+                    builder.append(i).append("  out.value(((").append(dtoImplementation.getCanonicalName()).append(")").append(value)
+                           .append(").toJsonElementInt(false));\n");
+                } else {
+                    builder.append(i).append("  gson.toJson(((").append(dtoImplementation.getCanonicalName()).append(")").append(value)
+                           .append(").toJsonElementInt(false), out);\n");
+                }
+                builder.append(i).append("}\n");
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -605,6 +796,197 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
     
+    /**
+     * Generates a static factory method that creates a new instance based on the JSON read from JsonReader. Unlike to {@code
+     * fromJsonElement(json)} it doesn't need JSON tree. DTOs that use compact JSON format are read through the tree.
+     */
+    private void emitStreamingDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" fromJsonReader(JsonReader in) throws java.io.IOException {\n");
+        builder.append("      if (in.peek() == JsonToken.NULL) {\n");
+        builder.append("        in.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        if (isCompactJson()) {
+            builder.append("      return fromJsonElement(new JsonParser().parse(in), false);\n");
+        } else {
+            builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+            builder.append("      in.beginObject();\n");
+            builder.append("      while (in.hasNext()) {\n");
+            builder.append("        switch (in.nextName()) {\n");
+            for (Method getter : getters) {
+                final String fieldName = getFieldNameFromGetterName(getter.getName());
+                final String fieldNameOut = fieldName + "Out";
+                builder.append("          case ").append(quoteStringLiteral(getJsonFieldName(getter))).append(": {\n");
+                emitStreamingDeserializerImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ", false);
+                builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+                builder.append("            break;\n");
+                builder.append("          }\n");
+            }
+            builder.append("          default:\n");
+            builder.append("            in.skipValue();\n");
+            builder.append("        }\n");
+            builder.append("      }\n");
+            builder.append("      in.endObject();\n");
+            builder.append("      return dto;\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /** Generates a static factory method that creates a new instance based on the data read from BinaryDtoReader. */
+    private void emitBinaryDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" fromBinary(BinaryDtoReader in) throws java.io.IOException {\n");
+        builder.append("      if (in.skipNull()) {\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        if (isCompactJson()) {
+            builder.append("      in.beginIndexed();\n");
+            builder.append("      while (in.hasNext()) {\n");
+            builder.append("        switch (in.nextIndex()) {\n");
+        } else {
+            builder.append("      in.beginObject();\n");
+            builder.append("      while (in.hasNext()) {\n");
+            builder.append("        switch (in.nextName()) {\n");
+        }
+        for (int index = 0; index < getters.size(); index++) {
+            final Method getter = getters.get(index);
+            if (getter == null) {
+                continue;
+            }
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ")
+                   .append(isCompactJson() ? String.valueOf(index + 1) : quoteStringLiteral(getJsonFieldName(getter)))
+                   .append(": {\n");
+            emitStreamingDeserializerImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ", true);
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append(isCompactJson() ? "      in.endIndexed();\n" : "      in.endObject();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read value from JsonReader or BinaryDtoReader 'in' to the variable with the given name.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     * @param binary
+     *         {@code true} if 'in' is BinaryDtoReader
+     */
+    private void emitStreamingDeserializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i,
+                                               boolean binary) {
+        final Type type = expandedTypes.get(depth);
+        final String childOutVar = outVar + "_";
+        final Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass) || isMap(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            if (binary) {
+                builder.append(i).append("if (!in.skipNull()) {\n");
+            } else {
+                builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+                builder.append(i).append("  in.nextNull();\n");
+                builder.append(i).append("} else {\n");
+            }
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            if (isList(rawClass)) {
+                builder.append(i).append("  in.beginArray();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                emitStreamingDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ", binary);
+                builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endArray();\n");
+            } else {
+                final String keyVar = "key" + depth;
+                builder.append(i).append("  in.beginObject();\n");
+                builder.append(i).append("  while (in.hasNext()) {\n");
+                builder.append(i).append("    String ").append(keyVar).append(" = in.nextName();\n");
+                emitStreamingDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ", binary);
+                builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar)
+                       .append(");\n");
+                builder.append(i).append("  }\n");
+                builder.append(i).append("  in.endObject();\n");
+            }
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(binary ? ".fromBinary(in);\n" : ".fromJsonReader(in);\n");
+        } else if (rawClass.isPrimitive()) {
+            final String primitiveName = rawClass.getSimpleName();
+            builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = ");
+            if (rawClass == boolean.class) {
+                builder.append("in.nextBoolean();\n");
+            } else if (rawClass == long.class) {
+                builder.append("in.nextLong();\n");
+            } else if (rawClass == double.class) {
+                builder.append("in.nextDouble();\n");
+            } else if (rawClass == float.class) {
+                builder.append("(float)in.nextDouble();\n");
+            } else if (rawClass == int.class) {
+                builder.append("in.nextInt();\n");
+            } else {
+                builder.append("(").append(primitiveName).append(")in.nextInt();\n");
+            }
+        } else if (isAny(rawClass)) {
+            // Parser creates new JSON, no need to copy it.
+            builder.append(i).append("JsonElement ").append(outVar).append(binary ? " = in.nextJson();\n" : " = new JsonParser().parse(in);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                // Implementation is generated separately and might not support streaming.
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName())
+                       .append(binary ? ".fromJsonElement(in.nextJson(), false);\n" : ".fromJsonElement(new JsonParser().parse(in), false);\n");
+            } else {
+                String rawClassName = rawClass.getName().replace('$', '.');
+                if (binary) {
+                    builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = null;\n");
+                    builder.append(i).append("if (!in.skipNull()) {\n");
+                    builder.append(i).append("  ").append(outVar).append(" = ");
+                    if (rawClass == String.class) {
+                        builder.append("in.nextString();\n");
+                    } else if (rawClass == Boolean.class) {
+                        builder.append("in.nextBoolean();\n");
+                    } else if (rawClass == Integer.class) {
+                        builder.append("in.nextInt();\n");
+                    } else if (rawClass == Long.class) {
+                        builder.append("in.nextLong();\n");
+                    } else if (rawClass == Double.class) {
+                        builder.append("in.nextDouble();\n");
+                    } else if (rawClass == Float.class) {
+                        builder.append("(float)in.nextDouble();\n");
+                    } else if (rawClass == Short.class) {
+                        builder.append("(short)in.nextInt();\n");
+                    } else if (rawClass == Byte.class) {
+                        builder.append("(byte)in.nextInt();\n");
+                    } else if (rawClass.isEnum()) {
+                        builder.append(rawClassName).append(".valueOf(in.nextString());\n");
+                    } else {
+                        // Use gson to handle all other types.
+                        builder.append("gson.fromJson(in.nextJson(), ").append(rawClassName).append(".class);\n");
+                    }
+                    builder.append(i).append("}\n");
+                } else {
+                    // Use gson to handle all other types.
+                    builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(in, ").append(rawClassName)
+                           .append(".class);\n");
+                }
+            }
+        }
+    }
+
     /**
      * Append the expression that clones the given JsonElement variable into a new value. If the copyJons run-time
      * parameter is set to false, then the expression won't perform a clone but instead will reuse the variable by
@@ -643,7 +1025,7 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
         builder.append(" implements ");
         builder.append(dtoInterface.getCanonicalName());
-        builder.append(", JsonSerializable ");
+        builder.append(", JsonSerializable, BinarySerializable ");
         builder.append(" {\n\n");
         emitFactoryMethod(builder);
         emitDefaultConstructor(builder);
@@ -0,0 +1,535 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.eclipse.che.dto.server.BinaryDtoWriter.ARRAY;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.DOUBLE;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.FALSE;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.FLOAT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.INDEXED;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.INT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.NULL;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.NUMBER;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.OBJECT;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.STRING;
+import static org.eclipse.che.dto.server.BinaryDtoWriter.TRUE;
+
+/**
+ * Reads DTOs written by {@link BinaryDtoWriter}. API is similar to API of {@link com.google.gson.stream.JsonReader}. Methods throw
+ * {@link IllegalStateException} if the next value has unexpected type and {@link EOFException} if stream ends unexpectedly.
+ * <p/>
+ * Data usually comes from remote side, so reader doesn't trust lengths written in stream. Reader fails with {@link
+ * IllegalStateException} if stream is longer than limit passed to constructor and doesn't allocate memory for strings before
+ * their bytes are actually read.
+ * <p/>
+ * Instances of this class are not thread-safe.
+ *
+ * @author agent
+ */
+public final class BinaryDtoReader {
+    /** Max length of stream in bytes if it isn't passed to constructor. */
+    public static final long DEFAULT_MAX_LENGTH = Long.getLong("org.eclipse.che.dto.binary.max_length", 64 * 1024 * 1024);
+
+    /* Strings longer than this are read by chunks of this size. */
+    private static final int STRING_CHUNK_SIZE = 8192;
+
+    private static final String[] TAG_NAMES = {"NULL", "FALSE", "TRUE", "INT", "DOUBLE", "FLOAT", "NUMBER", "STRING", "ARRAY", "OBJECT",
+                                               "INDEXED"};
+
+    /* State of object and indexed object. */
+    private static final int EXPECT_KEY = 0;
+    private static final int HAS_KEY    = 1;
+    private static final int END        = 2;
+
+    private final InputStream  in;
+    private final long         maxLength;
+    private final List<String> names;
+    private final byte[]       buffer;
+
+    /* Number of bytes read from stream. */
+    private long     position;
+
+    /* Tag of the next value or -1 if it is not read yet. */
+    private int      peeked;
+    /* Stack of containers. */
+    private int[]    containers;
+    /* Number of remaining elements of array or state of object. */
+    private long[]   states;
+    private int      depth;
+    /* Name or index of the current field. */
+    private String   name;
+    private int      index;
+
+    public BinaryDtoReader(InputStream in) {
+        this(in, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param in
+     *         stream to read
+     * @param maxLength
+     *         max number of bytes that may be read from {@code in}
+     */
+    public BinaryDtoReader(InputStream in, long maxLength) {
+        this.in = in;
+        this.maxLength = maxLength;
+        names = new ArrayList<>();
+        buffer = new byte[8];
+        peeked = -1;
+        containers = new int[16];
+        states = new long[16];
+    }
+
+    /** Returns {@code true} if current array or object has more elements. */
+    public boolean hasNext() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Not in array or object. ");
+        }
+        final int container = containers[depth - 1];
+        if (container == ARRAY) {
+            return states[depth - 1] > 0;
+        }
+        if (states[depth - 1] == EXPECT_KEY) {
+            final long key = readVarint();
+            if (key == 0) {
+                states[depth - 1] = END;
+            } else {
+                if (container == INDEXED) {
+                    if (key < 0 || key > Integer.MAX_VALUE) {
+                        throw new IllegalStateException("Index out of range: " + key);
+                    }
+                    index = (int)key;
+                } else if ((key & 1) == 1) {
+                    name = readString();
+                    names.add(name);
+                } else {
+                    final long id = key / 2 - 1;
+                    if (id >= names.size()) {
+                        throw new IllegalStateException("Unknown name reference: " + key);
+                    }
+                    name = names.get((int)id);
+                }
+                states[depth - 1] = HAS_KEY;
+            }
+        }
+        return states[depth - 1] == HAS_KEY;
+    }
+
+    /** Returns tag of the next value. Tags are constants of {@link BinaryDtoWriter}. */
+    int peek() throws IOException {
+        if (peeked < 0) {
+            if (depth > 0 && containers[depth - 1] != ARRAY && states[depth - 1] != HAS_KEY) {
+                throw new IllegalStateException("Name of field is expected. ");
+            }
+            peeked = readByte();
+            if (peeked > INDEXED) {
+                throw new IllegalStateException("Unknown tag: " + peeked);
+            }
+        }
+        return peeked;
+    }
+
+    public String nextName() throws IOException {
+        checkKey(OBJECT);
+        return name;
+    }
+
+    public int nextIndex() throws IOException {
+        checkKey(INDEXED);
+        return index;
+    }
+
+    public int beginArray() throws IOException {
+        expect(ARRAY);
+        final long size = readVarint();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Array is too big: " + size);
+        }
+        push(ARRAY, size);
+        return (int)size;
+    }
+
+    public void endArray() {
+        pop(ARRAY);
+    }
+
+    public void beginObject() throws IOException {
+        expect(OBJECT);
+        push(OBJECT, EXPECT_KEY);
+    }
+
+    public void endObject() throws IOException {
+        pop(OBJECT);
+    }
+
+    public void beginIndexed() throws IOException {
+        expect(INDEXED);
+        push(INDEXED, EXPECT_KEY);
+    }
+
+    public void endIndexed() throws IOException {
+        pop(INDEXED);
+    }
+
+    /** Consumes the next value if it is {@code null}. */
+    public boolean skipNull() throws IOException {
+        if (peek() == NULL) {
+            expect(NULL);
+            return true;
+        }
+        return false;
+    }
+
+    public void nextNull() throws IOException {
+        expect(NULL);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        final int tag = peek();
+        if (tag != TRUE && tag != FALSE) {
+            throw unexpected("boolean", tag);
+        }
+        expect(tag);
+        return tag == TRUE;
+    }
+
+    public String nextString() throws IOException {
+        final int tag = peek();
+        if (tag == STRING) {
+            expect(STRING);
+            return readString();
+        }
+        if (tag == INT || tag == DOUBLE || tag == FLOAT || tag == NUMBER) {
+            return readNumber().toString();
+        }
+        throw unexpected("string", tag);
+    }
+
+    public long nextLong() throws IOException {
+        final int tag = peek();
+        if (tag == INT) {
+            expect(INT);
+            final long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+        final Number number = nextNumber("long");
+        final double asDouble = number.doubleValue();
+        final long result = (long)asDouble;
+        if (result != asDouble) {
+            throw new NumberFormatException("Expected a long but was " + number);
+        }
+        return result;
+    }
+
+    public int nextInt() throws IOException {
+        final long value = nextLong();
+        if (value != (int)value) {
+            throw new NumberFormatException("Expected an int but was " + value);
+        }
+        return (int)value;
+    }
+
+    public double nextDouble() throws IOException {
+        return nextNumber("double").doubleValue();
+    }
+
+    /** Reads the next value of any type as JSON. Indexed objects are read as JSON arrays, absent indexes are filled with nulls. */
+    public JsonElement nextJson() throws IOException {
+        switch (peek()) {
+            case NULL:
+                expect(NULL);
+                return JsonNull.INSTANCE;
+            case FALSE:
+            case TRUE:
+                return new JsonPrimitive(nextBoolean());
+            case INT:
+            case DOUBLE:
+            case FLOAT:
+            case NUMBER:
+                return new JsonPrimitive(readNumber());
+            case STRING:
+                return new JsonPrimitive(nextString());
+            case ARRAY: {
+                final JsonArray array = new JsonArray();
+                beginArray();
+                while (hasNext()) {
+                    array.add(nextJson());
+                }
+                endArray();
+                return array;
+            }
+            case OBJECT: {
+                final JsonObject object = new JsonObject();
+                beginObject();
+                while (hasNext()) {
+                    final String name = nextName();
+                    object.add(name, nextJson());
+                }
+                endObject();
+                return object;
+            }
+            default: {
+                final JsonArray array = new JsonArray();
+                beginIndexed();
+                while (hasNext()) {
+                    final int index = nextIndex();
+                    while (array.size() < index - 1) {
+                        array.add(JsonNull.INSTANCE);
+                    }
+                    final JsonElement value = nextJson();
+                    if (array.size() >= index) {
+                        array.set(index - 1, value);
+                    } else {
+                        array.add(value);
+                    }
+                }
+                endIndexed();
+                return array;
+            }
+        }
+    }
+
+    /** Skips the next value. */
+    public void skipValue() throws IOException {
+        switch (peek()) {
+            case ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case INDEXED:
+                beginIndexed();
+                while (hasNext()) {
+                    nextIndex();
+                    skipValue();
+                }
+                endIndexed();
+                break;
+            case STRING:
+                expect(STRING);
+                skip(readLength());
+                break;
+            case INT:
+            case DOUBLE:
+            case FLOAT:
+            case NUMBER:
+                readNumber();
+                break;
+            default:
+                expect(peek());
+        }
+    }
+
+    private Number nextNumber(String expected) throws IOException {
+        final int tag = peek();
+        if (tag == STRING) {
+            expect(STRING);
+            return new LazilyParsedNumber(readString());
+        }
+        if (tag == INT || tag == DOUBLE || tag == FLOAT || tag == NUMBER) {
+            return readNumber();
+        }
+        throw unexpected(expected, tag);
+    }
+
+    private Number readNumber() throws IOException {
+        final int tag = peek();
+        expect(tag);
+        switch (tag) {
+            case INT: {
+                final long value = readVarint();
+                final long decoded = (value >>> 1) ^ -(value & 1);
+                if (decoded == (int)decoded) {
+                    return (int)decoded;
+                }
+                return decoded;
+            }
+            case DOUBLE:
+                return Double.longBitsToDouble(readLong(8));
+            case FLOAT:
+                return Float.intBitsToFloat((int)readLong(4));
+            default:
+                return new LazilyParsedNumber(readString());
+        }
+    }
+
+    private void checkKey(int container) throws IOException {
+        if (depth == 0 || containers[depth - 1] != container) {
+            throw new IllegalStateException("Not in " + TAG_NAMES[container] + ". ");
+        }
+        if (!hasNext()) {
+            throw new IllegalStateException("No more fields. ");
+        }
+    }
+
+    /** Consumes tag of the next value and checks it. */
+    private void expect(int tag) throws IOException {
+        final int actual = peek();
+        if (actual != tag) {
+            throw unexpected(TAG_NAMES[tag], actual);
+        }
+        peeked = -1;
+        if (depth > 0) {
+            if (containers[depth - 1] == ARRAY) {
+                states[depth - 1]--;
+            } else {
+                states[depth - 1] = EXPECT_KEY;
+            }
+        }
+    }
+
+    private IllegalStateException unexpected(String expected, int actual) {
+        return new IllegalStateException("Expected " + expected + " but was " + TAG_NAMES[actual]);
+    }
+
+    private void push(int container, long state) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            states = Arrays.copyOf(states, depth * 2);
+        }
+        containers[depth] = container;
+        states[depth] = state;
+        depth++;
+    }
+
+    private void pop(int container) {
+        if (depth == 0 || containers[depth - 1] != container) {
+            throw new IllegalStateException("Not in " + TAG_NAMES[container] + ". ");
+        }
+        if (container == ARRAY ? states[depth - 1] != 0 : states[depth - 1] != END) {
+            throw new IllegalStateException("End of " + TAG_NAMES[container] + " expected. ");
+        }
+        depth--;
+    }
+
+    private int readByte() throws IOException {
+        checkLength(1);
+        final int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        position++;
+        return b;
+    }
+
+    /* Fails if reading of the next length bytes exceeds limit of the stream. */
+    private void checkLength(long length) {
+        if (length > maxLength - position) {
+            throw new IllegalStateException("Data is too long, max length is " + maxLength + " bytes. ");
+        }
+    }
+
+    /* Reads length of string and checks it against limit of the stream. */
+    private long readLength() throws IOException {
+        final long length = readVarint();
+        if (length < 0) {
+            throw new IllegalStateException("Invalid length: " + length);
+        }
+        checkLength(length);
+        return length;
+    }
+
+    private long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            result |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint. ");
+    }
+
+    private long readLong(int bytes) throws IOException {
+        readFully(buffer, bytes);
+        long result = 0;
+        for (int i = 0; i < bytes; i++) {
+            result = (result << 8) | (buffer[i] & 0xFF);
+        }
+        return result;
+    }
+
+    private String readString() throws IOException {
+        final long length = readLength();
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("String is too long: " + length);
+        }
+        if (length <= STRING_CHUNK_SIZE) {
+            final byte[] bytes = new byte[(int)length];
+            readFully(bytes, bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        // Length isn't trusted, so buffer grows only with data that is actually read.
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(STRING_CHUNK_SIZE);
+        final byte[] chunk = new byte[STRING_CHUNK_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            final int size = (int)Math.min(remaining, chunk.length);
+            readFully(chunk, size);
+            bytes.write(chunk, 0, size);
+            remaining -= size;
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private void readFully(byte[] bytes, int length) throws IOException {
+        checkLength(length);
+        int offset = 0;
+        while (offset < length) {
+            final int r = in.read(bytes, offset, length - offset);
+            if (r < 0) {
+                throw new EOFException();
+            }
+            offset += r;
+        }
+        position += length;
+    }
+
+    private void skip(long length) throws IOException {
+        while (length > 0) {
+            final long skipped = in.skip(length);
+            if (skipped <= 0) {
+                readByte();
+                length--;
+            } else {
+                position += skipped;
+                length -= skipped;
+            }
+        }
+    }
+}
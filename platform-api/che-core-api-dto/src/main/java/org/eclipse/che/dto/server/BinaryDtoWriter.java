@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes DTOs in compact binary format. API is similar to API of {@link com.google.gson.stream.JsonWriter}.
+ * <p/>
+ * Every value starts with one byte tag:
+ * <ul>
+ * <li>{@code NULL}, {@code FALSE}, {@code TRUE} - no data follows</li>
+ * <li>{@code INT} - zigzag encoded varint</li>
+ * <li>{@code DOUBLE}, {@code FLOAT} - 8 or 4 bytes of IEEE 754 value in big-endian byte order</li>
+ * <li>{@code NUMBER} - number that can't be represented by other numeric types, string with its decimal representation follows</li>
+ * <li>{@code STRING} - varint length in bytes and UTF-8 encoded characters</li>
+ * <li>{@code ARRAY} - varint number of elements and elements</li>
+ * <li>{@code OBJECT} - sequence of name references and values terminated by zero. Each name is written once per stream. Reference to
+ * name is varint, odd value means new name and its string follows, even value {@code 2 * (n + 1)} refers to the name that appeared in
+ * stream as {@code n}th</li>
+ * <li>{@code INDEXED} - sequence of varint indexes and values terminated by zero, used for DTOs that are serialized with
+ * {@link org.eclipse.che.dto.shared.SerializationIndex}. Index must be a positive integer</li>
+ * </ul>
+ * Fields with {@code null} values are not written, the same as they are omitted in JSON. Format is self-describing so any binary DTO
+ * may be converted to JSON with {@link BinaryDtoReader#nextJson()}.
+ * <p/>
+ * Instances of this class are not thread-safe.
+ *
+ * @author agent
+ */
+public final class BinaryDtoWriter implements Flushable {
+    static final int NULL    = 0;
+    static final int FALSE   = 1;
+    static final int TRUE    = 2;
+    static final int INT     = 3;
+    static final int DOUBLE  = 4;
+    static final int FLOAT   = 5;
+    static final int NUMBER  = 6;
+    static final int STRING  = 7;
+    static final int ARRAY   = 8;
+    static final int OBJECT  = 9;
+    static final int INDEXED = 10;
+
+    private final OutputStream         out;
+    private final Map<String, Integer> names;
+    private final byte[]               buffer;
+
+    /* Name of field that is written before its value. Value null skips name. */
+    private String deferredName;
+    /* Index of field that is written before its value, 0 if there is no index. */
+    private int    deferredIndex;
+
+    /**
+     * @param out
+     *         output stream, it should be buffered since writer writes it by small portions
+     */
+    public BinaryDtoWriter(OutputStream out) {
+        this.out = out;
+        names = new HashMap<>();
+        buffer = new byte[10];
+    }
+
+    public BinaryDtoWriter beginObject() throws IOException {
+        beforeValue();
+        out.write(OBJECT);
+        return this;
+    }
+
+    public BinaryDtoWriter endObject() throws IOException {
+        checkNoDeferred();
+        out.write(0);
+        return this;
+    }
+
+    /** Writes name of the next field in the object. Name is written together with the value of field. */
+    public BinaryDtoWriter name(String name) {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        checkNoDeferred();
+        deferredName = name;
+        return this;
+    }
+
+    public BinaryDtoWriter beginIndexed() throws IOException {
+        beforeValue();
+        out.write(INDEXED);
+        return this;
+    }
+
+    public BinaryDtoWriter endIndexed() throws IOException {
+        checkNoDeferred();
+        out.write(0);
+        return this;
+    }
+
+    /** Writes index of the next field in the indexed object. Index is written together with the value of field. */
+    public BinaryDtoWriter index(int index) {
+        if (index <= 0) {
+            throw new IllegalArgumentException("Index must be a positive integer: " + index);
+        }
+        checkNoDeferred();
+        deferredIndex = index;
+        return this;
+    }
+
+    /**
+     * Begins array with the specified number of elements. Exactly {@code size} values must be written before {@link #endArray()}.
+     */
+    public BinaryDtoWriter beginArray(int size) throws IOException {
+        beforeValue();
+        out.write(ARRAY);
+        writeVarint(size);
+        return this;
+    }
+
+    public BinaryDtoWriter endArray() {
+        checkNoDeferred();
+        return this;
+    }
+
+    /** Writes {@code null}. If {@code null} is value of the field, then the field is skipped. */
+    public BinaryDtoWriter nullValue() throws IOException {
+        if (deferredName != null || deferredIndex != 0) {
+            deferredName = null;
+            deferredIndex = 0;
+            return this;
+        }
+        out.write(NULL);
+        return this;
+    }
+
+    public BinaryDtoWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public BinaryDtoWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(INT);
+        writeVarint((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    public BinaryDtoWriter value(double value) throws IOException {
+        beforeValue();
+        out.write(DOUBLE);
+        writeLong(Double.doubleToLongBits(value), 8);
+        return this;
+    }
+
+    public BinaryDtoWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return value(value.longValue());
+        }
+        if (value instanceof Double) {
+            return value(value.doubleValue());
+        }
+        beforeValue();
+        if (value instanceof Float) {
+            out.write(FLOAT);
+            writeLong(Float.floatToIntBits(value.floatValue()), 4);
+        } else {
+            out.write(NUMBER);
+            writeString(value.toString());
+        }
+        return this;
+    }
+
+    public BinaryDtoWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        out.write(STRING);
+        writeString(value);
+        return this;
+    }
+
+    /** Writes JSON tree, JSON objects are written as objects with named fields. */
+    public BinaryDtoWriter value(JsonElement value) throws IOException {
+        if (value == null || value.isJsonNull()) {
+            return nullValue();
+        }
+        if (value.isJsonPrimitive()) {
+            final JsonPrimitive primitive = value.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                return value(primitive.getAsBoolean());
+            }
+            if (primitive.isNumber()) {
+                return value(primitive.getAsNumber());
+            }
+            return value(primitive.getAsString());
+        }
+        if (value.isJsonArray()) {
+            final JsonArray array = value.getAsJsonArray();
+            beginArray(array.size());
+            for (JsonElement element : array) {
+                value(element);
+            }
+            return endArray();
+        }
+        final JsonObject object = value.getAsJsonObject();
+        beginObject();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            name(entry.getKey());
+            value(entry.getValue());
+        }
+        return endObject();
+    }
+
+    /**
+     * Writes object of any supported type: {@link BinarySerializable}, {@link JsonElement}, {@link String}, {@link Number}, {@link
+     * Boolean}, {@link Enum}, {@link Collection} or {@link Map}. Unlike to fields of DTO, {@code null} elements of collections and
+     * values of maps are written.
+     *
+     * @throws IllegalArgumentException
+     *         if type of object is not supported
+     */
+    public BinaryDtoWriter anyValue(Object value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof BinarySerializable) {
+            ((BinarySerializable)value).writeTo(this);
+            return this;
+        }
+        if (value instanceof JsonElement) {
+            return value((JsonElement)value);
+        }
+        if (value instanceof String) {
+            return value((String)value);
+        }
+        if (value instanceof Number) {
+            return value((Number)value);
+        }
+        if (value instanceof Boolean) {
+            return value(((Boolean)value).booleanValue());
+        }
+        if (value instanceof Enum) {
+            return value(((Enum<?>)value).name());
+        }
+        if (value instanceof Collection) {
+            final Collection<?> collection = (Collection<?>)value;
+            beginArray(collection.size());
+            for (Object element : collection) {
+                anyValue(element);
+            }
+            return endArray();
+        }
+        if (value instanceof Map) {
+            beginObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet()) {
+                writeName(String.valueOf(entry.getKey()));
+                if (entry.getValue() == null) {
+                    out.write(NULL);
+                } else {
+                    anyValue(entry.getValue());
+                }
+            }
+            return endObject();
+        }
+        throw new IllegalArgumentException("Unable write " + value.getClass().getName() + " in binary format. ");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void beforeValue() throws IOException {
+        if (deferredName != null) {
+            final String name = deferredName;
+            deferredName = null;
+            writeName(name);
+        } else if (deferredIndex != 0) {
+            final int index = deferredIndex;
+            deferredIndex = 0;
+            writeVarint(index);
+        }
+    }
+
+    private void writeName(String name) throws IOException {
+        final Integer id = names.get(name);
+        if (id == null) {
+            names.put(name, names.size());
+            writeVarint(1);
+            writeString(name);
+        } else {
+            writeVarint(2L * (id + 1));
+        }
+    }
+
+    private void checkNoDeferred() {
+        if (deferredName != null || deferredIndex != 0) {
+            throw new IllegalStateException("Value of field is expected. ");
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarint(long value) throws IOException {
+        int i = 0;
+        while ((value & ~0x7FL) != 0) {
+            buffer[i++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[i++] = (byte)value;
+        out.write(buffer, 0, i);
+    }
+
+    private void writeLong(long value, int bytes) throws IOException {
+        for (int i = 0; i < bytes; i++) {
+            buffer[i] = (byte)(value >>> (8 * (bytes - 1 - i)));
+        }
+        out.write(buffer, 0, bytes);
+    }
+}
@@ -10,9 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.dto.server;
 
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.LoadingValueSLRUCache;
-import org.eclipse.che.commons.lang.cache.SynchronizedCache;
+import org.eclipse.che.commons.lang.cache.ConcurrentLoadingCache;
 import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
@@ -21,12 +19,17 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -44,20 +47,20 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class DtoFactory {
     private static final Gson gson = new GsonBuilder().serializeNulls().create();
 
-    private static final Cache<Type, ParameterizedType> listTypeCache = new SynchronizedCache<>(
-            new LoadingValueSLRUCache<Type, ParameterizedType>(16, 16) {
+    private static final ConcurrentLoadingCache<Type, ParameterizedType> listTypeCache =
+            new ConcurrentLoadingCache<Type, ParameterizedType>(32) {
                 @Override
                 protected ParameterizedType loadValue(Type type) {
                     return new ParameterizedTypeImpl(List.class, type);
                 }
-            });
-    private static final Cache<Type, ParameterizedType> mapTypeCache  = new SynchronizedCache<>(
-            new LoadingValueSLRUCache<Type, ParameterizedType>(16, 16) {
+            };
+    private static final ConcurrentLoadingCache<Type, ParameterizedType> mapTypeCache  =
+            new ConcurrentLoadingCache<Type, ParameterizedType>(32) {
                 @Override
                 protected ParameterizedType loadValue(Type type) {
                     return new ParameterizedTypeImpl(Map.class, String.class, type);
                 }
-            });
+            };
 
     private static final DtoFactory INSTANCE = new DtoFactory();
 
@@ -132,6 +135,50 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Writes DTO in JSON format to the specified writer. Unlike to {@link #toJson(Object)} it doesn't create JSON string in memory.
+     * Writer is not closed after writing.
+     *
+     * @param dto
+     *         DTO object
+     * @param writer
+     *         writer for JSON data
+     * @throws IllegalArgumentException
+     *         if specified object isn't instance of {@link JsonSerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> void toJson(T dto, Writer writer) throws IOException {
+        if (dto instanceof JsonSerializable) {
+            ((JsonSerializable)dto).writeTo(writer);
+            return;
+        }
+        throw new IllegalArgumentException("JsonSerializable instance required. ");
+    }
+
+    /**
+     * Writes DTO in binary format to the specified stream. Stream is not closed after writing.
+     *
+     * @param dto
+     *         DTO object
+     * @param out
+     *         stream for binary data
+     * @throws IllegalArgumentException
+     *         if specified object isn't instance of {@link BinarySerializable}
+     * @throws IOException
+     *         if an i/o error occurs
+     * @see BinaryDtoWriter
+     */
+    public <T> void toBinary(T dto, OutputStream out) throws IOException {
+        if (dto instanceof BinarySerializable) {
+            final BufferedOutputStream buffered = new BufferedOutputStream(out);
+            ((BinarySerializable)dto).writeTo(new BinaryDtoWriter(buffered));
+            buffered.flush();
+            return;
+        }
+        throw new IllegalArgumentException("BinarySerializable instance required. ");
+    }
+
     public <T> JsonElement toJsonElement(T dto) {
         if (dto instanceof JsonSerializable) {
             return ((JsonSerializable)dto).toJsonElement();
@@ -197,14 +244,15 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final JsonReader reader = newJsonReader(json);
+        try {
+            final T result = dtoProvider.fromJson(reader);
+            checkEndOfDocument(reader);
+            return result;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
-        return dtoProvider.fromJson(sb.toString());
     }
 
     /**
@@ -224,6 +272,29 @@ public final class DtoFactory {
         return createDtoFromJson(new InputStreamReader(json), dtoInterface);
     }
 
+    /**
+     * Creates new instance of class which implements specified DTO interface, reads specified binary data and uses it for initializing
+     * fields of DTO object.
+     *
+     * @param in
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs or data is malformed
+     * @see #toBinary(Object, OutputStream)
+     */
+    public <T> T createDtoFromBinary(InputStream in, Class<T> dtoInterface) throws IOException {
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        try {
+            return dtoProvider.fromBinary(newBinaryReader(in));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
     //
 
     /**
@@ -261,19 +332,17 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
+        final JsonReader reader = newJsonReader(json);
+        final List<T> result = new ArrayList<>();
         try {
-            list = gson.fromJson(json, listTypeCache.get(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
+            reader.endArray();
+            checkEndOfDocument(reader);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
         return new JsonArrayImpl<>(result);
     }
@@ -295,6 +364,35 @@ public final class DtoFactory {
         return createListDtoFromJson(new InputStreamReader(json), dtoInterface);
     }
 
+    /**
+     * Reads binary data from the specified stream into list of objects of the specified type.
+     *
+     * @param in
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @return list of DTO
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs or data is malformed
+     */
+    public <T> JsonArray<T> createListDtoFromBinary(InputStream in, Class<T> dtoInterface) throws IOException {
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final BinaryDtoReader reader = newBinaryReader(in);
+        try {
+            final List<T> result = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(dtoProvider.fromBinary(reader));
+            }
+            reader.endArray();
+            return new JsonArrayImpl<>(result);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
     //
 
     /**
@@ -332,22 +430,20 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
+        final JsonReader reader = newJsonReader(json);
+        final Map<String, T> result = new LinkedHashMap<>();
         try {
-            map = gson.fromJson(json, mapTypeCache.get(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                result.put(name, dtoProvider.fromJson(reader));
             }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
+            reader.endObject();
+            checkEndOfDocument(reader);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
         }
         return new JsonStringMapImpl<>(result);
     }
@@ -371,6 +467,23 @@ public final class DtoFactory {
 
     //
 
+    private static JsonReader newJsonReader(Reader json) {
+        final JsonReader reader = new JsonReader(json);
+        // The same as JsonParser does when parse JSON string.
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private static BinaryDtoReader newBinaryReader(InputStream in) {
+        return new BinaryDtoReader(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    }
+
+    private static void checkEndOfDocument(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document. ");
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
@@ -11,6 +11,9 @@
 package org.eclipse.che.dto.server;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
 
 /**
  * Provides implementation of DTO interface.
@@ -24,6 +27,12 @@ public interface DtoProvider<DTO> {
 
     DTO fromJson(JsonElement json);
 
+    /** Reads DTO from the stream without building JSON tree. */
+    DTO fromJson(JsonReader json) throws IOException;
+
+    /** Reads DTO in binary format. */
+    DTO fromBinary(BinaryDtoReader in) throws IOException;
+
     DTO newInstance();
 
     DTO clone(DTO origin);
@@ -14,13 +14,16 @@ import org.eclipse.che.dto.shared.JsonArray;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 
-public class JsonArrayImpl<T> implements JsonArray<T> {
+public class JsonArrayImpl<T> implements JsonArray<T>, BinarySerializable {
     private static final Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
 
     private final List<T> delegate;
@@ -159,6 +162,24 @@ public class JsonArrayImpl<T> implements JsonArray<T> {
         return gson.toJsonTree(this);
     }
 
+    @Override
+    public void writeTo(Writer writer) throws IOException {
+        try {
+            gson.toJson(this, writer);
+        } catch (JsonIOException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void writeTo(BinaryDtoWriter out) throws IOException {
+        out.anyValue(delegate);
+    }
+
     @Override
     public String toString() {
         return delegate.toString();
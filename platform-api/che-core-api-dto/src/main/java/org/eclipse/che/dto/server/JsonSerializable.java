@@ -13,7 +13,9 @@
 // limitations under the License.
 package org.eclipse.che.dto.server;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
 
 import com.google.gson.JsonElement;
 
@@ -25,4 +27,10 @@ public interface JsonSerializable extends Serializable {
 
     /** Serializes DTO to JSON object. */
     JsonElement toJsonElement();
+
+    /**
+     * Writes DTO in JSON format to the specified writer. Produces the same output as {@link #toJson()} but doesn't create JSON tree and
+     * string in memory. Writer is not closed after writing.
+     */
+    void writeTo(Writer writer) throws IOException;
 }
\ No newline at end of file
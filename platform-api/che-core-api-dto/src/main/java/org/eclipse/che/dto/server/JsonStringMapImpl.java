@@ -14,12 +14,15 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
-public class JsonStringMapImpl<T> implements JsonStringMap<T> {
+public class JsonStringMapImpl<T> implements JsonStringMap<T>, BinarySerializable {
     private static final Gson gson = new GsonBuilder().disableHtmlEscaping().serializeNulls().create();
 
     private final Map<String, T> delegate;
@@ -106,6 +109,24 @@ public class JsonStringMapImpl<T> implements JsonStringMap<T> {
         return gson.toJsonTree(this);
     }
 
+    @Override
+    public void writeTo(Writer writer) throws IOException {
+        try {
+            gson.toJson(this, writer);
+        } catch (JsonIOException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void writeTo(BinaryDtoWriter out) throws IOException {
+        out.anyValue(delegate);
+    }
+
     @Override
     public String toString() {
         return delegate.toString();
@@ -25,10 +25,16 @@ import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
+import org.eclipse.che.dto.server.BinaryDtoReader;
+import org.eclipse.che.dto.server.BinaryDtoWriter;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -325,6 +331,129 @@ public class ServerDtoTest {
         assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void testStreamingSerializerWritesTheSameJsonAsTreeSerializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("<Something>").withId(1);
+        Map<String, SimpleDto> mapDtos = new HashMap<>(2);
+        mapDtos.put("first", simpleDto);
+        mapDtos.put("second", null);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("Something 1", null))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(asList(simpleDto, null))
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, null)));
+        DtoWithAny dtoWithAny = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                          .withObjects(createListTestValueForAny());
+
+        for (Object object : asList(dto, dtoWithAny, dtoFactory.createDto(DtoWithAny.class))) {
+            StringWriter writer = new StringWriter();
+            dtoFactory.toJson(object, writer);
+            assertEquals(writer.toString(), dtoFactory.toJson(object));
+        }
+    }
+
+    @Test
+    public void testStreamingDeserializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1).withDefault("default");
+        Map<String, SimpleDto> mapDtos = new HashMap<>(1);
+        mapDtos.put("first", simpleDto);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("Something 1", "Something 2"))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.THREE)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(asList(simpleDto, null))
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE)));
+        JsonObject json = new JsonParser().parse(dtoFactory.toJson(dto)).getAsJsonObject();
+        json.add("unknown", new JsonParser().parse("{a:[1,2,{b:null}]}"));
+
+        ComplicatedDto fromReader = dtoFactory.createDtoFromJson(new StringReader(json.toString()), ComplicatedDto.class);
+
+        assertEquals(fromReader, dto);
+        assertEquals(fromReader, dtoFactory.createDtoFromJson(json.toString(), ComplicatedDto.class));
+        List<SimpleDto> list = dtoFactory.createListDtoFromJson(new StringReader("[" + dtoFactory.toJson(simpleDto) + ",null]"),
+                                                                SimpleDto.class);
+        assertEquals(list, asList(simpleDto, null));
+    }
+
+    @Test
+    public void testBinarySerializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("<Something>").withId(-1).withDefault("default");
+        Map<String, SimpleDto> mapDtos = new HashMap<>(2);
+        mapDtos.put("first", simpleDto);
+        mapDtos.put("second", null);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("Something 1", null))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(asList(simpleDto, null, simpleDto))
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, null)));
+        DtoWithAny dtoWithAny = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                          .withObjects(createListTestValueForAny());
+
+        for (Object object : asList(dto, dtoWithAny, dtoFactory.createDto(DtoWithAny.class))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            dtoFactory.toBinary(object, out);
+            byte[] bytes = out.toByteArray();
+            assertTrue(bytes.length < dtoFactory.toJson(object).length());
+
+            Object fromBinary = dtoFactory.createDtoFromBinary(new ByteArrayInputStream(bytes), object.getClass().getInterfaces()[0]);
+            assertEquals(dtoFactory.toJson(fromBinary), dtoFactory.toJson(object));
+            // Binary format may be converted to JSON without knowing type of DTO.
+            JsonElement json = new BinaryDtoReader(new ByteArrayInputStream(bytes)).nextJson();
+            assertEquals(json, new JsonParser().parse(dtoFactory.toJson(object)));
+        }
+    }
+
+    @Test
+    public void testBinaryDeserializerSkipsUnknownFields() throws Exception {
+        JsonObject json = new JsonParser().parse("{\"id\":1,\"unknown\":{\"a\":[1,2,{\"b\":1.5}]},\"name\":\"Something\"}")
+                                          .getAsJsonObject();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDtoWriter writer = new BinaryDtoWriter(out);
+        writer.beginArray(2);
+        writer.value(json);
+        writer.nullValue();
+        writer.endArray();
+
+        List<SimpleDto> list = dtoFactory.createListDtoFromBinary(new ByteArrayInputStream(out.toByteArray()), SimpleDto.class);
+
+        assertEquals(list, asList(dtoFactory.createDto(SimpleDto.class).withId(1).withName("Something"), null));
+    }
+
+    @Test
+    public void testBinaryDeserializerReadsLongString() throws Exception {
+        String value = new String(new char[100000]).replace('\0', 'x');
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryDtoWriter(out).value(value).flush();
+
+        assertEquals(new BinaryDtoReader(new ByteArrayInputStream(out.toByteArray())).nextString(), value);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBinaryDeserializerRejectsDataLongerThanLimit() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryDtoWriter(out).value(new String(new char[100]).replace('\0', 'x')).flush();
+
+        new BinaryDtoReader(new ByteArrayInputStream(out.toByteArray()), 50).nextString();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBinaryDeserializerRejectsLengthOfStringThatExceedsLimit() throws Exception {
+        // STRING tag followed by length Integer.MAX_VALUE and no data
+        byte[] bytes = {7, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07};
+
+        new BinaryDtoReader(new ByteArrayInputStream(bytes)).nextString();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testBinaryDeserializerRejectsNegativeLengthOfString() throws Exception {
+        // STRING tag followed by 10-byte varint that is decoded to -1
+        byte[] bytes = {7, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x01};
+
+        new BinaryDtoReader(new ByteArrayInputStream(bytes)).nextString();
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         assertEquals(dto.getName(), expectedName);
         assertEquals(dto.getId(), expectedId);
@@ -33,11 +33,11 @@ import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 
 import org.eclipse.che.api.vfs.server.Path;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemRegistry;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.commons.lang.cache.Cache;
-import org.eclipse.che.commons.lang.cache.SLRUCache;
+import org.eclipse.che.commons.lang.cache.ConcurrentLoadingCache;
 import org.eclipse.che.dto.server.DtoFactory;
 
 import org.slf4j.Logger;
@@ -62,6 +62,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -72,12 +74,15 @@ import java.util.concurrent.locks.ReentrantLock;
 public final class DefaultProjectManager implements ProjectManager {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultProjectManager.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
+    private static final int CACHE_NUM       = 1 << 2;
+    private static final int CACHE_MASK      = CACHE_NUM - 1;
+    private static final int MISC_CACHE_SIZE = 256;
 
-    private final Lock[]                                     miscLocks;
-    private final Cache<Pair<String, String>, ProjectMisc>[] miscCaches;
+    private final Lock[]                                                    miscLocks;
+    private final ConcurrentLoadingCache<Pair<String, String>, ProjectMisc> miscCache;
+    // Updated ProjectMisc evicted from cache but not saved yet. Cache may evict entry of any project while lock for another
+    // project is held, so evicted entries are saved later, see writeEvictedProjectMisc.
+    private final ConcurrentMap<Pair<String, String>, ProjectMisc>          evictedMisc;
 
     private final VirtualFileSystemRegistry         fileSystemRegistry;
     private final EventService                      eventService;
@@ -87,7 +92,6 @@ public final class DefaultProjectManager implements ProjectManager {
 
 
     @Inject
-    @SuppressWarnings("unchecked")
     public DefaultProjectManager(VirtualFileSystemRegistry fileSystemRegistry,
                                  EventService eventService,
                                  ProjectTypeRegistry projectTypeRegistry,
@@ -100,59 +104,72 @@ public final class DefaultProjectManager implements ProjectManager {
         this.handlers = handlers;
 
 
-        this.miscCaches = new Cache[CACHE_NUM];
         this.miscLocks = new Lock[CACHE_NUM];
         for (int i = 0; i < CACHE_NUM; i++) {
             miscLocks[i] = new ReentrantLock();
-            miscCaches[i] = new SLRUCache<Pair<String, String>, ProjectMisc>(SEG_SIZE, SEG_SIZE) {
-                @Override
-                protected void evict(Pair<String, String> key, ProjectMisc value) {
-                    if (value.isUpdated()) {
-                        final int index = key.hashCode() & CACHE_MASK;
-                        miscLocks[index].lock();
-                        try {
-                            writeProjectMisc(value.getProject(), value);
-                        } catch (Exception e) {
-                            LOG.error(e.getMessage(), e);
-                        } finally {
-                            miscLocks[index].unlock();
-                        }
-                        super.evict(key, value);
-                    }
-                }
-            };
         }
+        this.evictedMisc = new ConcurrentHashMap<>();
+        this.miscCache = new ConcurrentLoadingCache<Pair<String, String>, ProjectMisc>(MISC_CACHE_SIZE) {
+            @Override
+            protected void evict(Pair<String, String> key, ProjectMisc value, RemovalCause cause) {
+                // Save changes of evicted value. Explicitly removed or replaced value is saved by method saveProjectMisc.
+                // Don't take lock here, caller may hold lock of another project.
+                if ((cause == RemovalCause.SIZE || cause == RemovalCause.CLEARED) && value.isUpdated()) {
+                    evictedMisc.put(key, value);
+                }
+            }
+        };
 
         vfsSubscriber = new EventSubscriber<VirtualFileEvent>() {
             @Override
             public void onEvent(VirtualFileEvent event) {
                 final String workspace = event.getWorkspaceId();
-                final String path = event.getPath();
-                if (path.endsWith(Constants.CODENVY_MISC_FILE_RELATIVE_PATH)) {
-                    return;
-                }
                 switch (event.getType()) {
                     case CONTENT_UPDATED:
                     case CREATED:
                     case DELETED:
                     case MOVED:
                     case RENAMED: {
-                        final int length = path.length();
-                        for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
-                            final String projectPath = path.substring(0, i);
-                            try {
-                                final Project project = getProject(workspace, projectPath);
-                                if (project != null) {
-                                    getProjectMisc(project).setModificationDate(System.currentTimeMillis());
-                                }
-                            } catch (Exception e) {
-                                LOG.error(e.getMessage(), e);
+                        final String path = event.getPath();
+                        if (!path.endsWith(Constants.CODENVY_MISC_FILE_RELATIVE_PATH)) {
+                            updateModificationDate(workspace, getParentPaths(path, new LinkedHashSet<String>()));
+                        }
+                        break;
+                    }
+                    case CHANGESET: {
+                        // Many items are usually changed in the same folders, update each project just once.
+                        final Set<String> parentPaths = new LinkedHashSet<>();
+                        for (ChangesetEvent.Change change : ((ChangesetEvent)event).getChanges()) {
+                            if (!change.getPath().endsWith(Constants.CODENVY_MISC_FILE_RELATIVE_PATH)) {
+                                getParentPaths(change.getPath(), parentPaths);
                             }
                         }
+                        updateModificationDate(workspace, parentPaths);
                         break;
                     }
                 }
             }
+
+            private Set<String> getParentPaths(String path, Set<String> parentPaths) {
+                final int length = path.length();
+                for (int i = 1; i < length && (i = path.indexOf('/', i)) > 0; i++) {
+                    parentPaths.add(path.substring(0, i));
+                }
+                return parentPaths;
+            }
+
+            private void updateModificationDate(String workspace, Set<String> paths) {
+                for (String projectPath : paths) {
+                    try {
+                        final Project project = getProject(workspace, projectPath);
+                        if (project != null) {
+                            getProjectMisc(project).setModificationDate(System.currentTimeMillis());
+                        }
+                    } catch (Exception e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            }
         };
     }
 
@@ -428,16 +445,26 @@ public final class DefaultProjectManager implements ProjectManager {
         final String path = project.getPath();
         final Pair<String, String> key = Pair.of(workspace, path);
         final int index = key.hashCode() & CACHE_MASK;
+        ProjectMisc misc = miscCache.getIfPresent(key);
+        if (misc != null) {
+            return misc;
+        }
         miscLocks[index].lock();
         try {
-            ProjectMisc misc = miscCaches[index].get(key);
+            misc = miscCache.getIfPresent(key);
             if (misc == null) {
-                miscCaches[index].put(key, misc = readProjectMisc(project));
+                // Evicted but not saved yet, file may contain out of date data.
+                misc = evictedMisc.get(key);
+                if (misc == null) {
+                    misc = readProjectMisc(project);
+                }
+                miscCache.put(key, misc);
             }
-            return misc;
         } finally {
             miscLocks[index].unlock();
         }
+        writeEvictedProjectMisc();
+        return misc;
     }
 
 
@@ -507,9 +534,29 @@ public final class DefaultProjectManager implements ProjectManager {
             final int index = key.hashCode() & CACHE_MASK;
             miscLocks[index].lock();
             try {
-                miscCaches[index].remove(key);
+                miscCache.remove(key);
+                evictedMisc.remove(key);
                 writeProjectMisc(project, misc);
-                miscCaches[index].put(key, misc);
+                miscCache.put(key, misc);
+            } finally {
+                miscLocks[index].unlock();
+            }
+            writeEvictedProjectMisc();
+        }
+    }
+
+    /** Saves ProjectMisc evicted from cache. Must not be called while holding any of miscLocks. */
+    private void writeEvictedProjectMisc() {
+        for (Pair<String, String> key : evictedMisc.keySet()) {
+            final int index = key.hashCode() & CACHE_MASK;
+            miscLocks[index].lock();
+            try {
+                final ProjectMisc misc = evictedMisc.remove(key);
+                if (misc != null) {
+                    writeProjectMisc(misc.getProject(), misc);
+                }
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
             } finally {
                 miscLocks[index].unlock();
             }
@@ -561,14 +608,8 @@ public final class DefaultProjectManager implements ProjectManager {
     @PreDestroy
     void stop() {
         eventService.unsubscribe(vfsSubscriber);
-        for (int i = 0, length = miscLocks.length; i < length; i++) {
-            miscLocks[i].lock();
-            try {
-                miscCaches[i].clear();
-            } finally {
-                miscLocks[i].unlock();
-            }
-        }
+        miscCache.clear();
+        writeEvictedProjectMisc();
     }
 
 
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Values bound to paths and indexed by path segments. Allows to find values bound to all folders that contain some path by walking
+ * over segments of that path only, regardless of number of bound paths.
+ * <p/>
+ * Reading is safe while trie is modified. Modifications must not be concurrent to each other.
+ *
+ * @author agent
+ */
+final class PathTrie<T> {
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Binds value to path.
+     *
+     * @return {@code false} if value is already bound to path
+     */
+    boolean add(String path, T value) {
+        Node<T> node = root;
+        for (String segment : split(path)) {
+            Node<T> child = node.children.get(segment);
+            if (child == null) {
+                node.children.put(segment, child = new Node<>());
+            }
+            node = child;
+        }
+        return node.values.add(value);
+    }
+
+    /**
+     * Unbinds value from path. Nodes that don't have values and children anymore are removed.
+     *
+     * @return {@code false} if value isn't bound to path
+     */
+    boolean remove(String path, T value) {
+        final List<String> segments = split(path);
+        final List<Node<T>> nodes = new ArrayList<>(segments.size() + 1);
+        Node<T> node = root;
+        nodes.add(node);
+        for (String segment : segments) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return false;
+            }
+            nodes.add(node);
+        }
+        if (!node.values.remove(value)) {
+            return false;
+        }
+        for (int i = segments.size(); i > 0 && nodes.get(i).isEmpty(); i--) {
+            nodes.get(i - 1).children.remove(segments.get(i - 1));
+        }
+        return true;
+    }
+
+    boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    /** Gets values bound to all folders that contain specified path. Values bound to path itself aren't included. */
+    List<T> getAncestorValues(String path) {
+        List<T> result = null;
+        Node<T> node = root;
+        final int length = path.length();
+        int start = 0;
+        while (node != null) {
+            while (start < length && path.charAt(start) == '/') {
+                start++;
+            }
+            if (start == length) {
+                // Reached node of path itself.
+                break;
+            }
+            if (!node.values.isEmpty()) {
+                if (result == null) {
+                    result = new ArrayList<>(node.values);
+                } else {
+                    result.addAll(node.values);
+                }
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.children.get(path.substring(start, end));
+            start = end;
+        }
+        return result == null ? Collections.<T>emptyList() : result;
+    }
+
+    private static List<String> split(String path) {
+        final List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static final class Node<T> {
+        final ConcurrentMap<String, Node<T>> children = new ConcurrentHashMap<>();
+        final Set<T>                         values   = new CopyOnWriteArraySet<>();
+
+        boolean isEmpty() {
+            return values.isEmpty() && children.isEmpty();
+        }
+    }
+}
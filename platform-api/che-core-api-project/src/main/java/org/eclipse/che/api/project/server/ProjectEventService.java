@@ -12,110 +12,157 @@ package org.eclipse.che.api.project.server;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
 import org.eclipse.che.api.vfs.server.observation.MoveEvent;
 import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Notifies {@link ProjectEventListener}s about changes of files in their projects. Single subscriber of {@link VirtualFileEvent}s
+ * dispatches each event only to listeners of projects that contain changed file. Listeners are indexed by workspace and then by
+ * path of project, so cost of dispatching doesn't depend on number of listeners of other workspaces and projects.
+ *
  * @author andrew00x
  */
 @Singleton
 @Deprecated
 public final class ProjectEventService {
-    private final EventService                    eventService;
-    private final Set<VirtualFileEventSubscriber> subscribers;
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectEventService.class);
+
+    private final EventService                                  eventService;
+    private final VirtualFileEventDispatcher                    dispatcher;
+    /** Listeners of each workspace, bound to paths of their projects. */
+    private final ConcurrentMap<String, PathTrie<Subscription>> subscriptions;
 
     @Inject
     public ProjectEventService(EventService eventService) {
         this.eventService = eventService;
-        subscribers = new CopyOnWriteArraySet<>();
+        dispatcher = new VirtualFileEventDispatcher();
+        subscriptions = new ConcurrentHashMap<>();
+    }
+
+    public synchronized boolean addListener(String workspace, String project, ProjectEventListener listener) {
+        PathTrie<Subscription> workspaceSubscriptions = subscriptions.get(workspace);
+        if (workspaceSubscriptions == null) {
+            workspaceSubscriptions = new PathTrie<>();
+        }
+        final Subscription subscription = new Subscription(project, listener);
+        if (!workspaceSubscriptions.add(subscription.projectPath, subscription)) {
+            return false;
+        }
+        if (subscriptions.isEmpty()) {
+            eventService.subscribe(dispatcher);
+        }
+        subscriptions.put(workspace, workspaceSubscriptions);
+        return true;
     }
 
-    public boolean addListener(String workspace, String project, ProjectEventListener listener) {
-        final VirtualFileEventSubscriber subscriber = new VirtualFileEventSubscriber(workspace, project, listener);
-        if (subscribers.add(subscriber)) {
-            eventService.subscribe(subscriber);
-            return true;
+    public synchronized boolean removeListener(String workspace, String project, ProjectEventListener listener) {
+        final PathTrie<Subscription> workspaceSubscriptions = subscriptions.get(workspace);
+        if (workspaceSubscriptions == null) {
+            return false;
         }
-        return false;
+        final Subscription subscription = new Subscription(project, listener);
+        if (!workspaceSubscriptions.remove(subscription.projectPath, subscription)) {
+            return false;
+        }
+        if (workspaceSubscriptions.isEmpty()) {
+            subscriptions.remove(workspace);
+            if (subscriptions.isEmpty()) {
+                eventService.unsubscribe(dispatcher);
+            }
+        }
+        return true;
     }
 
-    public boolean removeListener(String workspace, String project, ProjectEventListener listener) {
-        VirtualFileEventSubscriber mySubscriber = null;
-        for (VirtualFileEventSubscriber subscriber : subscribers) {
-            if (workspace.equals(subscriber.workspace) && project.equals(subscriber.project) && listener.equals(subscriber.listener)) {
-                mySubscriber = subscriber;
-                break;
+    private class VirtualFileEventDispatcher implements EventSubscriber<VirtualFileEvent> {
+        @Override
+        public void onEvent(VirtualFileEvent event) {
+            final PathTrie<Subscription> workspaceSubscriptions = subscriptions.get(event.getWorkspaceId());
+            if (workspaceSubscriptions == null) {
+                return;
+            }
+            final String workspace = event.getWorkspaceId();
+            final VirtualFileEvent.ChangeType eventType = event.getType();
+            if (eventType == VirtualFileEvent.ChangeType.CHANGESET) {
+                for (ChangesetEvent.Change change : ((ChangesetEvent)event).getChanges()) {
+                    dispatch(workspaceSubscriptions, workspace, change.getType(), change.getPath(), change.isFolder());
+                }
+                return;
+            }
+            dispatch(workspaceSubscriptions, workspace, eventType, event.getPath(), event.isFolder());
+            String eventOldPath = null;
+            // rename and move are treated as create and delete
+            if (eventType == VirtualFileEvent.ChangeType.MOVED) {
+                eventOldPath = ((MoveEvent)event).getOldPath();
+            } else if (eventType == VirtualFileEvent.ChangeType.RENAMED) {
+                eventOldPath = ((RenameEvent)event).getOldPath();
+            }
+            if (eventOldPath != null) {
+                dispatch(workspaceSubscriptions, workspace, VirtualFileEvent.ChangeType.DELETED, eventOldPath, event.isFolder());
             }
         }
-        if (mySubscriber != null) {
-            subscribers.remove(mySubscriber);
-            eventService.unsubscribe(mySubscriber);
-            return true;
+
+        private void dispatch(PathTrie<Subscription> workspaceSubscriptions,
+                              String workspace,
+                              VirtualFileEvent.ChangeType eventType,
+                              String path,
+                              boolean folder) {
+            final ProjectEvent.EventType projectEventType;
+            switch (eventType) {
+                case CONTENT_UPDATED:
+                    projectEventType = ProjectEvent.EventType.UPDATED;
+                    break;
+                case DELETED:
+                    projectEventType = ProjectEvent.EventType.DELETED;
+                    break;
+                case CREATED:
+                case MOVED:
+                case RENAMED:
+                    projectEventType = ProjectEvent.EventType.CREATED;
+                    break;
+                default:
+                    return;
+            }
+            for (Subscription subscription : workspaceSubscriptions.getAncestorValues(path)) {
+                // Failure of one listener must not prevent notification of others.
+                try {
+                    subscription.notify(projectEventType, workspace, path, folder);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
         }
-        return false;
     }
 
-    private static class VirtualFileEventSubscriber implements EventSubscriber<VirtualFileEvent> {
-        final String               workspace;
+    private static class Subscription {
         final String               project;
         final ProjectEventListener listener;
+        final String               projectPath;
 
-        String projectPath;
-
-        VirtualFileEventSubscriber(String workspace, String project, ProjectEventListener listener) {
-            this.workspace = workspace;
+        Subscription(String project, ProjectEventListener listener) {
             this.project = project;
             this.listener = listener;
-            projectPath = project;
+            String projectPath = project;
             if (!projectPath.startsWith("/")) {
                 projectPath = '/' + projectPath;
             }
             if (!projectPath.endsWith("/")) {
                 projectPath = projectPath + '/';
             }
+            this.projectPath = projectPath;
         }
 
-        @Override
-        public void onEvent(VirtualFileEvent event) {
-            final VirtualFileEvent.ChangeType eventType = event.getType();
-            final String eventWorkspace = event.getWorkspaceId();
-            if (workspace.equals(eventWorkspace)) {
-                final String eventPath = event.getPath();
-                if (eventPath.startsWith(projectPath)) {
-                    if (eventType == VirtualFileEvent.ChangeType.CONTENT_UPDATED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.UPDATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.CREATED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.CREATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.DELETED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.DELETED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.MOVED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.CREATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    } else if (eventType == VirtualFileEvent.ChangeType.RENAMED) {
-                        listener.onEvent(new ProjectEvent(ProjectEvent.EventType.CREATED, workspace, project,
-                                                          eventPath.substring(projectPath.length()), event.isFolder()));
-                    }
-                }
-                String eventOldPath = null;
-                // rename and move are treated as create and delete
-                if (eventType == VirtualFileEvent.ChangeType.MOVED) {
-                    eventOldPath = ((MoveEvent)event).getOldPath();
-                } else if (eventType == VirtualFileEvent.ChangeType.RENAMED) {
-                    eventOldPath = ((RenameEvent)event).getOldPath();
-                }
-                if (eventOldPath != null && eventOldPath.startsWith(projectPath)) {
-                    listener.onEvent(new ProjectEvent(ProjectEvent.EventType.DELETED, workspace, project,
-                                                      eventOldPath.substring(projectPath.length()), event.isFolder()));
-                }
+        void notify(ProjectEvent.EventType type, String workspace, String path, boolean folder) {
+            if (path.startsWith(projectPath)) {
+                listener.onEvent(new ProjectEvent(type, workspace, project, path.substring(projectPath.length()), folder));
             }
         }
 
@@ -124,17 +171,16 @@ public final class ProjectEventService {
             if (this == o) {
                 return true;
             }
-            if (!(o instanceof VirtualFileEventSubscriber)) {
+            if (!(o instanceof Subscription)) {
                 return false;
             }
-            final VirtualFileEventSubscriber other = (VirtualFileEventSubscriber)o;
-            return listener.equals(other.listener) && project.equals(other.project) && workspace.equals(other.workspace);
+            final Subscription other = (Subscription)o;
+            return listener.equals(other.listener) && project.equals(other.project);
         }
 
         @Override
         public int hashCode() {
             int hashCode = 7;
-            hashCode = 31 * hashCode + workspace.hashCode();
             hashCode = 31 * hashCode + project.hashCode();
             hashCode = 31 * hashCode + listener.hashCode();
             return hashCode;
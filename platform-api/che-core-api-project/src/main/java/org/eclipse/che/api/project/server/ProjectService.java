@@ -62,6 +62,7 @@ import org.eclipse.che.api.vfs.server.ContentStream;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemImpl;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
@@ -87,6 +88,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
@@ -118,6 +120,9 @@ import static java.util.stream.Collectors.toMap;
 @Path("/project/{ws-id}")
 @Singleton // important to have singleton
 public class ProjectService extends Service {
+    /** Response header that contains cursor of the next page of search result. */
+    public static final String NEXT_PAGE_CURSOR_HEADER = "x-next-page-cursor";
+
     private static final Logger  LOG                   = LoggerFactory.getLogger(ProjectService.class);
     private static final Pattern RUNNER_NAME_VALIDATOR = Pattern.compile("[\\w-]+((:/)?[^/\\\\]+)?");
 
@@ -1310,7 +1315,9 @@ public class ProjectService extends Service {
     }
 
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
+                  notes = "Search for resources applying a number of search filters as query parameters. If there are more results " +
+                          "then cursor of the next page is returned in header " + NEXT_PAGE_CURSOR_HEADER + ", pass it in query " +
+                          "parameter 'after' to get the next page",
                   response = ItemReference.class,
                   responseContainer = "List")
     @ApiResponses(value = {
@@ -1322,20 +1329,23 @@ public class ProjectService extends Service {
     @GET
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ItemReference> search(@ApiParam(value = "Workspace ID", required = true)
-                                      @PathParam("ws-id") String workspace,
-                                      @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Media type")
-                                      @QueryParam("mediatype") String mediatype,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount)
+    public Response search(@ApiParam(value = "Workspace ID", required = true)
+                           @PathParam("ws-id") String workspace,
+                           @ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                           @PathParam("path") String path,
+                           @ApiParam(value = "Resource name")
+                           @QueryParam("name") String name,
+                           @ApiParam(value = "Media type")
+                           @QueryParam("mediatype") String mediatype,
+                           @ApiParam(value = "Search keywords")
+                           @QueryParam("text") String text,
+                           @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                           @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                           @ApiParam(value = "Skip count")
+                           @QueryParam("skipCount") int skipCount,
+                           @ApiParam(value = "Cursor of the page, returned in header " + NEXT_PAGE_CURSOR_HEADER + " of previous page. " +
+                                             "Cursor is path of the last item of previous page, items are sorted by path")
+                           @QueryParam("after") String after)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
 
         // to search from workspace root path should end with "/" i.e /{ws}/search/?<query>
@@ -1349,24 +1359,25 @@ public class ProjectService extends Service {
                     .setPath(path.startsWith("/") ? path : ('/' + path))
                     .setName(name)
                     .setMediaType(mediatype)
-                    .setText(text);
-
-            final String[] result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
-            if (skipCount > 0) {
-                if (skipCount > result.length) {
-                    throw new ConflictException(
-                            String.format("'skipCount' parameter: %d is greater then total number of items in result: %d.",
-                                          skipCount, result.length));
-                }
+                    .setText(text)
+                    .setAfter(after)
+                    .setSkipCount(skipCount)
+                    .setMaxItems(maxItems);
+
+            final SearchResult result = searcherProvider.getSearcher(folder.getVirtualFile().getMountPoint(), true).search(expr);
+            if (skipCount > 0 && skipCount > result.getTotalHits()) {
+                throw new ConflictException(
+                        String.format("'skipCount' parameter: %d is greater then total number of items in result: %d.",
+                                      skipCount, result.getTotalHits()));
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<ItemReference> items = new ArrayList<>(length);
+            final List<String> paths = result.getFilePaths();
+            final List<ItemReference> items = new ArrayList<>(paths.size());
             final FolderEntry root = projectManager.getProjectsRoot(workspace);
             final UriBuilder uriBuilder = getServiceContext().getServiceUriBuilder();
-            for (int i = skipCount; i < length; i++) {
+            for (String itemPath : paths) {
                 VirtualFileEntry child = null;
                 try {
-                    child = root.getChild(result[i]);
+                    child = root.getChild(itemPath);
                 } catch (ForbiddenException ignored) {
                     // Ignore item that user can't access
                 }
@@ -1374,9 +1385,15 @@ public class ProjectService extends Service {
                     items.add(DtoConverter.toItemReferenceDto((FileEntry)child, uriBuilder.clone()));
                 }
             }
-            return items;
+            final Response.ResponseBuilder responseBuilder = Response.ok(new GenericEntity<List<ItemReference>>(items) {
+            }, MediaType.APPLICATION_JSON);
+            if (result.getNextPageCursor() != null) {
+                responseBuilder.header(NEXT_PAGE_CURSOR_HEADER, result.getNextPageCursor());
+            }
+            return responseBuilder.build();
         }
-        return Collections.emptyList();
+        return Response.ok(new GenericEntity<List<ItemReference>>(Collections.<ItemReference>emptyList()) {
+        }, MediaType.APPLICATION_JSON).build();
     }
 
     @ApiOperation(value = "Get user permissions in a project",
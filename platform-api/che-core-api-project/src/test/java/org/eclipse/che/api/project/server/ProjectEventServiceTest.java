@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
+import org.eclipse.che.api.vfs.server.observation.CreateEvent;
+import org.eclipse.che.api.vfs.server.observation.MoveEvent;
+import org.eclipse.che.api.vfs.server.observation.RenameEvent;
+import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author agent
+ */
+public class ProjectEventServiceTest {
+    private EventService        eventService;
+    private ProjectEventService projectEventService;
+
+    @BeforeMethod
+    public void setUp() {
+        eventService = new EventService();
+        projectEventService = new ProjectEventService(eventService);
+    }
+
+    @Test
+    public void testAddListener() {
+        RecordingListener listener = new RecordingListener();
+        Assert.assertTrue(projectEventService.addListener("my_ws", "my_project", listener));
+        Assert.assertFalse(projectEventService.addListener("my_ws", "my_project", listener));
+        Assert.assertTrue(projectEventService.addListener("my_ws", "other_project", listener));
+        Assert.assertTrue(projectEventService.addListener("other_ws", "my_project", listener));
+    }
+
+    @Test
+    public void testRemoveListener() {
+        RecordingListener listener = new RecordingListener();
+        Assert.assertTrue(projectEventService.addListener("my_ws", "my_project", listener));
+        Assert.assertTrue(projectEventService.removeListener("my_ws", "my_project", listener));
+        Assert.assertFalse(projectEventService.removeListener("my_ws", "my_project", listener));
+
+        eventService.publish(new CreateEvent("my_ws", "/my_project/test.txt", false));
+        Assert.assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    public void testDispatchOnlyToListenersOfProjectThatContainsFile() {
+        RecordingListener myProject = new RecordingListener();
+        RecordingListener myProjectPrefix = new RecordingListener();
+        RecordingListener otherWorkspace = new RecordingListener();
+        projectEventService.addListener("my_ws", "my_project", myProject);
+        projectEventService.addListener("my_ws", "my_proj", myProjectPrefix);
+        projectEventService.addListener("other_ws", "my_project", otherWorkspace);
+
+        eventService.publish(new UpdateContentEvent("my_ws", "/my_project/a/test.txt"));
+        // Event about project folder itself isn't dispatched.
+        eventService.publish(new CreateEvent("my_ws", "/my_project", true));
+
+        Assert.assertEquals(myProject.events.size(), 1);
+        Assert.assertEquals(myProject.events.get(0).getType(), ProjectEvent.EventType.UPDATED);
+        Assert.assertEquals(myProject.events.get(0).getWorkspace(), "my_ws");
+        Assert.assertEquals(myProject.events.get(0).getProject(), "my_project");
+        Assert.assertEquals(myProject.events.get(0).getPath(), "a/test.txt");
+        Assert.assertFalse(myProject.events.get(0).isFolder());
+        Assert.assertTrue(myProjectPrefix.events.isEmpty());
+        Assert.assertTrue(otherWorkspace.events.isEmpty());
+    }
+
+    @Test
+    public void testDispatchToListenersOfNestedProjects() {
+        RecordingListener parent = new RecordingListener();
+        RecordingListener module = new RecordingListener();
+        projectEventService.addListener("my_ws", "my_project", parent);
+        projectEventService.addListener("my_ws", "/my_project/module/", module);
+
+        eventService.publish(new CreateEvent("my_ws", "/my_project/module/src", true));
+
+        Assert.assertEquals(parent.events.size(), 1);
+        Assert.assertEquals(parent.events.get(0).getPath(), "module/src");
+        Assert.assertEquals(module.events.size(), 1);
+        Assert.assertEquals(module.events.get(0).getProject(), "/my_project/module/");
+        Assert.assertEquals(module.events.get(0).getPath(), "src");
+        Assert.assertTrue(module.events.get(0).isFolder());
+    }
+
+    @Test
+    public void testMove() {
+        RecordingListener listener = new RecordingListener();
+        projectEventService.addListener("my_ws", "my_project", listener);
+
+        eventService.publish(new MoveEvent("my_ws", "/my_project/a/b/c/test.txt", "/my_project/test.txt", false));
+
+        Assert.assertEquals(listener.events.size(), 2);
+        Assert.assertEquals(listener.events.get(0).getType(), ProjectEvent.EventType.CREATED);
+        Assert.assertEquals(listener.events.get(0).getPath(), "a/b/c/test.txt");
+        Assert.assertEquals(listener.events.get(1).getType(), ProjectEvent.EventType.DELETED);
+        Assert.assertEquals(listener.events.get(1).getPath(), "test.txt");
+    }
+
+    @Test
+    public void testRenameBetweenProjects() {
+        RecordingListener source = new RecordingListener();
+        RecordingListener target = new RecordingListener();
+        projectEventService.addListener("my_ws", "source", source);
+        projectEventService.addListener("my_ws", "target", target);
+
+        eventService.publish(new RenameEvent("my_ws", "/target/test.txt", "/source/test.txt", false));
+
+        Assert.assertEquals(target.events.size(), 1);
+        Assert.assertEquals(target.events.get(0).getType(), ProjectEvent.EventType.CREATED);
+        Assert.assertEquals(target.events.get(0).getPath(), "test.txt");
+        Assert.assertEquals(source.events.size(), 1);
+        Assert.assertEquals(source.events.get(0).getType(), ProjectEvent.EventType.DELETED);
+        Assert.assertEquals(source.events.get(0).getPath(), "test.txt");
+    }
+
+    @Test
+    public void testChangeset() {
+        RecordingListener listener = new RecordingListener();
+        projectEventService.addListener("my_ws", "my_project", listener);
+
+        eventService.publish(new ChangesetEvent("my_ws", "/my_project", Arrays.asList(
+                new ChangesetEvent.Change("/my_project/src", VirtualFileEvent.ChangeType.CREATED, true),
+                new ChangesetEvent.Change("/my_project/src/test.txt", VirtualFileEvent.ChangeType.CREATED, false),
+                new ChangesetEvent.Change("/my_project/pom.xml", VirtualFileEvent.ChangeType.CONTENT_UPDATED, false))));
+
+        Assert.assertEquals(listener.events.size(), 3);
+        Assert.assertEquals(listener.events.get(0).getType(), ProjectEvent.EventType.CREATED);
+        Assert.assertEquals(listener.events.get(0).getPath(), "src");
+        Assert.assertTrue(listener.events.get(0).isFolder());
+        Assert.assertEquals(listener.events.get(1).getType(), ProjectEvent.EventType.CREATED);
+        Assert.assertEquals(listener.events.get(1).getPath(), "src/test.txt");
+        Assert.assertEquals(listener.events.get(2).getType(), ProjectEvent.EventType.UPDATED);
+        Assert.assertEquals(listener.events.get(2).getPath(), "pom.xml");
+    }
+
+    @Test
+    public void testFailedListenerDoesNotPreventNotificationOfOthers() {
+        RecordingListener module = new RecordingListener();
+        projectEventService.addListener("my_ws", "my_project", new ProjectEventListener() {
+            @Override
+            public void onEvent(ProjectEvent event) {
+                throw new IllegalStateException("test");
+            }
+        });
+        projectEventService.addListener("my_ws", "/my_project/module/", module);
+
+        eventService.publish(new ChangesetEvent("my_ws", "/my_project/module", Arrays.asList(
+                new ChangesetEvent.Change("/my_project/module/a.txt", VirtualFileEvent.ChangeType.CREATED, false),
+                new ChangesetEvent.Change("/my_project/module/b.txt", VirtualFileEvent.ChangeType.CREATED, false))));
+
+        Assert.assertEquals(module.events.size(), 2);
+        Assert.assertEquals(module.events.get(0).getPath(), "a.txt");
+        Assert.assertEquals(module.events.get(1).getPath(), "b.txt");
+    }
+
+    private static class RecordingListener implements ProjectEventListener {
+        final List<ProjectEvent> events = new ArrayList<>();
+
+        @Override
+        public void onEvent(ProjectEvent event) {
+            events.add(event);
+        }
+    }
+}
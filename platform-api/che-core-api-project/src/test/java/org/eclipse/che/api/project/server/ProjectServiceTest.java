@@ -61,6 +61,7 @@ import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUserContext;
 import org.eclipse.che.api.vfs.server.impl.memory.MemoryFileSystemProvider;
 import org.eclipse.che.api.vfs.server.impl.memory.MemoryMountPoint;
+import org.eclipse.che.api.vfs.server.search.LuceneSearcher;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.shared.dto.AccessControlEntry;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
@@ -109,6 +110,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -118,6 +120,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -137,6 +140,7 @@ public class ProjectServiceTest {
     private ResourceLauncher        launcher;
     private ProjectImporterRegistry importerRegistry;
     private ProjectHandlerRegistry  phRegistry;
+    private MemoryMountPoint        mmp;
     //private ProjectGeneratorRegistry generatorRegistry;
 
     private org.eclipse.che.commons.env.EnvironmentContext env;
@@ -159,7 +163,7 @@ public class ProjectServiceTest {
                     }
                 }, vfsRegistry, new SystemPathsFilter(Collections.singleton(new ProjectMiscPathFilter())));
 
-        MemoryMountPoint mmp = (MemoryMountPoint)memoryFileSystemProvider.getMountPoint(true);
+        mmp = (MemoryMountPoint)memoryFileSystemProvider.getMountPoint(true);
         vfsRegistry.registerProvider(workspace, memoryFileSystemProvider);
 
         // PTs for test
@@ -2620,6 +2624,7 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "test".getBytes(), MediaType.TEXT_PLAIN);
         myProject.getBaseFolder().createFolder("c").createFile("exclude", "test".getBytes(), MediaType.TEXT_PLAIN);
 
+        waitForIndexing();
         ContainerResponse response = launcher.service(HttpMethod.GET,
                                                       String.format("http://localhost:8080/api/project/%s/search/my_project?name=test.txt",
                                                                     workspace),
@@ -2643,6 +2648,7 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("__test.txt", "searchhit".getBytes(), MediaType.TEXT_PLAIN);
         myProject.getBaseFolder().createFolder("c").createFile("_test", "searchhit".getBytes(), MediaType.TEXT_PLAIN);
 
+        waitForIndexing();
         ContainerResponse response = launcher.service(HttpMethod.GET,
                                                       String.format("http://localhost:8080/api/project/%s/search/my_project?text=searchhit",
                                                                     workspace),
@@ -2666,6 +2672,7 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "132434".getBytes(), MediaType.TEXT_PLAIN);
         myProject.getBaseFolder().createFolder("c").createFile("test", "2343124".getBytes(), MediaType.TEXT_PLAIN);
 
+        waitForIndexing();
         ContainerResponse response = launcher.service(HttpMethod.GET,
                                                       String.format(
                                                               "http://localhost:8080/api/project/%s/search/my_project?mediatype=text/plain",
@@ -2691,6 +2698,7 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "test".getBytes(), "text/*");
         myProject.getBaseFolder().createFolder("c").createFile("test", "test".getBytes(), MediaType.TEXT_PLAIN);
 
+        waitForIndexing();
         ContainerResponse response = launcher.service(HttpMethod.GET,
                                                       String.format(
                                                               "http://localhost:8080/api/project/%s/search/my_project?text=test&name=test&mediatype=text/plain",
@@ -2711,6 +2719,7 @@ public class ProjectServiceTest {
         myProject.getBaseFolder().createFolder("x/y").createFile("test.txt", "test".getBytes(), "text/*");
         myProject.getBaseFolder().createFolder("c").createFile("test", "test".getBytes(), MediaType.TEXT_PLAIN);
 
+        waitForIndexing();
         ContainerResponse response = launcher.service(HttpMethod.GET,
                 String.format(
                         "http://localhost:8080/api/project/%s/search/?text=test&name=test&mediatype=text/plain",
@@ -2722,6 +2731,36 @@ public class ProjectServiceTest {
         Assert.assertTrue(result.get(0).getPath().equals("/my_project/c/test"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchNextPageByCursor() throws Exception {
+        Project myProject = pm.getProject(workspace, "my_project");
+        myProject.getBaseFolder().createFolder("a").createFile("test.txt", "test".getBytes(), MediaType.TEXT_PLAIN);
+        myProject.getBaseFolder().createFolder("b").createFile("test.txt", "test".getBytes(), MediaType.TEXT_PLAIN);
+
+        waitForIndexing();
+        ContainerResponse response = launcher.service(HttpMethod.GET,
+                                                      String.format("http://localhost:8080/api/project/%s/search/my_project?name=test.txt&maxItems=1",
+                                                                    workspace),
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> result = (List<ItemReference>)response.getEntity();
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getPath(), "/my_project/a/test.txt");
+        String cursor = (String)response.getHttpHeaders().getFirst(ProjectService.NEXT_PAGE_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        response = launcher.service(HttpMethod.GET,
+                                    String.format("http://localhost:8080/api/project/%s/search/my_project?name=test.txt&maxItems=1&after=%s",
+                                                  workspace, cursor),
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        result = (List<ItemReference>)response.getEntity();
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getPath(), "/my_project/b/test.txt");
+        assertNull(response.getHttpHeaders().getFirst(ProjectService.NEXT_PAGE_CURSOR_HEADER));
+    }
+
     @Test
     public void testSetBasicPermissions() throws Exception {
         Project myProject = pm.getProject(workspace, "my_project");
@@ -3220,4 +3259,9 @@ public class ProjectServiceTest {
         }
     }
 
+    /** Waits until all changes of virtual filesystem are visible for search. */
+    private void waitForIndexing() throws Exception {
+        LuceneSearcher searcher = (LuceneSearcher)mmp.getSearcherProvider().getSearcher(mmp, true);
+        assertTrue(searcher.waitForIndexed(searcher.getLastSequence(), 10, TimeUnit.SECONDS));
+    }
 }
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.rest.HttpConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.HttpMethod;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks health of started applications. All applications are checked by fixed number of threads regardless of number of
+ * applications:
+ * <ul>
+ * <li>Single scheduler thread keeps time of next check of each application and passes due checks to the pool of checkers. Size of
+ * pool limits number of concurrent checks.</li>
+ * <li>Connections to applications are kept alive between checks, see {@link HttpConnectionPool}.</li>
+ * <li>Until application responds, it is checked with exponential backoff starting from {@code initialDelay} up to {@code maxDelay}.
+ * Application that responds is checked every {@code upPeriod} while it is watched.</li>
+ * </ul>
+ * {@link Listener} is notified when health of application changes.
+ *
+ * @author agent
+ */
+final class ApplicationHealthChecker {
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationHealthChecker.class);
+
+    /** Connect and read timeout of check in milliseconds. */
+    private static final int CHECK_TIMEOUT  = 1000;
+    /** Max size of body of response that is read to keep connection alive, connection is closed if body is bigger. */
+    private static final int MAX_DRAIN_SIZE = 64 * 1024;
+
+    enum Health {
+        /** Application hasn't responded yet, e.g. it is starting. */
+        UNKNOWN,
+        UP,
+        /** Application responded before but doesn't respond now. */
+        DOWN
+    }
+
+    interface Listener {
+        void healthChanged(long taskId, URL url, Health health);
+    }
+
+    private final long                        initialDelay;
+    private final long                        maxDelay;
+    private final long                        upPeriod;
+    private final Listener                    listener;
+    private final ConcurrentMap<Long, Target> targets;
+    private final HttpConnectionPool          connectionPool;
+    private final ScheduledExecutorService    scheduler;
+    private final ExecutorService             checkers;
+
+    /**
+     * @param maxConcurrentChecks
+     *         max number of applications that are checked at the same time
+     * @param initialDelay
+     *         delay in milliseconds before the first check and before the first retry after failed check
+     * @param maxDelay
+     *         max delay in milliseconds between retries of failed checks
+     * @param upPeriod
+     *         period in milliseconds of checks of application that responds
+     * @param listener
+     *         listener of changes of health of applications
+     */
+    ApplicationHealthChecker(int maxConcurrentChecks, long initialDelay, long maxDelay, long upPeriod, Listener listener) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.upPeriod = upPeriod;
+        this.listener = listener;
+        targets = new ConcurrentHashMap<>();
+        // Pool has as many connections per host as number of concurrent checks, so check never waits for connection.
+        connectionPool = new HttpConnectionPool(maxConcurrentChecks, 0, false);
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ApplicationHealthScheduler")
+                                                                                         .setDaemon(true)
+                                                                                         .build());
+        checkers = Executors.newFixedThreadPool(maxConcurrentChecks, new ThreadFactoryBuilder().setNameFormat("ApplicationHealthChecker-%d")
+                                                                                              .setDaemon(true)
+                                                                                              .build());
+    }
+
+    /** Starts checking health of application. Checking of application with the same task id, if any, is stopped. */
+    void watch(long taskId, URL url) {
+        final Target target = new Target(taskId, url);
+        final Target previous = targets.put(taskId, target);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        target.schedule(initialDelay);
+    }
+
+    /** Stops checking health of application. */
+    void unwatch(long taskId) {
+        final Target target = targets.remove(taskId);
+        if (target != null) {
+            target.cancelled = true;
+        }
+    }
+
+    /** Stops checking health of all applications except applications of the specified tasks. */
+    void retain(Collection<Long> taskIds) {
+        for (Iterator<Map.Entry<Long, Target>> i = targets.entrySet().iterator(); i.hasNext(); ) {
+            final Map.Entry<Long, Target> entry = i.next();
+            if (!taskIds.contains(entry.getKey())) {
+                entry.getValue().cancelled = true;
+                i.remove();
+            }
+        }
+    }
+
+    /** Gets the latest known health of application or {@code null} if application isn't watched. */
+    Health getHealth(long taskId) {
+        final Target target = targets.get(taskId);
+        return target == null ? null : target.health;
+    }
+
+    /** Gets number of watched applications. */
+    int size() {
+        return targets.size();
+    }
+
+    void stop() {
+        for (Target target : targets.values()) {
+            target.cancelled = true;
+        }
+        targets.clear();
+        scheduler.shutdownNow();
+        checkers.shutdownNow();
+        connectionPool.shutdown();
+    }
+
+    /*
+    Each application has at most one check that is scheduled or running, next check is scheduled when previous one is done. So
+    state of target is changed by one thread at a time, hand-off between threads through executors makes changes visible.
+     */
+    private final class Target implements Runnable {
+        final long taskId;
+        final URL  url;
+
+        volatile boolean cancelled;
+        volatile Health  health;
+
+        String requestMethod;
+        long   delay;
+
+        Target(long taskId, URL url) {
+            this.taskId = taskId;
+            this.url = url;
+            health = Health.UNKNOWN;
+            requestMethod = HttpMethod.HEAD;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            final long nextDelay;
+            final Health newHealth;
+            if (check()) {
+                newHealth = Health.UP;
+                delay = 0;
+                nextDelay = upPeriod;
+            } else {
+                newHealth = health == Health.UNKNOWN ? Health.UNKNOWN : Health.DOWN;
+                delay = delay == 0 ? initialDelay : Math.min(delay * 2, maxDelay);
+                nextDelay = delay;
+            }
+            if (newHealth != health && !cancelled) {
+                health = newHealth;
+                LOG.debug("Application URL '{}' - {}", url, newHealth);
+                try {
+                    listener.healthChanged(taskId, url, newHealth);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+            schedule(nextDelay);
+        }
+
+        void schedule(long delay) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!cancelled) {
+                            try {
+                                checkers.execute(Target.this);
+                            } catch (RejectedExecutionException ignored) {
+                                // Checker is stopped.
+                            }
+                        }
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ignored) {
+                // Checker is stopped.
+            }
+        }
+
+        boolean check() {
+            try (HttpConnectionPool.Connection connection = connectionPool.open(url, CHECK_TIMEOUT)) {
+                final HttpURLConnection conn = connection.getConnection();
+                conn.setRequestMethod(requestMethod);
+                final int responseCode;
+                try {
+                    responseCode = conn.getResponseCode();
+                    LOG.debug("Response code: {}.", responseCode);
+                    if (!drain(connection, responseCode)) {
+                        connection.abort();
+                    }
+                } catch (IOException e) {
+                    connection.abort();
+                    return false;
+                }
+                if (405 == responseCode) {
+                    // In case of Method not allowed, we use get instead of HEAD. X-HTTP-Method-Override would be nice but support is
+                    // to weak and will trigger much more GET than with this fallback.
+                    requestMethod = HttpMethod.GET;
+                }
+                // Informational, successful and redirection responses mean that application is up.
+                return responseCode >= 100 && responseCode < 400;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        /* Reads body of response, so connection may be reused. Returns false if body is too big to be read. */
+        private boolean drain(HttpConnectionPool.Connection connection, int responseCode) throws IOException {
+            if (HttpMethod.HEAD.equals(requestMethod)) {
+                return true;
+            }
+            try (InputStream body = responseCode < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body == null) {
+                    return true;
+                }
+                final byte[] buffer = new byte[8192];
+                int total = 0;
+                int r;
+                while ((r = body.read(buffer)) != -1) {
+                    total += r;
+                    if (total > MAX_DRAIN_SIZE) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.eclipse.che.api.builder.BuildStatus;
 import org.eclipse.che.api.builder.BuilderService;
 import org.eclipse.che.api.builder.dto.BuildOptions;
 import org.eclipse.che.api.builder.dto.BuildTaskDescriptor;
+import org.eclipse.che.api.builder.internal.BuilderEvent;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -68,12 +69,9 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.ws.rs.HttpMethod;
-import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -92,16 +90,24 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * Queue of run requests. Tasks that wait for completion of build or for runner with enough resources don't hold threads. They
+ * are checked again when RunQueue gets {@link BuilderEvent} about completion of build or {@link RunnerEvent} about stop of
+ * application, fallback checks are scheduled in the shared scheduler for builders and runners that don't send such events.
+ * State of remote runners is shared by all waiting tasks, see {@link RunnerCapacityTracker}.
+ *
  * @author andrew00x
  * @author Eugene Voevodin
  */
@@ -112,13 +118,19 @@ public class RunQueue {
     /** Pause in milliseconds for checking the result of build process. */
     private static final long CHECK_BUILD_RESULT_PERIOD     = 2000;
     private static final long CHECK_AVAILABLE_RUNNER_PERIOD = 2000;
+    /** Pause in milliseconds for checking the result of build process after RunQueue gets first event about this build. */
+    private static final long BUILD_EVENTS_FALLBACK_PERIOD  = TimeUnit.SECONDS.toMillis(30);
 
     private static final long PROCESS_CLEANER_PERIOD = TimeUnit.MINUTES.toMillis(1);
 
     private static final int DEFAULT_MAX_MEMORY_SIZE = 1000;
 
-    private static final int APPLICATION_CHECK_URL_TIMEOUT = 2000;
-    private static final int APPLICATION_CHECK_URL_COUNT   = 30;
+    private static final int DEFAULT_HEALTH_CHECK_MAX_CONCURRENT = 10;
+    /** Delay before the first check of application and before the first retry after failed check. */
+    private static final long HEALTH_CHECK_INITIAL_DELAY = 2000;
+    private static final long HEALTH_CHECK_MAX_DELAY     = TimeUnit.SECONDS.toMillis(30);
+    /** Period of checks of application that responds. */
+    private static final long HEALTH_CHECK_UP_PERIOD     = TimeUnit.SECONDS.toMillis(30);
 
     private static final AtomicLong sequence = new AtomicLong(1);
 
@@ -135,9 +147,14 @@ public class RunQueue {
     // Helps to reduce lock contentions when check available resources.
     private final Lock[]                                          resourceCheckerLocks;
     private final int                                             resourceCheckerMask;
+    private final RunnerCapacityTracker                           capacityTracker;
+    private final WorkspaceResourceLedger                         resourceLedger;
+    /** Tasks that are waiting for build or for runner. */
+    private final Set<RemoteRunnerProcessCallable>                waitingTasks;
 
     private ExecutorService          executor;
-    private ScheduledExecutorService cleanScheduler;
+    private ScheduledExecutorService scheduler;
+    private ApplicationHealthChecker healthChecker;
 
     /** Optional pre-configured slave runners. */
     @com.google.inject.Inject(optional = true)
@@ -158,6 +175,10 @@ public class RunQueue {
     @Named(Constants.RUNNER_WS_MAX_MEMORY_SIZE)
     private int defMaxMemorySize = DEFAULT_MAX_MEMORY_SIZE;
 
+    @com.google.inject.Inject(optional = true)
+    @Named(Constants.APP_HEALTH_CHECK_MAX_CONCURRENT)
+    private int healthCheckMaxConcurrent = DEFAULT_HEALTH_CHECK_MAX_CONCURRENT;
+
     // Switched to default for test.
     // private
     long cleanerPeriod              = PROCESS_CLEANER_PERIOD;
@@ -195,6 +216,9 @@ public class RunQueue {
         tasks = new ConcurrentHashMap<>();
         runnerListMapping = new ConcurrentHashMap<>();
         started = new AtomicBoolean(false);
+        capacityTracker = new RunnerCapacityTracker();
+        resourceLedger = new WorkspaceResourceLedger();
+        waitingTasks = ConcurrentHashMap.newKeySet();
         final int partitions = 1 << 4;
         resourceCheckerMask = partitions - 1;
         resourceCheckerLocks = new Lock[partitions];
@@ -227,27 +251,7 @@ public class RunQueue {
                     try {
                         super.afterExecute(runnable, error);
                         if (runnable instanceof InternalRunTask) {
-                            final InternalRunTask internalRunTask = (InternalRunTask)runnable;
-                            if (error == null) {
-                                try {
-                                    internalRunTask.get();
-                                } catch (CancellationException e) {
-                                    LOG.warn("Task {}, workspace '{}', project '{}' was cancelled",
-                                             internalRunTask.id, internalRunTask.workspace, internalRunTask.project);
-                                    error = e;
-                                } catch (ExecutionException e) {
-                                    error = e.getCause();
-                                    logError(internalRunTask, error == null ? e : error);
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                }
-                            } else {
-                                logError(internalRunTask, error);
-                            }
-                            if (error != null) {
-                                eventService.publish(RunnerEvent.errorEvent(internalRunTask.id, internalRunTask.workspace,
-                                                                            internalRunTask.project, error.getMessage()));
-                            }
+                            afterRunTask((InternalRunTask)runnable, error);
                         }
                     } finally {
                         if (isInterrupted) {
@@ -255,21 +259,15 @@ public class RunQueue {
                         }
                     }
                 }
-
-                private void logError(InternalRunTask runTask, Throwable t) {
-                    String errorMessage = t.getMessage();
-                    if (errorMessage != null) {
-                        LOG.warn("Execution error, task {}, workspace '{}', project '{}', message '{}'",
-                                 runTask.id, runTask.workspace, runTask.project, errorMessage);
-                    } else {
-                        LOG.warn(String.format("Execution error, task %d, workspace '%s', project '%s', message '%s'",
-                                               runTask.id, runTask.workspace, runTask.project, ""), t);
-                    }
-                }
             };
-            cleanScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("RunQueueScheduler-%d")
-                                                                                                  .setDaemon(true).build());
-            cleanScheduler.scheduleAtFixedRate(new Runnable() {
+            healthChecker = new ApplicationHealthChecker(healthCheckMaxConcurrent,
+                                                         HEALTH_CHECK_INITIAL_DELAY,
+                                                         HEALTH_CHECK_MAX_DELAY,
+                                                         HEALTH_CHECK_UP_PERIOD,
+                                                         new ApplicationHealthMessenger());
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("RunQueueScheduler-%d")
+                                                                                             .setDaemon(true).build());
+            scheduler.scheduleAtFixedRate(new Runnable() {
                 @Override
                 public void run() {
                     int num = 0;
@@ -293,6 +291,7 @@ public class RunQueue {
                                         LOG.warn(e.getMessage(), e);
                                     }
                                     i.remove();
+                                    resourceLedger.release(task.getId());
                                     waitingNum++;
                                     num++;
                                 }
@@ -308,23 +307,32 @@ public class RunQueue {
                             }
                             if (remote == null) {
                                 i.remove();
+                                resourceLedger.release(task.getId());
                                 num++;
                             } else if ((remote.getCreationTime() + request.getLifetime() + appCleanupTime) < System.currentTimeMillis()) {
                                 try {
                                     remote.getApplicationProcessDescriptor();
                                 } catch (NotFoundException e) {
                                     i.remove();
+                                    resourceLedger.release(task.getId());
                                     num++;
                                 } catch (Exception e) {
                                     LOG.warn(e.getMessage(), e);
                                     i.remove();
+                                    resourceLedger.release(task.getId());
                                     num++;
                                 }
+                            } else if (resourceLedger.isReserved(task.getId()) && !isApplicationAlive(task, remote)) {
+                                // Event about termination of application is lost, e.g. if slave runner was restarted.
+                                if (resourceLedger.release(task.getId())) {
+                                    notifyResourcesChanged(request.getWorkspace());
+                                }
                             }
                         }
                     }
                     if (num > 0) {
                         LOG.debug("Remove {} expired tasks, {} of them were waiting for processing", num, waitingNum);
+                        healthChecker.retain(tasks.keySet());
                     }
                 }
             }, cleanerPeriod, cleanerPeriod, TimeUnit.MILLISECONDS);
@@ -335,6 +343,9 @@ public class RunQueue {
             eventService.subscribe(new RunStatusMessenger());
             //Log events for analytics
             eventService.subscribe(new AnalyticsMessenger());
+            // wake up tasks that are waiting for build or runner
+            eventService.subscribe(new BuildCompletionListener());
+            eventService.subscribe(new RunnerCapacityListener());
 
             if (slaves.length > 0) {
                 executor.execute(ThreadLocalPropagateContext.wrap(new RegisterSlaveRunnerTask(slaves, null)));
@@ -350,6 +361,41 @@ public class RunQueue {
         }
     }
 
+    /** Logs result of run task and publishes error event if task is failed or cancelled. */
+    private void afterRunTask(InternalRunTask internalRunTask, Throwable error) {
+        if (error == null) {
+            try {
+                internalRunTask.get();
+            } catch (CancellationException e) {
+                LOG.warn("Task {}, workspace '{}', project '{}' was cancelled",
+                         internalRunTask.id, internalRunTask.workspace, internalRunTask.project);
+                error = e;
+            } catch (ExecutionException e) {
+                error = e.getCause();
+                logError(internalRunTask, error == null ? e : error);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            logError(internalRunTask, error);
+        }
+        if (error != null) {
+            eventService.publish(RunnerEvent.errorEvent(internalRunTask.id, internalRunTask.workspace,
+                                                        internalRunTask.project, error.getMessage()));
+        }
+    }
+
+    private void logError(InternalRunTask runTask, Throwable t) {
+        String errorMessage = t.getMessage();
+        if (errorMessage != null) {
+            LOG.warn("Execution error, task {}, workspace '{}', project '{}', message '{}'",
+                     runTask.id, runTask.workspace, runTask.project, errorMessage);
+        } else {
+            LOG.warn(String.format("Execution error, task %d, workspace '%s', project '%s', message '%s'",
+                                   runTask.id, runTask.workspace, runTask.project, ""), t);
+        }
+    }
+
     protected void checkStarted() {
         if (!started.get()) {
             throw new IllegalStateException("The runner has not started yet and there is a delay.");
@@ -360,14 +406,15 @@ public class RunQueue {
     public void stop() {
         if (started.compareAndSet(true, false)) {
             boolean interrupted = false;
-            cleanScheduler.shutdownNow();
+            scheduler.shutdownNow();
             try {
-                if (!cleanScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                    LOG.warn("Unable terminate cleanScheduler");
+                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                    LOG.warn("Unable terminate scheduler");
                 }
             } catch (InterruptedException e) {
                 interrupted = true;
             }
+            healthChecker.stop();
             executor.shutdown();
             try {
                 if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
@@ -382,6 +429,9 @@ public class RunQueue {
             }
             tasks.clear();
             runnerListMapping.clear();
+            waitingTasks.clear();
+            capacityTracker.clear();
+            resourceLedger.clear();
             if (interrupted) {
                 Thread.currentThread().interrupt();
             }
@@ -480,67 +530,78 @@ public class RunQueue {
             }
         }
         request.setMemorySize(mem);
-        // When get memory size check available resources.
-        checkResources(workspaceDescriptor, request);
-        // Enables or disables debug mode
-        request.setInDebugMode(runOptions.isInDebugMode());
-        // Get application lifetime.
-        final String lifetimeAttr = workspaceDescriptor.getAttributes().get(Constants.RUNNER_LIFETIME);
-        int lifetime = lifetimeAttr != null ? Integer.parseInt(lifetimeAttr) : defLifetime;
-        if (lifetime <= 0) {
-            lifetime = Integer.MAX_VALUE;
-        }
-        request.setLifetime(lifetime);
-        // Options for runner.
-        final Map<String, String> options = runOptions.getOptions();
-        if (!options.isEmpty()) {
-            request.setOptions(options);
-        } else if (runnerConfig != null) {
-            request.setOptions(runnerConfig.getOptions());
-        }
-        final Map<String, String> envVariables = runOptions.getVariables();
-        if (!envVariables.isEmpty()) {
-            request.setVariables(envVariables);
-        } else if (runnerConfig != null) {
-            request.setVariables(runnerConfig.getVariables());
-        }
-        // Options for web shell that runner may provide to the server with running application.
-        request.setShellOptions(runOptions.getShellOptions());
-        final ValueHolder<BuildTaskDescriptor> buildTaskHolder = new ValueHolder<>();
-        // Sometime user may request to skip build of project before run.
-        final boolean skipBuild = runOptions.getSkipBuild();
-        BuildOptions buildOptions = runOptions.getBuildOptions();
-        BuildersDescriptor builders;
-        if (!skipBuild
-            && ((buildOptions != null && buildOptions.getBuilderName() != null)
-                || ((builders = projectDescriptor.getBuilders()) != null) && builders.getDefault() != null)) {
-            LOG.debug("Need build project '{}' from workspace '{}'", project, workspace);
-            if (buildOptions == null) {
-                buildOptions = dtoFactory.createDto(BuildOptions.class);
-            }
-            // We want bundle of application with all dependencies (libraries) that application needs.
-            buildOptions.setIncludeDependencies(true);
-            buildOptions.setSkipTest(true);
-            final RemoteServiceDescriptor builderService = getBuilderServiceDescriptor(workspace, serviceContext);
-            // schedule build
-            buildTaskHolder.set(startBuild(builderService, project, buildOptions));
-        }
-        final Callable<RemoteRunnerProcess> callable = createTaskFor(matchedRunners, request, buildTaskHolder);
         final Long id = sequence.getAndIncrement();
-        final InternalRunTask future = new InternalRunTask(ThreadLocalPropagateContext.wrap(callable), id, workspace, project);
         request.setId(id); // for getting callback events from remote runner
-        final RunQueueTask task = new RunQueueTask(id,
-                                                   request,
-                                                   maxWaitingTimeMillis,
-                                                   future,
-                                                   buildTaskHolder,
-                                                   eventService,
-                                                   notParsedEnvironmentId,
-                                                   serviceContext.getServiceUriBuilder());
-        tasks.put(id, task);
-        eventService.publish(RunnerEvent.queueStartedEvent(id, workspace, project));
-        executor.execute(future);
-        return task;
+        // When get memory size check available resources and reserve them for new application.
+        checkResources(workspaceDescriptor, request);
+        try {
+            // Enables or disables debug mode
+            request.setInDebugMode(runOptions.isInDebugMode());
+            // Get application lifetime.
+            final String lifetimeAttr = workspaceDescriptor.getAttributes().get(Constants.RUNNER_LIFETIME);
+            int lifetime = lifetimeAttr != null ? Integer.parseInt(lifetimeAttr) : defLifetime;
+            if (lifetime <= 0) {
+                lifetime = Integer.MAX_VALUE;
+            }
+            request.setLifetime(lifetime);
+            // Options for runner.
+            final Map<String, String> options = runOptions.getOptions();
+            if (!options.isEmpty()) {
+                request.setOptions(options);
+            } else if (runnerConfig != null) {
+                request.setOptions(runnerConfig.getOptions());
+            }
+            final Map<String, String> envVariables = runOptions.getVariables();
+            if (!envVariables.isEmpty()) {
+                request.setVariables(envVariables);
+            } else if (runnerConfig != null) {
+                request.setVariables(runnerConfig.getVariables());
+            }
+            // Options for web shell that runner may provide to the server with running application.
+            request.setShellOptions(runOptions.getShellOptions());
+            final ValueHolder<BuildTaskDescriptor> buildTaskHolder = new ValueHolder<>();
+            // Sometime user may request to skip build of project before run.
+            final boolean skipBuild = runOptions.getSkipBuild();
+            BuildOptions buildOptions = runOptions.getBuildOptions();
+            BuildersDescriptor builders;
+            if (!skipBuild
+                && ((buildOptions != null && buildOptions.getBuilderName() != null)
+                    || ((builders = projectDescriptor.getBuilders()) != null) && builders.getDefault() != null)) {
+                LOG.debug("Need build project '{}' from workspace '{}'", project, workspace);
+                if (buildOptions == null) {
+                    buildOptions = dtoFactory.createDto(BuildOptions.class);
+                }
+                // We want bundle of application with all dependencies (libraries) that application needs.
+                buildOptions.setIncludeDependencies(true);
+                buildOptions.setSkipTest(true);
+                final RemoteServiceDescriptor builderService = getBuilderServiceDescriptor(workspace, serviceContext);
+                // schedule build
+                buildTaskHolder.set(startBuild(builderService, project, buildOptions));
+            }
+            final Callable<RemoteRunnerProcess> callable = createTaskFor(matchedRunners, request, buildTaskHolder);
+            final InternalRunTask future = new InternalRunTask(ThreadLocalPropagateContext.wrap(callable), id, workspace, project);
+            final RunQueueTask task = new RunQueueTask(id,
+                                                       request,
+                                                       maxWaitingTimeMillis,
+                                                       future,
+                                                       buildTaskHolder,
+                                                       eventService,
+                                                       notParsedEnvironmentId,
+                                                       serviceContext.getServiceUriBuilder());
+            tasks.put(id, task);
+            eventService.publish(RunnerEvent.queueStartedEvent(id, workspace, project));
+            if (callable instanceof RemoteRunnerProcessCallable) {
+                // Doesn't need thread while waiting for build and runner.
+                ((RemoteRunnerProcessCallable)callable).start(future, true);
+            } else {
+                executor.execute(future);
+            }
+            return task;
+        } catch (RunnerException | RuntimeException e) {
+            // Task isn't added in queue, so nobody releases resources of it.
+            resourceLedger.release(id);
+            throw e;
+        }
     }
 
     private void resolveProjectRunnerEnvironments(String infra, RunRequest request, ProjectDescriptor projectDescriptor,
@@ -668,6 +729,7 @@ public class RunQueue {
                 );
             }
             checkMemory(wsId, availableMem, request.getMemorySize());
+            resourceLedger.reserve(request.getId(), wsId, request.getMemorySize());
         } finally {
             resourceCheckerLocks[index].unlock();
         }
@@ -676,56 +738,33 @@ public class RunQueue {
     // Switched to default for test.
     // private
     void checkMemory(String wsId, int availableMem, int mem) throws RunnerException {
-        for (RunQueueTask task : tasks.values()) {
-            final RunRequest request = task.getRequest();
-            if (wsId.equals(request.getWorkspace())) {
-                try {
-                    ApplicationStatus status;
-                    if (task.isStopped()) {
-                        continue;
-                    }
-                    if (task.isWaiting()
-                        || (status = task.getRemoteProcess().getApplicationProcessDescriptor().getStatus()) == ApplicationStatus.RUNNING
-                        || status == ApplicationStatus.NEW) {
-                        availableMem -= request.getMemorySize();
-                        if (availableMem < mem) {
-                            throw new RunnerException(
-                                    String.format("Not enough resources to start application. Available memory %dM but %dM required.",
-                                                  availableMem < 0 ? 0 : availableMem, mem)
-                            );
-                        }
-                    }
-                } catch (NotFoundException ignored) {
-                    // If remote process is not found, it is stopped and removed from remote server.
-                }
-            }
+        availableMem -= resourceLedger.getUsedMemory(wsId);
+        if (availableMem < mem) {
+            throw new RunnerException(
+                    String.format("Not enough resources to start application. Available memory %dM but %dM required.",
+                                  availableMem < 0 ? 0 : availableMem, mem)
+            );
         }
     }
 
+    /** Gets memory in megabytes that is used by applications of workspace, including applications that are waiting in queue. */
     int getUsedMemory(String workspaceId) {
-        int usedMemory = 0;
-        for (RunQueueTask task : tasks.values()) {
-            final RunRequest request = task.getRequest();
-            if (workspaceId.equals(request.getWorkspace())) {
-                try {
-                    ApplicationStatus status;
-                    if (task.isWaiting()
-                        || (!task.isStopped() &&
-                            ((status = task.getRemoteProcess().getApplicationProcessDescriptor().getStatus()) == ApplicationStatus.RUNNING
-                             || (status == ApplicationStatus.NEW)))) {
-                        usedMemory += request.getMemorySize();
-                    }
-                } catch (NotFoundException ignored) {
-                    // If remote process is not found, it is stopped and removed from remote server.
-                } catch (RunnerException e) {
-                    // If can't get remote process in some reason, probably it was not started at all or we aren't able to connect to
-                    // remote runner. Such errors should not prevent get info about available resources.
-                    LOG.warn("Unable get amount of memory used by application '{}' from workspace '{}'. Get error when try access " +
-                             "status of remote process. Error: {}", request.getProject(), request.getWorkspace(), e.getMessage());
-                }
-            }
-        }
-        return usedMemory;
+        return resourceLedger.getUsedMemory(workspaceId);
+    }
+
+    /** Gets number of applications of workspace that use resources, including applications that are waiting in queue. */
+    int getRunningApplications(String workspaceId) {
+        return resourceLedger.getApplications(workspaceId);
+    }
+
+    /** Gets memory in megabytes that is used by applications of all workspaces. */
+    int getTotalUsedMemory() {
+        return resourceLedger.getTotalUsedMemory();
+    }
+
+    /** Gets number of applications of all workspaces that use resources. */
+    int getTotalRunningApplications() {
+        return resourceLedger.getTotalApplications();
     }
 
     int getTotalMemory(WorkspaceDescriptor workspace) throws RunnerException {
@@ -900,6 +939,7 @@ public class RunQueue {
             return false;
         }
         final RemoteRunnerServer runnerService = runnerServers.remove(url);
+        capacityTracker.remove(url);
         return runnerService != null && doUnregisterRunners(url);
     }
 
@@ -993,12 +1033,29 @@ public class RunQueue {
     }
 
 
-    private class RemoteRunnerProcessCallable implements Callable<RemoteRunnerProcess> {
+    /**
+     * Waits for completion of build and for runner with enough resources and starts application on it. Doesn't hold thread
+     * while waiting. Each check is short task in executor, it is triggered by timer or by event about completion of build or
+     * about release of resources of runners, see {@link #signal()}.
+     */
+    private class RemoteRunnerProcessCallable implements Callable<RemoteRunnerProcess>, Runnable {
         private final ValueHolder<BuildTaskDescriptor> buildTaskHolder;
         private final RunRequest                       request;
         private final List<RemoteRunner>               matchedRunners;
         private final Set<Pair<String, String>>        lowDiskSpaceRunners;
         private final Set<Pair<String, String>>        criticalDiskSpaceRunners;
+        /** Number of signals that are not handled yet. Check is started when the first signal comes. */
+        private final AtomicInteger                    signals;
+        private final Runnable                         signalTask;
+
+        private          InternalRunTask     task;
+        private          boolean             reportCompletion;
+        private          Runnable            step;
+        private          Link                buildStatusLink;
+        private volatile RunTaskState        state;
+        private volatile ScheduledFuture<?>  timer;
+        /** Becomes {@code true} when task gets first event about its build. */
+        private volatile boolean             buildEventsReceived;
 
         public RemoteRunnerProcessCallable(ValueHolder<BuildTaskDescriptor> buildTaskHolder, RunRequest request,
                                            List<RemoteRunner> matchedRunners) {
@@ -1007,89 +1064,229 @@ public class RunQueue {
             this.matchedRunners = matchedRunners;
             lowDiskSpaceRunners = new HashSet<>();
             criticalDiskSpaceRunners = new HashSet<>();
+            signals = new AtomicInteger();
+            signalTask = new Runnable() {
+                @Override
+                public void run() {
+                    signal();
+                }
+            };
         }
 
-        @Override
-        public RemoteRunnerProcess call() throws Exception {
-            BuildTaskDescriptor buildDescriptor = buildTaskHolder.get();
-            if (buildDescriptor != null) {
-                final Link buildStatusLink = buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_GET_STATUS);
-                if (buildStatusLink == null) {
-                    throw new RunnerException("Invalid response from builder service. Unable get URL for checking build status");
+        /**
+         * Starts waiting for build and runner.
+         *
+         * @param task
+         *         task that gets result
+         * @param reportCompletion
+         *         if {@code true} result of task is logged and error event is published if task is failed or cancelled
+         */
+        void start(InternalRunTask task, boolean reportCompletion) {
+            this.task = task;
+            this.reportCompletion = reportCompletion;
+            // Context of current thread, e.g. current user, is restored each time when state of task is checked.
+            step = ThreadLocalPropagateContext.wrap((Runnable)this);
+            task.driver = this;
+            if (buildTaskHolder.get() != null) {
+                state = RunTaskState.WAITING_FOR_BUILD;
+                // Build may be completed before task starts listening to events, e.g. if builder reuses result of previous build.
+                waitingTasks.add(this);
+                signal();
+            } else {
+                state = RunTaskState.WAITING_FOR_RUNNER;
+                waitingTasks.add(this);
+                signal();
+            }
+        }
+
+        /** Requests check of state of task. Signals that come while check is running are coalesced into one more check. */
+        void signal() {
+            if (signals.getAndIncrement() == 0) {
+                try {
+                    executor.execute(step);
+                } catch (RejectedExecutionException e) {
+                    // RunQueue is stopped.
+                    signals.set(0);
                 }
-                for (; ; ) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        // Expected to get here if task is canceled. Try to cancel related runner process.
-                        tryCancelBuild(buildDescriptor);
-                        return null;
-                    }
-                    synchronized (this) {
-                        try {
-                            wait(checkBuildResultPeriod);
-                        } catch (InterruptedException e) {
-                            // Expected to get here if task is canceled. Try to cancel related build process.
-                            tryCancelBuild(buildDescriptor);
-                            return null;
-                        }
-                    }
-                    buildDescriptor = HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(buildStatusLink));
-                    // to be able show current state of build process with RunQueueTask.
-                    buildTaskHolder.set(buildDescriptor);
-                    final BuildStatus buildStatus = buildDescriptor.getStatus();
-                    if (buildStatus == BuildStatus.SUCCESSFUL) {
-                        request.withBuildTaskDescriptor(buildDescriptor);
-                        break; // get out from loop
-                    } else if (buildStatus == BuildStatus.CANCELLED || buildStatus == BuildStatus.FAILED) {
-                        String msg = "Unable start application. Build of application is failed or cancelled.";
-                        final Link logLink = buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_VIEW_LOG);
-                        if (logLink != null) {
-                            msg += (" Build logs: " + logLink.getHref());
-                        }
-                        throw new RunnerException(msg);
-                    } else if (buildStatus == BuildStatus.IN_PROGRESS || buildStatus == BuildStatus.IN_QUEUE) {
-                        // wait
-                        LOG.debug("Build in of project '{}' from workspace '{}' is progress", request.getProject(), request.getWorkspace());
+            }
+        }
+
+        void onBuildEvent(BuilderEvent event) {
+            if (state == RunTaskState.WAITING_FOR_BUILD) {
+                final BuildTaskDescriptor buildDescriptor = buildTaskHolder.get();
+                if (buildDescriptor != null && buildDescriptor.getTaskId() == event.getTaskId()
+                    && event.getWorkspace() != null && event.getWorkspace().equals(buildDescriptor.getWorkspace())) {
+                    buildEventsReceived = true;
+                    if (event.getType() != BuilderEvent.EventType.BEGIN) {
+                        signal();
                     }
                 }
             }
+        }
 
-            // List of runners that have enough resources for launch application.
-            final List<RemoteRunner> available = new LinkedList<>();
+        /** Build is polled rarely if builder sends events about it, just in case if event is lost. */
+        private long getBuildCheckPeriod() {
+            return buildEventsReceived ? Math.max(checkBuildResultPeriod, BUILD_EVENTS_FALLBACK_PERIOD) : checkBuildResultPeriod;
+        }
+
+        void onRunnerStateChanged() {
+            if (state == RunTaskState.WAITING_FOR_RUNNER) {
+                signal();
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
             for (; ; ) {
-                for (RemoteRunner runner : matchedRunners) {
-                    if (Thread.currentThread().isInterrupted()) {
-                        // Expected to get here if task is canceled. Stop immediately.
-                        return null;
+                if (state != RunTaskState.DONE) {
+                    doStep();
+                }
+                missed = signals.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /** Used if task that is returned by {@link #createTaskFor(List, RunRequest, ValueHolder)} is wrapped by subclass. */
+        @Override
+        public RemoteRunnerProcess call() throws Exception {
+            final InternalRunTask own = new InternalRunTask(this, request.getId(), request.getWorkspace(), request.getProject());
+            start(own, false);
+            try {
+                return own.get();
+            } catch (InterruptedException e) {
+                // Expected to get here if task is canceled.
+                own.cancel(false);
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception)cause;
+                }
+                throw e;
+            }
+        }
+
+        private void doStep() {
+            try {
+                if (task.isDone()) {
+                    // Task is cancelled.
+                    if (state == RunTaskState.WAITING_FOR_BUILD) {
+                        // Try to cancel related build process.
+                        tryCancelBuild(buildTaskHolder.get());
                     }
-                    RunnerState runnerState;
+                    done();
+                    return;
+                }
+                if (state == RunTaskState.WAITING_FOR_BUILD) {
+                    if (!checkBuild()) {
+                        schedule(getBuildCheckPeriod());
+                        return;
+                    }
+                    state = RunTaskState.WAITING_FOR_RUNNER;
+                }
+                final RemoteRunner runner = selectRunner();
+                if (runner == null) {
+                    // Wait and try again.
+                    schedule(checkAvailableRunnerPeriod);
+                    return;
+                }
+                LOG.info("Use runner '{}' at '{}'", runner.getName(), runner.getBaseUrl());
+                final RemoteRunnerProcess process = runner.run(request);
+                capacityTracker.invalidate(runner.getBaseUrl());
+                task.complete(process);
+                if (task.isCancelled()) {
+                    // Task is cancelled while application was starting.
                     try {
-                        runnerState = runner.getRemoteRunnerState();
+                        process.stop();
                     } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
-                        continue;
+                        LOG.warn(e.getMessage(), e);
                     }
-                    if (runnerState.getServerState().getFreeMemory() >= request.getMemorySize()
-                        && hasEnoughSpaceOnDisk(runner.getName(), runner.getBaseUrl(), runnerState)) {
+                }
+                done();
+            } catch (Exception e) {
+                task.fail(e);
+                done();
+            }
+        }
 
-                        available.add(runner);
-                    }
+        /** Gets {@code true} if build is successful. */
+        private boolean checkBuild() throws Exception {
+            if (buildStatusLink == null) {
+                buildStatusLink = buildTaskHolder.get().getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_GET_STATUS);
+                if (buildStatusLink == null) {
+                    throw new RunnerException("Invalid response from builder service. Unable get URL for checking build status");
                 }
-                if (available.isEmpty()) {
-                    synchronized (this) {
-                        try {
-                            // Wait and try again.
-                            wait(checkAvailableRunnerPeriod);
-                        } catch (InterruptedException e) {
-                            // Expected to get here if task is canceled.
-                            Thread.currentThread().interrupt();
-                            return null;
-                        }
-                    }
-                } else {
-                    final RemoteRunner runner = available.size() > 1 ? runnerSelector.select(available) : available.get(0);
-                    LOG.info("Use runner '{}' at '{}'", runner.getName(), runner.getBaseUrl());
-                    return runner.run(request);
+            }
+            final BuildTaskDescriptor buildDescriptor =
+                    HttpJsonHelper.request(BuildTaskDescriptor.class, DtoFactory.getInstance().clone(buildStatusLink));
+            // to be able show current state of build process with RunQueueTask.
+            buildTaskHolder.set(buildDescriptor);
+            final BuildStatus buildStatus = buildDescriptor.getStatus();
+            if (buildStatus == BuildStatus.SUCCESSFUL) {
+                request.withBuildTaskDescriptor(buildDescriptor);
+                return true;
+            } else if (buildStatus == BuildStatus.CANCELLED || buildStatus == BuildStatus.FAILED) {
+                String msg = "Unable start application. Build of application is failed or cancelled.";
+                final Link logLink = buildDescriptor.getLink(org.eclipse.che.api.builder.internal.Constants.LINK_REL_VIEW_LOG);
+                if (logLink != null) {
+                    msg += (" Build logs: " + logLink.getHref());
+                }
+                throw new RunnerException(msg);
+            }
+            // wait
+            LOG.debug("Build in of project '{}' from workspace '{}' is progress", request.getProject(), request.getWorkspace());
+            return false;
+        }
+
+        /** Gets runner that has enough resources for launch application or {@code null} if there is no such runner. */
+        private RemoteRunner selectRunner() {
+            // List of runners that have enough resources for launch application.
+            final List<RemoteRunner> available = new LinkedList<>();
+            for (RemoteRunner runner : matchedRunners) {
+                RunnerState runnerState;
+                try {
+                    runnerState = capacityTracker.getState(runner, checkAvailableRunnerPeriod);
+                } catch (Exception e) {
+                    LOG.error(e.getMessage(), e);
+                    continue;
                 }
+                if (runnerState.getServerState().getFreeMemory() >= request.getMemorySize()
+                    && hasEnoughSpaceOnDisk(runner.getName(), runner.getBaseUrl(), runnerState)) {
+
+                    available.add(runner);
+                }
+            }
+            if (available.isEmpty()) {
+                return null;
+            }
+            return available.size() > 1 ? runnerSelector.select(available) : available.get(0);
+        }
+
+        private void schedule(long delay) {
+            final ScheduledFuture<?> previous = timer;
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            try {
+                timer = scheduler.schedule(signalTask, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // RunQueue is stopped.
+            }
+        }
+
+        private void done() {
+            state = RunTaskState.DONE;
+            waitingTasks.remove(this);
+            final ScheduledFuture<?> myTimer = timer;
+            if (myTimer != null) {
+                myTimer.cancel(false);
+            }
+            if (reportCompletion) {
+                afterRunTask(task, null);
             }
         }
 
@@ -1140,18 +1337,44 @@ public class RunQueue {
         }
     }
 
+    private enum RunTaskState {
+        WAITING_FOR_BUILD,
+        WAITING_FOR_RUNNER,
+        DONE
+    }
+
     // for store workspace, project and id of process with FutureTask
     private static class InternalRunTask extends FutureTask<RemoteRunnerProcess> {
         final Long   id;
         final String workspace;
         final String project;
 
+        /** Completes this task without dedicated thread or {@code null} if task is executed by thread of executor. */
+        volatile RemoteRunnerProcessCallable driver;
+
         InternalRunTask(Callable<RemoteRunnerProcess> callable, Long id, String workspace, String project) {
             super(callable);
             this.id = id;
             this.workspace = workspace;
             this.project = project;
         }
+
+        void complete(RemoteRunnerProcess process) {
+            set(process);
+        }
+
+        void fail(Throwable error) {
+            setException(error);
+        }
+
+        @Override
+        protected void done() {
+            final RemoteRunnerProcessCallable myDriver = driver;
+            if (myDriver != null && isCancelled()) {
+                // Let driver cancel build and stop waiting.
+                myDriver.signal();
+            }
+        }
     }
 
     // >>>>>>>>>>>>>>>>>>>>> Groups runners by infra + workspace + project.
@@ -1205,72 +1428,54 @@ public class RunQueue {
 
     // >>>>>>>>>>>>>>>>>>>>>>>>>>>>> application start checker
 
-    private static class ApplicationUrlChecker implements Runnable {
-        final long taskId;
-        final URL  url;
-        final int  healthCheckerTimeout;
-        final int  healthCheckAttempts;
-
-        ApplicationUrlChecker(long taskId, URL url, int healthCheckerTimeout, int healthCheckAttempts) {
-            this.taskId = taskId;
-            this.url = url;
-            this.healthCheckerTimeout = healthCheckerTimeout;
-            this.healthCheckAttempts = healthCheckAttempts;
+    private static class ApplicationHealthMessenger implements ApplicationHealthChecker.Listener {
+        @Override
+        public void healthChanged(long taskId, URL url, ApplicationHealthChecker.Health health) {
+            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+            bm.setChannel(String.format("runner:app_health:%d", taskId));
+            bm.setBody(String.format("{\"url\":%s,\"status\":\"%s\"}", JsonUtils.getJsonString(url.toString()),
+                                     health == ApplicationHealthChecker.Health.UP ? "OK" : health.name()));
+            try {
+                WSConnectionContext.sendMessage(bm);
+            } catch (Exception e) {
+                LOG.error(e.getMessage(), e);
+            }
         }
+    }
 
-        @Override
-        public void run() {
-            boolean ok = false;
-            String requestMethod = HttpMethod.HEAD;
-            for (int i = 0; !ok && i < healthCheckAttempts; i++) {
-                if (Thread.currentThread().isInterrupted()) {
-                    return;
-                }
-                try {
-                    Thread.sleep(healthCheckerTimeout);
-                } catch (InterruptedException e) {
-                    return;
-                }
-                HttpURLConnection conn = null;
-                try {
-                    conn = (HttpURLConnection)url.openConnection();
-                    conn.setRequestMethod(requestMethod);
-                    conn.setConnectTimeout(1000);
-                    conn.setReadTimeout(1000);
-
-                    LOG.debug(String.format("Response code: %d.", conn.getResponseCode()));
-                    if (405 == conn.getResponseCode()) {
-                        // In case of Method not allowed, we use get instead of HEAD. X-HTTP-Method-Override would be nice but support is
-                        // to weak and will trigger much more GET than with this fallback.
-                        // Note: Response.Status in JAX-WS in JEE6 hasn't any status matching 405, so here we use int code comparison. Fixed
-                        // in JEE7.
-                        requestMethod = HttpMethod.GET;
-                    }
-                    Response.Status status = Response.Status.fromStatusCode(conn.getResponseCode());
-                    if (status == null) {
-                        continue;
-                    }
-                    if (Response.Status.Family.SUCCESSFUL == status.getFamily()
-                        || Response.Status.Family.REDIRECTION == status.getFamily()
-                        || Response.Status.Family.INFORMATIONAL == status.getFamily()) {
-                        ok = true;
-                        LOG.debug("Application URL '{}' - OK", url);
-                        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-                        bm.setChannel(String.format("runner:app_health:%d", taskId));
-                        bm.setBody(String.format("{\"url\":%s,\"status\":\"%s\"}", JsonUtils.getJsonString(url.toString()), "OK"));
-                        try {
-                            WSConnectionContext.sendMessage(bm);
-                        } catch (Exception e) {
-                            LOG.error(e.getMessage(), e);
-                        }
-                    }
-                } catch (IOException ignored) {
-                } finally {
-                    if (conn != null) {
-                        conn.disconnect();
-                    }
-                }
+    /** Checks whether application still holds resources of remote runner. */
+    private boolean isApplicationAlive(RunQueueTask task, RemoteRunnerProcess remote) {
+        try {
+            if (task.isStopped()) {
+                return false;
             }
+            final ApplicationStatus status = remote.getApplicationProcessDescriptor().getStatus();
+            return status == ApplicationStatus.NEW || status == ApplicationStatus.RUNNING;
+        } catch (NotFoundException e) {
+            // If remote process is not found, it is stopped and removed from remote server.
+            return false;
+        } catch (Exception e) {
+            // Don't release resources if we aren't able to connect to remote runner, try next time.
+            LOG.warn("Unable get status of application '{}' from workspace '{}'. Error: {}",
+                     task.getRequest().getProject(), task.getRequest().getWorkspace(), e.getMessage());
+            return true;
+        }
+    }
+
+    /** Sends message about changes of resources that are used by workspace. */
+    private void notifyResourcesChanged(String workspaceId) {
+        try {
+            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+            bm.setChannel(String.format("workspace:resources:%s", workspaceId));
+
+            final ResourcesDescriptor resourcesDescriptor =
+                    DtoFactory.getInstance().createDto(ResourcesDescriptor.class)
+                              .withUsedMemory(String.valueOf(getUsedMemory(workspaceId)))
+                              .withRunningApplications(String.valueOf(getRunningApplications(workspaceId)));
+            bm.setBody(DtoFactory.getInstance().toJson(resourcesDescriptor));
+            WSConnectionContext.sendMessage(bm);
+        } catch (Exception e) {
+            LOG.error(e.getMessage(), e);
         }
     }
 
@@ -1280,24 +1485,15 @@ public class RunQueue {
         @Override
         public void onEvent(RunnerEvent event) {
             switch (event.getType()) {
-                case RUN_TASK_ADDED_IN_QUEUE:
                 case STOPPED:
                 case ERROR:
                 case RUN_TASK_QUEUE_TIME_EXCEEDED:
                 case CANCELED:
-                    try {
-                        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-                        String workspaceId = event.getWorkspace();
-                        bm.setChannel(String.format("workspace:resources:%s", workspaceId));
-
-                        final ResourcesDescriptor resourcesDescriptor = DtoFactory.getInstance().createDto(ResourcesDescriptor.class)
-                                                                                  .withUsedMemory(
-                                                                                          String.valueOf(getUsedMemory(workspaceId)));
-                        bm.setBody(DtoFactory.getInstance().toJson(resourcesDescriptor));
-                        WSConnectionContext.sendMessage(bm);
-                    } catch (Exception e) {
-                        LOG.error(e.getMessage(), e);
-                    }
+                    // Application is terminated, resources of it are released only once, whatever event comes first.
+                    resourceLedger.release(event.getProcessId());
+                    // fall through
+                case RUN_TASK_ADDED_IN_QUEUE:
+                    notifyResourcesChanged(event.getWorkspace());
                     break;
             }
         }
@@ -1334,6 +1530,11 @@ public class RunQueue {
                     case CANCELED:
                     case ERROR:
                         bm.setChannel(String.format("runner:status:%d", id));
+                        if (event.getType() != RunnerEvent.EventType.PREPARATION_STARTED
+                            && event.getType() != RunnerEvent.EventType.STARTED) {
+                            // Stop checking even if descriptor of application isn't available any more.
+                            healthChecker.unwatch(id);
+                        }
                         try {
                             final ApplicationProcessDescriptor descriptor = getTask(id).getDescriptor();
                             bm.setBody(DtoFactory.getInstance().toJson(descriptor));
@@ -1341,10 +1542,7 @@ public class RunQueue {
                             if (event.getType() == RunnerEvent.EventType.STARTED) {
                                 final Link appLink = descriptor.getLink(Constants.LINK_REL_WEB_URL);
                                 if (appLink != null) {
-                                    executor.execute(new ApplicationUrlChecker(id,
-                                                                               new URL(appLink.getHref()),
-                                                                               APPLICATION_CHECK_URL_TIMEOUT,
-                                                                               APPLICATION_CHECK_URL_COUNT));
+                                    healthChecker.watch(id, new URL(appLink.getHref()));
                                 }
                             }
                         } catch (RunnerException re) {
@@ -1379,6 +1577,52 @@ public class RunQueue {
         }
     }
 
+    private class BuildCompletionListener implements EventSubscriber<BuilderEvent> {
+        @Override
+        public void onEvent(BuilderEvent event) {
+            switch (event.getType()) {
+                case BEGIN:
+                case DONE:
+                case CANCELED:
+                case BUILD_TASK_QUEUE_TIME_EXCEEDED:
+                    for (RemoteRunnerProcessCallable waitingTask : waitingTasks) {
+                        waitingTask.onBuildEvent(event);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private class RunnerCapacityListener implements EventSubscriber<RunnerEvent> {
+        @Override
+        public void onEvent(RunnerEvent event) {
+            switch (event.getType()) {
+                case STARTED:
+                case STOPPED:
+                case CANCELED:
+                case ERROR:
+                    final RunQueueTask task = tasks.get(event.getProcessId());
+                    if (task != null) {
+                        try {
+                            final RemoteRunnerProcess remote = task.getRemoteProcess();
+                            if (remote != null) {
+                                capacityTracker.stateChanged(remote.getServerUrl());
+                            }
+                        } catch (Exception ignored) {
+                            // Application isn't started on remote runner.
+                        }
+                    }
+                    if (event.getType() != RunnerEvent.EventType.STARTED) {
+                        // Resources may be released.
+                        for (RemoteRunnerProcessCallable waitingTask : waitingTasks) {
+                            waitingTask.onRunnerStateChanged();
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
     private class AnalyticsMessenger implements EventSubscriber<RunnerEvent> {
 
         @Override
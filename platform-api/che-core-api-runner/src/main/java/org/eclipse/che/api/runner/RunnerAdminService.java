@@ -17,6 +17,7 @@ import org.eclipse.che.api.core.rest.annotations.GenerateLink;
 import org.eclipse.che.api.core.rest.shared.dto.Link;
 import org.eclipse.che.api.runner.dto.ApplicationProcessDescriptor;
 import org.eclipse.che.api.runner.dto.RunnerDescriptor;
+import org.eclipse.che.api.runner.dto.RunnerMetric;
 import org.eclipse.che.api.runner.dto.RunnerServer;
 import org.eclipse.che.api.runner.dto.RunnerServerLocation;
 import org.eclipse.che.api.runner.dto.RunnerServerRegistration;
@@ -41,6 +42,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -180,4 +182,31 @@ public class RunnerAdminService extends Service {
         }
         return result;
     }
+
+    @ApiOperation(value = "Get resources used by applications",
+                  notes = "Get RAM and number of applications that use it in all workspaces",
+                  response = RunnerMetric.class,
+                  responseContainer = "List",
+                  position = 5)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 403, message = "User not authorized to call this method"),
+            @ApiResponse(code = 500, message = "Internal Server Error")})
+    @GenerateLink(rel = Constants.LINK_REL_RUNNER_RESOURCES)
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/resources")
+    public List<RunnerMetric> getUsedResources() {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final List<RunnerMetric> result = new ArrayList<>(2);
+        result.add(dtoFactory.createDto(RunnerMetric.class)
+                             .withName(RunnerMetric.MEMORY)
+                             .withValue(String.valueOf(runner.getTotalUsedMemory()))
+                             .withDescription("RAM used by applications in megabytes"));
+        result.add(dtoFactory.createDto(RunnerMetric.class)
+                             .withName(RunnerMetric.RUNNING_APPS)
+                             .withValue(String.valueOf(runner.getTotalRunningApplications()))
+                             .withDescription("Number of applications that use RAM, including applications waiting in queue"));
+        return result;
+    }
 }
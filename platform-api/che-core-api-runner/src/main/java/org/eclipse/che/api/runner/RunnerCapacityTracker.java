@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import org.eclipse.che.api.runner.dto.RunnerState;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the latest known state of remote runners. All tasks that are waiting for a runner share the same state, so state of
+ * each runner is requested at most once per check period regardless of number of waiting tasks.
+ * <p/>
+ * State of runner server is marked as stale when RunQueue gets event about start or stop of application on that server. State
+ * of server that sends such events is refreshed only after next event (or after {@link #PUSHED_STATE_MAX_AGE} as safety net),
+ * state of other servers is polled, it expires after check period.
+ *
+ * @author agent
+ */
+final class RunnerCapacityTracker {
+    /** Max age of state of runner server that notifies about changes of its state. */
+    static final long PUSHED_STATE_MAX_AGE = TimeUnit.MINUTES.toMillis(1);
+
+    private final ConcurrentMap<RemoteRunner, Entry> entries;
+    /** URLs of servers that notify about changes of their state. */
+    private final Set<String>                        pushingServers;
+
+    RunnerCapacityTracker() {
+        entries = new ConcurrentHashMap<>();
+        pushingServers = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Gets state of remote runner. Cached state is returned if it is fresh enough, otherwise state is requested from remote
+     * server.
+     *
+     * @param runner
+     *         remote runner
+     * @param pollPeriod
+     *         max age in milliseconds of cached state of runner server that doesn't notify about changes of its state
+     * @throws RunnerException
+     *         if state of runner is expired and can't be requested from remote server
+     */
+    RunnerState getState(RemoteRunner runner, long pollPeriod) throws RunnerException {
+        Entry entry = entries.get(runner);
+        if (entry == null) {
+            final Entry newEntry = new Entry(runner);
+            entry = entries.putIfAbsent(runner, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        return entry.get(pushingServers.contains(runner.getBaseUrl()) ? PUSHED_STATE_MAX_AGE : pollPeriod);
+    }
+
+    /**
+     * Marks state of all runners of server as stale. Called when RunQueue gets notification about change of state of server.
+     *
+     * @param serverUrl
+     *         URL of runner server
+     */
+    void stateChanged(String serverUrl) {
+        pushingServers.add(serverUrl);
+        invalidate(serverUrl);
+    }
+
+    /**
+     * Marks state of all runners of server as stale without treating server as one that notifies about changes of its state.
+     * Called when RunQueue changes state of server itself, e.g. starts new application.
+     *
+     * @param serverUrl
+     *         URL of runner server
+     */
+    void invalidate(String serverUrl) {
+        for (Entry entry : entries.values()) {
+            if (serverUrl.equals(entry.runner.getBaseUrl())) {
+                entry.invalidate();
+            }
+        }
+    }
+
+    /** Forgets state of all runners of server, e.g. when server is unregistered. */
+    void remove(String serverUrl) {
+        pushingServers.remove(serverUrl);
+        for (RemoteRunner runner : entries.keySet()) {
+            if (serverUrl.equals(runner.getBaseUrl())) {
+                entries.remove(runner);
+            }
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        pushingServers.clear();
+    }
+
+    private static final class Entry {
+        final RemoteRunner  runner;
+        /** Incremented each time when state of runner becomes stale. */
+        final AtomicInteger version;
+
+        private RunnerState state;
+        private long        updated;
+        private int         stateVersion;
+
+        Entry(RemoteRunner runner) {
+            this.runner = runner;
+            version = new AtomicInteger();
+        }
+
+        synchronized RunnerState get(long maxAge) throws RunnerException {
+            final long now = System.currentTimeMillis();
+            final int currentVersion = version.get();
+            if (state == null || stateVersion != currentVersion || (now - updated) >= maxAge) {
+                state = runner.getRemoteRunnerState();
+                updated = now;
+                // If state is invalidated while we are getting it, it is requested again next time.
+                stateVersion = currentVersion;
+            }
+            return state;
+        }
+
+        /** Doesn't wait while state is being requested from remote server. */
+        void invalidate() {
+            version.incrementAndGet();
+        }
+    }
+}
@@ -279,7 +279,7 @@ public class RunnerService extends Service {
     }
 
     @ApiOperation(value = "Get available RAM resources",
-                  notes = "Get RAM resources of a workspace: used and free RAM",
+                  notes = "Get RAM resources of a workspace: used and free RAM, number of applications that use RAM",
                   response = ResourcesDescriptor.class,
                   position = 7)
     @ApiResponses(value = {
@@ -292,7 +292,8 @@ public class RunnerService extends Service {
                                             @PathParam("ws-id") String workspace) throws Exception {
         return DtoFactory.getInstance().createDto(ResourcesDescriptor.class)
                          .withTotalMemory(String.valueOf(runQueue.getTotalMemory(workspace, getServiceContext())))
-                         .withUsedMemory(String.valueOf(runQueue.getUsedMemory(workspace)));
+                         .withUsedMemory(String.valueOf(runQueue.getUsedMemory(workspace)))
+                         .withRunningApplications(String.valueOf(runQueue.getRunningApplications(workspace)));
     }
 
     @ApiOperation(value = "Get available runner environments",
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps amount of resources that are used by applications of each workspace. Memory of application is reserved when RunQueue accepts
+ * request to run it and is released when RunQueue gets event about termination of application, so used resources of workspace are
+ * known without requesting status of all its applications from remote runners.
+ * <p/>
+ * Each task is released at most once, so release of task that isn't reserved or is already released is ignored. That allows to
+ * release task on any event that means termination of application without tracking which of them came first.
+ *
+ * @author agent
+ */
+final class WorkspaceResourceLedger {
+    private final ConcurrentMap<String, Usage>      usages;
+    /** Workspace and memory of each task that holds resources. */
+    private final ConcurrentMap<Long, Reservation> reservations;
+    private final AtomicInteger                    totalMemory;
+    private final AtomicInteger                    totalApplications;
+
+    WorkspaceResourceLedger() {
+        usages = new ConcurrentHashMap<>();
+        reservations = new ConcurrentHashMap<>();
+        totalMemory = new AtomicInteger();
+        totalApplications = new AtomicInteger();
+    }
+
+    /**
+     * Reserves memory for application of workspace.
+     *
+     * @param taskId
+     *         id of task that runs application
+     * @param workspace
+     *         id of workspace
+     * @param memory
+     *         memory of application in megabytes
+     * @return {@code false} if task already holds resources
+     */
+    boolean reserve(long taskId, String workspace, int memory) {
+        if (reservations.putIfAbsent(taskId, new Reservation(workspace, memory)) != null) {
+            return false;
+        }
+        Usage usage = usages.get(workspace);
+        if (usage == null) {
+            final Usage newUsage = new Usage();
+            usage = usages.putIfAbsent(workspace, newUsage);
+            if (usage == null) {
+                usage = newUsage;
+            }
+        }
+        usage.add(memory, 1);
+        totalMemory.addAndGet(memory);
+        totalApplications.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Releases resources of task.
+     *
+     * @return {@code false} if task doesn't hold resources
+     */
+    boolean release(long taskId) {
+        final Reservation reservation = reservations.remove(taskId);
+        if (reservation == null) {
+            return false;
+        }
+        final Usage usage = usages.get(reservation.workspace);
+        if (usage != null) {
+            usage.add(-reservation.memory, -1);
+        }
+        totalMemory.addAndGet(-reservation.memory);
+        totalApplications.decrementAndGet();
+        return true;
+    }
+
+    /** Checks whether task holds resources. */
+    boolean isReserved(long taskId) {
+        return reservations.containsKey(taskId);
+    }
+
+    /** Gets memory in megabytes that is used by applications of workspace. */
+    int getUsedMemory(String workspace) {
+        final Usage usage = usages.get(workspace);
+        return usage == null ? 0 : usage.memory;
+    }
+
+    /** Gets number of applications of workspace that hold resources. */
+    int getApplications(String workspace) {
+        final Usage usage = usages.get(workspace);
+        return usage == null ? 0 : usage.applications;
+    }
+
+    /** Gets memory in megabytes that is used by applications of all workspaces. */
+    int getTotalUsedMemory() {
+        return totalMemory.get();
+    }
+
+    /** Gets number of applications of all workspaces that hold resources. */
+    int getTotalApplications() {
+        return totalApplications.get();
+    }
+
+    void clear() {
+        reservations.clear();
+        usages.clear();
+        totalMemory.set(0);
+        totalApplications.set(0);
+    }
+
+    private static final class Reservation {
+        final String workspace;
+        final int    memory;
+
+        Reservation(String workspace, int memory) {
+            this.workspace = workspace;
+            this.memory = memory;
+        }
+    }
+
+    /*
+    Entry of workspace is never removed, even if workspace doesn't use resources anymore, otherwise concurrent reserve could update
+    entry that isn't in map. Entry is tiny and number of workspaces that use runners is limited.
+     */
+    private static final class Usage {
+        volatile int memory;
+        volatile int applications;
+
+        synchronized void add(int memoryDelta, int applicationsDelta) {
+            memory += memoryDelta;
+            applications += applicationsDelta;
+        }
+    }
+}
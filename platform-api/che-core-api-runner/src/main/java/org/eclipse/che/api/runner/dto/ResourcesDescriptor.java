@@ -32,4 +32,11 @@ public interface ResourcesDescriptor {
     void setUsedMemory(String memory);
 
     ResourcesDescriptor withUsedMemory(String memory);
+
+    @ApiModelProperty(value = "Number of applications that use RAM, including applications waiting in queue")
+    String getRunningApplications();
+
+    void setRunningApplications(String runningApplications);
+
+    ResourcesDescriptor withRunningApplications(String runningApplications);
 }
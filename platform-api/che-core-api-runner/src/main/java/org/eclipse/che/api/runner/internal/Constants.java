@@ -17,6 +17,7 @@ public class Constants {
     public static final String LINK_REL_UNREGISTER_RUNNER_SERVER = "unregister runner server";
     public static final String LINK_REL_REGISTERED_RUNNER_SERVER = "registered runner server";
     public static final String LINK_REL_RUNNER_TASKS             = "runner tasks";
+    public static final String LINK_REL_RUNNER_RESOURCES         = "runner resources";
     public static final String LINK_REL_AVAILABLE_RUNNERS        = "available runners";
     public static final String LINK_REL_SERVER_STATE             = "server state";
     public static final String LINK_REL_RUNNER_STATE             = "runner state";
@@ -64,6 +65,8 @@ public class Constants {
     public static final String APP_LIFETIME                       = "runner.app_lifetime";
     /** Name of configuration parameter that sets amount of memory (in megabytes) for running applications. */
     public static final String TOTAL_APPS_MEM_SIZE                = "runner.total_apps_mem_size_mb";
+    /** Max number of applications which health is checked at the same time. */
+    public static final String APP_HEALTH_CHECK_MAX_CONCURRENT    = "runner.app_health_check.max_concurrent";
 
     public static final String RUNNER_ASSIGNED_TO_WORKSPACE = "runner.assigned_to_workspace";
     public static final String RUNNER_ASSIGNED_TO_PROJECT   = "runner.assigned_to_project";
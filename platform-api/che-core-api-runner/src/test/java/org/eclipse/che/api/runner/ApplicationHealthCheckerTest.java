@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/** @author agent */
+public class ApplicationHealthCheckerTest {
+    private HttpServer                            server;
+    private URL                                   url;
+    private AtomicInteger                         responseCode;
+    private List<ApplicationHealthChecker.Health> transitions;
+    private ApplicationHealthChecker              checker;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        responseCode = new AtomicInteger(503);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/app", exchange -> {
+            exchange.sendResponseHeaders(responseCode.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        url = new URL("http://localhost:" + server.getAddress().getPort() + "/app");
+        transitions = new CopyOnWriteArrayList<>();
+        checker = new ApplicationHealthChecker(2, 10, 40, 20, (taskId, url, health) -> transitions.add(health));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        checker.stop();
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldNotifyAboutChangesOfHealth() throws Exception {
+        checker.watch(1, url);
+        Thread.sleep(200);
+        // Application is starting, nothing changed yet.
+        assertEquals(checker.getHealth(1), ApplicationHealthChecker.Health.UNKNOWN);
+        assertEquals(transitions.size(), 0);
+
+        responseCode.set(200);
+        waitForTransitions(1);
+        assertEquals(checker.getHealth(1), ApplicationHealthChecker.Health.UP);
+
+        responseCode.set(500);
+        waitForTransitions(2);
+        assertEquals(checker.getHealth(1), ApplicationHealthChecker.Health.DOWN);
+
+        checker.unwatch(1);
+        assertNull(checker.getHealth(1));
+        assertEquals(checker.size(), 0);
+    }
+
+    private void waitForTransitions(int expected) throws Exception {
+        final long end = System.currentTimeMillis() + 5000;
+        while (transitions.size() < expected && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+        assertEquals(transitions.size(), expected);
+    }
+}
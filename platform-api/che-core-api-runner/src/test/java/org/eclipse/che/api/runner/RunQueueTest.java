@@ -25,6 +25,7 @@ import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.ProjectDescriptor;
 import org.eclipse.che.api.project.shared.dto.RunnerEnvironment;
 import org.eclipse.che.api.project.shared.dto.RunnersDescriptor;
+import org.eclipse.che.api.runner.dto.ApplicationProcessDescriptor;
 import org.eclipse.che.api.runner.dto.RunOptions;
 import org.eclipse.che.api.runner.dto.RunRequest;
 import org.eclipse.che.api.runner.dto.RunnerDescriptor;
@@ -488,6 +489,31 @@ public class RunQueueTest {
         assertEquals(buildOptions.getBuilderName(), "ant"); // overridden with options even maven is set in project configuration
     }
 
+    @Test
+    public void testDoesNotWaitForCheckPeriodIfBuildIsAlreadyCompleted() throws Exception {
+        RemoteRunnerServer runnerServer = registerDefaultRunnerServer();
+        RemoteRunner runner = runnerServer.getRemoteRunner("java/web");
+        doReturn(dto(RunnerState.class).withServerState(dto(ServerState.class).withFreeMemory(512))).when(runner).getRemoteRunnerState();
+        RemoteRunnerProcess process = spy(new RemoteRunnerProcess(runnerServer.getBaseUrl(), runner.getName(), 1L));
+        doReturn(process).when(runner).run(any(RunRequest.class));
+
+        ServiceContext serviceContext = newServiceContext();
+        project.withBuilders(dto(BuildersDescriptor.class).withDefault("maven"))
+               .withRunners(dto(RunnersDescriptor.class).withDefault("system:/java/web/tomcat7"));
+
+        doReturn(project).when(runQueue).getProjectDescriptor(wsId, pPath, serviceContext);
+        doReturn(workspace).when(runQueue).getWorkspaceDescriptor(wsId, serviceContext);
+        doNothing().when(runQueue).checkResources(eq(workspace), any(RunRequest.class));
+
+        // Build is completed before task starts waiting for it, e.g. result of previous build is reused.
+        mockBuilderApi(0);
+        runQueue.checkBuildResultPeriod = 60000;
+
+        runQueue.run(wsId, pPath, serviceContext, null);
+
+        verify(runner, timeout(1000)).run(any(RunRequest.class));
+    }
+
     @Test
     public void testSkipBuildNoBuilderName() throws Exception {
         RemoteRunnerServer runnerServer = registerDefaultRunnerServer();
@@ -669,8 +695,42 @@ public class RunQueueTest {
         checkEvents(RunnerEvent.EventType.RUN_TASK_ADDED_IN_QUEUE, RunnerEvent.EventType.RUN_TASK_QUEUE_TIME_EXCEEDED);
     }
 
+    @Test
+    public void testReleaseResourcesOfStoppedApplicationIfEventIsLost() throws Exception {
+        RemoteRunnerServer runnerServer = registerDefaultRunnerServer();
+        RemoteRunner runner = runnerServer.getRemoteRunner("java/web");
+        doReturn(dto(RunnerState.class).withServerState(dto(ServerState.class).withFreeMemory(512))).when(runner).getRemoteRunnerState();
+        RemoteRunnerProcess process = spy(new RemoteRunnerProcess(runnerServer.getBaseUrl(), runner.getName(), 1L));
+        doReturn(process).when(runner).run(any(RunRequest.class));
+        doReturn(dto(ApplicationProcessDescriptor.class).withStatus(ApplicationStatus.RUNNING))
+                .when(process).getApplicationProcessDescriptor();
+
+        ServiceContext serviceContext = newServiceContext();
+        project.withRunners(dto(RunnersDescriptor.class).withDefault("system:/java/web/tomcat7"));
+        doReturn(project).when(runQueue).getProjectDescriptor(wsId, pPath, serviceContext);
+        // Resources are reserved by checkResources, don't mock it. Give workspace enough memory instead.
+        workspace.getAttributes().put(Constants.RUNNER_MAX_MEMORY_SIZE, "512");
+        doReturn(workspace).when(runQueue).getWorkspaceDescriptor(wsId, serviceContext);
+
+        runQueue.run(wsId, pPath, serviceContext, dto(RunOptions.class).withMemorySize(256));
+        verify(runner, timeout(1000)).run(any(RunRequest.class));
+        // Cleaner runs every second and must not release resources of running application.
+        TimeUnit.MILLISECONDS.sleep(1500);
+        assertEquals(runQueue.getUsedMemory(wsId), 256);
+
+        // Application is stopped but event about it never comes.
+        doReturn(dto(ApplicationProcessDescriptor.class).withStatus(ApplicationStatus.STOPPED))
+                .when(process).getApplicationProcessDescriptor();
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (runQueue.getUsedMemory(wsId) != 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        assertEquals(runQueue.getUsedMemory(wsId), 0);
+        assertEquals(runQueue.getRunningApplications(wsId), 0);
+    }
+
     private String mockBuilderApi(final int inProgressNum) throws Exception {
-        assertTrue(inProgressNum >= 1);
+        assertTrue(inProgressNum >= 0);
         final BuildTaskDescriptor buildTaskQueue = dto(BuildTaskDescriptor.class).withStatus(BuildStatus.IN_QUEUE);
         String statusLink = String.format("http://localhost:8080/api/builder/%s/status/%d", wsId, 1);
         buildTaskQueue.getLinks().add(dto(Link.class).withMethod(HttpMethod.GET)
@@ -694,12 +754,8 @@ public class RunQueueTest {
 
             @Override
             public BuildTaskDescriptor answer(InvocationOnMock invocation) throws Throwable {
-                if (tick == 0) {
-                    ++tick;
-                    return buildTaskQueue;
-                } else if (tick < inProgressNum) {
-                    ++tick;
-                    return buildTaskProgress;
+                if (tick < inProgressNum) {
+                    return tick++ == 0 ? buildTaskQueue : buildTaskProgress;
                 }
                 return buildTaskDone;
             }
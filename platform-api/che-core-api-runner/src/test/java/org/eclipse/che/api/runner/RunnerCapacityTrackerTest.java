@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.api.runner.dto.RunnerState;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+
+/** @author agent */
+public class RunnerCapacityTrackerTest {
+    private RunnerCapacityTracker tracker;
+    private CountingRunner        runner;
+
+    @BeforeMethod
+    public void setUp() {
+        tracker = new RunnerCapacityTracker();
+        runner = new CountingRunner("http://localhost:8080/api/internal/runner", "java/web");
+    }
+
+    @Test
+    public void testStateIsSharedWithinPollPeriod() throws Exception {
+        tracker.getState(runner, 60000);
+        tracker.getState(runner, 60000);
+        Assert.assertEquals(runner.requests, 1);
+    }
+
+    @Test
+    public void testStateIsRequestedAfterPollPeriod() throws Exception {
+        tracker.getState(runner, 0);
+        tracker.getState(runner, 0);
+        Assert.assertEquals(runner.requests, 2);
+    }
+
+    @Test
+    public void testStateIsRequestedAfterInvalidation() throws Exception {
+        tracker.getState(runner, 60000);
+        tracker.invalidate(runner.getBaseUrl());
+        tracker.getState(runner, 60000);
+        Assert.assertEquals(runner.requests, 2);
+    }
+
+    @Test
+    public void testPushedStateIsNotPolled() throws Exception {
+        tracker.stateChanged(runner.getBaseUrl());
+        tracker.getState(runner, 0);
+        // Server notifies about changes of its state, poll period is ignored.
+        tracker.getState(runner, 0);
+        Assert.assertEquals(runner.requests, 1);
+        tracker.stateChanged(runner.getBaseUrl());
+        tracker.getState(runner, 0);
+        Assert.assertEquals(runner.requests, 2);
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        tracker.stateChanged(runner.getBaseUrl());
+        tracker.getState(runner, 0);
+        tracker.remove(runner.getBaseUrl());
+        tracker.getState(runner, 0);
+        tracker.getState(runner, 0);
+        Assert.assertEquals(runner.requests, 3);
+    }
+
+    private static class CountingRunner extends RemoteRunner {
+        final RunnerState state = mock(RunnerState.class);
+        int requests;
+
+        CountingRunner(String baseUrl, String name) {
+            super(baseUrl, name, Collections.<Link>emptyList());
+        }
+
+        @Override
+        public RunnerState getRemoteRunnerState() throws RunnerException {
+            requests++;
+            return state;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.runner;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/** @author agent */
+public class WorkspaceResourceLedgerTest {
+    private WorkspaceResourceLedger ledger;
+
+    @BeforeMethod
+    public void setUp() {
+        ledger = new WorkspaceResourceLedger();
+    }
+
+    @Test
+    public void shouldCountResourcesOfEachWorkspace() {
+        assertTrue(ledger.reserve(1, "ws1", 256));
+        assertTrue(ledger.reserve(2, "ws1", 128));
+        assertTrue(ledger.reserve(3, "ws2", 512));
+
+        assertEquals(ledger.getUsedMemory("ws1"), 384);
+        assertEquals(ledger.getApplications("ws1"), 2);
+        assertEquals(ledger.getUsedMemory("ws2"), 512);
+        assertEquals(ledger.getApplications("ws2"), 1);
+        assertEquals(ledger.getUsedMemory("ws3"), 0);
+        assertEquals(ledger.getApplications("ws3"), 0);
+        assertEquals(ledger.getTotalUsedMemory(), 896);
+        assertEquals(ledger.getTotalApplications(), 3);
+
+        assertTrue(ledger.release(1));
+        assertEquals(ledger.getUsedMemory("ws1"), 128);
+        assertEquals(ledger.getApplications("ws1"), 1);
+        assertEquals(ledger.getTotalUsedMemory(), 640);
+        assertEquals(ledger.getTotalApplications(), 2);
+    }
+
+    @Test
+    public void shouldReleaseTaskOnlyOnce() {
+        assertTrue(ledger.reserve(1, "ws1", 256));
+        assertFalse(ledger.reserve(1, "ws1", 256));
+        assertEquals(ledger.getUsedMemory("ws1"), 256);
+        assertTrue(ledger.isReserved(1));
+
+        assertTrue(ledger.release(1));
+        assertFalse(ledger.isReserved(1));
+        assertFalse(ledger.release(1));
+        // Task that has never been reserved.
+        assertFalse(ledger.release(2));
+        assertEquals(ledger.getUsedMemory("ws1"), 0);
+        assertEquals(ledger.getApplications("ws1"), 0);
+        assertEquals(ledger.getTotalUsedMemory(), 0);
+    }
+
+    @Test
+    public void shouldKeepConsistentStateWhenUpdatedConcurrently() throws Exception {
+        final int threadsNum = 8;
+        final int tasksPerThread = 1000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>(threadsNum);
+        for (int i = 0; i < threadsNum; i++) {
+            final int first = i * tasksPerThread;
+            final Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int id = first; id < first + tasksPerThread; id++) {
+                        ledger.reserve(id, "ws" + (id % 3), 64);
+                        // Release every other task twice, only the first release counts.
+                        if (id % 2 == 0) {
+                            ledger.release(id);
+                            ledger.release(id);
+                        }
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        final int remaining = threadsNum * tasksPerThread / 2;
+        assertEquals(ledger.getTotalApplications(), remaining);
+        assertEquals(ledger.getTotalUsedMemory(), remaining * 64);
+        assertEquals(ledger.getApplications("ws0") + ledger.getApplications("ws1") + ledger.getApplications("ws2"), remaining);
+    }
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throughput of {@link PathLockFactory} with the previous implementation that kept all locks of mount point in one
+ * linked list guarded by single monitor. Each benchmark thread locks random files in a tree of {@code width * width}
+ * files, every tenth lock is exclusive.
+ * <p/>
+ * Benchmark isn't compiled in regular build, run it with {@code benchmarks} profile:
+ * <pre>
+ *     mvn -Pbenchmarks test-compile exec:java -Dexec.classpathScope=test \
+ *         -Dexec.mainClass=org.eclipse.che.api.vfs.server.PathLockFactoryBenchmark
+ * </pre>
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(16)
+public class PathLockFactoryBenchmark {
+    private static final int MAX_THREADS = 1024;
+
+    @Param({"8", "32"})
+    private int width;
+
+    private Path[]                 paths;
+    private PathLockFactory        pathLockFactory;
+    private MonitorPathLockFactory monitorPathLockFactory;
+
+    @Setup
+    public void setUp() {
+        paths = new Path[width * width];
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < width; j++) {
+                paths[i * width + j] = Path.fromString(String.format("/project%d/src/file%d", i, j));
+            }
+        }
+        pathLockFactory = new PathLockFactory(MAX_THREADS);
+        monitorPathLockFactory = new MonitorPathLockFactory(MAX_THREADS);
+    }
+
+    @Benchmark
+    public void hierarchicalLockTable() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(paths[random.nextInt(paths.length)], random.nextInt(10) == 0);
+        lock.acquire(30000);
+        try {
+            work();
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Benchmark
+    public void singleMonitor() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Path path = paths[random.nextInt(paths.length)];
+        final int permits = random.nextInt(10) == 0 ? MAX_THREADS : 1;
+        monitorPathLockFactory.acquire(path, permits, 30000);
+        try {
+            work();
+        } finally {
+            monitorPathLockFactory.release(path, permits);
+        }
+    }
+
+    private static void work() {
+        // Emulate short access to the file metadata.
+        org.openjdk.jmh.infra.Blackhole.consumeCPU(64);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PathLockFactoryBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /** Previous implementation of {@link PathLockFactory}. It is kept here only for comparison. */
+    static final class MonitorPathLockFactory {
+        private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+
+        private final int  maxThreads;
+        private final Node tail = new Node(null, 0, null);
+
+        MonitorPathLockFactory(int maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+
+        synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
+            final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
+            long waitTime = timeoutMilliseconds;
+            while (!tryAcquire(path, permits)) {
+                try {
+                    wait(waitTime);
+                } catch (InterruptedException e) {
+                    notifyAll();
+                    throw new RuntimeException(e);
+                }
+                long now = System.currentTimeMillis();
+                if (now >= endTime) {
+                    throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+                }
+                waitTime = endTime - now;
+            }
+        }
+
+        synchronized void release(Path path, int permits) {
+            Node node = tail;
+            while (node != null) {
+                Node prev = node.prev;
+                if (prev == null) {
+                    break;
+                }
+                if (prev.path.equals(path)) {
+                    if (prev.threadDeep == 1) {
+                        prev.permits += permits;
+                        if (prev.permits >= maxThreads) {
+                            node.prev = prev.prev;
+                            prev.prev = null;
+                        }
+                    } else {
+                        --prev.threadDeep;
+                    }
+                }
+                node = node.prev;
+            }
+            notifyAll();
+        }
+
+        private boolean tryAcquire(Path path, int permits) {
+            Node node = tail.prev;
+            final Thread current = Thread.currentThread();
+            while (node != null) {
+                if (node.path.equals(path)) {
+                    if (node.threadId == current.getId()) {
+                        if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
+                            throw new Error("Max number of recursive locks exceeded. ");
+                        }
+                        ++node.threadDeep;
+                        return true;
+                    }
+                    if (node.permits > permits) {
+                        node.permits -= permits;
+                        return true;
+                    }
+                    return false;
+                } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
+                    if (node.threadId != current.getId()) {
+                        return false;
+                    }
+                }
+                node = node.prev;
+            }
+            tail.prev = new Node(path, maxThreads - permits, tail.prev);
+            return true;
+        }
+
+        private static class Node {
+            final Path path;
+            final long threadId = Thread.currentThread().getId();
+            int  permits;
+            int  threadDeep;
+            Node prev;
+
+            Node(Path path, int permits, Node prev) {
+                this.path = path;
+                this.permits = permits;
+                this.prev = prev;
+                threadDeep = 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.util.MultiPatternReplacer;
+import org.eclipse.che.api.vfs.shared.dto.ReplacementSet;
+import org.eclipse.che.api.vfs.shared.dto.Variable;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.FileBackedOutputStream;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
+
+/**
+ * Applies {@link ReplacementSet}s to files of project. Tree of project is visited once, file is matched against patterns of all
+ * replacement sets together. Content of matched files is streamed through {@link MultiPatternReplacer} in parallel, by default in
+ * as many threads as number of available processors. May be changed with system property "org.eclipse.che.vfs.replace-threads".
+ * <p/>
+ * Variables with mode 'variable_singlepass' (default) replace {@code ${find}} and variables with mode 'text_multipass' replace
+ * {@code find}. Rules of replace:
+ * <ul>
+ * <li>File is matched by replacement set if any pattern of set matches either name of file or path of file relative to project
+ * folder, e.g. {@code pom.xml} or {@code src/main/java/(.*)}. Variables of all sets matched by file are merged, if the same variable
+ * is defined in few sets the latter one wins.</li>
+ * <li>If replacement of any variable may be matched by 'text_multipass' variable then 'variable_singlepass' variables are applied
+ * in the first pass and after that every 'text_multipass' variable is applied in separate pass, so replacement from previous pass
+ * may be replaced in the next one. Order of 'text_multipass' passes is not specified.</li>
+ * <li>Otherwise all variables are applied in single pass over content of file. If matches of few variables overlap, the leftmost
+ * match wins and the longest one if few matches start at the same position. Replaced text is not scanned again.</li>
+ * <li>{@code ${find}} that doesn't match any variable is kept as is. Variable with empty replacement removes {@code ${find}}.</li>
+ * <li>File is updated only if its content is changed.</li>
+ * </ul>
+ * Note that replace in {@code Deserializer.resolveVariables} that was used before removed unresolved {@code ${find}} if any other
+ * variable in the same file was resolved and always applied 'text_multipass' variables one after another.
+ *
+ * @author agent
+ */
+public class BulkReplacer {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkReplacer.class);
+
+    private static final int  THREADS            = Integer.getInteger("org.eclipse.che.vfs.replace-threads",
+                                                                      Runtime.getRuntime().availableProcessors());
+    /* Content of file is kept in memory if it is less than this value, otherwise it is spilled to temporary file. */
+    private static final int  MEMORY_BUFFER_SIZE = 1024 * 1024; // 1M
+    private static final long FILE_LOCK_TIMEOUT  = 60000; // 60 seconds
+    private static final int  FILE_LOCK_STRIPES  = 256;
+
+    private static final ExecutorService executor =
+            Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder().setNameFormat("VirtualFileSystemReplacer-%d")
+                                                                         .setDaemon(true).build());
+    /* Prevents concurrent replace in the same file. */
+    private static final Striped<Lock>   fileLocks = Striped.lazyWeakLock(FILE_LOCK_STRIPES);
+
+    private final List<ReplacementSet> replacements;
+    private final List<Pattern[]>      filePatterns;
+
+    public BulkReplacer(List<ReplacementSet> replacements) {
+        this.replacements = replacements;
+        filePatterns = new ArrayList<>(replacements.size());
+        for (ReplacementSet replacement : replacements) {
+            final List<String> files = replacement.getFiles();
+            final Pattern[] patterns = new Pattern[files.size()];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = Pattern.compile(files.get(i));
+            }
+            filePatterns.add(patterns);
+        }
+    }
+
+    /**
+     * Replaces content of files in {@code folder}.
+     *
+     * @param folder
+     *         project folder
+     * @param lockToken
+     *         lock token, used to update content of locked files
+     * @return summary of changes
+     * @throws ForbiddenException
+     *         if current user doesn't have permissions to update any matched file or any matched file is locked
+     * @throws ServerException
+     *         if any other errors occur
+     */
+    public Summary replace(VirtualFile folder, String lockToken) throws ForbiddenException, ServerException {
+        final Summary summary = new Summary();
+        final Map<List<Integer>, Replacement> compiled = new HashMap<>();
+        final List<Future<?>> futures = new ArrayList<>();
+        try {
+            final String folderPath = folder.getPath();
+            final LinkedList<VirtualFile> q = new LinkedList<>();
+            q.add(folder);
+            while (!q.isEmpty()) {
+                final LazyIterator<VirtualFile> children = q.pop().getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext()) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        q.add(child);
+                    } else if (child.isFile()) {
+                        // for cases like:  src/main/java/(.*)
+                        final String path = child.getPath();
+                        final String internalPath = path.substring(folder.isRoot() ? 1 : folderPath.length() + 1);
+                        final List<Integer> matched = match(child.getName(), internalPath);
+                        if (matched.isEmpty()) {
+                            continue;
+                        }
+                        if (!compiled.containsKey(matched)) {
+                            compiled.put(matched, compile(matched));
+                        }
+                        final Replacement replacement = compiled.get(matched);
+                        if (replacement != null) {
+                            summary.filesMatched.incrementAndGet();
+                            futures.add(executor.submit(ThreadLocalPropagateContext.wrap(
+                                    new ReplaceTask(child, replacement, lockToken, summary))));
+                        }
+                    }
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Replace is interrupted. ");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ForbiddenException) {
+                throw (ForbiddenException)cause;
+            }
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            LOG.error(cause.getMessage(), cause);
+            throw new ServerException(cause.getMessage());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+        return summary;
+    }
+
+    private List<Integer> match(String name, String internalPath) {
+        List<Integer> matched = Collections.emptyList();
+        for (int i = 0; i < filePatterns.size(); i++) {
+            for (Pattern pattern : filePatterns.get(i)) {
+                if (pattern.matcher(name).matches() || pattern.matcher(internalPath).matches()) {
+                    if (matched.isEmpty()) {
+                        matched = new ArrayList<>(2);
+                    }
+                    matched.add(i);
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /** Compiles variables of replacement sets with specified indexes. Returns {@code null} if there is nothing to replace. */
+    private Replacement compile(List<Integer> sets) {
+        final ReplacementContainer container = new ReplacementContainer();
+        for (int i : sets) {
+            for (Variable variable : replacements.get(i).getEntries()) {
+                final String replaceMode = variable.getReplacemode();
+                if (replaceMode == null || "variable_singlepass".equals(replaceMode)) {
+                    container.getVariableProps().put(variable.getFind(), variable.getReplace());
+                } else if ("text_multipass".equals(replaceMode)) {
+                    container.getTextProps().put(variable.getFind(), variable.getReplace());
+                }
+            }
+        }
+        if (!container.hasReplacements()) {
+            return null;
+        }
+        final Map<String, String> variables = new HashMap<>(container.getVariableProps().size());
+        for (Map.Entry<String, String> e : container.getVariableProps().entrySet()) {
+            if (!(e.getKey() == null || e.getValue() == null)) {
+                variables.put("${" + e.getKey() + '}', e.getValue());
+            }
+        }
+        final Map<String, String> texts = new HashMap<>(container.getTextProps());
+        final List<MultiPatternReplacer> stages = new ArrayList<>();
+        if (isChained(variables, texts)) {
+            // Replacement of one variable may be replaced with another one, keep order of passes.
+            stages.add(new MultiPatternReplacer(variables));
+            for (Map.Entry<String, String> e : texts.entrySet()) {
+                stages.add(new MultiPatternReplacer(Collections.singletonMap(e.getKey(), e.getValue())));
+            }
+        } else {
+            final Map<String, String> all = new HashMap<>(variables);
+            all.putAll(texts);
+            stages.add(new MultiPatternReplacer(all));
+        }
+        return new Replacement(stages);
+    }
+
+    private static boolean isChained(Map<String, String> variables, Map<String, String> texts) {
+        for (String find : texts.keySet()) {
+            if (find == null || find.isEmpty()) {
+                continue;
+            }
+            for (String replace : variables.values()) {
+                if (replace.contains(find)) {
+                    return true;
+                }
+            }
+            for (String replace : texts.values()) {
+                if (replace != null && replace.contains(find)) {
+                    return true;
+                }
+            }
+            for (String variable : variables.keySet()) {
+                if (variable.contains(find)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Compiled replacements for file. */
+    private static class Replacement {
+        final List<MultiPatternReplacer> stages;
+
+        Replacement(List<MultiPatternReplacer> stages) {
+            this.stages = stages;
+        }
+    }
+
+    private static class ReplaceTask implements Callable<Void> {
+        final VirtualFile file;
+        final Replacement replacement;
+        final String      lockToken;
+        final Summary     summary;
+
+        ReplaceTask(VirtualFile file, Replacement replacement, String lockToken, Summary summary) {
+            this.file = file;
+            this.replacement = replacement;
+            this.lockToken = lockToken;
+            this.summary = summary;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            final Lock lock = fileLocks.get(file.getMountPoint().getWorkspaceId() + file.getPath());
+            if (!lock.tryLock(FILE_LOCK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new ServerException(String.format("Unable replace content of file '%s'. File is busy. ", file.getPath()));
+            }
+            final FileBackedOutputStream buffer = new FileBackedOutputStream(MEMORY_BUFFER_SIZE, true);
+            try {
+                long replaced = 0;
+                final ContentStream content = file.getContent();
+                final long length = content.getLength();
+                try (Reader reader = new InputStreamReader(content.getStream(), StandardCharsets.UTF_8)) {
+                    final List<MultiPatternReplacer.ReplacingWriter> writers = new ArrayList<>(replacement.stages.size());
+                    Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+                    for (int i = replacement.stages.size() - 1; i >= 0; i--) {
+                        final MultiPatternReplacer.ReplacingWriter stage = replacement.stages.get(i).newWriter(writer);
+                        writers.add(stage);
+                        writer = stage;
+                    }
+                    final char[] chars = new char[8192];
+                    int r;
+                    while ((r = reader.read(chars)) != -1) {
+                        writer.write(chars, 0, r);
+                    }
+                    // Closes writers of all stages starting from the first one.
+                    writer.close();
+                    for (MultiPatternReplacer.ReplacingWriter stage : writers) {
+                        replaced += stage.getReplacements();
+                    }
+                } catch (IOException e) {
+                    LOG.warn(e.getMessage(), e);
+                    return null;
+                }
+                if (replaced > 0 && isChanged(buffer, length)) {
+                    try (InputStream updated = buffer.asByteSource().openStream()) {
+                        file.updateContent(updated, lockToken);
+                    }
+                    summary.filesChanged.incrementAndGet();
+                    summary.bytesWritten.addAndGet(buffer.asByteSource().size());
+                    summary.replacements.addAndGet(replaced);
+                }
+            } finally {
+                try {
+                    buffer.reset();
+                } catch (IOException e) {
+                    LOG.warn(e.getMessage(), e);
+                }
+                lock.unlock();
+            }
+            return null;
+        }
+
+        /* Replacements may give the same text back, e.g. if find and replace are equal. Don't rewrite file in this case. */
+        private boolean isChanged(FileBackedOutputStream buffer, long length) throws Exception {
+            if (length >= 0 && length != buffer.asByteSource().size()) {
+                return true;
+            }
+            try (InputStream original = file.getContent().getStream()) {
+                return !buffer.asByteSource().contentEquals(new ByteSource() {
+                    @Override
+                    public InputStream openStream() {
+                        return original;
+                    }
+                });
+            }
+        }
+    }
+
+    /** Summary of replace. */
+    public static class Summary {
+        private final AtomicInteger filesMatched = new AtomicInteger();
+        private final AtomicInteger filesChanged = new AtomicInteger();
+        private final AtomicLong    bytesWritten = new AtomicLong();
+        private final AtomicLong    replacements = new AtomicLong();
+
+        /** Number of files matched by patterns of replacement sets. */
+        public int getFilesMatched() {
+            return filesMatched.get();
+        }
+
+        /** Number of files which content is changed. */
+        public int getFilesChanged() {
+            return filesChanged.get();
+        }
+
+        /** Number of bytes written in changed files. */
+        public long getBytesWritten() {
+            return bytesWritten.get();
+        }
+
+        /** Total number of replacements in all files. */
+        public long getReplacements() {
+            return replacements.get();
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{" +
+                   "filesMatched=" + filesMatched +
+                   ", filesChanged=" + filesChanged +
+                   ", bytesWritten=" + bytesWritten +
+                   ", replacements=" + replacements +
+                   '}';
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server;
+
+/**
+ * Position in the sorted list of children of folder. Children are sorted as {@link VirtualFile#compareTo(Object)} does: folders go
+ * first then files, items of the same type are sorted by name. Cursor of item is {@code "d:"} or {@code "f:"} followed by name of
+ * item, so cursors are sorted in the same order as items are. Cursor stays valid when other items are added to or removed from the
+ * folder, next page always starts from the first item that follows the cursor.
+ *
+ * @author agent
+ * @see VirtualFile#getChildren(VirtualFileFilter, String)
+ */
+public final class ChildrenCursor {
+    private static final String FOLDER_PREFIX = "d:";
+    private static final String FILE_PREFIX   = "f:";
+
+    /** Gets cursor that points to the specified item. */
+    public static String of(VirtualFile child) {
+        return of(child.getName(), child.isFolder());
+    }
+
+    /** Gets cursor that points to the item with specified name and type. */
+    public static String of(String name, boolean folder) {
+        return (folder ? FOLDER_PREFIX : FILE_PREFIX) + name;
+    }
+
+    /** Checks whether cursor points to folder. */
+    public static boolean isFolder(String cursor) {
+        return cursor.startsWith(FOLDER_PREFIX);
+    }
+
+    /**
+     * Checks format of cursor.
+     *
+     * @throws IllegalArgumentException
+     *         if cursor isn't valid
+     */
+    public static void check(String cursor) {
+        if (!(cursor.startsWith(FOLDER_PREFIX) || cursor.startsWith(FILE_PREFIX))) {
+            throw new IllegalArgumentException(String.format("Invalid cursor '%s'. ", cursor));
+        }
+    }
+
+    /**
+     * Gets iterator over items of {@code children} that follow {@code cursor}. Iterator {@code children} must be sorted.
+     * Items before the cursor are still read from {@code children}, so this method is useful only for implementations of {@link
+     * VirtualFile} that can't find start position for the cursor directly.
+     */
+    public static LazyIterator<VirtualFile> after(LazyIterator<VirtualFile> children, String cursor) {
+        check(cursor);
+        while (children.hasNext()) {
+            final VirtualFile child = children.next();
+            if (of(child).compareTo(cursor) > 0) {
+                return new AfterCursorIterator(child, children);
+            }
+        }
+        return LazyIterator.emptyIterator();
+    }
+
+    private static class AfterCursorIterator extends LazyIterator<VirtualFile> {
+        final LazyIterator<VirtualFile> delegate;
+
+        AfterCursorIterator(VirtualFile first, LazyIterator<VirtualFile> delegate) {
+            this.delegate = delegate;
+            next = first;
+        }
+
+        @Override
+        protected void fetchNext() {
+            next = delegate.hasNext() ? delegate.next() : null;
+        }
+    }
+
+    private ChildrenCursor() {
+    }
+}
@@ -10,6 +10,12 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.server;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  * <p/>
@@ -30,15 +36,39 @@ package org.eclipse.che.api.vfs.server;
  *         }
  *      }
  * </pre>
+ * Locks are hierarchical: lock of the path conflicts with locks of its parents and children that are held by other threads
+ * if at least one of them is exclusive. Internally lock state is kept in the table of nodes, one node per path that is
+ * currently locked or is a parent of locked path. Table is hashed by path and each node has own monitor, so threads that
+ * lock paths in unrelated subtrees do not block each other. To lock a path thread takes "intention" lock on each parent
+ * (from the root down to the path) and then the requested lock on the path itself. Intention locks are compatible with each
+ * other, so checking for conflicts with children of the path is reduced to checking the node of the path. Thread never
+ * waits while it holds intention locks, if conflict is found all intention locks taken so far are released first and thread
+ * waits for changes only in the node where conflict was found. Release of the lock wakes up only threads that wait for the
+ * nodes of released path and its parents.
  *
  * @author <a href="mailto:andrew00x@gmail.com">Andrey Parfonov</a>
  */
 public final class PathLockFactory {
     private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+
+    // Lock modes.
+    private static final int INTENTION_SHARED    = 0;
+    private static final int INTENTION_EXCLUSIVE = 1;
+    private static final int SHARED              = 2;
+    private static final int EXCLUSIVE           = 3;
+
+    /** Compatibility of locks. First index is requested mode, second index is mode of lock that is held by other thread. */
+    private static final boolean[][] COMPATIBLE = {
+            /*                         IS,    IX,    S,     X */
+            /* INTENTION_SHARED    */ {true, true, true, false},
+            /* INTENTION_EXCLUSIVE */ {true, true, false, false},
+            /* SHARED              */ {true, false, true, false},
+            /* EXCLUSIVE           */ {false, false, false, false}
+    };
+
     /** Max number of threads allowed to access file. */
-    private final int maxThreads;
-    // Tail of the "lock table".
-    private final Node tail = new Node(null, 0, null);
+    private final int                       maxThreads;
+    private final ConcurrentMap<Path, Node> lockTable;
 
     /**
      * @param maxThreads
@@ -50,145 +80,251 @@ public final class PathLockFactory {
             throw new IllegalArgumentException();
         }
         this.maxThreads = maxThreads;
+        lockTable = new ConcurrentHashMap<>();
     }
 
     public PathLock getLock(Path path, boolean exclusive) {
-        return new PathLock(path, exclusive ? maxThreads : 1);
+        return new PathLock(path, exclusive);
     }
 
-    private synchronized void acquire(Path path, int permits) {
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
+    /**
+     * Acquires lock for the path.
+     *
+     * @param path
+     *         path to lock
+     * @param mode
+     *         {@link #SHARED} or {@link #EXCLUSIVE}
+     * @param timeoutNanos
+     *         maximum time to wait for lock or {@code -1} if should wait without timeout
+     */
+    private void acquire(Path path, int mode, long timeoutNanos) {
+        final long deadline = timeoutNanos < 0 ? 0 : System.nanoTime() + timeoutNanos;
+        final Path[] hierarchy = hierarchy(path);
+        final int intention = mode == EXCLUSIVE ? INTENTION_EXCLUSIVE : INTENTION_SHARED;
+        final Thread current = Thread.currentThread();
+        for (; ; ) {
+            Node conflict = null;
+            long conflictVersion = 0;
+            int locked = 0;
+            while (locked < hierarchy.length && conflict == null) {
+                final int nodeMode = locked == hierarchy.length - 1 ? mode : intention;
+                final Node node = getNode(hierarchy[locked]);
+                synchronized (node) {
+                    if (node.removed) {
+                        // Node was removed from the table right after we got it, retry with new one.
+                        continue;
+                    }
+                    final boolean compatible;
+                    try {
+                        compatible = node.isCompatible(current, nodeMode);
+                    } catch (Error e) {
+                        releaseIntentions(hierarchy, locked, current, intention);
+                        throw e;
+                    }
+                    if (compatible) {
+                        node.add(current, nodeMode);
+                        ++locked;
+                    } else {
+                        conflict = node;
+                        conflictVersion = node.version;
+                    }
+                }
             }
+            if (conflict == null) {
+                return;
+            }
+            // Do not wait while hold intention locks, otherwise threads that lock parents of the path may be blocked without
+            // any reason, it is also potential source of deadlocks.
+            releaseIntentions(hierarchy, locked, current, intention);
+            awaitChanges(conflict, conflictVersion, path, timeoutNanos >= 0, deadline);
         }
     }
 
-    private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
-        final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-        long waitTime = timeoutMilliseconds;
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait(waitTime);
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
-            }
-            long now = System.currentTimeMillis();
-            if (now >= endTime) {
-                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
-            }
-            waitTime = endTime - now;
+    private void releaseIntentions(Path[] hierarchy, int locked, Thread thread, int intention) {
+        for (int i = locked - 1; i >= 0; i--) {
+            release(hierarchy[i], thread, intention);
         }
     }
 
-    private synchronized void release(Path path, int permits) {
-        Node node = tail;
-        while (node != null) {
-            Node prev = node.prev;
-            if (prev == null) {
-                break;
-            }
-            if (prev.path.equals(path)) {
-                if (prev.threadDeep == 1) {
-                    // If last recursive lock.
-                    prev.permits += permits;
-                    if (prev.permits >= maxThreads) {
-                        // remove
-                        node.prev = prev.prev;
-                        prev.prev = null;
+    private void awaitChanges(Node node, long version, Path path, boolean timed, long deadline) {
+        synchronized (node) {
+            ++node.waiters;
+            try {
+                while (node.version == version) {
+                    if (!timed) {
+                        node.wait();
+                    } else {
+                        final long waitTime = deadline - System.nanoTime();
+                        if (waitTime <= 0) {
+                            throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(node, waitTime);
                     }
-                } else {
-                    --prev.threadDeep;
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                --node.waiters;
+                removeIfUnused(node);
             }
-            node = node.prev;
         }
-        notifyAll();
-        //System.err.printf(">>>>> release: %s : %d%n", path, permits);
     }
 
-    private boolean tryAcquire(Path path, int permits) {
-        //System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-        Node node = tail.prev;
+    private void release(Path path, int mode) {
+        final Path[] hierarchy = hierarchy(path);
         final Thread current = Thread.currentThread();
-        while (node != null) {
-            if (node.path.equals(path)) {
-                if (node.threadId == current.getId()) {
-                    // Current thread already has direct lock for this path
-                    if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-                        throw new Error("Max number of recursive locks exceeded. ");
-                    }
-                    ++node.threadDeep;
-                    return true;
-                }
-                if (node.permits > permits) {
-                    // Lock already exists and current thread is not owner of this lock,
-                    // but lock is not exclusive and we can "share" it for other thread.
-                    node.permits -= permits; // decrement number of allowed concurrent threads
-                    return true;
-                }
-                // Lock is exclusive or max number of allowed concurrent thread is reached.
+        if (!release(path, current, mode)) {
+            // Lock is not held by current thread.
+            return;
+        }
+        releaseIntentions(hierarchy, hierarchy.length - 1, current, mode == EXCLUSIVE ? INTENTION_EXCLUSIVE : INTENTION_SHARED);
+    }
+
+    private boolean release(Path path, Thread thread, int mode) {
+        final Node node = lockTable.get(path);
+        if (node == null) {
+            return false;
+        }
+        synchronized (node) {
+            if (!node.remove(thread, mode)) {
                 return false;
-            } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-                // Found some path which already has lock that prevents us to get required permits.
-                // There is two possibilities:
-                // 1. Parent of the path we try to lock already locked
-                // 2. Child of the path we try to lock already locked
-                // Need to check is such lock obtained by current thread or not.
-                // If such lock obtained by other thread stop here immediately there is no reasons to continue.
-                if (node.threadId != current.getId()) {
-                    return false;
-                }
             }
-            node = node.prev;
+            ++node.version;
+            if (node.waiters > 0) {
+                node.notifyAll();
+            } else {
+                removeIfUnused(node);
+            }
         }
-        // If we are here there is no lock for path yet.
-        tail.prev = new Node(path, maxThreads - permits, tail.prev);
         return true;
     }
 
-    public synchronized void checkClean() {
-        assert tail.prev == null;
+    private Node getNode(Path path) {
+        Node node = lockTable.get(path);
+        if (node == null) {
+            final Node newNode = new Node(path);
+            node = lockTable.putIfAbsent(path, newNode);
+            if (node == null) {
+                node = newNode;
+            }
+        }
+        return node;
+    }
+
+    /** Must be called while holding monitor of the node. */
+    private void removeIfUnused(Node node) {
+        if (!node.removed && node.waiters == 0 && node.holds.isEmpty()) {
+            node.removed = true;
+            lockTable.remove(node.path, node);
+        }
+    }
+
+    /** Gets array of paths that starts from the root and ends with the specified path. */
+    private static Path[] hierarchy(Path path) {
+        final Path[] hierarchy = new Path[path.length() + 1];
+        Path current = path;
+        for (int i = hierarchy.length - 1; i >= 0; i--) {
+            hierarchy[i] = current;
+            current = current.getParent();
+        }
+        return hierarchy;
+    }
+
+    public void checkClean() {
+        assert lockTable.isEmpty();
     }
 
    /* =============================================== */
 
-    private static class Node {
-        final Path path;
-        final long threadId = Thread.currentThread().getId();
-        int  permits;
-        int  threadDeep;
-        Node prev;
+    private final class Node {
+        final Path                path;
+        /** Locks held by each thread. Array contains number of locks of each mode that thread holds. */
+        final Map<Thread, int[]>  holds;
+        /** Total number of locks of each mode held by all threads. */
+        final int[]               counts;
+        /** Number of threads that hold shared lock. */
+        int                       sharedHolders;
+        /** Number of threads that wait for changes of this node. */
+        int                       waiters;
+        /** Incremented each time when any lock is released. */
+        long                      version;
+        /** Set to {@code true} when node is removed from lock table. Removed node may not be used anymore. */
+        boolean                   removed;
 
-        Node(Path path, int permits, Node prev) {
+        Node(Path path) {
             this.path = path;
-            this.permits = permits;
-            this.prev = prev;
-            threadDeep = 1;
+            holds = new HashMap<>(4);
+            counts = new int[4];
+        }
+
+        boolean isCompatible(Thread thread, int mode) {
+            final int[] own = holds.get(thread);
+            for (int heldMode = 0; heldMode < counts.length; heldMode++) {
+                // Locks that are held by the current thread never conflict.
+                final int others = counts[heldMode] - (own == null ? 0 : own[heldMode]);
+                if (others > 0 && !COMPATIBLE[mode][heldMode]) {
+                    return false;
+                }
+            }
+            if (own != null && own[mode] > 0) {
+                if ((mode == SHARED || mode == EXCLUSIVE) && own[mode] > MAX_RECURSIVE_LOCKS) {
+                    throw new Error("Max number of recursive locks exceeded. ");
+                }
+                return true;
+            }
+            return mode != SHARED || sharedHolders < maxThreads;
+        }
+
+        void add(Thread thread, int mode) {
+            int[] own = holds.get(thread);
+            if (own == null) {
+                holds.put(thread, own = new int[4]);
+            }
+            if (mode == SHARED && own[SHARED] == 0) {
+                ++sharedHolders;
+            }
+            ++own[mode];
+            ++counts[mode];
+        }
+
+        boolean remove(Thread thread, int mode) {
+            final int[] own = holds.get(thread);
+            if (own == null || own[mode] == 0) {
+                return false;
+            }
+            --counts[mode];
+            if (--own[mode] == 0) {
+                if (mode == SHARED) {
+                    --sharedHolders;
+                }
+                if (own[INTENTION_SHARED] == 0 && own[INTENTION_EXCLUSIVE] == 0 && own[SHARED] == 0 && own[EXCLUSIVE] == 0) {
+                    holds.remove(thread);
+                }
+            }
+            return true;
         }
 
         @Override
         public String toString() {
             return "Node{" +
                    "path=" + path +
-                   ", threadId=" + threadId +
-                   ", permits=" + permits +
-                   ", prev=" + prev +
+                   ", IS=" + counts[INTENTION_SHARED] +
+                   ", IX=" + counts[INTENTION_EXCLUSIVE] +
+                   ", S=" + counts[SHARED] +
+                   ", X=" + counts[EXCLUSIVE] +
+                   ", waiters=" + waiters +
                    '}';
         }
     }
 
     public final class PathLock {
-        private final Path path;
-        private final int  permits;
+        private final Path    path;
+        private final boolean exclusive;
 
-        private PathLock(Path path, int permits) {
+        private PathLock(Path path, boolean exclusive) {
             this.path = path;
-            this.permits = permits;
+            this.exclusive = exclusive;
         }
 
         /**
@@ -197,7 +333,7 @@ public final class PathLockFactory {
          * @return this PathLock instance
          */
         public PathLock acquire() {
-            PathLockFactory.this.acquire(path, permits);
+            PathLockFactory.this.acquire(path, exclusive ? EXCLUSIVE : SHARED, -1);
             return this;
         }
 
@@ -212,18 +348,19 @@ public final class PathLockFactory {
          *         if waiting timeout reached
          */
         public PathLock acquire(long timeoutMilliseconds) {
-            PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+            PathLockFactory.this.acquire(path, exclusive ? EXCLUSIVE : SHARED,
+                                         TimeUnit.MILLISECONDS.toNanos(Math.max(timeoutMilliseconds, 0)));
             return this;
         }
 
         /** Release file permit. */
         public void release() {
-            PathLockFactory.this.release(path, permits);
+            PathLockFactory.this.release(path, exclusive ? EXCLUSIVE : SHARED);
         }
 
         /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
         public boolean isExclusive() {
-            return permits == PathLockFactory.this.maxThreads;
+            return exclusive;
         }
     }
 }
@@ -124,6 +124,25 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     LazyIterator<VirtualFile> getChildren(VirtualFileFilter filter) throws ServerException;
 
+    /**
+     * Gets iterator over files in this folder that follow the specified cursor in sorted list of children. Unlike to {@link
+     * #getChildren(VirtualFileFilter)} returned iterator may not know total number of children, {@link LazyIterator#size()} may
+     * return {@code -1}.
+     *
+     * @param filter
+     *         virtual files filter
+     * @param cursor
+     *         cursor of the last item from previous page, see {@link ChildrenCursor}. If {@code null} iteration starts from the first
+     *         child
+     * @throws IllegalArgumentException
+     *         if cursor isn't valid
+     * @throws ServerException
+     *         if an error occurs
+     */
+    default LazyIterator<VirtualFile> getChildren(VirtualFileFilter filter, String cursor) throws ServerException {
+        return cursor == null ? getChildren(filter) : ChildrenCursor.after(getChildren(filter), cursor);
+    }
+
     /**
      * Gets child by relative path. If this VirtualFile isn't folder this method returns {@code null}.
      *
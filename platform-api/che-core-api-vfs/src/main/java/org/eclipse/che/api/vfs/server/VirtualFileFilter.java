@@ -25,4 +25,18 @@ public interface VirtualFileFilter {
             return true;
         }
     };
+
+    VirtualFileFilter FILES = new VirtualFileFilter() {
+        @Override
+        public boolean accept(VirtualFile file) {
+            return file.isFile();
+        }
+    };
+
+    VirtualFileFilter FOLDERS = new VirtualFileFilter() {
+        @Override
+        public boolean accept(VirtualFile file) {
+            return file.isFolder();
+        }
+    };
 }
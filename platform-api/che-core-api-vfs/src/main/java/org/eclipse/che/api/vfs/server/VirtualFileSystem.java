@@ -260,7 +260,13 @@ public interface VirtualFileSystem {
      *         If parameter isn't set then result is implementation specific.
      * @param propertyFilter
      *         only properties which are accepted by filter should be included in response. See {@link PropertyFilter#accept(String)}
-     * @return list of children of specified folder
+     * @param cursor
+     *         if not null then listing starts from the item that follows the cursor, {@code skipCount} is counted from this item. Use
+     *         {@link ItemList#getNextCursor()} of the previous page to get the next one. Cost of such request depends on size of the page
+     *         but not on position of the page, total number of items isn't calculated and {@link ItemList#getNumItems()} is {@code
+     *         -1}
+     * @return list of children of specified folder. If {@code cursor} isn't set {@link ItemList#getNumItems()} is total number of
+     *         children of requested type, implementation may take it from listing of folder without checking permissions of each child
      * @throws NotFoundException
      *         if {@code folderId} doesn't exist
      * @throws ForbiddenException
@@ -271,7 +277,7 @@ public interface VirtualFileSystem {
      *         <li>user which perform operation has no permissions</li>
      *         </ul>
      * @throws ConflictException
-     *         {@code skipCount} is negative or greater then total number of items
+     *         {@code skipCount} is negative or greater then total number of items or {@code cursor} isn't valid
      * @throws ServerException
      *         if any other errors occur
      * @see org.eclipse.che.api.vfs.shared.ItemType
@@ -279,6 +285,11 @@ public interface VirtualFileSystem {
     @GET
     @Path("children")
     @Produces({MediaType.APPLICATION_JSON})
+    ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, Boolean includePermissions,
+                         PropertyFilter propertyFilter, String cursor)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException;
+
+    // For local usage. This method isn't accessible over REST interface.
     ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, Boolean includePermissions,
                          PropertyFilter propertyFilter) throws NotFoundException, ForbiddenException, ConflictException, ServerException;
 
@@ -696,7 +707,10 @@ public interface VirtualFileSystem {
      *
      * @param query
      *         set of opaque parameters of query statement. Set of parameters that can be passed by client and how SQL statement (in case
-     *         of SQL storage) created from this parameters is implementation specific
+     *         of SQL storage) created from this parameters is implementation specific. Implementation that is based on {@link
+     *         org.eclipse.che.api.vfs.server.search.Searcher} returns items sorted by path and supports parameters {@code after} - path
+     *         of the last item of previous page, only items after it are returned, and {@code maxTotalHits} - max number of matched
+     *         items to count, if there are more matched items then total number of items in response is {@code -1}
      * @param maxItems
      *         max number of items in response. If {@code -1} then no limit of max items in result set
      * @param skipCount
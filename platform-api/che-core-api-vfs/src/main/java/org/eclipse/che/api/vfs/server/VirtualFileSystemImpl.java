@@ -15,6 +15,7 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.search.QueryExpression;
+import org.eclipse.che.api.vfs.server.search.SearchResult;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.LinksHelper;
 import org.eclipse.che.api.vfs.shared.ItemType;
@@ -29,12 +30,9 @@ import org.eclipse.che.api.vfs.shared.dto.Lock;
 import org.eclipse.che.api.vfs.shared.dto.Principal;
 import org.eclipse.che.api.vfs.shared.dto.Property;
 import org.eclipse.che.api.vfs.shared.dto.ReplacementSet;
-import org.eclipse.che.api.vfs.shared.dto.Variable;
 import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo;
 import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.ACLCapability;
 import org.eclipse.che.api.vfs.shared.dto.VirtualFileSystemInfo.BasicPermissions;
-import org.eclipse.che.commons.lang.Deserializer;
-import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
@@ -57,17 +55,14 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -75,7 +70,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 
 /**
@@ -216,11 +210,19 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                                 @QueryParam("skipCount") int skipCount,
                                 @QueryParam("itemType") String itemType,
                                 @DefaultValue("false") @QueryParam("includePermissions") Boolean includePermissions,
-                                @DefaultValue(PropertyFilter.NONE) @QueryParam("propertyFilter") PropertyFilter propertyFilter)
+                                @DefaultValue(PropertyFilter.NONE) @QueryParam("propertyFilter") PropertyFilter propertyFilter,
+                                @QueryParam("cursor") String cursor)
             throws NotFoundException, ForbiddenException, ConflictException, ServerException {
         if (skipCount < 0) {
             throw new ConflictException("'skipCount' parameter is negative. ");
         }
+        if (cursor != null) {
+            try {
+                ChildrenCursor.check(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ConflictException(e.getMessage());
+            }
+        }
 
         final ItemType itemTypeType;
         if (itemType != null) {
@@ -243,18 +245,9 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         if (itemTypeType == null) {
             filter = VirtualFileFilter.ALL;
         } else {
-            filter = new VirtualFileFilter() {
-                @Override
-                public boolean accept(VirtualFile file) {
-                    try {
-                        return (itemTypeType == ItemType.FILE && file.isFile()) || (itemTypeType == ItemType.FOLDER && file.isFolder());
-                    } catch (Exception e) {
-                        throw new RuntimeException(e.getMessage(), e);
-                    }
-                }
-            };
+            filter = itemTypeType == ItemType.FILE ? VirtualFileFilter.FILES : VirtualFileFilter.FOLDERS;
         }
-        final LazyIterator<VirtualFile> children = virtualFile.getChildren(filter);
+        final LazyIterator<VirtualFile> children = virtualFile.getChildren(filter, cursor);
         try {
             if (skipCount > 0) {
                 children.skip(skipCount);
@@ -264,11 +257,25 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         }
 
         final List<Item> items = new ArrayList<>();
+        VirtualFile last = null;
         for (int count = 0; children.hasNext() && (maxItems < 0 || count < maxItems); count++) {
-            items.add(fromVirtualFile(children.next(), includePermissions, propertyFilter));
+            last = children.next();
+            items.add(fromVirtualFile(last, includePermissions, propertyFilter));
         }
-        return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(children.size())
-                         .withHasMoreItems(children.hasNext());
+        final boolean hasMoreItems = children.hasNext();
+        return DtoFactory.getInstance().createDto(ItemList.class)
+                         .withItems(items)
+                         // Number of children isn't reported for cursor pages, see VirtualFileSystem#getChildren.
+                         .withNumItems(cursor == null ? children.size() : -1)
+                         .withHasMoreItems(hasMoreItems)
+                         .withNextCursor(hasMoreItems && last != null ? ChildrenCursor.of(last) : null);
+    }
+
+    @Override
+    public ItemList getChildren(String folderId, int maxItems, int skipCount, String itemType, Boolean includePermissions,
+                                PropertyFilter propertyFilter)
+            throws NotFoundException, ForbiddenException, ConflictException, ServerException {
+        return getChildren(folderId, maxItems, skipCount, itemType, includePermissions, propertyFilter, null);
     }
 
     @Override
@@ -305,7 +312,7 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
             return null;
         }
         final LazyIterator<VirtualFile> children = virtualFile.getChildren(VirtualFileFilter.ALL);
-        final List<ItemNode> level = new ArrayList<>(children.size());
+        final List<ItemNode> level = new ArrayList<>();
         while (children.hasNext()) {
             final VirtualFile next = children.next();
             level.add(DtoFactory.getInstance().createDto(ItemNode.class)
@@ -469,64 +476,8 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
         if (!projectRoot.isFolder()) {
             throw new ConflictException("Given path must be an project root folder. ");
         }
-        final Map<String, ReplacementContainer> changesPerFile = new HashMap<>();
-        // fill changes matrix first
-        for (final ReplacementSet replacement : replacements) {
-            for (final String regex : replacement.getFiles()) {
-                Pattern pattern  = Pattern.compile(regex);
-                ItemNode rootNode = getTree(projectRoot.getId(), -1, false, PropertyFilter.ALL_FILTER);
-                LinkedList<ItemNode> q = new LinkedList<>();
-                q.add(rootNode);
-                while (!q.isEmpty()) {
-                    ItemNode node = q.pop();
-                    Item item = node.getItem();
-                    if (item.getItemType().equals(ItemType.FOLDER)) {
-                        q.addAll(node.getChildren());
-                    } else if (item.getItemType().equals(ItemType.FILE)) {
-                        // for cases like:  src/main/java/(.*)
-                        String itemInternalPath = item.getPath().substring(projectRoot.getPath().length() + 1);
-                        if (pattern.matcher(item.getName()).matches() || pattern.matcher(itemInternalPath).matches()) {
-                            ReplacementContainer container =
-                                    (changesPerFile.get(item.getPath()) != null) ? changesPerFile.get(item.getPath())
-                                                                                 : new ReplacementContainer();
-                            for (Variable variable : replacement.getEntries()) {
-                                String replaceMode  = variable.getReplacemode();
-                                if (replaceMode == null || "variable_singlepass".equals(replaceMode)) {
-                                    container.getVariableProps().put(variable.getFind(), variable.getReplace());
-                                } else if ("text_multipass".equals(replaceMode)) {
-                                    container.getTextProps().put(variable.getFind(), variable.getReplace());
-                                }
-                            }
-                            changesPerFile.put(item.getPath(), container);
-                        }
-                    }
-                }
-            }
-        }
-        //now apply changes matrix
-        for (Map.Entry<String, ReplacementContainer> entry : changesPerFile.entrySet()) {
-            try {
-                if (entry.getValue().hasReplacements()) {
-                    ContentStream cs = mountPoint.getVirtualFile(entry.getKey()).getContent();
-                    String content = IoUtil.readAndCloseQuietly(cs.getStream());
-                    String modified =
-                            Deserializer.resolveVariables(content, entry.getValue().getVariableProps(), false);
-                    for (Map.Entry<String, String> replacement : entry.getValue().getTextProps().entrySet()) {
-                        if (modified.contains(replacement.getKey())) {
-                            modified = modified.replace(replacement.getKey(), replacement.getValue());
-                        }
-                    }
-                    //better to compare big strings by hash codes first
-                    if (!(content.hashCode() == modified.hashCode()) || !content.equals(modified)) {
-                        mountPoint.getVirtualFile(entry.getKey())
-                                  .updateContent(new ByteArrayInputStream(modified.getBytes(
-                                          StandardCharsets.UTF_8)), lockToken);
-                    }
-                }
-            } catch (IOException e) {
-                LOG.warn(e.getMessage(), e);
-            }
-        }
+        final BulkReplacer.Summary summary = new BulkReplacer(replacements).replace(projectRoot, lockToken);
+        LOG.debug("Replace in {}: {}", projectRoot.getPath(), summary);
     }
 
     @Consumes({MediaType.APPLICATION_FORM_URLENCODED})
@@ -544,30 +495,44 @@ public abstract class VirtualFileSystemImpl implements VirtualFileSystem {
                     .setPath(query.getFirst("path"))
                     .setName(query.getFirst("name"))
                     .setMediaType(query.getFirst("mediaType"))
-                    .setText(query.getFirst("text"));
-
-            final String[] result = searcherProvider.getSearcher(mountPoint, true).search(expr);
-            if (skipCount > 0) {
-                if (skipCount > result.length) {
-                    throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
-                }
+                    .setText(query.getFirst("text"))
+                    .setAfter(query.getFirst("after"))
+                    .setMaxTotalHits(parseMaxTotalHits(query.getFirst("maxTotalHits")))
+                    .setSkipCount(skipCount)
+                    .setMaxItems(maxItems);
+
+            final SearchResult result = searcherProvider.getSearcher(mountPoint, true).search(expr);
+            if (skipCount > 0 && result.isTotalHitsExact() && skipCount > result.getTotalHits()) {
+                throw new ConflictException("'skipCount' parameter is greater then total number of items. ");
             }
-            final int length = maxItems > 0 ? Math.min(result.length, maxItems) : result.length;
-            final List<Item> items = new ArrayList<>(length);
-            for (int i = skipCount; i < length; i++) {
-                String path = result[i];
+            final List<String> paths = result.getFilePaths();
+            final List<Item> items = new ArrayList<>(paths.size());
+            for (String path : paths) {
                 try {
                     items.add(fromVirtualFile(mountPoint.getVirtualFile(path), false, propertyFilter));
                 } catch (NotFoundException | ForbiddenException ignored) {
                 }
             }
 
-            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items).withNumItems(result.length)
-                             .withHasMoreItems(length < result.length);
+            return DtoFactory.getInstance().createDto(ItemList.class).withItems(items)
+                             .withNumItems(result.isTotalHitsExact() ? result.getTotalHits() : -1)
+                             .withHasMoreItems(result.getNextPageCursor() != null)
+                             .withNextCursor(result.getNextPageCursor());
         }
         throw new ServerException("Not supported. ");
     }
 
+    private int parseMaxTotalHits(String maxTotalHits) throws ConflictException {
+        if (maxTotalHits == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(maxTotalHits);
+        } catch (NumberFormatException e) {
+            throw new ConflictException(String.format("Invalid 'maxTotalHits' parameter: %s. ", maxTotalHits));
+        }
+    }
+
     @Override
     public ItemList search(MultivaluedMap<String, String> query, int maxItems, int skipCount) throws ConflictException, ServerException {
         return search(query, maxItems, skipCount, PropertyFilter.ALL_FILTER);
@@ -13,21 +13,50 @@ package org.eclipse.che.api.vfs.server;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.inject.Singleton;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Registry for virtual file system providers.
+ * <p/>
+ * Providers that are created on demand with {@link #loadProvider(String)} may be evicted from registry if they are not accessed
+ * for some time, see {@link #evictIdleProviders(long)}. Evicted provider is closed, so its mount point frees caches and search
+ * index. Next access to virtual file system creates new provider, but not before evicted provider is closed. Providers that are
+ * registered with {@link #registerProvider(String, VirtualFileSystemProvider)} are never evicted.
  *
  * @author andrew00x
  * @see VirtualFileSystemFactory
  */
 @Singleton
 public class VirtualFileSystemRegistry {
-    private final ConcurrentMap<String, VirtualFileSystemProvider> providers = new ConcurrentHashMap<>();
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualFileSystemRegistry.class);
+
+    private static final int LOCKS_NUM  = 1 << 4;
+    private static final int LOCKS_MASK = LOCKS_NUM - 1;
+
+    private final ConcurrentMap<String, VirtualFileSystemProvider> providers    = new ConcurrentHashMap<>();
+    /** Time of last access to each provider that is created on demand. */
+    private final ConcurrentMap<String, Long>                      accessTimes  = new ConcurrentHashMap<>();
+    private final AtomicLong                                       evictedCount = new AtomicLong();
+    /** Prevents loading of provider while previous provider with the same id is being closed. */
+    private final Lock[]                                           locks;
+
+    public VirtualFileSystemRegistry() {
+        locks = new Lock[LOCKS_NUM];
+        for (int i = 0; i < LOCKS_NUM; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
 
     public void registerProvider(String vfsId, VirtualFileSystemProvider provider) throws ServerException {
         if (providers.putIfAbsent(id(vfsId), provider) != null) {
@@ -36,9 +65,17 @@ public class VirtualFileSystemRegistry {
     }
 
     public void unregisterProvider(String vfsId) throws ServerException {
-        final VirtualFileSystemProvider removed = providers.remove(id(vfsId));
-        if (removed != null) {
-            removed.close();
+        final String myId = id(vfsId);
+        final Lock lock = lockFor(myId);
+        lock.lock();
+        try {
+            final VirtualFileSystemProvider removed = providers.remove(myId);
+            accessTimes.remove(myId);
+            if (removed != null) {
+                removed.close();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -46,16 +83,28 @@ public class VirtualFileSystemRegistry {
         String myId = id(vfsId);
         VirtualFileSystemProvider provider = providers.get(myId);
         if (provider == null) {
-            VirtualFileSystemProvider newProvider = loadProvider(myId);
-            if (newProvider != null) {
-                provider = providers.putIfAbsent(myId, newProvider);
+            final Lock lock = lockFor(myId);
+            lock.lock();
+            try {
+                provider = providers.get(myId);
                 if (provider == null) {
-                    provider = newProvider;
+                    VirtualFileSystemProvider newProvider = loadProvider(myId);
+                    if (newProvider != null) {
+                        provider = providers.putIfAbsent(myId, newProvider);
+                        if (provider == null) {
+                            provider = newProvider;
+                            accessTimes.put(myId, System.currentTimeMillis());
+                        }
+                    } else {
+                        throw new ServerException(String.format("Virtual file system %s does not exist.  This is a serious error and likely occurs in an on premises configuration.  " +
+                                                                "Contact support for assistance. ", vfsId));
+                    }
                 }
-            } else {
-                throw new ServerException(String.format("Virtual file system %s does not exist.  This is a serious error and likely occurs in an on premises configuration.  " +
-                                                        "Contact support for assistance. ", vfsId));
+            } finally {
+                lock.unlock();
             }
+        } else {
+            accessTimes.replace(myId, System.currentTimeMillis());
         }
         return provider;
     }
@@ -68,6 +117,79 @@ public class VirtualFileSystemRegistry {
         return Collections.unmodifiableCollection(providers.values());
     }
 
+    /**
+     * Removes and closes providers that are created on demand and are not accessed during specified time. Provider that is got from
+     * registry right before eviction is closed too and refuses to mount virtual file system again, new provider should be got from
+     * registry. New provider with the same id isn't loaded until evicted provider is closed.
+     *
+     * @param idleTime
+     *         time in milliseconds
+     * @return number of evicted providers
+     */
+    public int evictIdleProviders(long idleTime) {
+        final long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (Map.Entry<String, Long> e : accessTimes.entrySet()) {
+            final long accessTime = e.getValue();
+            if (now - accessTime < idleTime) {
+                continue;
+            }
+            final String id = e.getKey();
+            final Lock lock = lockFor(id);
+            lock.lock();
+            try {
+                final VirtualFileSystemProvider provider = providers.get(id);
+                // Don't evict provider if it is accessed concurrently.
+                if (provider != null && accessTimes.remove(id, accessTime) && providers.remove(id, provider)) {
+                    // Close provider, and its searcher, before provider with the same id may be loaded again.
+                    provider.close();
+                    evicted++;
+                    LOG.debug("Virtual file system {} is evicted after {} ms of inactivity", id, now - accessTime);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        evictedCount.addAndGet(evicted);
+        return evicted;
+    }
+
+    /** Gets number of registered providers that have mount point. */
+    public int getMountedCount() {
+        int mounted = 0;
+        for (VirtualFileSystemProvider provider : providers.values()) {
+            try {
+                if (provider.getMountPoint(false) != null) {
+                    mounted++;
+                }
+            } catch (ServerException e) {
+                LOG.warn(e.getMessage());
+            }
+        }
+        return mounted;
+    }
+
+    /** Gets number of providers that are created on demand and are not accessed during specified time in milliseconds. */
+    public int getIdleCount(long idleTime) {
+        final long now = System.currentTimeMillis();
+        int idle = 0;
+        for (long accessTime : accessTimes.values()) {
+            if (now - accessTime >= idleTime) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    /** Gets total number of providers evicted from this registry. */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    private Lock lockFor(String id) {
+        return locks[id.hashCode() & LOCKS_MASK];
+    }
+
     private String id(String vfsId) {
         return vfsId == null ? "default" : vfsId;
     }
@@ -23,6 +23,7 @@ import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 import org.eclipse.che.api.vfs.server.VirtualFileSystemUser;
 import org.eclipse.che.api.vfs.server.VirtualFileVisitor;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
 import org.eclipse.che.api.vfs.server.observation.CreateEvent;
 import org.eclipse.che.api.vfs.server.observation.DeleteEvent;
 import org.eclipse.che.api.vfs.server.observation.MoveEvent;
@@ -30,6 +31,7 @@ import org.eclipse.che.api.vfs.server.observation.RenameEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateACLEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdateContentEvent;
 import org.eclipse.che.api.vfs.server.observation.UpdatePropertiesEvent;
+import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
 import org.eclipse.che.api.vfs.server.search.SearcherProvider;
 import org.eclipse.che.api.vfs.server.util.NotClosableInputStream;
 import org.eclipse.che.api.vfs.server.util.ZipContent;
@@ -1043,6 +1045,7 @@ public class MemoryVirtualFile implements VirtualFile {
                                                        " You do not have the correct permissions to complete this operation.", getPath()));
         }
 
+        final List<ChangesetEvent.Change> changes = new ArrayList<>();
         ZipInputStream zip = null;
         try {
             final ZipContent zipContent = ZipContent.newInstance(zipped);
@@ -1081,7 +1084,7 @@ public class MemoryVirtualFile implements VirtualFile {
                         MemoryVirtualFile folder = newFolder((MemoryVirtualFile)current, name);
                         ((MemoryVirtualFile)current).addChild(folder);
                         mountPoint.putItem(folder);
-                        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), folder.getPath(), true));
+                        changes.add(new ChangesetEvent.Change(folder.getPath(), VirtualFileEvent.ChangeType.CREATED, true));
                     }
                 } else {
                     current.getChild(name);
@@ -1099,12 +1102,12 @@ public class MemoryVirtualFile implements VirtualFile {
                             throw new ForbiddenException(String.format("File '%s' already exists. ", file.getPath()));
                         }
                         file.updateContent(noCloseZip, null);
-                        mountPoint.getEventService().publish(new UpdateContentEvent(mountPoint.getWorkspaceId(), file.getPath()));
+                        changes.add(new ChangesetEvent.Change(file.getPath(), VirtualFileEvent.ChangeType.CONTENT_UPDATED, false));
                     } else {
                         file = newFile((MemoryVirtualFile)current, name, noCloseZip, ContentTypeGuesser.guessContentType(name));
                         ((MemoryVirtualFile)current).addChild(file);
                         mountPoint.putItem((MemoryVirtualFile)file);
-                        mountPoint.getEventService().publish(new CreateEvent(mountPoint.getWorkspaceId(), file.getPath(), false));
+                        changes.add(new ChangesetEvent.Change(file.getPath(), VirtualFileEvent.ChangeType.CREATED, false));
                     }
                 }
                 zip.closeEntry();
@@ -1127,6 +1130,10 @@ public class MemoryVirtualFile implements VirtualFile {
                 } catch (IOException ignored) {
                 }
             }
+            // Items that are already extracted are reported even if import fails.
+            if (!changes.isEmpty()) {
+                mountPoint.getEventService().publish(new ChangesetEvent(mountPoint.getWorkspaceId(), getPath(), changes));
+            }
         }
     }
 
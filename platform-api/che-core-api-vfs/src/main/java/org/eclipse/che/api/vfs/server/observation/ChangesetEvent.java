@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.observation;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event about changes of many items that are done with single bulk operation, e.g. import of zip content. Path of event is path
+ * of folder that contains all changed items. Event is published once the operation is done instead of separate event for each item.
+ *
+ * @author agent
+ */
+@EventOrigin("vfs")
+public class ChangesetEvent extends VirtualFileEvent {
+    /** Change of single item. */
+    public static class Change {
+        private String     path;
+        private ChangeType type;
+        private boolean    folder;
+
+        public Change(String path, ChangeType type, boolean folder) {
+            this.path = path;
+            this.type = type;
+            this.folder = folder;
+        }
+
+        public Change() {
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public void setType(ChangeType type) {
+            this.type = type;
+        }
+
+        public boolean isFolder() {
+            return folder;
+        }
+
+        public void setFolder(boolean folder) {
+            this.folder = folder;
+        }
+    }
+
+    private List<Change> changes;
+
+    public ChangesetEvent(String workspaceId, String path, List<Change> changes) {
+        super(workspaceId, path, ChangeType.CHANGESET, true);
+        this.changes = changes;
+    }
+
+    public ChangesetEvent() {
+    }
+
+    /** Gets changes of items in order they were done. */
+    public List<Change> getChanges() {
+        if (changes == null) {
+            changes = new ArrayList<>();
+        }
+        return changes;
+    }
+
+    public void setChanges(List<Change> changes) {
+        this.changes = changes;
+    }
+}
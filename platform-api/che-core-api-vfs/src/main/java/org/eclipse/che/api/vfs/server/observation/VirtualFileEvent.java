@@ -21,7 +21,9 @@ public abstract class VirtualFileEvent {
         DELETED("deleted"),
         MOVED("moved"),
         PROPERTIES_UPDATED("properties_updated"),
-        RENAMED("renamed");
+        RENAMED("renamed"),
+        /** Many items in subtree are changed with single operation, see {@link ChangesetEvent}. */
+        CHANGESET("changeset");
 
         private final String value;
 
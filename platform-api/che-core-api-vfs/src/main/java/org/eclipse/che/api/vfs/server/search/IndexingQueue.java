@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import org.eclipse.che.api.vfs.server.VirtualFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of pending changes of search index. Changes are coalesced by path: at most one entry per path is kept in the queue
+ * and each new change of the path is merged with the pending one. Content of file is read when entry is applied to the
+ * index, so it is enough to remember the latest kind of change for each path.
+ * <p/>
+ * Each change gets sequence number. Entries are always kept in order of the latest change they contain, so changes applied
+ * in order of the queue never overwrite results of newer changes. Number of entries in the queue is bounded, thread that
+ * adds new path to the full queue is blocked until indexer takes next batch.
+ *
+ * @author agent
+ */
+final class IndexingQueue {
+    /** Pending change of search index for one path. */
+    static final class Entry {
+        final String path;
+        /** File that should be (re-)indexed or {@code null} if path should be only removed from the index. */
+        VirtualFile file;
+        /** {@code true} if {@link #file} is updated file and {@code false} if it is new file or folder. */
+        boolean     update;
+        /** Remove document of the path before indexing. */
+        boolean     deleteFile;
+        /** Remove documents of all children of the path before indexing. */
+        boolean     deleteChildren;
+        /** Sequence number of the oldest change that is merged in this entry. */
+        long        firstSequence;
+
+        Entry(String path) {
+            this.path = path;
+        }
+    }
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final int                          maxSize;
+
+    /** Sequence number of the last added change. */
+    private long    sequence;
+    /** All changes with sequence number less than or equal to this value are applied to the index. */
+    private long    indexedSequence;
+    private boolean closed;
+
+    /**
+     * @param maxSize
+     *         max number of entries in the queue
+     */
+    IndexingQueue(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid size of indexing queue " + maxSize);
+        }
+        this.maxSize = maxSize;
+        entries = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds new file or folder to the index.
+     *
+     * @return sequence number of this change
+     */
+    synchronized long add(VirtualFile file) throws InterruptedException {
+        final Entry entry = entry(file.getPath());
+        entry.file = file;
+        entry.update = false;
+        return sequence;
+    }
+
+    /**
+     * Updates indexed file. Update of file that is already added to the queue does not change kind of pending change.
+     *
+     * @return sequence number of this change
+     */
+    synchronized long update(VirtualFile file) throws InterruptedException {
+        final Entry entry = entry(file.getPath());
+        if (entry.file == null) {
+            entry.file = file;
+            entry.update = true;
+        }
+        return sequence;
+    }
+
+    /**
+     * Removes file or children of folder from the index. Any pending additions or updates of the path are cancelled.
+     *
+     * @return sequence number of this change
+     */
+    synchronized long delete(String path, boolean isFile) throws InterruptedException {
+        final Entry entry = entry(path);
+        entry.file = null;
+        if (isFile) {
+            entry.deleteFile = true;
+        } else {
+            entry.deleteChildren = true;
+        }
+        return sequence;
+    }
+
+    /** Gets entry for the path and moves it to the tail of queue. Must be called while holding monitor of this queue. */
+    private Entry entry(String path) throws InterruptedException {
+        Entry entry = entries.remove(path);
+        if (entry == null) {
+            while (!closed && entries.size() >= maxSize) {
+                wait();
+            }
+            if (closed) {
+                throw new IllegalStateException("Indexing queue is closed. ");
+            }
+            entry = new Entry(path);
+        }
+        entries.put(path, entry);
+        ++sequence;
+        if (entry.firstSequence == 0) {
+            entry.firstSequence = sequence;
+        }
+        return entry;
+    }
+
+    /**
+     * Takes next batch of entries from the head of queue. Previous batch must be completed with method {@link #done()} before
+     * taking next one.
+     *
+     * @param maxBatchSize
+     *         max number of entries in batch
+     * @return batch of entries or empty list if there is no entries in the queue
+     */
+    synchronized List<Entry> poll(int maxBatchSize) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Entry> batch = new ArrayList<>(Math.min(maxBatchSize, entries.size()));
+        for (Iterator<Entry> i = entries.values().iterator(); i.hasNext() && batch.size() < maxBatchSize; ) {
+            final Entry entry = i.next();
+            i.remove();
+            batch.add(entry);
+        }
+        notifyAll();
+        return batch;
+    }
+
+    /** Notifies that batch taken with method {@link #poll(int)} is applied to the index. */
+    synchronized void done() {
+        long oldest = 0;
+        for (Entry entry : entries.values()) {
+            if (oldest == 0 || entry.firstSequence < oldest) {
+                oldest = entry.firstSequence;
+            }
+        }
+        indexedSequence = oldest == 0 ? sequence : oldest - 1;
+        notifyAll();
+    }
+
+    /** Gets sequence number of the last change added to the queue. */
+    synchronized long getSequence() {
+        return sequence;
+    }
+
+    /** Gets sequence number of the last change that is applied to the index together with all changes before it. */
+    synchronized long getIndexedSequence() {
+        return indexedSequence;
+    }
+
+    /** Gets number of pending entries. */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Waits until change with specified sequence number is applied to the index.
+     *
+     * @return {@code true} if change is applied and {@code false} if timeout is reached or queue is closed
+     */
+    synchronized boolean awaitIndexed(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (indexedSequence < sequence) {
+            final long waitTime = deadline - System.nanoTime();
+            if (closed || waitTime <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, waitTime);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until all entries that are added to the queue so far are taken and applied to the index. Returns at once if queue is
+     * closed, nobody may wait for the rest of entries then.
+     */
+    synchronized void awaitDrained() throws InterruptedException {
+        while (!closed && indexedSequence < sequence) {
+            wait();
+        }
+    }
+
+    /** Closes queue. Entries that are already in the queue still may be taken with method {@link #poll(int)}. */
+    synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /** Removes all pending entries from the queue. Removed changes are treated as applied, so nobody waits for them. */
+    synchronized void clear() {
+        entries.clear();
+        indexedSequence = sequence;
+        notifyAll();
+    }
+}
@@ -18,6 +18,9 @@ import org.eclipse.che.api.vfs.server.VirtualFile;
 import org.eclipse.che.api.vfs.server.VirtualFileFilter;
 import org.eclipse.che.api.vfs.server.util.MediaTypeFilter;
 
+import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.TokenStream;
@@ -25,6 +28,7 @@ import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
@@ -34,14 +38,19 @@ import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,23 +59,75 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Lucene based searcher.
+ * <p/>
+ * Methods {@link #add(VirtualFile)}, {@link #update(VirtualFile)} and {@link #delete(String, boolean)} do not touch index
+ * directly but put changes in the queue. Changes of the same path are coalesced while they are waiting in the queue.
+ * Changes are taken from the queue in batches and applied to the index by pool of indexer threads that is shared by all
+ * searchers, each searcher has at most one batch in progress. Index searchers of all searchers are reopened periodically by
+ * single shared thread, so search results may miss changes that are made not longer than {@link #MAX_STALENESS} milliseconds
+ * ago, search is not read-your-writes. Callers that need to see own changes in search results should use method {@link
+ * #waitForIndexed(long, long, TimeUnit)}.
+ * <p/>
+ * Behaviour of indexing may be configured with system properties:
+ * <ul>
+ * <li>{@code org.eclipse.che.vfs.index.queue-size} - max number of paths that are waiting for indexing, default is 10000</li>
+ * <li>{@code org.eclipse.che.vfs.index.batch-size} - max number of paths that are indexed in one batch, default is 256</li>
+ * <li>{@code org.eclipse.che.vfs.index.max-staleness} - max time in milliseconds between reopening of searcher, default is
+ * 1000</li>
+ * <li>{@code org.eclipse.che.vfs.index.threads} - number of threads that apply changes to the indexes of all searchers,
+ * default is number of available processors</li>
+ * </ul>
  *
  * @author andrew00x
  */
 public abstract class LuceneSearcher implements Searcher {
-    private static final Logger LOG          = LoggerFactory.getLogger(LuceneSearcher.class);
-    private static final int    RESULT_LIMIT = 1000;
+    private static final Logger LOG                 = LoggerFactory.getLogger(LuceneSearcher.class);
+    /** Max number of documents that are fetched from the index at once. */
+    private static final int    PAGE_SIZE           = 1000;
+    /** Search results are sorted by path, so path of the last item of result may be used as cursor for the next page. */
+    private static final Sort   SORT_BY_PATH        = new Sort(new SortField("path", SortField.Type.STRING));
+    private static final int    INDEXING_QUEUE_SIZE = Integer.getInteger("org.eclipse.che.vfs.index.queue-size", 10000);
+    private static final int    INDEXING_BATCH_SIZE = Integer.getInteger("org.eclipse.che.vfs.index.batch-size", 256);
+    /** Max time in milliseconds between reopening of index searcher. */
+    public static final  long   MAX_STALENESS       = Long.getLong("org.eclipse.che.vfs.index.max-staleness", 1000);
+
+    /** Applies changes to the indexes of all searchers. */
+    private static final ExecutorService          indexers = Executors.newFixedThreadPool(
+            Integer.getInteger("org.eclipse.che.vfs.index.threads", Runtime.getRuntime().availableProcessors()),
+            new ThreadFactoryBuilder().setNameFormat("LuceneSearcher-Indexer-%d").setDaemon(true).build());
+    /** Reopens index searchers of all searchers. */
+    private static final ScheduledExecutorService reopener = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("LuceneSearcher-Reopener").setDaemon(true).build());
 
     private final VirtualFileFilter filter;
+    private final IndexingQueue     indexingQueue;
+    private final Indexer           indexer;
+    private final Object            refreshLock;
+
+    private IndexWriter        luceneIndexWriter;
+    private SearcherManager    searcherManager;
+    private boolean            closed;
+    private ScheduledFuture<?> reopenTask;
 
-    private IndexWriter     luceneIndexWriter;
-    private SearcherManager searcherManager;
-    private boolean         closed;
+    /** All changes with sequence number less than or equal to this value are visible for search. Guarded by refreshLock. */
+    private long    searchableSequence;
+    /** Set to {@code true} when reopening of searcher is stopped. Guarded by refreshLock. */
+    private boolean refreshStopped;
 
     public LuceneSearcher(Set<String> indexedMediaTypes) {
         this(new MediaTypeFilter(indexedMediaTypes));
@@ -74,6 +135,9 @@ public abstract class LuceneSearcher implements Searcher {
 
     public LuceneSearcher(VirtualFileFilter filter) {
         this.filter = filter;
+        indexingQueue = new IndexingQueue(INDEXING_QUEUE_SIZE);
+        indexer = new Indexer();
+        refreshLock = new Object();
     }
 
     protected Analyzer makeAnalyzer() {
@@ -100,6 +164,7 @@ public abstract class LuceneSearcher implements Searcher {
     public void init(MountPoint mountPoint) throws ServerException {
         doInit();
         addTree(mountPoint.getRoot());
+        refresh();
     }
 
     protected final synchronized void doInit() throws ServerException {
@@ -109,16 +174,56 @@ public abstract class LuceneSearcher implements Searcher {
         } catch (IOException e) {
             throw new ServerException(e);
         }
+        reopenTask = reopener.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (ServerException e) {
+                    LOG.error(e.getMessage(), e);
+                } catch (AlreadyClosedException ignored) {
+                    // Searcher is closed concurrently.
+                }
+            }
+        }, MAX_STALENESS, MAX_STALENESS, TimeUnit.MILLISECONDS);
+        // Apply changes that are added before index is opened.
+        indexer.schedule();
+    }
+
+    public void close() {
+        stopIndexing();
+        synchronized (this) {
+            if (!closed) {
+                try {
+                    IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                } catch (IOException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+                closed = true;
+            }
+        }
     }
 
-    public synchronized void close() {
-        if (!closed) {
+    /** Stops background tasks. Changes that are already in the queue are applied to the index before indexing is stopped. */
+    private void stopIndexing() {
+        final ScheduledFuture<?> reopenTask;
+        synchronized (this) {
+            reopenTask = this.reopenTask;
+        }
+        // Searcher may be closed by indexer itself if it runs out of memory.
+        if (reopenTask != null && indexer.thread != Thread.currentThread()) {
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
-            } catch (IOException e) {
-                LOG.error(e.getMessage(), e);
+                indexingQueue.awaitDrained();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            closed = true;
+        }
+        indexingQueue.close();
+        synchronized (refreshLock) {
+            refreshStopped = true;
+        }
+        if (reopenTask != null) {
+            reopenTask.cancel(false);
         }
     }
 
@@ -127,7 +232,7 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     @Override
-    public String[] search(QueryExpression query) throws ServerException {
+    public SearchResult search(QueryExpression query) throws ServerException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
         final String path = query.getPath();
@@ -150,19 +255,37 @@ public abstract class LuceneSearcher implements Searcher {
                 throw new ServerException(e.getMessage());
             }
         }
+        final int skipCount = query.getSkipCount();
+        final long limit = query.getMaxItems() > 0 ? (long)skipCount + query.getMaxItems() : Long.MAX_VALUE;
+        final List<String> paths = new ArrayList<>();
+        FieldDoc after = query.getAfter() == null
+                         ? null : new FieldDoc(Integer.MAX_VALUE, Float.NaN, new Object[]{new BytesRef(query.getAfter())});
         IndexSearcher luceneSearcher = null;
         try {
-            searcherManager.maybeRefresh();
             luceneSearcher = searcherManager.acquire();
-            final TopDocs topDocs = luceneSearcher.search(luceneQuery, RESULT_LIMIT);
-            if (topDocs.totalHits > RESULT_LIMIT) {
-                throw new ServerException(String.format("Too many (%d) matched results found. ", topDocs.totalHits));
-            }
-            final String[] result = new String[topDocs.scoreDocs.length];
-            for (int i = 0, length = result.length; i < length; i++) {
-                result[i] = luceneSearcher.doc(topDocs.scoreDocs[i].doc).getField("path").stringValue();
-            }
-            return result;
+            long collected = 0;
+            int totalHits;
+            boolean hasMore;
+            String last = null;
+            do {
+                final int pageSize = (int)Math.min(PAGE_SIZE, limit - collected);
+                // Fetch one extra document to find out whether there are more results after this page.
+                final TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, pageSize + 1, SORT_BY_PATH);
+                totalHits = topDocs.totalHits;
+                hasMore = topDocs.scoreDocs.length > pageSize;
+                final int length = Math.min(pageSize, topDocs.scoreDocs.length);
+                for (int i = 0; i < length; i++) {
+                    // Path is taken from sort values which are read from doc values, there is no need to load stored fields.
+                    after = (FieldDoc)topDocs.scoreDocs[i];
+                    last = ((BytesRef)after.fields[0]).utf8ToString();
+                    if (collected++ >= skipCount) {
+                        paths.add(last);
+                    }
+                }
+            } while (hasMore && collected < limit);
+            final int maxTotalHits = query.getMaxTotalHits();
+            final boolean totalHitsExact = maxTotalHits <= 0 || totalHits <= maxTotalHits;
+            return new SearchResult(paths, totalHitsExact ? totalHits : maxTotalHits, totalHitsExact, hasMore ? last : null);
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         } finally {
@@ -176,7 +299,12 @@ public abstract class LuceneSearcher implements Searcher {
 
     @Override
     public final void add(VirtualFile virtualFile) throws ServerException {
-        doAdd(virtualFile);
+        try {
+            indexingQueue.add(virtualFile);
+        } catch (InterruptedException e) {
+            throw interrupted();
+        }
+        indexer.schedule();
     }
 
     protected void doAdd(VirtualFile virtualFile) throws ServerException {
@@ -230,24 +358,119 @@ public abstract class LuceneSearcher implements Searcher {
     @Override
     public final void delete(String path, boolean isFile) throws ServerException {
         try {
-            if (isFile) {
-                Term term = new Term("path", path);
-                getIndexWriter().deleteDocuments(term);
-            } else {
-                Term term = new Term("path", path + "/");
-                getIndexWriter().deleteDocuments(new PrefixQuery(term));
+            indexingQueue.delete(path, isFile);
+        } catch (InterruptedException e) {
+            throw interrupted();
+        }
+        indexer.schedule();
+    }
+
+    @Override
+    public final void update(VirtualFile virtualFile) throws ServerException {
+        try {
+            indexingQueue.update(virtualFile);
+        } catch (InterruptedException e) {
+            throw interrupted();
+        }
+        indexer.schedule();
+    }
+
+    private ServerException interrupted() {
+        Thread.currentThread().interrupt();
+        return new ServerException("Interrupted while waiting for free space in indexing queue. ");
+    }
+
+    /**
+     * Gets sequence number of the last change that is submitted for indexing. Any change that is submitted by the current
+     * thread before this call has sequence number that is less than or equal to returned value.
+     *
+     * @see #waitForIndexed(long, long, TimeUnit)
+     */
+    public long getLastSequence() {
+        return indexingQueue.getSequence();
+    }
+
+    /** Gets sequence number of the last change that is visible for search together with all changes before it. */
+    public long getSearchableSequence() {
+        synchronized (refreshLock) {
+            return searchableSequence;
+        }
+    }
+
+    /** Gets number of paths that are waiting for indexing. */
+    public int getPendingCount() {
+        return indexingQueue.size();
+    }
+
+    /**
+     * Waits until all changes with sequence number less than or equal to the specified one are visible for search. If changes
+     * are applied to the index but searcher is not reopened yet then searcher is reopened by the current thread without waiting
+     * for the next scheduled reopening.
+     *
+     * @param sequence
+     *         sequence number of change, see {@link #getLastSequence()}
+     * @param timeout
+     *         max time to wait
+     * @param unit
+     *         time unit of the {@code timeout} argument
+     * @return {@code true} if changes are visible for search and {@code false} if timeout is reached or searcher is closed
+     */
+    public boolean waitForIndexed(long sequence, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!indexingQueue.awaitIndexed(sequence, timeout, unit)) {
+            return false;
+        }
+        synchronized (refreshLock) {
+            if (searchableSequence >= sequence) {
+                return true;
             }
-        } catch (OutOfMemoryError oome) {
-            close();
-            throw oome;
+            if (refreshStopped) {
+                return false;
+            }
+        }
+        try {
+            refresh();
+        } catch (ServerException | AlreadyClosedException e) {
+            LOG.warn("Unable reopen index searcher. {}", e.getMessage());
+            return false;
+        }
+        return getSearchableSequence() >= sequence;
+    }
+
+    /** Reopens searcher to make all changes that are applied to the index so far visible for search. */
+    protected void refresh() throws ServerException {
+        final long indexed = indexingQueue.getIndexedSequence();
+        try {
+            searcherManager.maybeRefreshBlocking();
         } catch (IOException e) {
             throw new ServerException(e.getMessage(), e);
         }
+        synchronized (refreshLock) {
+            if (indexed > searchableSequence) {
+                searchableSequence = indexed;
+            }
+        }
     }
 
-    @Override
-    public final void update(VirtualFile virtualFile) throws ServerException {
-        doUpdate(new Term("path", virtualFile.getPath()), virtualFile);
+    /** Applies pending change to the index. */
+    private void apply(IndexingQueue.Entry entry) {
+        try {
+            if (entry.deleteChildren) {
+                getIndexWriter().deleteDocuments(new PrefixQuery(new Term("path", entry.path + "/")));
+            }
+            if (entry.deleteFile) {
+                getIndexWriter().deleteDocuments(new Term("path", entry.path));
+            }
+            final VirtualFile virtualFile = entry.file;
+            if (virtualFile != null && virtualFile.exists()) {
+                if (entry.update) {
+                    doUpdate(new Term("path", entry.path), virtualFile);
+                } else {
+                    doAdd(virtualFile);
+                }
+            }
+        } catch (IOException | ServerException e) {
+            LOG.error("Unable update index for '{}'. {}", entry.path, e.getMessage());
+        }
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
@@ -264,9 +487,28 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Creates document for the file and reads content of the file into memory, so document may be added to the index later
+     * without any I/O operations.
+     */
+    protected Document createBufferedDocument(VirtualFile virtualFile) throws ServerException {
+        String content = null;
+        if (filter.accept(virtualFile)) {
+            try (Reader fContentReader = new InputStreamReader(virtualFile.getContent().getStream())) {
+                content = CharStreams.toString(fContentReader);
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            } catch (ForbiddenException e) {
+                throw new ServerException(e.getServiceError());
+            }
+        }
+        return createDocument(virtualFile, content == null ? null : new StringReader(content));
+    }
+
     protected Document createDocument(VirtualFile virtualFile, Reader inReader) throws ServerException {
         final Document doc = new Document();
         doc.add(new StringField("path", virtualFile.getPath(), Field.Store.YES));
+        doc.add(new SortedDocValuesField("path", new BytesRef(virtualFile.getPath())));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
         doc.add(new StringField("mediatype", getMediaType(virtualFile), Field.Store.YES));
         if (inReader != null) {
@@ -285,4 +527,57 @@ public abstract class LuceneSearcher implements Searcher {
         return mediaType;
     }
 
+    /**
+     * Applies pending changes to the index in the shared pool of indexer threads. Only one batch is applied at once and task is
+     * resubmitted after each batch, so searchers with many changes do not hold indexer threads for a long time.
+     */
+    private class Indexer implements Runnable {
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** Thread that applies changes at the moment. */
+        private volatile Thread thread;
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    indexers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            if (getIndexWriter() == null) {
+                // Index is not opened yet, see doInit().
+                scheduled.set(false);
+                return;
+            }
+            final List<IndexingQueue.Entry> batch = indexingQueue.poll(INDEXING_BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                thread = Thread.currentThread();
+                try {
+                    for (IndexingQueue.Entry entry : batch) {
+                        apply(entry);
+                    }
+                } catch (OutOfMemoryError oome) {
+                    indexingQueue.clear();
+                    close();
+                    throw oome;
+                } finally {
+                    thread = null;
+                    indexingQueue.done();
+                    scheduled.set(false);
+                }
+            } else {
+                scheduled.set(false);
+            }
+            // Changes that are added after batch is taken might not schedule indexer while it was running.
+            if (indexingQueue.size() > 0) {
+                schedule();
+            }
+        }
+    }
 }
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.server.LazyIterator;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.server.VirtualFileFilter;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Adds whole tree of files to the index of {@link LuceneSearcher}. Folders are walked and content of files is read by worker
+ * tasks that are running in the specified {@code Executor}. Prepared documents are passed through the bounded queue to the
+ * thread that calls method {@link #index(VirtualFile)}, this thread is the only one that adds documents to {@code
+ * IndexWriter}.
+ * <p/>
+ * Thread that calls method {@link #index(VirtualFile)} walks folders itself when there is no prepared documents in the queue,
+ * so indexing completes even if all threads of executor are busy with other tasks.
+ * <p/>
+ * Instance of this class may be used only once.
+ *
+ * @author agent
+ */
+public final class ParallelTreeIndexer {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelTreeIndexer.class);
+
+    /** Files bigger than this are not read to memory by worker tasks, content of such files is streamed directly to index. */
+    private static final long MAX_BUFFERED_LENGTH   = 1024 * 1024;
+    private static final int  DOCUMENT_QUEUE_SIZE   = 128;
+    private static final long PROGRESS_LOG_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+    private final LuceneSearcher                   searcher;
+    private final Executor                         executor;
+    private final int                              parallelism;
+    private final Deque<VirtualFile>               folders;
+    private final BlockingQueue<PreparedDocument>  documents;
+    /** Number of folders that are added to {@link #folders} but whose children are not listed yet. */
+    private final AtomicInteger                    pendingFolders;
+    /** Number of worker tasks submitted to executor. */
+    private final AtomicInteger                    workers;
+    private final AtomicReference<ServerException> error;
+    private final Runnable                         worker;
+
+    private final AtomicLong visitedFolders;
+    private final AtomicLong preparedFiles;
+    private final AtomicLong indexedFiles;
+    private final AtomicLong indexedBytes;
+
+    private volatile long startTime;
+    private volatile long endTime;
+
+    /**
+     * @param searcher
+     *         searcher which index is updated
+     * @param executor
+     *         executor for worker tasks that walk folders and read content of files
+     * @param parallelism
+     *         max number of worker tasks that are running at the same time
+     */
+    public ParallelTreeIndexer(LuceneSearcher searcher, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+        }
+        this.searcher = searcher;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        folders = new ConcurrentLinkedDeque<>();
+        documents = new ArrayBlockingQueue<>(DOCUMENT_QUEUE_SIZE);
+        pendingFolders = new AtomicInteger();
+        workers = new AtomicInteger();
+        error = new AtomicReference<>();
+        worker = new Worker();
+        visitedFolders = new AtomicLong();
+        preparedFiles = new AtomicLong();
+        indexedFiles = new AtomicLong();
+        indexedBytes = new AtomicLong();
+    }
+
+    /**
+     * Adds all files from the {@code tree} to the index. Method is blocked until all files are added.
+     *
+     * @throws ServerException
+     *         if any error occurs while walking tree or indexing files
+     */
+    public void index(VirtualFile tree) throws ServerException {
+        startTime = System.currentTimeMillis();
+        long nextProgressLog = startTime + PROGRESS_LOG_INTERVAL;
+        addFolder(tree);
+        try {
+            for (; ; ) {
+                checkError();
+                PreparedDocument document = documents.poll();
+                if (document == null) {
+                    final VirtualFile folder = folders.poll();
+                    if (folder != null) {
+                        walk(folder, false);
+                        continue;
+                    }
+                    if (pendingFolders.get() == 0 && documents.isEmpty()) {
+                        // All folders are listed and all documents are taken from the queue.
+                        break;
+                    }
+                    document = documents.poll(100, TimeUnit.MILLISECONDS);
+                }
+                if (document != null) {
+                    write(document);
+                }
+                final long now = System.currentTimeMillis();
+                if (now >= nextProgressLog) {
+                    LOG.info("Indexing {}: {} files indexed, {} files prepared, {} folders visited", tree.getPath(), indexedFiles.get(),
+                             preparedFiles.get(), visitedFolders.get());
+                    nextProgressLog = now + PROGRESS_LOG_INTERVAL;
+                }
+            }
+            checkError();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Indexing of " + tree.getPath() + " is interrupted. ");
+        } catch (ServerException e) {
+            error.compareAndSet(null, e);
+            throw e;
+        } finally {
+            // Stop worker tasks if indexing failed.
+            folders.clear();
+            documents.clear();
+            endTime = System.currentTimeMillis();
+        }
+        LOG.debug("Indexed {} files ({} bytes) from {}, time: {} ms", indexedFiles.get(), indexedBytes.get(), tree.getPath(),
+                  (endTime - startTime));
+    }
+
+    private void checkError() throws ServerException {
+        final ServerException e = error.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void addFolder(VirtualFile folder) {
+        pendingFolders.incrementAndGet();
+        folders.push(folder);
+        if (workers.get() < parallelism) {
+            if (workers.incrementAndGet() <= parallelism) {
+                try {
+                    executor.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    // Thread that calls method index() walks folders itself.
+                    workers.decrementAndGet();
+                }
+            } else {
+                workers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Lists children of the folder.
+     *
+     * @param folder
+     *         folder to walk
+     * @param queue
+     *         if {@code true} documents of files are put in the queue, otherwise they are added to the index immediately
+     */
+    private void walk(VirtualFile folder, boolean queue) throws ServerException, InterruptedException {
+        try {
+            if (folder.exists()) {
+                final LazyIterator<VirtualFile> children = folder.getChildren(VirtualFileFilter.ALL);
+                while (children.hasNext() && error.get() == null) {
+                    final VirtualFile child = children.next();
+                    if (child.isFolder()) {
+                        addFolder(child);
+                    } else if (child.exists()) {
+                        final PreparedDocument document = prepare(child);
+                        preparedFiles.incrementAndGet();
+                        if (queue) {
+                            while (!documents.offer(document, 100, TimeUnit.MILLISECONDS)) {
+                                if (error.get() != null) {
+                                    return;
+                                }
+                            }
+                        } else {
+                            write(document);
+                        }
+                    }
+                }
+            }
+            visitedFolders.incrementAndGet();
+        } finally {
+            pendingFolders.decrementAndGet();
+        }
+    }
+
+    private PreparedDocument prepare(VirtualFile file) throws ServerException {
+        final long length = file.getLength();
+        if (length > MAX_BUFFERED_LENGTH) {
+            return new PreparedDocument(file, null, length);
+        }
+        return new PreparedDocument(file, searcher.createBufferedDocument(file), length);
+    }
+
+    private void write(PreparedDocument document) throws ServerException {
+        if (document.document == null) {
+            searcher.addFile(document.file);
+        } else {
+            try {
+                searcher.getIndexWriter().updateDocument(new Term("path", document.file.getPath()), document.document);
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        }
+        indexedFiles.incrementAndGet();
+        indexedBytes.addAndGet(document.length);
+    }
+
+    /** Gets number of visited folders. */
+    public long getVisitedFolders() {
+        return visitedFolders.get();
+    }
+
+    /** Gets number of files which content is read but which are not added to the index yet. */
+    public long getQueuedFiles() {
+        return preparedFiles.get() - indexedFiles.get();
+    }
+
+    /** Gets number of files added to the index. */
+    public long getIndexedFiles() {
+        return indexedFiles.get();
+    }
+
+    /** Gets total length of files added to the index. */
+    public long getIndexedBytes() {
+        return indexedBytes.get();
+    }
+
+    /** Gets time of indexing in milliseconds. If indexing is not completed yet returns time since start of indexing. */
+    public long getTime() {
+        final long start = startTime;
+        if (start == 0) {
+            return 0;
+        }
+        final long end = endTime;
+        return (end == 0 ? System.currentTimeMillis() : end) - start;
+    }
+
+    /** Returns {@code true} if indexing is completed successfully or with error. */
+    public boolean isCompleted() {
+        return endTime != 0;
+    }
+
+    private static final class PreparedDocument {
+        final VirtualFile file;
+        /** Document ready to be added to the index or {@code null} if content of file should be read while adding to index. */
+        final Document    document;
+        final long        length;
+
+        PreparedDocument(VirtualFile file, Document document, long length) {
+            this.file = file;
+            this.document = document;
+            this.length = length;
+        }
+    }
+
+    private final class Worker implements Runnable {
+        @Override
+        public void run() {
+            for (; ; ) {
+                VirtualFile folder;
+                while (error.get() == null && (folder = folders.poll()) != null) {
+                    try {
+                        walk(folder, true);
+                    } catch (ServerException e) {
+                        error.compareAndSet(null, e);
+                    } catch (InterruptedException e) {
+                        error.compareAndSet(null, new ServerException("Indexing is interrupted. "));
+                        Thread.currentThread().interrupt();
+                        workers.decrementAndGet();
+                        return;
+                    } catch (RuntimeException e) {
+                        error.compareAndSet(null, new ServerException(e.getMessage(), e));
+                    }
+                }
+                workers.decrementAndGet();
+                // Re-check queue of folders to avoid race with addFolder() that may see all workers busy.
+                if (error.get() != null || folders.isEmpty()) {
+                    return;
+                }
+                if (workers.incrementAndGet() > parallelism) {
+                    workers.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+}
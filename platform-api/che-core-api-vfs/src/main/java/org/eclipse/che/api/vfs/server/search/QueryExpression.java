@@ -16,6 +16,10 @@ public class QueryExpression {
     private String path;
     private String mediaType;
     private String text;
+    private String after;
+    private int    skipCount;
+    private int    maxItems;
+    private int    maxTotalHits;
 
     public String getPath() {
         return path;
@@ -53,6 +57,49 @@ public class QueryExpression {
         return this;
     }
 
+    /** Path of the last item of previous page of results. Result contains only items which paths are greater than it. */
+    public String getAfter() {
+        return after;
+    }
+
+    public QueryExpression setAfter(String after) {
+        this.after = after;
+        return this;
+    }
+
+    /** Number of items to skip from the beginning of result (or from the {@link #getAfter()} cursor if it is set). */
+    public int getSkipCount() {
+        return skipCount;
+    }
+
+    public QueryExpression setSkipCount(int skipCount) {
+        this.skipCount = skipCount;
+        return this;
+    }
+
+    /** Max number of items in result. Zero or negative value means there is no limit. */
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public QueryExpression setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+        return this;
+    }
+
+    /**
+     * Max total number of matched items that searcher should report. If there are more matched items then exact number of
+     * them is unknown for the caller. Zero or negative value means there is no limit.
+     */
+    public int getMaxTotalHits() {
+        return maxTotalHits;
+    }
+
+    public QueryExpression setMaxTotalHits(int maxTotalHits) {
+        this.maxTotalHits = maxTotalHits;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
@@ -60,6 +107,10 @@ public class QueryExpression {
                ", path='" + path + '\'' +
                ", mediaType='" + mediaType + '\'' +
                ", text='" + text + '\'' +
+               ", after='" + after + '\'' +
+               ", skipCount=" + skipCount +
+               ", maxItems=" + maxItems +
+               ", maxTotalHits=" + maxTotalHits +
                '}';
     }
 }
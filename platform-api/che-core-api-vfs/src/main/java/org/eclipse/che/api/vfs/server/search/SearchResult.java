@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link Searcher#search(QueryExpression)}.
+ *
+ * @author agent
+ */
+public class SearchResult {
+    private final List<String> filePaths;
+    private final int          totalHits;
+    private final boolean      totalHitsExact;
+    private final String       nextPageCursor;
+
+    public SearchResult(List<String> filePaths, int totalHits, boolean totalHitsExact, String nextPageCursor) {
+        this.filePaths = Collections.unmodifiableList(filePaths);
+        this.totalHits = totalHits;
+        this.totalHitsExact = totalHitsExact;
+        this.nextPageCursor = nextPageCursor;
+    }
+
+    /** Paths of matched items in ascending order. */
+    public List<String> getFilePaths() {
+        return filePaths;
+    }
+
+    /**
+     * Total number of matched items. If {@link QueryExpression#getMaxTotalHits()} is set and there are more matched items then
+     * returned value is equal to {@link QueryExpression#getMaxTotalHits()}.
+     */
+    public int getTotalHits() {
+        return totalHits;
+    }
+
+    /** Returns {@code false} if number of matched items is bigger than {@link #getTotalHits()}. */
+    public boolean isTotalHitsExact() {
+        return totalHitsExact;
+    }
+
+    /**
+     * Cursor that should be passed to {@link QueryExpression#setAfter(String)} to get the next page of results or {@code null} if
+     * this is the last page.
+     */
+    public String getNextPageCursor() {
+        return nextPageCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+               "filePaths=" + filePaths +
+               ", totalHits=" + totalHits +
+               ", totalHitsExact=" + totalHitsExact +
+               ", nextPageCursor='" + nextPageCursor + '\'' +
+               '}';
+    }
+}
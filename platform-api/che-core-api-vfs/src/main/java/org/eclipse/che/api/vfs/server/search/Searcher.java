@@ -13,9 +13,17 @@ package org.eclipse.che.api.vfs.server.search;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.server.VirtualFile;
 
+/**
+ * Index of virtual filesystem.
+ * <p/>
+ * Implementations may apply changes of index asynchronously, so items that are added, updated or deleted just before {@link
+ * #search(QueryExpression)} may be not visible in result of search yet. See {@link LuceneSearcher#waitForIndexed(long, long,
+ * java.util.concurrent.TimeUnit)} for callers that need to see own changes.
+ */
 public interface Searcher {
     /**
-     * Return paths of matched items on virtual filesystem.
+     * Return paths of matched items on virtual filesystem. Paths are sorted, so result may be read page by page, see {@link
+     * QueryExpression#setAfter(String)} and {@link SearchResult#getNextPageCursor()}.
      *
      * @param query
      *         query expression
@@ -23,7 +31,7 @@ public interface Searcher {
      * @throws ServerException
      *         if an error occurs
      */
-    String[] search(QueryExpression query) throws ServerException;
+    SearchResult search(QueryExpression query) throws ServerException;
 
     /**
      * Add VirtualFile to index.
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces all occurrences of a set of strings in a single pass over the text. All strings are matched together with Aho-Corasick
+ * automaton, so cost of replacement doesn't depend on number of strings. Text is streamed, replacer keeps in memory not more
+ * characters than length of the longest string to find. If several strings match at the same position the longest one is
+ * replaced. Replaced text is not scanned again. Instances of this class are immutable and may be shared between threads.
+ * <p/>
+ * Usage:
+ * <pre>
+ *     Map&lt;String, String&gt; replacements = new HashMap&lt;&gt;();
+ *     replacements.put("${name}", "che");
+ *     replacements.put("${version}", "3.0");
+ *     long replaced = new MultiPatternReplacer(replacements).replace(reader, writer);
+ * </pre>
+ *
+ * @author agent
+ */
+public final class MultiPatternReplacer {
+    private static final char[] NO_LABELS  = new char[0];
+    private static final int[]  NO_TARGETS = new int[0];
+
+    private final String[] replacements;
+    private final int[]    lengths;
+    // Automaton. Node 0 is root. Transitions of each node are sorted by label.
+    private final char[][] labels;
+    private final int[][]  targets;
+    private final int[]    failure;
+    private final int[]    depth;
+    /* Index of string that ends at node or -1. */
+    private final int[]    output;
+    /* Nearest node reachable by failure links that has output, or 0. */
+    private final int[]    outputLink;
+
+    /**
+     * @param replacements
+     *         map of strings to find to their replacements, empty strings to find and {@code null} replacements are ignored
+     */
+    public MultiPatternReplacer(Map<String, String> replacements) {
+        final List<String> finds = new ArrayList<>(replacements.size());
+        final List<String> replaces = new ArrayList<>(replacements.size());
+        for (Map.Entry<String, String> e : replacements.entrySet()) {
+            if (!(e.getKey() == null || e.getKey().isEmpty() || e.getValue() == null)) {
+                finds.add(e.getKey());
+                replaces.add(e.getValue());
+            }
+        }
+        this.replacements = replaces.toArray(new String[replaces.size()]);
+        lengths = new int[finds.size()];
+        int maxNodes = 1;
+        for (String find : finds) {
+            maxNodes += find.length();
+        }
+        char[][] labels = new char[maxNodes][];
+        int[][] targets = new int[maxNodes][];
+        final int[] depth = new int[maxNodes];
+        final int[] output = new int[maxNodes];
+        Arrays.fill(output, -1);
+        labels[0] = NO_LABELS;
+        targets[0] = NO_TARGETS;
+        int nodes = 1;
+        for (int i = 0; i < finds.size(); i++) {
+            final String find = finds.get(i);
+            lengths[i] = find.length();
+            int node = 0;
+            for (int j = 0; j < find.length(); j++) {
+                final char c = find.charAt(j);
+                int next = transition(labels[node], targets[node], c);
+                if (next < 0) {
+                    next = nodes++;
+                    labels[next] = NO_LABELS;
+                    targets[next] = NO_TARGETS;
+                    depth[next] = depth[node] + 1;
+                    addTransition(labels, targets, node, c, next);
+                }
+                node = next;
+            }
+            output[node] = i;
+        }
+        this.labels = Arrays.copyOf(labels, nodes);
+        this.targets = Arrays.copyOf(targets, nodes);
+        this.depth = Arrays.copyOf(depth, nodes);
+        this.output = Arrays.copyOf(output, nodes);
+        failure = new int[nodes];
+        outputLink = new int[nodes];
+        // Breadth-first, failure link of node always points to node with less depth.
+        final LinkedList<Integer> q = new LinkedList<>();
+        for (int child : this.targets[0]) {
+            q.add(child);
+        }
+        while (!q.isEmpty()) {
+            final int node = q.pop();
+            for (int i = 0; i < this.labels[node].length; i++) {
+                final char c = this.labels[node][i];
+                final int child = this.targets[node][i];
+                int f = failure[node];
+                int next;
+                while ((next = transition(this.labels[f], this.targets[f], c)) < 0 && f != 0) {
+                    f = failure[f];
+                }
+                failure[child] = next < 0 || next == child ? 0 : next;
+                outputLink[child] = this.output[failure[child]] >= 0 ? failure[child] : outputLink[failure[child]];
+                q.add(child);
+            }
+        }
+    }
+
+    /** Returns {@code true} if there is nothing to replace. */
+    public boolean isEmpty() {
+        return replacements.length == 0;
+    }
+
+    /**
+     * Copies text from {@code in} to {@code out} and replaces all found strings. Neither of streams is closed.
+     *
+     * @return number of replacements
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public long replace(Reader in, Writer out) throws IOException {
+        final ReplacingWriter writer = newWriter(out);
+        final char[] buffer = new char[8192];
+        int r;
+        while ((r = in.read(buffer)) != -1) {
+            writer.write(buffer, 0, r);
+        }
+        writer.finish();
+        return writer.getReplacements();
+    }
+
+    /** Replaces all found strings in {@code text}. */
+    public String replace(String text) {
+        final StringWriter out = new StringWriter(text.length());
+        final ReplacingWriter writer = newWriter(out);
+        try {
+            writer.write(text);
+            writer.finish();
+        } catch (IOException e) {
+            // Never happens with StringWriter.
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return writer.getReplacements() == 0 ? text : out.toString();
+    }
+
+    /** Creates writer that replaces found strings in text written to it and passes result to {@code out}. */
+    public ReplacingWriter newWriter(Writer out) {
+        return new ReplacingWriter(out);
+    }
+
+    private int next(int node, char c) {
+        for (; ; ) {
+            final int next = transition(labels[node], targets[node], c);
+            if (next >= 0) {
+                return next;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = failure[node];
+        }
+    }
+
+    private static int transition(char[] labels, int[] targets, char c) {
+        final int i = Arrays.binarySearch(labels, c);
+        return i < 0 ? -1 : targets[i];
+    }
+
+    private static void addTransition(char[][] labels, int[][] targets, int node, char c, int target) {
+        final char[] nodeLabels = labels[node];
+        final int[] nodeTargets = targets[node];
+        final int insert = -(Arrays.binarySearch(nodeLabels, c) + 1);
+        final char[] newLabels = new char[nodeLabels.length + 1];
+        final int[] newTargets = new int[nodeTargets.length + 1];
+        System.arraycopy(nodeLabels, 0, newLabels, 0, insert);
+        System.arraycopy(nodeTargets, 0, newTargets, 0, insert);
+        newLabels[insert] = c;
+        newTargets[insert] = target;
+        System.arraycopy(nodeLabels, insert, newLabels, insert + 1, nodeLabels.length - insert);
+        System.arraycopy(nodeTargets, insert, newTargets, insert + 1, nodeTargets.length - insert);
+        labels[node] = newLabels;
+        targets[node] = newTargets;
+    }
+
+    /**
+     * Writer that replaces found strings in text written to it. Characters that may be a part of string to find are kept until
+     * next characters are written. Call {@link #finish()} or {@link #close()} to flush them.
+     */
+    public final class ReplacingWriter extends Writer {
+        private final Writer        out;
+        /* Characters that are not written to out yet. */
+        private final StringBuilder pending;
+        /* Characters that must be scanned again after replacement. */
+        private final StringBuilder rescan;
+
+        private int  state;
+        private int  matchStart;
+        private int  match;
+        private long replaced;
+
+        private ReplacingWriter(Writer out) {
+            this.out = out;
+            pending = new StringBuilder();
+            rescan = new StringBuilder();
+            match = -1;
+        }
+
+        @Override
+        public void write(char[] chars, int off, int len) throws IOException {
+            if (replacements.length == 0) {
+                out.write(chars, off, len);
+                return;
+            }
+            for (int i = off, end = off + len; i < end; i++) {
+                step(chars[i]);
+                if (rescan.length() > 0) {
+                    drainRescan();
+                }
+            }
+        }
+
+        /** Number of replacements made so far. */
+        public long getReplacements() {
+            return replaced;
+        }
+
+        /** Writes all pending characters. Nothing may be written after this method is called. */
+        public void finish() throws IOException {
+            while (match >= 0) {
+                emitMatch();
+                drainRescan();
+            }
+            if (pending.length() > 0) {
+                out.append(pending);
+                pending.setLength(0);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            out.close();
+        }
+
+        private void step(char c) throws IOException {
+            state = next(state, c);
+            pending.append(c);
+            final int end = pending.length();
+            for (int node = output[state] >= 0 ? state : outputLink[state]; node != 0; node = outputLink[node]) {
+                final int found = output[node];
+                final int start = end - lengths[found];
+                if (match < 0 || start < matchStart || (start == matchStart && lengths[found] > lengths[match])) {
+                    match = found;
+                    matchStart = start;
+                }
+            }
+            // Nothing that starts before this position may match any more.
+            final int viableStart = end - depth[state];
+            if (match >= 0) {
+                if (viableStart > matchStart) {
+                    emitMatch();
+                }
+            } else if (viableStart > 0) {
+                out.append(pending, 0, viableStart);
+                pending.delete(0, viableStart);
+            }
+        }
+
+        private void emitMatch() throws IOException {
+            out.append(pending, 0, matchStart);
+            out.write(replacements[match]);
+            replaced++;
+            // Characters after match might be scanned as part of longer candidate, scan them again from root.
+            rescan.insert(0, pending, matchStart + lengths[match], pending.length());
+            pending.setLength(0);
+            state = 0;
+            match = -1;
+        }
+
+        private void drainRescan() throws IOException {
+            while (rescan.length() > 0) {
+                final char c = rescan.charAt(0);
+                rescan.deleteCharAt(0);
+                step(c);
+            }
+        }
+    }
+}
@@ -45,4 +45,15 @@ public interface ItemList {
     ItemList withHasMoreItems(boolean hasMoreItems);
 
     void setHasMoreItems(boolean hasMoreItems);
+
+    /**
+     * @return cursor that may be used to get next page of children of folder or next page of search result, {@code null} if this is
+     *         last sub-set of items or if listing doesn't support cursors. Cursor of search result is passed back in query parameter
+     *         {@code after}
+     */
+    String getNextCursor();
+
+    ItemList withNextCursor(String nextCursor);
+
+    void setNextCursor(String nextCursor);
 }
@@ -236,4 +236,72 @@ public class PathLockFactoryTest extends TestCase {
         waiter.await();
         assertEquals(2, acquired.get());
     }
+
+    public void testChildLockBlocksParentExclusiveLock() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch stopper = new CountDownLatch(1);
+        Runnable childTask = new Runnable() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    stopper.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        Thread t = new Thread(childTask);
+        t.start();
+        starter.await();
+        try {
+            // Shared lock of parent is compatible with shared lock of child.
+            pathLockFactory.getLock(path.getParent(), false).acquire(100).release();
+            try {
+                pathLockFactory.getLock(path.getParent().getParent(), true).acquire(100);
+                fail();
+            } catch (RuntimeException e) {
+                // OK
+            }
+        } finally {
+            stopper.countDown();
+        }
+        t.join();
+        // Lock must be available when child lock released.
+        pathLockFactory.getLock(path.getParent().getParent(), true).acquire(100).release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testLocksInDifferentSubtrees() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch stopper = new CountDownLatch(1);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true);
+                lock.acquire();
+                starter.countDown();
+                try {
+                    stopper.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        Thread t = new Thread(task);
+        t.start();
+        starter.await();
+        try {
+            pathLockFactory.getLock(Path.fromString("/a/b/d"), true).acquire(100).release();
+            pathLockFactory.getLock(Path.fromString("/x"), true).acquire(100).release();
+        } finally {
+            stopper.countDown();
+        }
+        t.join();
+        pathLockFactory.checkClean();
+    }
 }
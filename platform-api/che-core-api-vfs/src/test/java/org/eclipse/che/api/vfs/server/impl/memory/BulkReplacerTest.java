@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.impl.memory;
+
+import org.eclipse.che.api.vfs.server.BulkReplacer;
+import org.eclipse.che.api.vfs.server.VirtualFile;
+import org.eclipse.che.api.vfs.shared.dto.ReplacementSet;
+import org.eclipse.che.api.vfs.shared.dto.Variable;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.dto.server.DtoFactory;
+
+import javax.ws.rs.core.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author agent
+ */
+public class BulkReplacerTest extends MemoryFileSystemTest {
+    private VirtualFile project;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        project = mountPoint.getRoot().createFolder(getClass().getName());
+    }
+
+    public void testMatchesNameOfFile() throws Exception {
+        final VirtualFile matched = createFile(project.createFolder("a/b"), "pom.xml", "<version>${version}</version>");
+        final VirtualFile notMatched = createFile(project, "pom.txt", "<version>${version}</version>");
+
+        final BulkReplacer.Summary summary =
+                new BulkReplacer(Collections.singletonList(set(Arrays.asList("pom\\.xml"), variable("version", "3.0"))))
+                        .replace(project, null);
+
+        assertEquals("<version>3.0</version>", readContent(matched));
+        assertEquals("<version>${version}</version>", readContent(notMatched));
+        assertEquals(1, summary.getFilesMatched());
+        assertEquals(1, summary.getFilesChanged());
+    }
+
+    public void testMatchesPathOfFileRelativeToFolder() throws Exception {
+        final VirtualFile matched = createFile(project.createFolder("src/main/java"), "Main.java", "package ${package};");
+        final VirtualFile notMatched = createFile(project.createFolder("src/test/java"), "Main.java", "package ${package};");
+        createFile(project, "Main.java", "package ${package};");
+
+        new BulkReplacer(Collections.singletonList(set(Arrays.asList("src/main/java/(.*)"), variable("package", "org.eclipse.che"))))
+                .replace(project, null);
+
+        assertEquals("package org.eclipse.che;", readContent(matched));
+        assertEquals("package ${package};", readContent(notMatched));
+        assertEquals("package ${package};", readContent(project.getChild("Main.java")));
+    }
+
+    public void testMergesVariablesOfAllSetsMatchedByFile() throws Exception {
+        final VirtualFile file = createFile(project, "test.txt", "${name}-${version}.${ext}");
+
+        final BulkReplacer.Summary summary =
+                new BulkReplacer(Arrays.asList(set(Arrays.asList("(.*)\\.txt"), variable("name", "che"), variable("ext", "zip")),
+                                               set(Arrays.asList("test\\.txt"), variable("version", "3.0"), variable("ext", "jar"))))
+                        .replace(project, null);
+
+        assertEquals("che-3.0.jar", readContent(file));
+        assertEquals(1, summary.getFilesMatched());
+        assertEquals(3, summary.getReplacements());
+    }
+
+    public void testAppliesTextMultipassAfterVariables() throws Exception {
+        final VirtualFile file = createFile(project, "test.txt", "${greeting}, NAME");
+
+        new BulkReplacer(Collections.singletonList(set(Arrays.asList("test\\.txt"),
+                                                       variable("greeting", "Hello NAME"),
+                                                       variable("NAME", "che").withReplacemode("text_multipass"))))
+                .replace(project, null);
+
+        assertEquals("Hello che, che", readContent(file));
+    }
+
+    public void testLeftmostLongestMatchWinsInSinglePass() throws Exception {
+        final VirtualFile file = createFile(project, "test.txt", "abcab");
+
+        new BulkReplacer(Collections.singletonList(set(Arrays.asList("test\\.txt"),
+                                                       variable("ab", "X").withReplacemode("text_multipass"),
+                                                       variable("abc", "Y").withReplacemode("text_multipass"))))
+                .replace(project, null);
+
+        assertEquals("YX", readContent(file));
+    }
+
+    public void testKeepsUnresolvedVariables() throws Exception {
+        final VirtualFile file = createFile(project, "test.txt", "${name} ${unknown} ${empty}.");
+
+        new BulkReplacer(Collections.singletonList(set(Arrays.asList("test\\.txt"), variable("name", "che"), variable("empty", ""))))
+                .replace(project, null);
+
+        assertEquals("che ${unknown} .", readContent(file));
+    }
+
+    public void testDoesNotUpdateFileIfContentIsNotChanged() throws Exception {
+        final VirtualFile file = createFile(project, "test.txt", "${name}");
+        final long lastModified = file.getLastModificationDate();
+        Thread.sleep(10);
+
+        final BulkReplacer.Summary summary =
+                new BulkReplacer(Collections.singletonList(set(Arrays.asList("test\\.txt"),
+                                                               variable("${name}", "${name}").withReplacemode("text_multipass"))))
+                        .replace(project, null);
+
+        assertEquals("${name}", readContent(file));
+        assertEquals(1, summary.getFilesMatched());
+        assertEquals(0, summary.getFilesChanged());
+        assertEquals(lastModified, mountPoint.getVirtualFileById(file.getId()).getLastModificationDate());
+    }
+
+    public void testReplacesInFileLargerThanMemoryBuffer() throws Exception {
+        final StringBuilder content = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        int lines = 0;
+        while (content.length() <= 2 * 1024 * 1024) {
+            content.append("line ").append(lines).append(": ${name}-${version}\n");
+            expected.append("line ").append(lines).append(": che-3.0\n");
+            lines++;
+        }
+        final VirtualFile file = createFile(project, "big.txt", content.toString());
+
+        final BulkReplacer.Summary summary =
+                new BulkReplacer(Collections.singletonList(set(Arrays.asList("big\\.txt"),
+                                                               variable("name", "che"),
+                                                               variable("version", "3.0"))))
+                        .replace(project, null);
+
+        assertEquals(expected.toString(), readContent(file));
+        assertEquals(2 * lines, summary.getReplacements());
+        assertEquals(expected.length(), summary.getBytesWritten());
+    }
+
+    private VirtualFile createFile(VirtualFile parent, String name, String content) throws Exception {
+        return parent.createFile(name, MediaType.TEXT_PLAIN, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String readContent(VirtualFile file) throws Exception {
+        return IoUtil.readAndCloseQuietly(mountPoint.getVirtualFileById(file.getId()).getContent().getStream());
+    }
+
+    private ReplacementSet set(List<String> files, Variable... variables) {
+        return DtoFactory.getInstance().createDto(ReplacementSet.class).withFiles(files).withEntries(Arrays.asList(variables));
+    }
+
+    private Variable variable(String find, String replace) {
+        return DtoFactory.getInstance().createDto(Variable.class).withFind(find).withReplace(replace);
+    }
+}
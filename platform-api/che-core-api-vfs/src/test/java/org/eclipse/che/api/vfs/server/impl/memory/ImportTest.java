@@ -12,8 +12,7 @@ package org.eclipse.che.api.vfs.server.impl.memory;
 
 import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.vfs.server.VirtualFile;
-import org.eclipse.che.api.vfs.server.observation.CreateEvent;
-import org.eclipse.che.api.vfs.server.observation.VirtualFileEvent;
+import org.eclipse.che.api.vfs.server.observation.ChangesetEvent;
 import org.everrest.core.impl.ContainerResponse;
 
 import java.io.ByteArrayOutputStream;
@@ -31,11 +30,11 @@ public class ImportTest extends MemoryFileSystemTest {
     private String importTestRootId;
     private byte[] zipFolder;
 
-    private List<VirtualFileEvent> events;
+    private List<ChangesetEvent> events;
 
-    private EventSubscriber<CreateEvent> eventSubscriber = new EventSubscriber<CreateEvent>() {
+    private EventSubscriber<ChangesetEvent> eventSubscriber = new EventSubscriber<ChangesetEvent>() {
         @Override
-        public void onEvent(CreateEvent event) {
+        public void onEvent(ChangesetEvent event) {
             events.add(event);
         }
     };
@@ -94,12 +93,15 @@ public class ImportTest extends MemoryFileSystemTest {
         checkFileContext(DEFAULT_CONTENT, MediaType.TEXT_PLAIN, file3);
 
 
-        assertEquals(6, events.size());
+        // All imported items are reported with single event.
+        assertEquals(1, events.size());
+        assertEquals(parent.getPath(), events.get(0).getPath());
 
-        List<VirtualFileEvent> _events = new ArrayList<>(events);
+        List<ChangesetEvent.Change> _events = new ArrayList<>(events.get(0).getChanges());
+        assertEquals(6, _events.size());
 
-        for (Iterator<VirtualFileEvent> iterator = _events.iterator(); iterator.hasNext(); ) {
-            VirtualFileEvent event = iterator.next();
+        for (Iterator<ChangesetEvent.Change> iterator = _events.iterator(); iterator.hasNext(); ) {
+            ChangesetEvent.Change event = iterator.next();
             if (event.getPath().equals(folder1.getPath())
                 || event.getPath().equals(folder2.getPath())
                 || event.getPath().equals(folder3.getPath())
@@ -30,9 +30,12 @@ import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.HttpHeaders;
@@ -76,6 +79,9 @@ public class SearcherTest extends MemoryFileSystemTest {
         String file4 = searchTestFolder.createFile("SearcherTest_File04", MediaType.TEXT_PLAIN, new ByteArrayInputStream("(1+1):2=1 is right".getBytes())).getPath();
         String file5 = searchTestFolder.createFile("SearcherTest_File05", MediaType.TEXT_PLAIN, new ByteArrayInputStream("Copyright (c) 2012-2015 * All rights reserved".getBytes())).getPath();
 
+        // Make all files visible for search before querying them over REST.
+        assertTrue(searcher.waitForIndexed(searcher.getLastSequence(), 10, TimeUnit.SECONDS));
+
         queryToResult = new Pair[16];
         // text
         queryToResult[0] = new Pair<>(new String[]{file1, file2, file3}, "text=to%20be%20or%20not%20to%20be");
@@ -129,15 +135,48 @@ public class SearcherTest extends MemoryFileSystemTest {
         }
     }
 
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void testSearchPages() throws Exception {
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        String requestPath = SERVICE_URI + "search?maxItems=2";
+        Map<String, List<String>> h = new HashMap<>(1);
+        h.put(HttpHeaders.CONTENT_TYPE, Arrays.asList(MediaType.APPLICATION_FORM_URLENCODED));
+        List<String> resultPaths = new ArrayList<>();
+        String query = "name=SearcherTest_File*&path=" + searchTestPath;
+        boolean hasMore = true;
+        int pages = 0;
+        while (hasMore) {
+            ContainerResponse response = launcher.service(HttpMethod.POST, requestPath, BASE_URI, h, query.getBytes(), writer, null);
+            assertEquals("Error: " + response.getEntity(), 200, response.getStatus());
+            ItemList page = (ItemList)response.getEntity();
+            assertEquals(5, page.getNumItems());
+            assertTrue(page.getItems().size() <= 2);
+            for (Item item : page.getItems()) {
+                resultPaths.add(item.getPath());
+            }
+            hasMore = page.isHasMoreItems();
+            String last = resultPaths.get(resultPaths.size() - 1);
+            query = "name=SearcherTest_File*&path=" + searchTestPath + "&after=" + last;
+            pages++;
+            writer.reset();
+        }
+        assertEquals(3, pages);
+        List<String> sorted = new ArrayList<>(resultPaths);
+        Collections.sort(sorted);
+        assertEquals(sorted, resultPaths);
+        assertEquals(5, new HashSet<>(resultPaths).size());
+        assertTrue(resultPaths.containsAll(Arrays.asList(file1, file2, file3)));
+    }
+
     public void testDelete() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(file1).delete(null);
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new TermQuery(new Term("path", file1)), 10);
         assertEquals(0, topDocs.totalHits);
@@ -145,14 +184,14 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testDelete2() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(5, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
 
         mountPoint.getVirtualFile(searchTestPath).delete(null);
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(0, topDocs.totalHits);
@@ -160,14 +199,14 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testAdd() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(5, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(searchTestPath).createFile("new_file", MediaType.TEXT_PLAIN, new ByteArrayInputStream(DEFAULT_CONTENT_BYTES));
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath)), 10);
         assertEquals(6, topDocs.totalHits);
@@ -175,7 +214,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testUpdate() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(
                 new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
@@ -183,7 +222,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).updateContent(MediaType.TEXT_PLAIN, new ByteArrayInputStream("updated content".getBytes()), null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new QueryParser("text", new SimpleAnalyzer()).parse("updated"), 10);
         assertEquals(1, topDocs.totalHits);
@@ -191,7 +230,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testMove() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = searchTestFolder.createFolder("___destination").getPath();
         String expected = destination + '/' + "SearcherTest_File03";
@@ -200,7 +239,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).moveTo(mountPoint.getVirtualFile(destination), null, false, null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -210,7 +249,7 @@ public class SearcherTest extends MemoryFileSystemTest {
     }
 
     public void testCopy() throws Exception {
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         String destination = searchTestFolder.createFolder("___destination").getPath();
         String expected = destination + '/' + "SearcherTest_File03";
@@ -219,7 +258,7 @@ public class SearcherTest extends MemoryFileSystemTest {
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file3).copyTo(mountPoint.getVirtualFile(destination), null, false);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", expected)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -230,14 +269,14 @@ public class SearcherTest extends MemoryFileSystemTest {
 
     public void testRename() throws Exception {
         String newName = "___renamed";
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         IndexSearcher luceneSearcher = searcherManager.acquire();
         TopDocs topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", file3)), 10);
         assertEquals(1, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
         mountPoint.getVirtualFile(file2).rename(newName, null, null);
 
-        searcherManager.maybeRefresh();
+        refreshSearcher();
         luceneSearcher = searcherManager.acquire();
         topDocs = luceneSearcher.search(new PrefixQuery(new Term("path", searchTestPath + '/' + newName)), 10);
         assertEquals(1, topDocs.totalHits);
@@ -245,4 +284,10 @@ public class SearcherTest extends MemoryFileSystemTest {
         assertEquals(0, topDocs.totalHits);
         searcherManager.release(luceneSearcher);
     }
+
+    /** Waits until all changes are applied to the index and reopens searcher. */
+    private void refreshSearcher() throws Exception {
+        assertTrue(searcher.waitForIndexed(searcher.getLastSequence(), 10, TimeUnit.SECONDS));
+        searcherManager.maybeRefresh();
+    }
 }
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.search;
+
+import junit.framework.TestCase;
+
+import org.eclipse.che.api.vfs.server.VirtualFile;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author agent
+ */
+public class IndexingQueueTest extends TestCase {
+    public void testCoalesceChangesOfTheSamePath() throws Exception {
+        IndexingQueue queue = new IndexingQueue(10);
+        queue.add(file("/a/b"));
+        queue.update(file("/a/b"));
+        queue.update(file("/a/c"));
+        long last = queue.update(file("/a/b"));
+        assertEquals(4, last);
+        assertEquals(2, queue.size());
+
+        List<IndexingQueue.Entry> batch = queue.poll(10);
+        assertEquals(2, batch.size());
+        // Entry is moved to the tail of queue with each change.
+        assertEquals("/a/c", batch.get(0).path);
+        assertEquals("/a/b", batch.get(1).path);
+        // Update of the file that is not indexed yet is still addition.
+        assertFalse(batch.get(1).update);
+    }
+
+    public void testDeleteCancelsPendingAddition() throws Exception {
+        IndexingQueue queue = new IndexingQueue(10);
+        queue.add(file("/a/b"));
+        queue.delete("/a/b", false);
+
+        List<IndexingQueue.Entry> batch = queue.poll(10);
+        assertEquals(1, batch.size());
+        assertNull(batch.get(0).file);
+        assertTrue(batch.get(0).deleteChildren);
+        assertFalse(batch.get(0).deleteFile);
+    }
+
+    public void testAdditionAfterDeleteKeepsDelete() throws Exception {
+        IndexingQueue queue = new IndexingQueue(10);
+        queue.delete("/a/b", true);
+        queue.add(file("/a/b"));
+
+        List<IndexingQueue.Entry> batch = queue.poll(10);
+        assertEquals(1, batch.size());
+        assertNotNull(batch.get(0).file);
+        assertTrue(batch.get(0).deleteFile);
+    }
+
+    public void testIndexedSequence() throws Exception {
+        IndexingQueue queue = new IndexingQueue(10);
+        queue.add(file("/a"));
+        queue.add(file("/b"));
+        queue.add(file("/c"));
+        // Change #4 is merged with change #1 and moved to the tail of queue, so change #1 is applied only together with #4.
+        queue.update(file("/a"));
+
+        assertEquals(2, queue.poll(2).size());
+        queue.done();
+        assertEquals(0, queue.getIndexedSequence());
+        assertFalse(queue.awaitIndexed(1, 10, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, queue.poll(2).size());
+        queue.done();
+        assertEquals(4, queue.getIndexedSequence());
+        assertTrue(queue.awaitIndexed(4, 10, TimeUnit.MILLISECONDS));
+    }
+
+    public void testBlockWhenQueueIsFull() throws Exception {
+        final IndexingQueue queue = new IndexingQueue(2);
+        queue.add(file("/a"));
+        queue.add(file("/b"));
+        // Change of path that is already in the queue does not need free space.
+        queue.update(file("/a"));
+
+        final CountDownLatch added = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.add(file("/c"));
+                    added.countDown();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        t.start();
+        assertFalse(added.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, queue.poll(1).size());
+        assertTrue(added.await(1, TimeUnit.SECONDS));
+        t.join();
+    }
+
+    public void testAwaitDrained() throws Exception {
+        final IndexingQueue queue = new IndexingQueue(10);
+        queue.add(file("/a"));
+        queue.add(file("/b"));
+        final CountDownLatch drained = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.awaitDrained();
+                    drained.countDown();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        t.start();
+        assertEquals(2, queue.poll(10).size());
+        assertFalse(drained.await(100, TimeUnit.MILLISECONDS));
+        queue.done();
+        assertTrue(drained.await(1, TimeUnit.SECONDS));
+        t.join();
+    }
+
+    public void testClearCompletesPendingChanges() throws Exception {
+        IndexingQueue queue = new IndexingQueue(10);
+        final long sequence = queue.add(file("/a"));
+        queue.add(file("/b"));
+        queue.clear();
+        assertEquals(queue.getSequence(), queue.getIndexedSequence());
+        assertTrue(queue.awaitIndexed(sequence, 1, TimeUnit.MILLISECONDS));
+        queue.awaitDrained();
+    }
+
+    public void testAwaitDrainedReturnsWhenQueueIsClosed() throws Exception {
+        final IndexingQueue queue = new IndexingQueue(10);
+        queue.add(file("/a"));
+        final CountDownLatch drained = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.awaitDrained();
+                    drained.countDown();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        t.start();
+        assertFalse(drained.await(100, TimeUnit.MILLISECONDS));
+        queue.close();
+        assertTrue(drained.await(1, TimeUnit.SECONDS));
+        t.join();
+    }
+
+    public void testTakeRemainingEntriesAfterClose() throws Exception {
+        IndexingQueue queue = new IndexingQueue(10);
+        queue.add(file("/a"));
+        queue.close();
+        assertEquals(1, queue.poll(10).size());
+        queue.done();
+        assertTrue(queue.poll(10).isEmpty());
+        try {
+            queue.add(file("/b"));
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static VirtualFile file(final String path) {
+        return (VirtualFile)Proxy.newProxyInstance(IndexingQueueTest.class.getClassLoader(), new Class[]{VirtualFile.class},
+                                                   new InvocationHandler() {
+                                                       @Override
+                                                       public Object invoke(Object proxy, Method method, Object[] args) {
+                                                           if ("getPath".equals(method.getName())) {
+                                                               return path;
+                                                           }
+                                                           throw new UnsupportedOperationException(method.getName());
+                                                       }
+                                                   });
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.server.util;
+
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author agent
+ */
+public class MultiPatternReplacerTest extends TestCase {
+    public void testReplaceAll() {
+        final Map<String, String> replacements = new HashMap<>();
+        replacements.put("${name}", "che");
+        replacements.put("${version}", "3.0");
+        assertEquals("che-3.0.jar, che", new MultiPatternReplacer(replacements).replace("${name}-${version}.jar, ${name}"));
+    }
+
+    public void testLeftmostLongestMatchWins() {
+        final Map<String, String> replacements = new HashMap<>();
+        replacements.put("a", "1");
+        replacements.put("ab", "2");
+        replacements.put("bcd", "3");
+        assertEquals("2cx", new MultiPatternReplacer(replacements).replace("abcx"));
+        assertEquals("2cd", new MultiPatternReplacer(replacements).replace("abcd"));
+    }
+
+    public void testReplacedTextIsNotScannedAgain() {
+        final Map<String, String> replacements = new HashMap<>();
+        replacements.put("a", "b");
+        replacements.put("b", "c");
+        assertEquals("bc", new MultiPatternReplacer(replacements).replace("ab"));
+    }
+
+    public void testIncompleteMatchAtTheEnd() {
+        final Map<String, String> replacements = new HashMap<>();
+        replacements.put("abcd", "X");
+        replacements.put("bc", "Y");
+        assertEquals("xxaY", new MultiPatternReplacer(replacements).replace("xxabc"));
+        assertEquals("xxab", new MultiPatternReplacer(replacements).replace("xxab"));
+    }
+
+    public void testNothingToReplace() throws Exception {
+        final MultiPatternReplacer replacer = new MultiPatternReplacer(new HashMap<String, String>());
+        assertTrue(replacer.isEmpty());
+        final StringWriter out = new StringWriter();
+        assertEquals(0, replacer.replace(new StringReader("text"), out));
+        assertEquals("text", out.toString());
+    }
+
+    public void testSameResultAsNaiveReplace() throws Exception {
+        final Random random = new Random(7);
+        for (int n = 0; n < 200; n++) {
+            final Map<String, String> replacements = new LinkedHashMap<>();
+            for (int i = 0; i < 4; i++) {
+                replacements.put(randomString(random, 1 + random.nextInt(3)), "<" + i + ">");
+            }
+            final String text = randomString(random, 50);
+            final MultiPatternReplacer replacer = new MultiPatternReplacer(replacements);
+            final String expected = naiveReplace(text, replacements);
+            assertEquals(expected, replacer.replace(text));
+            // Write by single characters, result must not depend on buffering.
+            final StringWriter out = new StringWriter();
+            final MultiPatternReplacer.ReplacingWriter writer = replacer.newWriter(out);
+            for (int i = 0; i < text.length(); i++) {
+                writer.write(text.charAt(i));
+            }
+            writer.finish();
+            assertEquals(expected, out.toString());
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        final StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char)('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private static String naiveReplace(String text, Map<String, String> replacements) {
+        final StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            String longest = null;
+            for (String find : replacements.keySet()) {
+                if (text.startsWith(find, i) && (longest == null || find.length() > longest.length())) {
+                    longest = find;
+                }
+            }
+            if (longest == null) {
+                sb.append(text.charAt(i++));
+            } else {
+                sb.append(replacements.get(longest));
+                i += longest.length();
+            }
+        }
+        return sb.toString();
+    }
+}